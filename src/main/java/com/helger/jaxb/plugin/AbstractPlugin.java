@@ -23,21 +23,38 @@ import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
 
 import com.helger.annotation.style.CodingStyleguideUnaware;
 import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.reflection.GenericReflection;
 import com.helger.collection.CollectionHelper;
 import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.CommonsLinkedHashMap;
 import com.helger.collection.commons.ICommonsOrderedMap;
 import com.helger.collection.helper.CollectionSort;
+import com.helger.jaxb.plugin.jfr.PluginRunEvent;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
 import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JDocComment;
+import com.sun.codemodel.JDocCommentable;
+import com.sun.codemodel.JExpr;
 import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JInvocation;
+import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
 import com.sun.codemodel.JType;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.Options;
 import com.sun.tools.xjc.Plugin;
 import com.sun.tools.xjc.model.CPropertyInfo;
 import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.Outline;
+
+import jakarta.xml.bind.Unmarshaller;
 
 /**
  * Abstract plugin stuff.
@@ -47,8 +64,33 @@ import com.sun.tools.xjc.outline.ClassOutline;
  */
 public abstract class AbstractPlugin extends Plugin
 {
+  /**
+   * Name of the JAXB unmarshal callback method invoked before unmarshalling.
+   *
+   * @since 5.1.3
+   */
+  public static final String METHOD_BEFORE_UNMARSHAL = "beforeUnmarshal";
+  /**
+   * Name of the JAXB unmarshal callback method invoked after unmarshalling.
+   *
+   * @since 5.1.3
+   */
+  public static final String METHOD_AFTER_UNMARSHAL = "afterUnmarshal";
+  /**
+   * The maximum number of fields handled in a single generated <code>equals</code>,
+   * <code>hashCode</code>, <code>toString</code> or <code>cloneTo</code> method. The code for wider
+   * classes is split into private part methods, so that the methods stay inlinable and below the
+   * JIT compilation limit for huge methods.
+   *
+   * @since 5.1.3
+   */
+  public static final int MAX_FIELDS_PER_METHOD = 20;
+
   private final Logger m_aLogger;
   private boolean m_bDebugMode;
+  private boolean m_bLeanMode;
+  // Receives all plugin javadoc in lean mode - never written
+  private JDocComment m_aDiscardedJavadoc;
 
   protected AbstractPlugin ()
   {
@@ -60,6 +102,92 @@ public abstract class AbstractPlugin extends Plugin
     m_bDebugMode = bDebugMode;
   }
 
+  private void _initPlugin (@NonNull final Outline aOutline, @NonNull final Options aOpts)
+  {
+    initPluginLogging (aOpts.debugMode);
+    m_bLeanMode = findActivePlugin (aOpts, PluginLean.class) != null;
+    m_aDiscardedJavadoc = m_bLeanMode ? new JDocComment (aOutline.getCodeModel ()) : null;
+  }
+
+  /**
+   * Initializes logging and lean mode and runs the plugin via
+   * {@link #runPlugin(Outline, Options, ErrorHandler)}. The execution is recorded as a
+   * {@link PluginRunEvent} in Java Flight Recorder, if that event is enabled.<br>
+   * Plugins that override this method instead of {@link #runPlugin(Outline, Options, ErrorHandler)}
+   * continue to work, but their execution is not recorded and the lean mode is not initialized.
+   */
+  @Override
+  public boolean run (@NonNull final Outline aOutline,
+                      @NonNull final Options aOpts,
+                      @NonNull final ErrorHandler aErrorHandler) throws SAXException
+  {
+    final PluginRunEvent aEvent = new PluginRunEvent ();
+    aEvent.begin ();
+    try
+    {
+      _initPlugin (aOutline, aOpts);
+      return runPlugin (aOutline, aOpts, aErrorHandler);
+    }
+    finally
+    {
+      aEvent.commitRun (getOptionName (), aOutline.getClasses ().size ());
+    }
+  }
+
+  /**
+   * Run the plugin. Logging and lean mode are already initialized. Derived classes must either
+   * override this method or {@link #run(Outline, Options, ErrorHandler)}.
+   *
+   * @param aOutline
+   *        The outline to be processed. May not be <code>null</code>.
+   * @param aOpts
+   *        The options in use. May not be <code>null</code>.
+   * @param aErrorHandler
+   *        The error handler to report errors to. May not be <code>null</code>.
+   * @return <code>true</code> if the plugin ran successfully.
+   * @throws SAXException
+   *         If the error handler decides to abort
+   * @since 5.1.3
+   */
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler) throws SAXException
+  {
+    throw new UnsupportedOperationException ("The plugin " +
+                                             getClass ().getName () +
+                                             " must override either run or runPlugin");
+  }
+
+  /**
+   * @return <code>true</code> if the plugin {@link PluginLean} is active and the created code should
+   *         be as small as possible.
+   * @since 5.1.3
+   */
+  protected final boolean isLeanMode ()
+  {
+    return m_bLeanMode;
+  }
+
+  /**
+   * Get the javadoc of an item to add plugin specific documentation. In lean mode a comment is
+   * returned, that is never written, so that the generated sources stay small.
+   *
+   * @param aItem
+   *        The item to be documented. May not be <code>null</code>.
+   * @return The javadoc to add to. Never <code>null</code>.
+   * @since 5.1.3
+   */
+  @NonNull
+  protected final JDocComment getJavadoc (@NonNull final JDocCommentable aItem)
+  {
+    if (m_bLeanMode)
+    {
+      m_aDiscardedJavadoc.clear ();
+      return m_aDiscardedJavadoc;
+    }
+    return aItem.javadoc ();
+  }
+
   protected final void logDebug (@NonNull final Supplier <String> a)
   {
     if (m_bDebugMode)
@@ -114,10 +242,23 @@ public abstract class AbstractPlugin extends Plugin
         continue;
       }
 
+      // Ignore transient fields (e.g. caches created by plugins)
+      if ((aFieldVar.mods ().getValue () & JMod.TRANSIENT) == JMod.TRANSIENT)
+      {
+        logDebug ( () -> "Ignoring transient field '" + sFieldVarName + "'");
+        continue;
+      }
+
       final CPropertyInfo aPI = aClassOutline.target.getProperty (sFieldVarName);
       String sFieldName;
       if (aPI == null)
       {
+        if (PluginPresenceBitset.FIELD_PRESENCE_BITS.equals (sFieldVarName))
+        {
+          // Handled explicitly by the plugins, as it is no property
+          logDebug ( () -> "Ignoring presence field '" + sFieldVarName + "'");
+          continue;
+        }
         if (!"otherAttributes".equals (sFieldVarName))
         {
           throw new IllegalStateException ("'" +
@@ -170,4 +311,213 @@ public abstract class AbstractPlugin extends Plugin
       logInfo (jClass.fullName () + " vs. " + aLocalType.fullName ());
     return true;
   }
+
+  private static boolean _hasPublicUnmarshalCallback (@NonNull final JClass aClass, @NonNull final String sMethodName)
+  {
+    final Class <?> aRealClass = GenericReflection.getClassFromNameSafe (aClass.binaryName ());
+    if (aRealClass == null)
+      return false;
+    try
+    {
+      aRealClass.getMethod (sMethodName, Unmarshaller.class, Object.class);
+      return true;
+    }
+    catch (final NoSuchMethodException ex)
+    {
+      return false;
+    }
+  }
+
+  /**
+   * Get or create a JAXB unmarshal callback method (<code>beforeUnmarshal</code> or
+   * <code>afterUnmarshal</code>) in the provided class. JAXB only invokes the first callback found
+   * in the class hierarchy, so if the super class is created in the same run, the callback is also
+   * created there and invoked via <code>super</code>. Multiple plugins can add statements to the
+   * same method.
+   *
+   * @param jClass
+   *        The class to modify. May not be <code>null</code>.
+   * @param sMethodName
+   *        The method name. Should be {@link #METHOD_BEFORE_UNMARSHAL} or
+   *        {@link #METHOD_AFTER_UNMARSHAL}.
+   * @return The existing or created method. Never <code>null</code>.
+   * @since 5.1.3
+   */
+  @NonNull
+  protected final JMethod getOrCreateUnmarshalCallback (@NonNull final JDefinedClass jClass,
+                                                        @NonNull final String sMethodName)
+  {
+    final JCodeModel aCodeModel = jClass.owner ();
+    final JClass jUnmarshaller = aCodeModel.ref (Unmarshaller.class);
+    final JClass jObject = aCodeModel.ref (Object.class);
+
+    JMethod ret = jClass.getMethod (sMethodName, new JType [] { jUnmarshaller, jObject });
+    if (ret == null)
+    {
+      ret = jClass.method (JMod.PUBLIC, aCodeModel.VOID, sMethodName);
+      final JVar aUnmarshaller = ret.param (JMod.FINAL, jUnmarshaller, "aUnmarshaller");
+      final JVar aParent = ret.param (JMod.FINAL, jObject, "aParent");
+      getJavadoc (ret).add ("JAXB unmarshal callback, invoked reflectively.");
+      getJavadoc (ret).addParam (aUnmarshaller).add ("The unmarshaller in use");
+      getJavadoc (ret).addParam (aParent).add ("The parent object. May be <code>null</code>.");
+      getJavadoc (ret).add ("Created by " + CJAXB.PLUGIN_NAME);
+
+      // Ensure the callbacks of the super classes are invoked as well
+      final JClass jSuper = jClass._extends ();
+      if (jSuper instanceof final JDefinedClass jdSuper)
+      {
+        getOrCreateUnmarshalCallback (jdSuper, sMethodName);
+        ret.body ().add (JExpr._super ().invoke (sMethodName).arg (aUnmarshaller).arg (aParent));
+      }
+      else
+        if (jSuper != null && !jSuper.equals (jObject) && _hasPublicUnmarshalCallback (jSuper, sMethodName))
+          ret.body ().add (JExpr._super ().invoke (sMethodName).arg (aUnmarshaller).arg (aParent));
+    }
+    return ret;
+  }
+
+  /**
+   * Get the method that creates a list field on first access. This is usually the getter, unless
+   * the list creation was moved by {@link PluginLazyList}.
+   *
+   * @param jClass
+   *        The class containing the list field. May not be <code>null</code>.
+   * @param aFieldType
+   *        The type of the list field. May not be <code>null</code>.
+   * @param sPropertyName
+   *        The public property name (e.g. "Line"). May neither be <code>null</code> nor empty.
+   * @return <code>null</code> if no such method exists.
+   * @since 5.1.3
+   */
+  @Nullable
+  protected static JMethod getListCreatingMethod (@NonNull final JDefinedClass jClass,
+                                                  @NonNull final JType aFieldType,
+                                                  @NonNull final String sPropertyName)
+  {
+    final JMethod ret = jClass.getMethod (PluginLazyList.getCreatorMethodName (sPropertyName), new JType [0]);
+    if (ret != null)
+      return ret;
+    return jClass.getMethod (CJAXB.getGetterName (aFieldType, sPropertyName), new JType [0]);
+  }
+
+  /**
+   * Get or create a private part method of a generated method. Wide classes (see
+   * {@link #MAX_FIELDS_PER_METHOD}) get their per-field code split into part methods named
+   * <code>method + "Part" + n</code>. The part method has parameters with the same types and names
+   * as the provided variables, so that expressions referencing these variables can be used
+   * unchanged in the part method.
+   *
+   * @param jClass
+   *        The class containing the method. May not be <code>null</code>.
+   * @param aMethod
+   *        The method to be split. May not be <code>null</code>.
+   * @param aReturnType
+   *        The return type of the part method. May not be <code>null</code>.
+   * @param aParams
+   *        The variables to be passed to the part method. May not be <code>null</code>.
+   * @param nPartIndex
+   *        The 0-based index of the part.
+   * @return The existing or created part method. Never <code>null</code>.
+   * @since 5.1.3
+   */
+  @NonNull
+  protected final JMethod getOrCreatePartMethod (@NonNull final JDefinedClass jClass,
+                                                 @NonNull final JMethod aMethod,
+                                                 @NonNull final JType aReturnType,
+                                                 @NonNull final JVar [] aParams,
+                                                 final int nPartIndex)
+  {
+    final String sPartName = aMethod.name () + "Part" + (nPartIndex + 1);
+    final JType [] aParamTypes = new JType [aParams.length];
+    for (int i = 0; i < aParams.length; ++i)
+      aParamTypes[i] = aParams[i].type ();
+
+    JMethod ret = jClass.getMethod (sPartName, aParamTypes);
+    if (ret == null)
+    {
+      ret = jClass.method (JMod.PRIVATE, aReturnType, sPartName);
+      for (final JVar aParam : aParams)
+        ret.param (JMod.FINAL, aParam.type (), aParam.name ());
+      getJavadoc (ret).add ("Part " +
+                            (nPartIndex + 1) +
+                            " of <code>" +
+                            aMethod.name () +
+                            "</code>, to keep the method size below the JIT limits.\n" +
+                            "Created by " +
+                            CJAXB.PLUGIN_NAME +
+                            " -" +
+                            getOptionName ());
+    }
+    return ret;
+  }
+
+  /**
+   * Get the block to add the code of a single field of a <code>void</code> method to. If the class
+   * has at most {@link #MAX_FIELDS_PER_METHOD} fields, this is the provided body. Otherwise it is
+   * the body of the part method of the field, and the invocation of a new part method is added to
+   * the provided body. The fields must be processed in ascending order.
+   *
+   * @param jClass
+   *        The class containing the method. May not be <code>null</code>.
+   * @param aMethod
+   *        The method to be split. May not be <code>null</code>.
+   * @param aBody
+   *        The block of the method that invokes the part methods. May not be <code>null</code>.
+   * @param aParams
+   *        The variables to be passed to the part methods. May not be <code>null</code>.
+   * @param nFieldIndex
+   *        The 0-based index of the current field.
+   * @param nFieldCount
+   *        The total number of fields.
+   * @return The block to add the field code to. Never <code>null</code>.
+   * @since 5.1.3
+   */
+  @NonNull
+  protected final JBlock getFieldBlock (@NonNull final JDefinedClass jClass,
+                                        @NonNull final JMethod aMethod,
+                                        @NonNull final JBlock aBody,
+                                        @NonNull final JVar [] aParams,
+                                        final int nFieldIndex,
+                                        final int nFieldCount)
+  {
+    if (nFieldCount <= MAX_FIELDS_PER_METHOD)
+      return aBody;
+
+    final JMethod aPart = getOrCreatePartMethod (jClass,
+                                                 aMethod,
+                                                 jClass.owner ().VOID,
+                                                 aParams,
+                                                 nFieldIndex / MAX_FIELDS_PER_METHOD);
+    if (nFieldIndex % MAX_FIELDS_PER_METHOD == 0)
+    {
+      // First field of the part
+      final JInvocation aInvocation = aBody.invoke (aPart);
+      for (final JVar aParam : aParams)
+        aInvocation.arg (aParam);
+    }
+    return aPart.body ();
+  }
+
+  /**
+   * Find an active plugin of the provided class. This can be used to align the created code with
+   * other plugins, independent of the plugin execution order.
+   *
+   * @param <T>
+   *        Plugin type
+   * @param aOpts
+   *        The XJC options. May not be <code>null</code>.
+   * @param aPluginClass
+   *        The plugin class to search. May not be <code>null</code>.
+   * @return <code>null</code> if no such plugin is active.
+   * @since 5.1.3
+   */
+  @Nullable
+  protected static <T extends Plugin> T findActivePlugin (@NonNull final Options aOpts,
+                                                          @NonNull final Class <T> aPluginClass)
+  {
+    for (final Plugin aPlugin : aOpts.activePlugins)
+      if (aPluginClass.isInstance (aPlugin))
+        return aPluginClass.cast (aPlugin);
+    return null;
+  }
 }
@@ -28,6 +28,7 @@ import org.xml.sax.ErrorHandler;
 
 import com.helger.base.numeric.BigHelper;
 import com.helger.base.string.StringParser;
+import com.helger.jaxb.plugin.jfr.PluginPhaseEvent;
 import com.sun.codemodel.JAnnotationUse;
 import com.sun.codemodel.JCodeModel;
 import com.sun.codemodel.JDefinedClass;
@@ -89,11 +90,13 @@ public abstract class AbstractPluginBeanValidation extends AbstractPlugin
   }
 
   @Override
-  public boolean run (final Outline aModel, final Options aOpts, final ErrorHandler errorHandler)
+  protected boolean runPlugin (final Outline aModel, final Options aOpts, final ErrorHandler errorHandler)
   {
-    initPluginLogging (aOpts.debugMode);
     logInfo ("Running JAXB plugin -" + getOptionName ());
 
+    final PluginPhaseEvent aEvent = new PluginPhaseEvent ();
+    aEvent.begin ();
+    int nProperties = 0;
     try
     {
       for (final ClassOutline aClassOutline : aModel.getClasses ())
@@ -101,6 +104,7 @@ public abstract class AbstractPluginBeanValidation extends AbstractPlugin
         final List <CPropertyInfo> aPropertyInfos = aClassOutline.target.getProperties ();
         for (final CPropertyInfo aPropertyInfo : aPropertyInfos)
         {
+          ++nProperties;
           if (aPropertyInfo instanceof CElementPropertyInfo)
             _processElementProperty ((CElementPropertyInfo) aPropertyInfo, aClassOutline);
           else
@@ -126,6 +130,10 @@ public abstract class AbstractPluginBeanValidation extends AbstractPlugin
       logError ("Internal error creating bean validation", ex);
       return false;
     }
+    finally
+    {
+      aEvent.commitPhase (getOptionName (), PluginPhaseEvent.PHASE_FACETS, null, nProperties);
+    }
   }
 
   /*
@@ -16,21 +16,43 @@
  */
 package com.helger.jaxb.plugin;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
+import com.helger.annotation.style.ReturnsMutableCopy;
 import com.helger.base.array.ArrayHelper;
 import com.helger.base.clone.CloneHelper;
+import com.helger.base.reflection.GenericReflection;
+import com.helger.base.string.StringHelper;
 import com.helger.collection.commons.CommonsHashMap;
 import com.helger.collection.commons.ICommonsMap;
 import com.helger.jaxb.adapter.JAXBHelper;
+import com.helger.jaxb.plugin.jfr.PluginPhaseEvent;
 import com.sun.codemodel.ClassType;
+import com.sun.codemodel.JBlock;
 import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
 import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JConditional;
 import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JExpr;
 import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
 import com.sun.codemodel.JOp;
 import com.sun.codemodel.JType;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.BadCommandLineException;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.outline.ClassOutline;
 
 /**
  * Abstract cloneable support.
@@ -40,10 +62,274 @@ import com.sun.codemodel.JType;
  */
 public abstract class AbstractPluginCloneable extends AbstractPlugin
 {
+  /**
+   * Suffix to the plugin option name to define the fully qualified class name of the clone
+   * specification class, e.g. <code>-Xph-cloneable-spec com.example.CloneSpec</code>
+   *
+   * @since 5.1.3
+   */
+  public static final String OPT_SUFFIX_SPEC = "-spec";
+
+  /**
+   * Suffix to the plugin option name to share <code>byte[]</code> properties between the original
+   * and the clone instead of copying them, e.g. <code>-Xph-cloneable-share-binary</code>.<br>
+   * The sharing is copy-on-write: both objects are marked in a transient field, and the getter of
+   * a marked object copies the array on its first invocation. The setter removes the mark. JAXB,
+   * <code>equals</code> and <code>hashCode</code> read the field directly and don't copy. Arrays
+   * that were obtained from the original before cloning are not protected. Lists of
+   * <code>byte[]</code> are still copied.
+   *
+   * @since 5.1.3
+   */
+  public static final String OPT_SUFFIX_SHARE_BINARY = "-share-binary";
+
   private static final ICommonsMap <String, Boolean> ENUM_CACHE = new CommonsHashMap <> ();
 
+  private String m_sCloneSpecClassName;
+  private boolean m_bShareBinary = false;
+  private PluginPrimitiveList m_aPrimitiveListPlugin;
+  private boolean m_bLazyOtherAttributes = false;
+  private PluginPresenceBitset m_aPresenceBitsetPlugin;
+  private PluginSharedHelper m_aSharedHelperPlugin;
+  private PluginJFREvents m_aJFREventsPlugin;
+
+  @Override
+  public int parseArgument (final Options opt, final String [] args, final int i) throws BadCommandLineException
+  {
+    final String sSpecOption = "-" + getOptionName () + OPT_SUFFIX_SPEC;
+    if (args[i].equals (sSpecOption))
+    {
+      final String sClassName = opt.requireArgument (sSpecOption, args, i + 1);
+      if (StringHelper.isEmpty (sClassName) || sClassName.indexOf ('.') < 0)
+        throw new BadCommandLineException ("A fully qualified class name for the clone specification must be provided. Use e.g. 'com.example.CloneSpec'");
+      m_sCloneSpecClassName = sClassName;
+      return 2;
+    }
+    if (args[i].equals ("-" + getOptionName () + OPT_SUFFIX_SHARE_BINARY))
+    {
+      m_bShareBinary = true;
+      return 1;
+    }
+    return 0;
+  }
+
+  /**
+   * Initialize the plugin for the current run. Must be called at the beginning of
+   * {@link #runPlugin(com.sun.tools.xjc.outline.Outline, Options, org.xml.sax.ErrorHandler)}.
+   *
+   * @param aOpts
+   *        The XJC options. May not be <code>null</code>.
+   */
+  protected final void initCloneablePlugin (@NonNull final Options aOpts)
+  {
+    m_aPrimitiveListPlugin = findActivePlugin (aOpts, PluginPrimitiveList.class);
+    m_bLazyOtherAttributes = findActivePlugin (aOpts, PluginLazyOtherAttributes.class) != null;
+    m_aPresenceBitsetPlugin = findActivePlugin (aOpts, PluginPresenceBitset.class);
+    m_aSharedHelperPlugin = findActivePlugin (aOpts, PluginSharedHelper.class);
+    m_aJFREventsPlugin = findActivePlugin (aOpts, PluginJFREvents.class);
+  }
+
+  /**
+   * Add the aliasing note to the javadoc of a created clone method, if <code>byte[]</code> values
+   * are shared.
+   *
+   * @param aMethod
+   *        The created clone method. May not be <code>null</code>.
+   */
+  protected final void addShareBinaryJavadoc (@NonNull final JMethod aMethod)
+  {
+    if (m_bShareBinary)
+      getJavadoc (aMethod).add ("<br>\nNote: <code>byte[]</code> properties are shared between <code>this</code> and the clone" +
+                                " until the getter of either object is invoked, which then copies the array.<br>\n");
+  }
+
+  /**
+   * Get or create the transient flag, that marks a <code>byte[]</code> field as shared with a
+   * clone. When the flag is created, the getter is modified to copy the array if it is marked, and
+   * the setter is modified to remove the mark.
+   *
+   * @param jClass
+   *        The class containing the field. May not be <code>null</code>.
+   * @param aField
+   *        The field to be cloned. May not be <code>null</code>.
+   * @param sPropertyName
+   *        The public property name (e.g. "Value"). May neither be <code>null</code> nor empty.
+   * @return <code>null</code> if the field is not shared and must be copied.
+   */
+  @Nullable
+  protected final JFieldVar getOrCreateSharedBinaryFlag (@NonNull final JDefinedClass jClass,
+                                                         @NonNull final JFieldVar aField,
+                                                         @NonNull final String sPropertyName)
+  {
+    if (!m_bShareBinary || !_isBinary (aField.type ()))
+      return null;
+
+    final JCodeModel aCodeModel = jClass.owner ();
+    final String sFlagName = aField.name () + "Shared";
+    final JFieldVar aExisting = jClass.fields ().get (sFlagName);
+    if (aExisting != null)
+    {
+      // Created by the other cloneable plugin?
+      if ((aExisting.mods ().getValue () & JMod.TRANSIENT) == JMod.TRANSIENT &&
+          aExisting.type ().equals (aCodeModel.BOOLEAN))
+        return aExisting;
+      logWarn ("Cannot share " + jClass.fullName () + "." + sPropertyName + " because the field name is already used");
+      return null;
+    }
+
+    final JMethod aGetter = jClass.getMethod (CJAXB.getGetterName (aField.type (), sPropertyName), new JType [0]);
+    if (aGetter == null)
+    {
+      logWarn ("Cannot share " + jClass.fullName () + "." + sPropertyName + " because it has no getter");
+      return null;
+    }
+
+    // Transient fields are ignored by JAXB and by the other plugins
+    final JFieldVar ret = jClass.field (JMod.PRIVATE | JMod.TRANSIENT, aCodeModel.BOOLEAN, sFlagName);
+
+    // Copy on the first read access
+    // if (xShared) { x = ArrayHelper.getCopy (x); xShared = false; }
+    final JBlock aGetterBody = aGetter.body ();
+    final int nOldPos = aGetterBody.pos (0);
+    final JBlock aThen = aGetterBody._if (ret)._then ();
+    aThen.assign (aField, aCodeModel.ref (ArrayHelper.class).staticInvoke ("getCopy").arg (aField));
+    aThen.assign (ret, JExpr.FALSE);
+    aGetterBody.pos (nOldPos + 1);
+
+    final JMethod aSetter = jClass.getMethod (CJAXB.getSetterName (sPropertyName), new JType [] { aField.type () });
+    if (aSetter != null)
+      aSetter.body ().assign (ret, JExpr.FALSE);
+    return ret;
+  }
+
+  /**
+   * Add the code to share a <code>byte[]</code> field between <code>this</code> and the clone.
+   *
+   * @param aBlock
+   *        The block to add the code to. May not be <code>null</code>.
+   * @param aField
+   *        The field to be shared. May not be <code>null</code>.
+   * @param fShared
+   *        The flag created by {@link #getOrCreateSharedBinaryFlag(JDefinedClass, JFieldVar, String)}.
+   *        May not be <code>null</code>.
+   * @param jRet
+   *        The target object. May not be <code>null</code>.
+   */
+  protected static void _addSharedBinaryCode (@NonNull final JBlock aBlock,
+                                              @NonNull final JFieldVar aField,
+                                              @NonNull final JFieldVar fShared,
+                                              @NonNull final JVar jRet)
+  {
+    // ret.x = x;
+    aBlock.assign (jRet.ref (aField), aField);
+    // ret.xShared = x != null;
+    aBlock.assign (jRet.ref (fShared), aField.ne (JExpr._null ()));
+    // Both objects must copy before handing out the array
+    // if (x != null) xShared = true;
+    aBlock._if (aField.ne (JExpr._null ()))._then ().assign (fShared, JExpr.TRUE);
+  }
+
+  /**
+   * @return The active {@link PluginJFREvents} of the current run or <code>null</code> if the
+   *         clone invocations should not be recorded.
+   */
+  @Nullable
+  protected final PluginJFREvents getJFREventsPlugin ()
+  {
+    return m_aJFREventsPlugin;
+  }
+
+  /**
+   * Add the code to copy the presence bits of the optional attributes, if the class has them.
+   *
+   * @param aBlock
+   *        The block to add the code to. May not be <code>null</code>.
+   * @param aClassOutline
+   *        The class to be cloned. May not be <code>null</code>.
+   * @param jRet
+   *        The target object. May not be <code>null</code>.
+   */
+  protected void _addPresenceCopyCode (@NonNull final JBlock aBlock,
+                                       @NonNull final ClassOutline aClassOutline,
+                                       @NonNull final JVar jRet)
+  {
+    if (m_aPresenceBitsetPlugin != null)
+    {
+      final String sFieldName = m_aPresenceBitsetPlugin.getPresenceFieldName (aClassOutline);
+      if (sFieldName != null)
+        aBlock.assign (jRet.ref (sFieldName), JExpr.ref (sFieldName));
+    }
+  }
+
+  /**
+   * Get the condition, under which a map field is not copied.
+   *
+   * @param aField
+   *        The map field. May not be <code>null</code>.
+   * @return The condition expression. Never <code>null</code>.
+   */
+  @NonNull
+  protected JExpression _getMapIsAbsentCode (@NonNull final JFieldVar aField)
+  {
+    // Lazy maps are only created when needed
+    if (m_bLazyOtherAttributes && PluginLazyOtherAttributes.isOtherAttributesField (aField))
+      return PluginLazyOtherAttributes.getIsEmptyCode (aField);
+    return aField.eq (JExpr._null ());
+  }
+
+  /**
+   * Get the code to copy a list field, that uses a special list implementation created by another
+   * plugin, or that contains only immutable values and can be copied by the shared helper class.
+   *
+   * @param jClass
+   *        The class containing the field. May not be <code>null</code>.
+   * @param aField
+   *        The field to be copied. May not be <code>null</code>.
+   * @return <code>null</code> if the regular list copy code should be used.
+   */
+  @Nullable
+  protected JExpression _getSpecialListCopyCode (@NonNull final JDefinedClass jClass, @NonNull final JFieldVar aField)
+  {
+    if (m_aPrimitiveListPlugin != null)
+    {
+      final JExpression ret = m_aPrimitiveListPlugin.getListCopyCode (jClass, aField, aField);
+      if (ret != null)
+        return ret;
+    }
+    if (m_aSharedHelperPlugin != null && aField.type ().erasure ().name ().equals ("List"))
+    {
+      final JClass aTypeParam = ((JClass) aField.type ()).getTypeParameters ().get (0);
+      if (_isImmutable (aTypeParam))
+        return m_aSharedHelperPlugin.invokeCopyList (jClass, aField);
+    }
+    return null;
+  }
+
+  /**
+   * Get the code to clone a list field with the shared helper class.
+   *
+   * @param jClass
+   *        The class containing the field. May not be <code>null</code>.
+   * @param aField
+   *        The list field to be cloned. May not be <code>null</code>.
+   * @param aTypeParam
+   *        The list element type. May not be <code>null</code>.
+   * @return <code>null</code> if the regular list clone code should be used.
+   */
+  @Nullable
+  protected JExpression _getSharedListCloneCode (@NonNull final JDefinedClass jClass,
+                                                 @NonNull final JFieldVar aField,
+                                                 @NonNull final JClass aTypeParam)
+  {
+    if (m_aSharedHelperPlugin != null && aTypeParam.erasure ().name ().equals ("JAXBElement"))
+      return m_aSharedHelperPlugin.invokeCloneListJAXBElements (jClass, aField);
+    return null;
+  }
+
   private boolean _loadClassAndCheckIfEnum (final String sName)
   {
+    final PluginPhaseEvent aEvent = new PluginPhaseEvent ();
+    aEvent.begin ();
     try
     {
       logDebug ( () -> "Trying to load class '" + sName + "'");
@@ -61,6 +347,10 @@ public abstract class AbstractPluginCloneable extends AbstractPlugin
       // Just ignore whatever can go wrong in loading
       logDebug ( () -> "Class '" + sName + "' was not loaded and is therefore NOT an enum");
     }
+    finally
+    {
+      aEvent.commitPhase (getOptionName (), PluginPhaseEvent.PHASE_CLASS_LOAD, sName, 1);
+    }
     return false;
   }
 
@@ -138,6 +428,11 @@ public abstract class AbstractPluginCloneable extends AbstractPlugin
     return aType.isArray () && _isImmutable (aType.elementType ());
   }
 
+  protected static boolean _isBinary (@NonNull final JType aType)
+  {
+    return aType.isArray () && aType.elementType ().equals (aType.owner ().BYTE);
+  }
+
   @NonNull
   protected JExpression _getCloneCode (final JCodeModel aCodeModel, final JExpression aGetter, final JType aTypeParam)
   {
@@ -179,4 +474,415 @@ public abstract class AbstractPluginCloneable extends AbstractPlugin
     // aItem == null ? null : aItem.clone ();
     return JOp.cond (aGetter.eq (JExpr._null ()), JExpr._null (), aGetter.invoke ("clone"));
   }
+
+  /**
+   * Get or create the clone specification class, that is used as parameter for the partial clone
+   * methods. If the class is already present on the classpath (e.g. from an episode) it is
+   * referenced and not created.
+   *
+   * @param aCodeModel
+   *        The code model to use. May not be <code>null</code>.
+   * @return <code>null</code> if no clone specification class name was provided.
+   */
+  @Nullable
+  protected JClass _getOrCreateCloneSpecClass (@NonNull final JCodeModel aCodeModel)
+  {
+    final String sClassName = m_sCloneSpecClassName;
+    if (sClassName == null)
+      return null;
+
+    // Created by the other cloneable plugin?
+    final JDefinedClass aExisting = aCodeModel._getClass (sClassName);
+    if (aExisting != null)
+      return aExisting;
+
+    // Created in a previous run?
+    if (GenericReflection.getClassFromNameSafe (sClassName) != null)
+    {
+      logInfo ("  Using existing clone specification class '" + sClassName + "'");
+      return aCodeModel.ref (sClassName);
+    }
+
+    logInfo ("  Creating clone specification class '" + sClassName + "'");
+
+    final JDefinedClass jSpec;
+    try
+    {
+      jSpec = aCodeModel._class (JMod.PUBLIC | JMod.FINAL, sClassName, ClassType.CLASS);
+    }
+    catch (final JClassAlreadyExistsException ex)
+    {
+      throw new IllegalStateException ("Failed to create clone specification class '" + sClassName + "'", ex);
+    }
+    getJavadoc (jSpec).add ("Specification for the partial clone methods <code>clone(" +
+                            jSpec.name () +
+                            ")</code> and <code>cloneTo(target, " +
+                            jSpec.name () +
+                            ")</code>. Properties are identified by their public name (e.g. <code>InvoiceLine</code>).<br>\n" +
+                            "Excluded properties are not copied, shared properties are referenced instead of being cloned, and nested objects deeper than the maximum depth are not copied.\n");
+    getJavadoc (jSpec).add ("<p>This class was created by " + CJAXB.PLUGIN_NAME + " -" + getOptionName () + "</p>\n");
+
+    final JClass jSetOfString = aCodeModel.ref (Set.class).narrow (String.class);
+    final JClass jHashSetOfString = aCodeModel.ref (HashSet.class).narrow (String.class);
+
+    final JFieldVar fUnlimited = jSpec.field (JMod.PUBLIC | JMod.STATIC | JMod.FINAL,
+                                              aCodeModel.INT,
+                                              "UNLIMITED_DEPTH",
+                                              JExpr.lit (-1));
+    getJavadoc (fUnlimited).add ("Constant for an unlimited clone depth");
+    final JFieldVar fExcluded = jSpec.field (JMod.PRIVATE | JMod.FINAL,
+                                             jSetOfString,
+                                             "excludedProperties",
+                                             JExpr._new (jHashSetOfString));
+    final JFieldVar fShared = jSpec.field (JMod.PRIVATE | JMod.FINAL,
+                                           jSetOfString,
+                                           "sharedProperties",
+                                           JExpr._new (jHashSetOfString));
+    final JFieldVar fMaxDepth = jSpec.field (JMod.PRIVATE, aCodeModel.INT, "maxDepth", fUnlimited);
+
+    // Fluent modifiers
+    {
+      final JMethod m = jSpec.method (JMod.PUBLIC, jSpec, "exclude");
+      m.annotate (NonNull.class);
+      final JVar aParam = m.param (JMod.FINAL, String.class, "propertyName");
+      aParam.annotate (NonNull.class);
+      m.body ().add (fExcluded.invoke ("add").arg (aParam));
+      m.body ()._return (JExpr._this ());
+      getJavadoc (m).add ("Exclude the provided property from cloning. The target property is set to <code>null</code>.");
+      getJavadoc (m).addParam (aParam).add ("The public name of the property to exclude. May not be <code>null</code>.");
+      getJavadoc (m).addReturn ().add ("this for chaining");
+    }
+    {
+      final JMethod m = jSpec.method (JMod.PUBLIC, jSpec, "share");
+      m.annotate (NonNull.class);
+      final JVar aParam = m.param (JMod.FINAL, String.class, "propertyName");
+      aParam.annotate (NonNull.class);
+      m.body ().add (fShared.invoke ("add").arg (aParam));
+      m.body ()._return (JExpr._this ());
+      getJavadoc (m).add ("Share the value of the provided property between the original and the clone, instead of copying it.");
+      getJavadoc (m).addParam (aParam).add ("The public name of the property to share. May not be <code>null</code>.");
+      getJavadoc (m).addReturn ().add ("this for chaining");
+    }
+    {
+      final JMethod m = jSpec.method (JMod.PUBLIC, jSpec, "maxDepth");
+      m.annotate (NonNull.class);
+      final JVar aParam = m.param (JMod.FINAL, aCodeModel.INT, "depth");
+      m.body ().assign (JExpr._this ().ref (fMaxDepth), aParam);
+      m.body ()._return (JExpr._this ());
+      getJavadoc (m).add ("Set the maximum depth of nested objects to be copied. The object the clone was started on has depth 0.");
+      getJavadoc (m).addParam (aParam)
+                    .add ("The maximum depth. Use " + fUnlimited.name () + " or any value &lt; 0 for no limit.");
+      getJavadoc (m).addReturn ().add ("this for chaining");
+    }
+
+    // Queries
+    {
+      final JMethod m = jSpec.method (JMod.PUBLIC, aCodeModel.BOOLEAN, "isExcluded");
+      final JVar aParam = m.param (JMod.FINAL, String.class, "propertyName");
+      m.body ()._return (fExcluded.invoke ("contains").arg (aParam));
+      getJavadoc (m).addParam (aParam).add ("The public property name to check.");
+      getJavadoc (m).addReturn ().add ("<code>true</code> if the property is excluded from cloning.");
+    }
+    {
+      final JMethod m = jSpec.method (JMod.PUBLIC, aCodeModel.BOOLEAN, "isShared");
+      final JVar aParam = m.param (JMod.FINAL, String.class, "propertyName");
+      m.body ()._return (fShared.invoke ("contains").arg (aParam));
+      getJavadoc (m).addParam (aParam).add ("The public property name to check.");
+      getJavadoc (m).addReturn ().add ("<code>true</code> if the property value is shared and not copied.");
+    }
+    {
+      final JMethod m = jSpec.method (JMod.PUBLIC, aCodeModel.INT, "getMaxDepth");
+      m.body ()._return (fMaxDepth);
+      getJavadoc (m).addReturn ().add ("The maximum depth of nested objects to be copied. &lt; 0 means unlimited.");
+    }
+    {
+      final JMethod m = jSpec.method (JMod.PUBLIC, aCodeModel.BOOLEAN, "canDescend");
+      final JVar aParam = m.param (JMod.FINAL, aCodeModel.INT, "depth");
+      m.body ()._return (fMaxDepth.lt (JExpr.lit (0)).cor (aParam.lte (fMaxDepth)));
+      getJavadoc (m).addParam (aParam).add ("The depth of the nested object to be copied.");
+      getJavadoc (m).addReturn ().add ("<code>true</code> if a nested object at the provided depth should be copied.");
+    }
+    return jSpec;
+  }
+
+  /**
+   * Check if the provided type is a class created in this run, that therefore has the partial clone
+   * methods.
+   *
+   * @param aType
+   *        The type to check. May not be <code>null</code>.
+   * @return <code>true</code> if it is a generated class (and not an enum)
+   */
+  protected static boolean _isGeneratedCloneSpecType (@NonNull final JType aType)
+  {
+    return aType instanceof final JDefinedClass aClass && aClass.getClassType () == ClassType.CLASS;
+  }
+
+  @NonNull
+  protected JExpression _getCloneCode (@NonNull final JCodeModel aCodeModel,
+                                       @NonNull final JExpression aGetter,
+                                       @NonNull final JType aTypeParam,
+                                       @NonNull final JVar aSpec,
+                                       @NonNull final JVar aDepth)
+  {
+    if (_isGeneratedCloneSpecType (aTypeParam))
+    {
+      // Nested generated value
+      // aItem == null || !spec.canDescend (depth + 1) ? null : aItem.clone (spec, depth + 1)
+      final JExpression aChildDepth = aDepth.plus (JExpr.lit (1));
+      return JOp.cond (aGetter.eq (JExpr._null ()).cor (JOp.not (aSpec.invoke ("canDescend").arg (aChildDepth))),
+                       JExpr._null (),
+                       aGetter.invoke ("clone").arg (aSpec).arg (aChildDepth));
+    }
+
+    // Everything else is cloned completely
+    return _getCloneCode (aCodeModel, aGetter, aTypeParam);
+  }
+
+  /**
+   * Add the partial clone methods <code>cloneTo(target, spec)</code>,
+   * <code>cloneTo(target, spec, depth)</code>, <code>clone(spec)</code> and
+   * <code>clone(spec, depth)</code> to the provided class.
+   *
+   * @param aCodeModel
+   *        Code model to use. May not be <code>null</code>.
+   * @param aClassOutline
+   *        The class to add the methods to. May not be <code>null</code>.
+   * @param aAllFields
+   *        All instance fields of the class with their public names. May not be
+   *        <code>null</code>.
+   * @param jCloneSpec
+   *        The clone specification class. May not be <code>null</code>.
+   */
+  protected void _addCloneSpecMethods (@NonNull final JCodeModel aCodeModel,
+                                       @NonNull final ClassOutline aClassOutline,
+                                       @NonNull final ICommonsMap <JFieldVar, String> aAllFields,
+                                       @NonNull final JClass jCloneSpec)
+  {
+    final JDefinedClass jClass = aClassOutline.implClass;
+    final String sCreatedBy = "Created by " + CJAXB.PLUGIN_NAME + " -" + getOptionName ();
+    final JClass jArrayList = aCodeModel.ref (ArrayList.class);
+    final JClass jHashMap = aCodeModel.ref (HashMap.class);
+    final JClass jSuper = jClass._extends ();
+    final boolean bIsRoot = jSuper == null || jSuper.equals (aCodeModel.ref (Object.class));
+
+    // cloneTo (ret, spec, depth)
+    final JMethod mCloneToDepth = jClass.method (JMod.PUBLIC, aCodeModel.VOID, "cloneTo");
+    {
+      getJavadoc (mCloneToDepth).add ("This method clones the values selected by the provided specification from <code>this</code> to the passed object. All data in the parameter object is overwritten!");
+      final JVar jRet = mCloneToDepth.param (JMod.FINAL, jClass, "ret");
+      if (allowsJSpecifyAnnotations (jClass, jClass))
+        jRet.annotate (NonNull.class);
+      final JVar jSpec = mCloneToDepth.param (JMod.FINAL, jCloneSpec, "spec");
+      jSpec.annotate (NonNull.class);
+      final JVar jDepth = mCloneToDepth.param (JMod.FINAL, aCodeModel.INT, "depth");
+      getJavadoc (mCloneToDepth).addParam (jRet).add ("The target object to clone to. May not be <code>null</code>.");
+      getJavadoc (mCloneToDepth).addParam (jSpec).add ("The clone specification to use. May not be <code>null</code>.");
+      getJavadoc (mCloneToDepth).addParam (jDepth).add ("The depth of <code>this</code> object. 0 for the start object.");
+
+      final JBlock aBody = mCloneToDepth.body ();
+      if (!bIsRoot)
+      {
+        if (jSuper instanceof JDefinedClass)
+          aBody.add (JExpr._super ().invoke (mCloneToDepth).arg (jRet).arg (jSpec).arg (jDepth));
+        else
+        {
+          // Super class is not created in this run and only offers the regular cloneTo
+          aBody.add (JExpr._super ().invoke ("cloneTo").arg (jRet));
+          getJavadoc (mCloneToDepth).add ("<br>\nNote: the properties of the super class " +
+                                          jSuper.name () +
+                                          " are always cloned completely, because the specification is unknown to it.<br>\n");
+          logWarn ("  The partial clone methods of " +
+                   jClass.fullName () +
+                   " clone all properties of the super class " +
+                   jSuper.fullName () +
+                   ", because it was not created in this run");
+        }
+      }
+
+      _addPresenceCopyCode (aBody, aClassOutline, jRet);
+
+      final JVar [] aPartParams = { jRet, jSpec, jDepth };
+      int nFieldIndex = 0;
+      for (final Map.Entry <JFieldVar, String> aEntry : aAllFields.entrySet ())
+      {
+        final JFieldVar aField = aEntry.getKey ();
+        // Wide classes are split into part methods
+        final JBlock aBlock = getFieldBlock (jClass,
+                                             mCloneToDepth,
+                                             aBody,
+                                             aPartParams,
+                                             nFieldIndex++,
+                                             aAllFields.size ());
+        final JExpression aPropertyName = JExpr.lit (aEntry.getValue ());
+        final JExpression aListCopy = _getSpecialListCopyCode (jClass, aField);
+
+        if (m_aPresenceBitsetPlugin != null && m_aPresenceBitsetPlugin.isPresenceField (aClassOutline, aField))
+        {
+          // The field alone cannot express absence - use the accessors
+          // ret.setX (spec.isExcluded ("X") ? null : getX ());
+          aBlock.add (jRet.invoke (CJAXB.getSetterName (aEntry.getValue ()))
+                          .arg (JOp.cond (jSpec.invoke ("isExcluded").arg (aPropertyName),
+                                          JExpr._null (),
+                                          JExpr.invoke (CJAXB.getGetterName (aField.type (), aEntry.getValue ())))));
+        }
+        else
+        if (aField.type ().isPrimitive ())
+        {
+          // Cannot be excluded, shared or cloned
+          aBlock.assign (jRet.ref (aField), aField);
+        }
+        else
+          if (aListCopy != null)
+          {
+            // List with a special implementation - values are immutable
+            // ret.x = x == null || spec.isExcluded ("X") ? null : new XList (x);
+            aBlock.assign (jRet.ref (aField),
+                           JOp.cond (aField.eq (JExpr._null ()).cor (jSpec.invoke ("isExcluded").arg (aPropertyName)),
+                                     JExpr._null (),
+                                     aListCopy));
+          }
+          else
+          if (aField.type ().erasure ().name ().equals ("List"))
+          {
+            final JClass aTypeParam = ((JClass) aField.type ()).getTypeParameters ().get (0);
+
+            // if (x == null || spec.isExcluded ("X"))
+            // ret.x = null;
+            final JConditional aIf = aBlock._if (aField.eq (JExpr._null ())
+                                                       .cor (jSpec.invoke ("isExcluded").arg (aPropertyName)));
+            aIf._then ().assign (jRet.ref (aField), JExpr._null ());
+
+            // else if (spec.isShared ("X"))
+            // ret.x = new ArrayList<> (x);
+            final JConditional aIfShared = aIf._elseif (jSpec.invoke ("isShared").arg (aPropertyName));
+            aIfShared._then ().assign (jRet.ref (aField), JExpr._new (jArrayList.narrow (aTypeParam)).arg (aField));
+
+            // else if (!spec.canDescend (depth + 1))
+            // ret.x = null;
+            final JConditional aIfCopy;
+            if (_isGeneratedCloneSpecType (aTypeParam))
+            {
+              // The list is not copied at all, instead of containing only null values
+              aIfCopy = aIfShared._elseif (JOp.not (jSpec.invoke ("canDescend").arg (jDepth.plus (JExpr.lit (1)))));
+              aIfCopy._then ().assign (jRet.ref (aField), JExpr._null ());
+            }
+            else
+              aIfCopy = aIfShared;
+
+            // else
+            final JExpression aSharedClone = _getSharedListCloneCode (jClass, aField, aTypeParam);
+            if (aSharedClone != null)
+              aIfCopy._else ().assign (jRet.ref (aField), aSharedClone);
+            else
+            {
+              final JBlock aJElse = aIfCopy._else ();
+              final JVar aTargetList = aJElse.decl (aField.type (),
+                                                    "ret" + aEntry.getValue (),
+                                                    JExpr._new (jArrayList.narrow (aTypeParam))
+                                                         .arg (aField.invoke ("size")));
+              final JForEach jForEach = aJElse.forEach (aTypeParam, "aItem", aField);
+              jForEach.body ()
+                      .add (aTargetList.invoke ("add")
+                                       .arg (_getCloneCode (aCodeModel, jForEach.var (), aTypeParam, jSpec, jDepth)));
+              aJElse.assign (jRet.ref (aField), aTargetList);
+            }
+          }
+          else
+            if (aField.type ().erasure ().name ().equals ("Map"))
+            {
+              // Map (for xs:anyAttribute/> - Map<QName,String>) contains only immutable values
+              final JExpression aIsAbsent = _getMapIsAbsentCode (aField);
+              final JConditional aIf = aBlock._if (aIsAbsent.cor (jSpec.invoke ("isExcluded").arg (aPropertyName)));
+              aIf._then ().assign (jRet.ref (aField), JExpr._null ());
+              aIf._else ()
+                 .assign (jRet.ref (aField),
+                          JExpr._new (jHashMap.narrow (((JClass) aField.type ()).getTypeParameters ())).arg (aField));
+            }
+            else
+            {
+              final JFieldVar fShared = getOrCreateSharedBinaryFlag (jClass, aField, aEntry.getValue ());
+              if (fShared != null)
+              {
+                // Shared with copy-on-write, also if spec.isShared ("X")
+                final JConditional aIf = aBlock._if (jSpec.invoke ("isExcluded").arg (aPropertyName));
+                aIf._then ().assign (jRet.ref (aField), JExpr._null ());
+                aIf._then ().assign (jRet.ref (fShared), JExpr.FALSE);
+                _addSharedBinaryCode (aIf._else (), aField, fShared, jRet);
+              }
+              else
+              {
+                // ret.x = spec.isExcluded ("X") ? null : spec.isShared ("X") ? x : _cloneOf_ (x)
+                aBlock.assign (jRet.ref (aField),
+                               JOp.cond (jSpec.invoke ("isExcluded").arg (aPropertyName),
+                                         JExpr._null (),
+                                         JOp.cond (jSpec.invoke ("isShared").arg (aPropertyName),
+                                                   aField,
+                                                   _getCloneCode (aCodeModel, aField, aField.type (), jSpec, jDepth))));
+              }
+            }
+      }
+      addShareBinaryJavadoc (mCloneToDepth);
+      getJavadoc (mCloneToDepth).add (sCreatedBy);
+    }
+
+    // cloneTo (ret, spec)
+    {
+      final JMethod mCloneTo = jClass.method (JMod.PUBLIC, aCodeModel.VOID, "cloneTo");
+      getJavadoc (mCloneTo).add ("This method clones the values selected by the provided specification from <code>this</code> to the passed object. All data in the parameter object is overwritten!");
+      final JVar jRet = mCloneTo.param (JMod.FINAL, jClass, "ret");
+      if (allowsJSpecifyAnnotations (jClass, jClass))
+        jRet.annotate (NonNull.class);
+      final JVar jSpec = mCloneTo.param (JMod.FINAL, jCloneSpec, "spec");
+      jSpec.annotate (NonNull.class);
+      mCloneTo.body ().invoke (mCloneToDepth).arg (jRet).arg (jSpec).arg (JExpr.lit (0));
+      getJavadoc (mCloneTo).addParam (jRet).add ("The target object to clone to. May not be <code>null</code>.");
+      getJavadoc (mCloneTo).addParam (jSpec).add ("The clone specification to use. May not be <code>null</code>.");
+      addShareBinaryJavadoc (mCloneTo);
+      getJavadoc (mCloneTo).add (sCreatedBy);
+    }
+
+    // clone (spec, depth)
+    final JMethod mCloneDepth;
+    if (jClass.isAbstract ())
+    {
+      // Cannot instantiate abstract classes
+      mCloneDepth = jClass.method (JMod.PUBLIC | JMod.ABSTRACT, jClass, "clone");
+      mCloneDepth.param (JMod.FINAL, jCloneSpec, "spec").annotate (NonNull.class);
+      mCloneDepth.param (JMod.FINAL, aCodeModel.INT, "depth");
+    }
+    else
+    {
+      mCloneDepth = jClass.method (JMod.PUBLIC, jClass, "clone");
+      final JVar jSpec = mCloneDepth.param (JMod.FINAL, jCloneSpec, "spec");
+      jSpec.annotate (NonNull.class);
+      final JVar jDepth = mCloneDepth.param (JMod.FINAL, aCodeModel.INT, "depth");
+      final JVar jRet = mCloneDepth.body ().decl (jClass, "ret", JExpr._new (jClass));
+      mCloneDepth.body ().invoke (mCloneToDepth).arg (jRet).arg (jSpec).arg (jDepth);
+      mCloneDepth.body ()._return (jRet);
+    }
+    if (allowsJSpecifyAnnotations (jClass, jClass))
+      mCloneDepth.annotate (NonNull.class);
+    mCloneDepth.annotate (ReturnsMutableCopy.class);
+    getJavadoc (mCloneDepth).add ("Create a partial clone of this object, based on the provided specification.");
+    getJavadoc (mCloneDepth).addParam ("spec").add ("The clone specification to use. May not be <code>null</code>.");
+    getJavadoc (mCloneDepth).addParam ("depth").add ("The depth of <code>this</code> object. 0 for the start object.");
+    getJavadoc (mCloneDepth).addReturn ().add ("The cloned object. Never <code>null</code>.");
+    getJavadoc (mCloneDepth).add (sCreatedBy);
+
+    // clone (spec)
+    {
+      final JMethod mClone = jClass.method (JMod.PUBLIC, jClass, "clone");
+      if (allowsJSpecifyAnnotations (jClass, jClass))
+        mClone.annotate (NonNull.class);
+      mClone.annotate (ReturnsMutableCopy.class);
+      final JVar jSpec = mClone.param (JMod.FINAL, jCloneSpec, "spec");
+      jSpec.annotate (NonNull.class);
+      mClone.body ()._return (JExpr.invoke (mCloneDepth).arg (jSpec).arg (JExpr.lit (0)));
+      getJavadoc (mClone).add ("Create a partial clone of this object, based on the provided specification.");
+      getJavadoc (mClone).addParam (jSpec).add ("The clone specification to use. May not be <code>null</code>.");
+      getJavadoc (mClone).addReturn ().add ("The cloned object. Never <code>null</code>.");
+      getJavadoc (mClone).add (sCreatedBy);
+    }
+  }
 }
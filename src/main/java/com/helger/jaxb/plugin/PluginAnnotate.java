@@ -24,8 +24,8 @@ import org.xml.sax.ErrorHandler;
 
 import com.helger.annotation.style.IsSPIImplementation;
 import com.helger.annotation.style.ReturnsMutableObject;
-import com.helger.collection.commons.CommonsHashSet;
-import com.helger.collection.commons.ICommonsSet;
+import com.helger.collection.commons.CommonsLinkedHashSet;
+import com.helger.collection.commons.ICommonsOrderedSet;
 import com.sun.codemodel.JCodeModel;
 import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JMethod;
@@ -65,15 +65,14 @@ public class PluginAnnotate extends AbstractPlugin
   }
 
   @Override
-  public boolean run (@NonNull final Outline aOutline,
-                      @NonNull final Options aOpts,
-                      @NonNull final ErrorHandler aErrorHandler)
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler)
   {
-    initPluginLogging (aOpts.debugMode);
     logInfo ("Running JAXB plugin -" + getOptionName ());
 
     final JCodeModel aCodeModel = aOutline.getCodeModel ();
-    final ICommonsSet <JDefinedClass> aEffectedClasses = new CommonsHashSet <> ();
+    final ICommonsOrderedSet <JDefinedClass> aEffectedClasses = new CommonsLinkedHashSet <> ();
 
     // For all classes
     for (final ClassOutline aClassOutline : aOutline.getClasses ())
@@ -115,7 +114,7 @@ public class PluginAnnotate extends AbstractPlugin
     }
 
     // Get all ObjectFactory classes
-    final ICommonsSet <JDefinedClass> aObjFactories = new CommonsHashSet <> ();
+    final ICommonsOrderedSet <JDefinedClass> aObjFactories = new CommonsLinkedHashSet <> ();
     for (final CElementInfo ei : aOutline.getModel ().getAllElements ())
     {
       final JDefinedClass aClass = aOutline.getPackageContext (ei._package ())
@@ -157,7 +156,7 @@ public class PluginAnnotate extends AbstractPlugin
     for (final JDefinedClass jClass : aEffectedClasses)
     {
       // General information
-      jClass.javadoc ().add ("<p>This class was annotated by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+      getJavadoc (jClass).add ("<p>This class was annotated by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
     }
 
     return true;
@@ -0,0 +1,683 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ListIterator;
+
+import org.jspecify.annotations.NonNull;
+import org.xml.sax.ErrorHandler;
+
+import com.helger.annotation.style.IsSPIImplementation;
+import com.helger.base.string.StringParser;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsSet;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JCatchBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldRef;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JForLoop;
+import com.sun.codemodel.JInvocation;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JPackage;
+import com.sun.codemodel.JTryBlock;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.BadCommandLineException;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.model.CAttributePropertyInfo;
+import com.sun.tools.xjc.model.CBuiltinLeafInfo;
+import com.sun.tools.xjc.model.CClassInfo;
+import com.sun.tools.xjc.model.CElementPropertyInfo;
+import com.sun.tools.xjc.model.CPropertyInfo;
+import com.sun.tools.xjc.model.CTypeRef;
+import com.sun.tools.xjc.model.CValuePropertyInfo;
+import com.sun.tools.xjc.model.Model;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.Outline;
+
+import jakarta.activation.DataHandler;
+import jakarta.activation.DataSource;
+
+/**
+ * Plugin that maps all <code>xs:base64Binary</code> properties to
+ * <code>jakarta.activation.DataHandler</code> instead of <code>byte[]</code>, in the same way as
+ * the schema annotation <code>xmime:expectedContentTypes</code> does.<br>
+ * After unmarshalling, binary content with more bytes than the threshold is moved to a temporary
+ * file. For that, the package private read-only <code>DataSource</code> class {@value #CLASS_NAME}
+ * is created once per package. Its temporary file is deleted when it is garbage collected. Inline
+ * base64 content is still decoded into memory by the unmarshaller first, so this reduces the
+ * retained heap but not the peak. Only an <code>AttachmentUnmarshaller</code> (MTOM/XOP) that
+ * stores large attachments outside of the heap avoids the in-memory copy.<br>
+ * The generated <code>equals</code> and <code>hashCode</code> methods compare the binary content,
+ * which is read in chunks via methods of the shared helper class
+ * {@value PluginSharedHelper#CLASS_NAME}. <code>clone</code> shares the <code>DataHandler</code>.<br>
+ * Properties with an explicit adapter (e.g. <code>xs:hexBinary</code>) and lists of base64 values
+ * in attributes are not modified.
+ *
+ * @author Philip Helger
+ * @since 5.1.3
+ */
+@IsSPIImplementation
+public class PluginBinaryDataHandler extends AbstractPlugin
+{
+  public static final String OPT = "Xph-binary-datahandler";
+  public static final String OPT_SUFFIX_THRESHOLD = "-threshold";
+  public static final int DEFAULT_THRESHOLD = 1024 * 1024;
+  public static final String CLASS_NAME = "SpilledDataSource";
+
+  private static final String METHOD_SPILL = "spill";
+  private static final String METHOD_SPILL_ALL = "spillAll";
+  private static final int BUFFER_SIZE = 8192;
+
+  private int m_nThreshold = DEFAULT_THRESHOLD;
+
+  @Override
+  public String getOptionName ()
+  {
+    return OPT;
+  }
+
+  @Override
+  public String getUsage ()
+  {
+    return "  -" + OPT + "    :  map xs:base64Binary to jakarta.activation.DataHandler instead of byte[] and move large\n" +
+           "        content to temporary files after unmarshalling. equals and hashCode compare the binary content.\n" +
+           "  -" + OPT + OPT_SUFFIX_THRESHOLD + " <n>    :  the number of bytes above which the content is moved (default: " + DEFAULT_THRESHOLD + ")";
+  }
+
+  @Override
+  public int parseArgument (final Options opt, final String [] args, final int i) throws BadCommandLineException
+  {
+    final String sThresholdOption = "-" + OPT + OPT_SUFFIX_THRESHOLD;
+    if (args[i].equals (sThresholdOption))
+    {
+      final String sThreshold = opt.requireArgument (sThresholdOption, args, i + 1);
+      final int nThreshold = StringParser.parseInt (sThreshold, -1);
+      // The created code reads up to threshold + 1 bytes
+      if (nThreshold < 0 || nThreshold == Integer.MAX_VALUE)
+        throw new BadCommandLineException ("The threshold must be a non-negative number below " +
+                                           Integer.MAX_VALUE +
+                                           ", but is '" +
+                                           sThreshold +
+                                           "'");
+      m_nThreshold = nThreshold;
+      return 2;
+    }
+    return 0;
+  }
+
+  private static boolean _isBase64 (@NonNull final CPropertyInfo aPropInfo)
+  {
+    return aPropInfo.getAdapter () == null &&
+           !aPropInfo.isCollection () &&
+           aPropInfo.ref ().size () == 1 &&
+           aPropInfo.ref ().iterator ().next () == CBuiltinLeafInfo.BASE64_BYTE_ARRAY;
+  }
+
+  /**
+   * Create a copy of an attribute or value property with the type <code>DataHandler</code>.
+   */
+  @NonNull
+  private static CPropertyInfo _createDataHandlerProperty (@NonNull final CPropertyInfo aPropInfo)
+  {
+    final CPropertyInfo ret;
+    if (aPropInfo instanceof final CAttributePropertyInfo aAttrInfo)
+      ret = new CAttributePropertyInfo (aAttrInfo.getName (true),
+                                        aAttrInfo.getSchemaComponent (),
+                                        aAttrInfo.getCustomizations (),
+                                        aAttrInfo.getLocator (),
+                                        aAttrInfo.getXmlName (),
+                                        CBuiltinLeafInfo.DATA_HANDLER,
+                                        aAttrInfo.getSchemaType (),
+                                        aAttrInfo.isRequired ());
+    else
+    {
+      final CValuePropertyInfo aValueInfo = (CValuePropertyInfo) aPropInfo;
+      ret = new CValuePropertyInfo (aValueInfo.getName (true),
+                                    aValueInfo.getSchemaComponent (),
+                                    aValueInfo.getCustomizations (),
+                                    aValueInfo.getLocator (),
+                                    CBuiltinLeafInfo.DATA_HANDLER,
+                                    aValueInfo.getSchemaType ());
+    }
+    ret.setName (false, aPropInfo.getName (false));
+    ret.javadoc = aPropInfo.javadoc;
+    ret.defaultValue = aPropInfo.defaultValue;
+    ret.realization = aPropInfo.realization;
+    ret.baseType = aPropInfo.baseType;
+    ret.inlineBinaryData = aPropInfo.inlineBinaryData;
+    return ret;
+  }
+
+  @Override
+  public void postProcessModel (@NonNull final Model aModel, @NonNull final ErrorHandler aErrorHandler)
+  {
+    initPluginLogging (aModel.options.debugMode);
+    logInfo ("Post processing model for JAXB plugin -" + getOptionName ());
+
+    int nChanged = 0;
+    for (final CClassInfo aClassInfo : aModel.beans ().values ())
+    {
+      final List <CPropertyInfo> aProperties = aClassInfo.getProperties ();
+      final ICommonsList <CPropertyInfo> aNewProperties = new CommonsArrayList <> (aProperties);
+      final ICommonsSet <CPropertyInfo> aReplacements = new CommonsHashSet <> ();
+      for (int nProp = 0; nProp < aNewProperties.size (); ++nProp)
+      {
+        final CPropertyInfo aPropInfo = aNewProperties.get (nProp);
+        if (aPropInfo instanceof final CElementPropertyInfo aElementInfo)
+        {
+          // The list of types is modifiable
+          if (aElementInfo.getAdapter () == null)
+          {
+            final List <CTypeRef> aTypes = aElementInfo.getTypes ();
+            for (int i = 0; i < aTypes.size (); ++i)
+            {
+              final CTypeRef aTypeRef = aTypes.get (i);
+              if (aTypeRef.getTarget () == CBuiltinLeafInfo.BASE64_BYTE_ARRAY)
+              {
+                aTypes.set (i,
+                            new CTypeRef (CBuiltinLeafInfo.DATA_HANDLER,
+                                          aTypeRef.getTagName (),
+                                          aTypeRef.getTypeName (),
+                                          aTypeRef.isNillable (),
+                                          aTypeRef.defaultValue));
+                logDebug ( () -> "  Using DataHandler for element " + aClassInfo.getName () + "." + aPropInfo.getName (true));
+                nChanged++;
+              }
+            }
+          }
+        }
+        else
+          if ((aPropInfo instanceof CAttributePropertyInfo || aPropInfo instanceof CValuePropertyInfo) &&
+              _isBase64 (aPropInfo))
+          {
+            // The type of these properties is final - replace them
+            final CPropertyInfo aReplacement = _createDataHandlerProperty (aPropInfo);
+            aNewProperties.set (nProp, aReplacement);
+            aReplacements.add (aReplacement);
+            logDebug ( () -> "  Using DataHandler for " + aClassInfo.getName () + "." + aPropInfo.getName (true));
+            nChanged++;
+          }
+      }
+
+      if (aReplacements.isNotEmpty ())
+      {
+        // Keep the order of the properties. Only the new properties need a parent
+        aProperties.clear ();
+        for (final CPropertyInfo aPropInfo : aNewProperties)
+          if (aReplacements.contains (aPropInfo))
+            aClassInfo.addProperty (aPropInfo);
+          else
+            aProperties.add (aPropInfo);
+      }
+    }
+
+    logInfo ("  Changed " + nChanged + " base64Binary properties to DataHandler");
+  }
+
+
+  private static boolean _isDataHandler (@NonNull final JType aType)
+  {
+    return aType.fullName ().equals (DataHandler.class.getName ());
+  }
+
+  private static boolean _isDataHandlerList (@NonNull final JType aType)
+  {
+    return aType.erasure ().fullName ().equals (List.class.getName ()) &&
+           _isDataHandler (((JClass) aType).getTypeParameters ().get (0));
+  }
+
+  /**
+   * Check if a field has a type created by this plugin.
+   *
+   * @param aField
+   *        The field to check. May not be <code>null</code>.
+   * @return <code>true</code> if the field type is <code>DataHandler</code> or
+   *         <code>List&lt;DataHandler&gt;</code>.
+   */
+  public static boolean isDataHandlerField (@NonNull final JFieldVar aField)
+  {
+    return _isDataHandler (aField.type ()) || _isDataHandlerList (aField.type ());
+  }
+
+  /**
+   * Add the code to read the next chunk of a stream.
+   *
+   * @return The variable with the number of bytes read. Less than the buffer size at the end.
+   */
+  @NonNull
+  private static JVar _readChunk (@NonNull final JCodeModel cm,
+                                  @NonNull final JBlock aBlock,
+                                  @NonNull final String sName,
+                                  @NonNull final JVar aIS,
+                                  @NonNull final JVar aBuf)
+  {
+    return aBlock.decl (JMod.FINAL,
+                        cm.INT,
+                        sName,
+                        aIS.invoke ("readNBytes").arg (aBuf).arg (JExpr.lit (0)).arg (aBuf.ref ("length")));
+  }
+
+  /**
+   * Wrap the code in a try block that converts an <code>IOException</code> into an
+   * <code>UncheckedIOException</code>.
+   *
+   * @return The body of the try block.
+   */
+  @NonNull
+  private static JBlock _tryIO (@NonNull final JCodeModel cm,
+                                @NonNull final JBlock aBlock,
+                                @NonNull final String sErrorMsg)
+  {
+    final JTryBlock aTry = aBlock._try ();
+    final JCatchBlock aCatch = aTry._catch (cm.ref (IOException.class));
+    final JVar aEx = aCatch.param ("ex");
+    aCatch.body ()._throw (JExpr._new (cm.ref (UncheckedIOException.class)).arg (sErrorMsg).arg (aEx));
+    return aTry.body ();
+  }
+
+  /**
+   * Open a stream of a data handler and close it in a finally block.
+   *
+   * @return The body of the try block, in which the stream is used.
+   */
+  @NonNull
+  private static JBlock _useStream (@NonNull final JCodeModel cm,
+                                    @NonNull final JBlock aBlock,
+                                    @NonNull final String sName,
+                                    @NonNull final JExpression aDH,
+                                    @NonNull final JVar [] aIS)
+  {
+    aIS[0] = aBlock.decl (JMod.FINAL, cm.ref (InputStream.class), sName, aDH.invoke ("getInputStream"));
+    final JTryBlock aTry = aBlock._try ();
+    aTry._finally ().add (aIS[0].invoke ("close"));
+    return aTry.body ();
+  }
+
+  @NonNull
+  private JDefinedClass _getOrCreateSpilledDataSource (@NonNull final JPackage aPackage)
+  {
+    final JDefinedClass aExisting = aPackage._getClass (CLASS_NAME);
+    if (aExisting != null)
+      return aExisting;
+
+    final JCodeModel cm = aPackage.owner ();
+    final JClass jPath = cm.ref (Path.class);
+    final JClass jFiles = cm.ref (Files.class);
+    final JClass jString = cm.ref (String.class);
+    final JClass jOutputStream = cm.ref (OutputStream.class);
+    final JClass jIOException = cm.ref (IOException.class);
+    final JClass jDataHandler = cm.ref (DataHandler.class);
+    final JDefinedClass jDS;
+    final JDefinedClass jDeleter;
+    try
+    {
+      jDS = aPackage._class (JMod.FINAL, CLASS_NAME);
+      jDeleter = jDS._class (JMod.PRIVATE | JMod.STATIC | JMod.FINAL, "FileDeleter");
+    }
+    catch (final JClassAlreadyExistsException ex)
+    {
+      throw new IllegalStateException ("Failed to create class " + CLASS_NAME + " in " + aPackage.name (), ex);
+    }
+    jDS._implements (DataSource.class);
+    jDS.javadoc ()
+       .add ("A read-only data source for binary content that was moved from the heap to a temporary\n" +
+             "file. The file is deleted when this object is garbage collected.\n" +
+             "<p>This class was created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+
+    final JFieldVar fThreshold = jDS.field (JMod.STATIC | JMod.FINAL, cm.INT, "THRESHOLD", JExpr.lit (m_nThreshold));
+    fThreshold.javadoc ().add ("Binary content with more bytes is moved to a temporary file.");
+    final JFieldVar fCleaner = jDS.field (JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+                                          Cleaner.class,
+                                          "CLEANER",
+                                          cm.ref (Cleaner.class).staticInvoke ("create"));
+
+    // The cleaning action must not reference the data source
+    jDeleter._implements (Runnable.class);
+    {
+      final JFieldVar fFile = jDeleter.field (JMod.PRIVATE | JMod.FINAL, jPath, "file");
+      final JMethod c = jDeleter.constructor (JMod.NONE);
+      final JVar aFile = c.param (JMod.FINAL, jPath, "file");
+      c.body ().assign (JExpr._this ().ref (fFile), aFile);
+      final JMethod m = jDeleter.method (JMod.PUBLIC, cm.VOID, "run");
+      m.annotate (Override.class);
+      m.body ().add (fFile.invoke ("toFile").invoke ("delete"));
+    }
+
+    final JFieldVar fFile = jDS.field (JMod.PRIVATE | JMod.FINAL, jPath, "file");
+    final JFieldVar fContentType = jDS.field (JMod.PRIVATE | JMod.FINAL, jString, "contentType");
+    final JFieldVar fName = jDS.field (JMod.PRIVATE | JMod.FINAL, jString, "name");
+    {
+      final JMethod c = jDS.constructor (JMod.PRIVATE);
+      final JVar aFile = c.param (JMod.FINAL, jPath, "file");
+      final JVar aContentType = c.param (JMod.FINAL, jString, "contentType");
+      final JVar aName = c.param (JMod.FINAL, jString, "name");
+      c.body ().assign (JExpr._this ().ref (fFile), aFile);
+      c.body ().assign (JExpr._this ().ref (fContentType), aContentType);
+      c.body ().assign (JExpr._this ().ref (fName), aName);
+      c.body ().add (fCleaner.invoke ("register").arg (JExpr._this ()).arg (JExpr._new (jDeleter).arg (aFile)));
+    }
+
+    {
+      final JMethod m = jDS.method (JMod.PUBLIC, cm.ref (InputStream.class), "getInputStream");
+      m.annotate (Override.class);
+      m._throws (jIOException);
+      m.body ()._return (jFiles.staticInvoke ("newInputStream").arg (fFile));
+    }
+    {
+      final JMethod m = jDS.method (JMod.PUBLIC, jOutputStream, "getOutputStream");
+      m.annotate (Override.class);
+      m._throws (jIOException);
+      m.body ()._throw (JExpr._new (jIOException).arg ("The spilled binary content is read-only"));
+    }
+    {
+      final JMethod m = jDS.method (JMod.PUBLIC, jString, "getContentType");
+      m.annotate (Override.class);
+      m.body ()._return (fContentType);
+    }
+    {
+      final JMethod m = jDS.method (JMod.PUBLIC, jString, "getName");
+      m.annotate (Override.class);
+      m.body ()._return (fName);
+    }
+
+    // static DataHandler spill (DataHandler)
+    final JMethod mSpill = jDS.method (JMod.STATIC, jDataHandler, METHOD_SPILL);
+    {
+      final JVar aDH = mSpill.param (JMod.FINAL, jDataHandler, "aDH");
+      mSpill.javadoc ().add ("Move the content of a data handler to a temporary file, if it is larger than the threshold.");
+      mSpill.javadoc ().addParam (aDH).add ("The data handler to use. May be <code>null</code>.");
+      mSpill.javadoc ().addReturn ().add ("The provided or a new file based data handler.");
+
+      mSpill.body ()
+            ._if (aDH.eq (JExpr._null ()).cor (aDH.invoke ("getDataSource")._instanceof (jDS)))
+            ._then ()
+            ._return (aDH);
+      final JVar [] aIS = new JVar [1];
+      final JBlock aBody = _useStream (cm,
+                                       _tryIO (cm, mSpill.body (), "Failed to move the binary content to a temporary file"),
+                                       "aIS",
+                                       aDH,
+                                       aIS);
+      final JVar aHead = aBody.decl (JMod.FINAL,
+                                     cm.BYTE.array (),
+                                     "aHead",
+                                     aIS[0].invoke ("readNBytes").arg (fThreshold.plus (JExpr.lit (1))));
+      aBody._if (aHead.ref ("length").lte (fThreshold))._then ()._return (aDH);
+      final JVar aFile = aBody.decl (JMod.FINAL,
+                                     jPath,
+                                     "aFile",
+                                     jFiles.staticInvoke ("createTempFile").arg ("jaxb-binary").arg (".tmp"));
+      // Created first, so that the file is deleted even if writing fails
+      final JVar aRet = aBody.decl (JMod.FINAL,
+                                    jDS,
+                                    "ret",
+                                    JExpr._new (jDS)
+                                         .arg (aFile)
+                                         .arg (aDH.invoke ("getContentType"))
+                                         .arg (aDH.invoke ("getName")));
+      final JVar aOS = aBody.decl (JMod.FINAL, jOutputStream, "aOS", jFiles.staticInvoke ("newOutputStream").arg (aFile));
+      final JTryBlock aTryOS = aBody._try ();
+      aTryOS.body ().add (aOS.invoke ("write").arg (aHead));
+      aTryOS.body ().add (aIS[0].invoke ("transferTo").arg (aOS));
+      aTryOS._finally ().add (aOS.invoke ("close"));
+      aBody._return (JExpr._new (jDataHandler).arg (aRet));
+    }
+
+    // static void spillAll (List<DataHandler>)
+    {
+      final JMethod m = jDS.method (JMod.STATIC, cm.VOID, METHOD_SPILL_ALL);
+      final JVar aList = m.param (JMod.FINAL, cm.ref (List.class).narrow (jDataHandler), "aList");
+      m.javadoc ().add ("Move the content of all data handlers that are larger than the threshold to temporary files.");
+      m.javadoc ().addParam (aList).add ("The list to modify. May not be <code>null</code>.");
+      final JVar aIter = m.body ()
+                          .decl (JMod.FINAL,
+                                 cm.ref (ListIterator.class).narrow (jDataHandler),
+                                 "aIter",
+                                 aList.invoke ("listIterator"));
+      m.body ()
+       ._while (aIter.invoke ("hasNext"))
+       .body ()
+       .add (aIter.invoke ("set").arg (JExpr.invoke (mSpill).arg (aIter.invoke ("next"))));
+    }
+    return jDS;
+  }
+
+  @NonNull
+  private static JMethod _getOrCreateEqualDataHandlers (@NonNull final JDefinedClass jHelper)
+  {
+    final String sMethodName = "equalDataHandlers";
+    final JMethod aExisting = PluginSharedHelper.findMethod (jHelper, sMethodName);
+    if (aExisting != null)
+      return aExisting;
+
+    final JCodeModel cm = jHelper.owner ();
+    final JClass jDataHandler = cm.ref (DataHandler.class);
+    final JMethod m = jHelper.method (JMod.STATIC, cm.BOOLEAN, sMethodName);
+    final JVar aDH1 = m.param (JMod.FINAL, jDataHandler, "aDH1");
+    final JVar aDH2 = m.param (JMod.FINAL, jDataHandler, "aDH2");
+    m.body ()._if (aDH1.eq (aDH2))._then ()._return (JExpr.TRUE);
+    m.body ()._if (aDH1.eq (JExpr._null ()).cor (aDH2.eq (JExpr._null ())))._then ()._return (JExpr.FALSE);
+
+    // Compare the content chunk by chunk
+    final JVar [] aIS1 = new JVar [1];
+    final JVar [] aIS2 = new JVar [1];
+    final JBlock aBody = _useStream (cm,
+                                     _useStream (cm, _tryIO (cm, m.body (), "Failed to read the binary content"), "aIS1", aDH1, aIS1),
+                                     "aIS2",
+                                     aDH2,
+                                     aIS2);
+    final JVar aBuf1 = aBody.decl (JMod.FINAL, cm.BYTE.array (), "aBuf1", JExpr.newArray (cm.BYTE, BUFFER_SIZE));
+    final JVar aBuf2 = aBody.decl (JMod.FINAL, cm.BYTE.array (), "aBuf2", JExpr.newArray (cm.BYTE, BUFFER_SIZE));
+    final JBlock aLoop = aBody._while (JExpr.TRUE).body ();
+    final JVar aRead1 = _readChunk (cm, aLoop, "nRead1", aIS1[0], aBuf1);
+    final JVar aRead2 = _readChunk (cm, aLoop, "nRead2", aIS2[0], aBuf2);
+    aLoop._if (aRead1.ne (aRead2)
+                     .cor (JOp.not (cm.ref (Arrays.class)
+                                      .staticInvoke ("equals")
+                                      .arg (aBuf1)
+                                      .arg (JExpr.lit (0))
+                                      .arg (aRead1)
+                                      .arg (aBuf2)
+                                      .arg (JExpr.lit (0))
+                                      .arg (aRead2))))
+         ._then ()
+         ._return (JExpr.FALSE);
+    aLoop._if (aRead1.lt (aBuf1.ref ("length")))._then ()._return (JExpr.TRUE);
+    return m;
+  }
+
+  @NonNull
+  private static JMethod _getOrCreateDataHandlerHashCode (@NonNull final JDefinedClass jHelper)
+  {
+    final String sMethodName = "getDataHandlerHashCode";
+    final JMethod aExisting = PluginSharedHelper.findMethod (jHelper, sMethodName);
+    if (aExisting != null)
+      return aExisting;
+
+    final JCodeModel cm = jHelper.owner ();
+    final JMethod m = jHelper.method (JMod.STATIC, cm.INT, sMethodName);
+    final JVar aDH = m.param (JMod.FINAL, cm.ref (DataHandler.class), "aDH");
+    m.body ()._if (aDH.eq (JExpr._null ()))._then ()._return (JExpr.lit (0));
+
+    // Same as Arrays.hashCode (byte[]) of the content
+    final JVar [] aIS = new JVar [1];
+    final JBlock aBody = _useStream (cm, _tryIO (cm, m.body (), "Failed to read the binary content"), "aIS", aDH, aIS);
+    final JVar aBuf = aBody.decl (JMod.FINAL, cm.BYTE.array (), "aBuf", JExpr.newArray (cm.BYTE, BUFFER_SIZE));
+    final JVar aRet = aBody.decl (cm.INT, "ret", JExpr.lit (1));
+    final JBlock aLoop = aBody._while (JExpr.TRUE).body ();
+    final JVar aRead = _readChunk (cm, aLoop, "nRead", aIS[0], aBuf);
+    final JForLoop aFor = aLoop._for ();
+    final JVar aIndex = aFor.init (cm.INT, "i", JExpr.lit (0));
+    aFor.test (aIndex.lt (aRead));
+    aFor.update (aIndex.incr ());
+    aFor.body ().assign (aRet, JExpr.lit (31).mul (aRet).plus (aBuf.component (aIndex)));
+    aLoop._if (aRead.lt (aBuf.ref ("length")))._then ()._return (aRet);
+    return m;
+  }
+
+  /**
+   * Get the code to compare the binary content of two <code>DataHandler</code> or
+   * <code>List&lt;DataHandler&gt;</code> fields. The methods are created in the shared helper class
+   * of the package.
+   *
+   * @param jClass
+   *        The class in which the code is used. May not be <code>null</code>.
+   * @param aField
+   *        The field to compare. Must be a field for which {@link #isDataHandlerField(JFieldVar)}
+   *        returns <code>true</code>.
+   * @param aLhs
+   *        The first value. May not be <code>null</code>.
+   * @param aRhs
+   *        The second value. May not be <code>null</code>.
+   * @return The boolean expression. Never <code>null</code>.
+   */
+  @NonNull
+  public JInvocation invokeEqualDataHandlers (@NonNull final JDefinedClass jClass,
+                                              @NonNull final JFieldVar aField,
+                                              @NonNull final JExpression aLhs,
+                                              @NonNull final JExpression aRhs)
+  {
+    final JDefinedClass jHelper = PluginSharedHelper.getOrCreateHelperClass (jClass._package ());
+    final JMethod mEqual = _getOrCreateEqualDataHandlers (jHelper);
+    if (_isDataHandler (aField.type ()))
+      return jHelper.staticInvoke (mEqual).arg (aLhs).arg (aRhs);
+
+    final String sMethodName = "equalDataHandlerLists";
+    if (PluginSharedHelper.findMethod (jHelper, sMethodName) == null)
+    {
+      final JCodeModel cm = jHelper.owner ();
+      final JClass jList = cm.ref (List.class).narrow (DataHandler.class);
+      final JMethod m = jHelper.method (JMod.STATIC, cm.BOOLEAN, sMethodName);
+      final JVar aList1 = m.param (JMod.FINAL, jList, "aList1");
+      final JVar aList2 = m.param (JMod.FINAL, jList, "aList2");
+      m.body ()._if (aList1.eq (aList2))._then ()._return (JExpr.TRUE);
+      m.body ()
+       ._if (aList1.eq (JExpr._null ())
+                   .cor (aList2.eq (JExpr._null ()))
+                   .cor (aList1.invoke ("size").ne (aList2.invoke ("size"))))
+       ._then ()
+       ._return (JExpr.FALSE);
+      final JForLoop aFor = m.body ()._for ();
+      final JVar aIndex = aFor.init (cm.INT, "i", JExpr.lit (0));
+      aFor.test (aIndex.lt (aList1.invoke ("size")));
+      aFor.update (aIndex.incr ());
+      aFor.body ()
+          ._if (JOp.not (JExpr.invoke (mEqual)
+                              .arg (aList1.invoke ("get").arg (aIndex))
+                              .arg (aList2.invoke ("get").arg (aIndex))))
+          ._then ()
+          ._return (JExpr.FALSE);
+      m.body ()._return (JExpr.TRUE);
+    }
+    return jHelper.staticInvoke (sMethodName).arg (aLhs).arg (aRhs);
+  }
+
+  /**
+   * Get the code to calculate the hash code of the binary content of a <code>DataHandler</code> or
+   * <code>List&lt;DataHandler&gt;</code> field. The methods are created in the shared helper class
+   * of the package.
+   *
+   * @param jClass
+   *        The class in which the code is used. May not be <code>null</code>.
+   * @param aField
+   *        The field to use. Must be a field for which {@link #isDataHandlerField(JFieldVar)}
+   *        returns <code>true</code>.
+   * @param aValue
+   *        The value. May not be <code>null</code>.
+   * @return The int expression. Never <code>null</code>.
+   */
+  @NonNull
+  public JInvocation invokeDataHandlerHashCode (@NonNull final JDefinedClass jClass,
+                                                @NonNull final JFieldVar aField,
+                                                @NonNull final JExpression aValue)
+  {
+    final JDefinedClass jHelper = PluginSharedHelper.getOrCreateHelperClass (jClass._package ());
+    final JMethod mHashCode = _getOrCreateDataHandlerHashCode (jHelper);
+    if (_isDataHandler (aField.type ()))
+      return jHelper.staticInvoke (mHashCode).arg (aValue);
+
+    final String sMethodName = "getDataHandlerListHashCode";
+    if (PluginSharedHelper.findMethod (jHelper, sMethodName) == null)
+    {
+      final JCodeModel cm = jHelper.owner ();
+      final JClass jDataHandler = cm.ref (DataHandler.class);
+      final JMethod m = jHelper.method (JMod.STATIC, cm.INT, sMethodName);
+      final JVar aList = m.param (JMod.FINAL, cm.ref (List.class).narrow (jDataHandler), "aList");
+      m.body ()._if (aList.eq (JExpr._null ()))._then ()._return (JExpr.lit (0));
+      final JVar aRet = m.body ().decl (cm.INT, "ret", JExpr.lit (1));
+      final JForEach aForEach = m.body ().forEach (jDataHandler, "aItem", aList);
+      aForEach.body ().assign (aRet, JExpr.lit (31).mul (aRet).plus (JExpr.invoke (mHashCode).arg (aForEach.var ())));
+      m.body ()._return (aRet);
+    }
+    return jHelper.staticInvoke (sMethodName).arg (aValue);
+  }
+
+  @Override
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler)
+  {
+    logInfo ("Running JAXB plugin -" + getOptionName ());
+
+    // The types were changed in postProcessModel
+    int nSpilled = 0;
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+    {
+      final JDefinedClass jClass = aClassOutline.implClass;
+      for (final JFieldVar aField : jClass.fields ().values ())
+      {
+        if ((aField.mods ().getValue () & JMod.STATIC) != 0 || !isDataHandlerField (aField))
+          continue;
+
+        // Move large content to a temporary file after unmarshalling
+        final JDefinedClass jDS = _getOrCreateSpilledDataSource (jClass._package ());
+        final JMethod mAfterUnmarshal = getOrCreateUnmarshalCallback (jClass, METHOD_AFTER_UNMARSHAL);
+        final JFieldRef aFieldRef = JExpr._this ().ref (aField);
+        final JBlock aIf = mAfterUnmarshal.body ()._if (aFieldRef.ne (JExpr._null ()))._then ();
+        if (_isDataHandler (aField.type ()))
+          aIf.assign (aFieldRef, jDS.staticInvoke (METHOD_SPILL).arg (aFieldRef));
+        else
+          aIf.add (jDS.staticInvoke (METHOD_SPILL_ALL).arg (aFieldRef));
+        nSpilled++;
+      }
+    }
+
+    logInfo ("  Moving the content of " + nSpilled + " DataHandler properties to temporary files above " + m_nThreshold + " bytes");
+    return true;
+  }
+}
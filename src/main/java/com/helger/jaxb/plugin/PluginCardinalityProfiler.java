@@ -0,0 +1,463 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.xml.sax.ErrorHandler;
+
+import com.helger.annotation.style.IsSPIImplementation;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.ICommonsSet;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JForLoop;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JPackage;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.model.CPropertyInfo;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.Outline;
+
+/**
+ * Create <code>afterUnmarshal</code> callbacks, that report the number of unmarshalled instances
+ * per class and the size of all list properties to a pluggable collector. This allows to tune the
+ * schema customizations (e.g. of {@link PluginListPresize}) with the real data.
+ * <ul>
+ * <li>The class {@value #CLASS_NAME} is created once, in the package of the first class. It
+ * contains the collector interface <code>ICollector</code> and the default implementation
+ * <code>Statistics</code> based on <code>LongAdder</code> counters with a size histogram and a
+ * textual report</li>
+ * <li>Profiling is disabled until a collector is set via
+ * <code>JAXBCardinalityProfiler.setCollector</code>. If it is disabled, the callbacks only read a
+ * volatile field. If it is enabled, the callbacks don't allocate memory after the first object of
+ * each type</li>
+ * </ul>
+ *
+ * @author Philip Helger
+ * @since 5.1.3
+ */
+@IsSPIImplementation
+public class PluginCardinalityProfiler extends AbstractPlugin
+{
+  public static final String OPT = "Xph-cardinality-profiler";
+  public static final String CLASS_NAME = "JAXBCardinalityProfiler";
+  /** The number of histogram buckets. The last bucket contains all sizes &ge; 1024. */
+  public static final int BUCKET_COUNT = 12;
+
+  @Override
+  public String getOptionName ()
+  {
+    return OPT;
+  }
+
+  @Override
+  public String getUsage ()
+  {
+    return "  -" + OPT + "    :  create afterUnmarshal callbacks to collect instance counts and list sizes at runtime";
+  }
+
+  /**
+   * Create the profiler class with the nested collector interface and the default implementation.
+   *
+   * @param aPackage
+   *        The package to create the class in. May not be <code>null</code>.
+   * @return The nested collector interface. Never <code>null</code>.
+   */
+  @NonNull
+  private static JDefinedClass _createProfilerClass (@NonNull final JPackage aPackage)
+  {
+    final JCodeModel cm = aPackage.owner ();
+    final JDefinedClass jProfiler;
+    try
+    {
+      jProfiler = aPackage._class (JMod.PUBLIC | JMod.FINAL, CLASS_NAME);
+    }
+    catch (final JClassAlreadyExistsException ex)
+    {
+      throw new IllegalStateException ("Failed to create class " + CLASS_NAME + " in " + aPackage.name (), ex);
+    }
+    jProfiler.javadoc ()
+             .add ("Collects the number of unmarshalled instances and the sizes of the list properties of the\n" +
+                   "generated classes. Profiling is disabled until a collector is set.\n" +
+                   "<p>This class was created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+    jProfiler.constructor (JMod.PRIVATE);
+
+    final JClass jClassType = cm.ref (Class.class).narrow (cm.ref (Object.class).wildcard ());
+    final JClass jLongAdder = cm.ref (LongAdder.class);
+    final JClass jString = cm.ref (String.class);
+
+    // interface ICollector
+    final JDefinedClass jCollector;
+    try
+    {
+      jCollector = jProfiler._interface (JMod.PUBLIC, "ICollector");
+    }
+    catch (final JClassAlreadyExistsException ex)
+    {
+      throw new IllegalStateException ("Failed to create nested interface of " + CLASS_NAME, ex);
+    }
+    jCollector.javadoc ().add ("Callback for the unmarshalled objects. Implementations must be thread-safe.");
+    {
+      final JMethod m = jCollector.method (JMod.NONE, cm.VOID, "onInstance");
+      final JVar aClass = m.param (JMod.FINAL, jClassType, "aClass");
+      m.javadoc ().add ("Called once for every unmarshalled object.");
+      m.javadoc ().addParam (aClass).add ("The class of the object. Never <code>null</code>.");
+    }
+    {
+      final JMethod m = jCollector.method (JMod.NONE, cm.VOID, "onList");
+      final JVar aClass = m.param (JMod.FINAL, jClassType, "aClass");
+      final JVar aPropertyName = m.param (JMod.FINAL, jString, "sPropertyName");
+      final JVar aSize = m.param (JMod.FINAL, cm.INT, "nSize");
+      m.javadoc ().add ("Called once for every list property of every unmarshalled object.");
+      m.javadoc ().addParam (aClass).add ("The class declaring the property. Never <code>null</code>.");
+      m.javadoc ().addParam (aPropertyName).add ("The property name. Never <code>null</code>.");
+      m.javadoc ().addParam (aSize).add ("The list size. 0 if the list is not present.");
+    }
+
+    // The current collector
+    final JFieldVar fCollector = jProfiler.field (JMod.PRIVATE | JMod.STATIC | JMod.VOLATILE, jCollector, "s_aCollector");
+    {
+      final JMethod m = jProfiler.method (JMod.PUBLIC | JMod.STATIC, jCollector, "getCollector");
+      m.body ()._return (fCollector);
+      m.javadoc ().addReturn ().add ("The current collector or <code>null</code> if profiling is disabled.");
+    }
+    {
+      final JMethod m = jProfiler.method (JMod.PUBLIC | JMod.STATIC, cm.VOID, "setCollector");
+      final JVar aCollector = m.param (JMod.FINAL, jCollector, "aCollector");
+      m.body ().assign (fCollector, aCollector);
+      m.javadoc ().add ("Enable or disable profiling.");
+      m.javadoc ().addParam (aCollector).add ("The collector to use. May be <code>null</code> to disable profiling.");
+    }
+
+    // class Statistics
+    final JDefinedClass jStats;
+    try
+    {
+      jStats = jProfiler._class (JMod.PUBLIC | JMod.STATIC | JMod.FINAL, "Statistics");
+    }
+    catch (final JClassAlreadyExistsException ex)
+    {
+      throw new IllegalStateException ("Failed to create nested class of " + CLASS_NAME, ex);
+    }
+    jStats._implements (jCollector);
+    jStats.javadoc ()
+          .add ("Default collector based on <code>LongAdder</code> counters. For each list property a histogram\n" +
+                "of the sizes is collected: bucket 0 contains the empty lists, bucket <code>n</code> the sizes\n" +
+                "from <code>2^(n-1)</code> to <code>2^n-1</code> and the last bucket all larger sizes.");
+
+    final JFieldVar fBucketCount = jStats.field (JMod.PUBLIC | JMod.STATIC | JMod.FINAL,
+                                                 cm.INT,
+                                                 "BUCKET_COUNT",
+                                                 JExpr.lit (BUCKET_COUNT));
+    final JClass jInstanceMap = cm.ref (ConcurrentHashMap.class).narrow (jClassType, jLongAdder);
+    final JClass jPropertyMap = cm.ref (ConcurrentHashMap.class).narrow (jString, jLongAdder.array ());
+    final JClass jListMap = cm.ref (ConcurrentHashMap.class).narrow (jClassType, jPropertyMap);
+    final JFieldVar fInstances = jStats.field (JMod.PRIVATE | JMod.FINAL,
+                                               jInstanceMap,
+                                               "m_aInstances",
+                                               JExpr._new (jInstanceMap));
+    final JFieldVar fLists = jStats.field (JMod.PRIVATE | JMod.FINAL, jListMap, "m_aLists", JExpr._new (jListMap));
+
+    // static int _getBucket (int)
+    final JMethod mGetBucket = jStats.method (JMod.PRIVATE | JMod.STATIC, cm.INT, "_getBucket");
+    {
+      final JVar aSize = mGetBucket.param (JMod.FINAL, cm.INT, "nSize");
+      mGetBucket.body ()
+                ._return (JOp.cond (aSize.eq (JExpr.lit (0)),
+                                    JExpr.lit (0),
+                                    cm.ref (Math.class)
+                                      .staticInvoke ("min")
+                                      .arg (JExpr.lit (32)
+                                                 .minus (cm.ref (Integer.class)
+                                                           .staticInvoke ("numberOfLeadingZeros")
+                                                           .arg (aSize)))
+                                      .arg (fBucketCount.minus (JExpr.lit (1)))));
+    }
+
+    // static String _getBucketLabel (int)
+    final JMethod mGetBucketLabel = jStats.method (JMod.PRIVATE | JMod.STATIC, jString, "_getBucketLabel");
+    {
+      final JVar aBucket = mGetBucketLabel.param (JMod.FINAL, cm.INT, "nBucket");
+      final JBlock aBody = mGetBucketLabel.body ();
+      aBody._if (aBucket.lte (JExpr.lit (1)))
+           ._then ()
+           ._return (cm.ref (Integer.class).staticInvoke ("toString").arg (aBucket));
+      final JExpression aLower = JOp.shl (JExpr.lit (1), aBucket.minus (JExpr.lit (1)));
+      aBody._if (aBucket.eq (fBucketCount.minus (JExpr.lit (1))))._then ()._return (JExpr.lit (">=").plus (aLower));
+      aBody._return (JOp.plus (JOp.plus (aLower, JExpr.lit ("-")),
+                               JOp.shl (JExpr.lit (1), aBucket).minus (JExpr.lit (1))));
+    }
+
+    // void onInstance (Class<?>)
+    {
+      final JMethod m = jStats.method (JMod.PUBLIC, cm.VOID, "onInstance");
+      m.annotate (Override.class);
+      final JVar aClass = m.param (JMod.FINAL, jClassType, "aClass");
+      final JBlock aBody = m.body ();
+      final JVar aCounter = aBody.decl (jLongAdder, "aCounter", fInstances.invoke ("get").arg (aClass));
+      final JBlock aCreate = aBody._if (aCounter.eq (JExpr._null ()))._then ();
+      final JVar aNew = aCreate.decl (JMod.FINAL, jLongAdder, "aNew", JExpr._new (jLongAdder));
+      aCreate.assign (aCounter, fInstances.invoke ("putIfAbsent").arg (aClass).arg (aNew));
+      aCreate._if (aCounter.eq (JExpr._null ()))._then ().assign (aCounter, aNew);
+      aBody.add (aCounter.invoke ("increment"));
+    }
+
+    // void onList (Class<?>, String, int)
+    {
+      final JMethod m = jStats.method (JMod.PUBLIC, cm.VOID, "onList");
+      m.annotate (Override.class);
+      final JVar aClass = m.param (JMod.FINAL, jClassType, "aClass");
+      final JVar aPropertyName = m.param (JMod.FINAL, jString, "sPropertyName");
+      final JVar aSize = m.param (JMod.FINAL, cm.INT, "nSize");
+      final JBlock aBody = m.body ();
+
+      final JVar aProperties = aBody.decl (jPropertyMap, "aProperties", fLists.invoke ("get").arg (aClass));
+      {
+        final JBlock aCreate = aBody._if (aProperties.eq (JExpr._null ()))._then ();
+        final JVar aNew = aCreate.decl (JMod.FINAL, jPropertyMap, "aNew", JExpr._new (jPropertyMap));
+        aCreate.assign (aProperties, fLists.invoke ("putIfAbsent").arg (aClass).arg (aNew));
+        aCreate._if (aProperties.eq (JExpr._null ()))._then ().assign (aProperties, aNew);
+      }
+
+      // The last counter contains the sum of all sizes
+      final JVar aCounters = aBody.decl (jLongAdder.array (),
+                                         "aCounters",
+                                         aProperties.invoke ("get").arg (aPropertyName));
+      {
+        final JBlock aCreate = aBody._if (aCounters.eq (JExpr._null ()))._then ();
+        final JVar aNew = aCreate.decl (JMod.FINAL,
+                                        jLongAdder.array (),
+                                        "aNew",
+                                        JExpr.newArray (jLongAdder, fBucketCount.plus (JExpr.lit (1))));
+        final JForLoop aFor = aCreate._for ();
+        final JVar aIndex = aFor.init (cm.INT, "i", JExpr.lit (0));
+        aFor.test (aIndex.lt (aNew.ref ("length")));
+        aFor.update (aIndex.incr ());
+        aFor.body ().assign (aNew.component (aIndex), JExpr._new (jLongAdder));
+        aCreate.assign (aCounters, aProperties.invoke ("putIfAbsent").arg (aPropertyName).arg (aNew));
+        aCreate._if (aCounters.eq (JExpr._null ()))._then ().assign (aCounters, aNew);
+      }
+      aBody.add (aCounters.component (JExpr.invoke (mGetBucket).arg (aSize)).invoke ("increment"));
+      aBody.add (aCounters.component (fBucketCount).invoke ("add").arg (aSize));
+    }
+
+    // long getInstanceCount (Class<?>)
+    {
+      final JMethod m = jStats.method (JMod.PUBLIC, cm.LONG, "getInstanceCount");
+      final JVar aClass = m.param (JMod.FINAL, jClassType, "aClass");
+      final JVar aCounter = m.body ().decl (JMod.FINAL, jLongAdder, "aCounter", fInstances.invoke ("get").arg (aClass));
+      m.body ()._return (JOp.cond (aCounter.eq (JExpr._null ()), JExpr.lit (0L), aCounter.invoke ("sum")));
+      m.javadoc ().addParam (aClass).add ("The class to query. May not be <code>null</code>.");
+      m.javadoc ().addReturn ().add ("The number of unmarshalled objects of the class.");
+    }
+
+    // long[] getListSizeHistogram (Class<?>, String)
+    {
+      final JMethod m = jStats.method (JMod.PUBLIC, cm.LONG.array (), "getListSizeHistogram");
+      final JVar aClass = m.param (JMod.FINAL, jClassType, "aClass");
+      final JVar aPropertyName = m.param (JMod.FINAL, jString, "sPropertyName");
+      final JBlock aBody = m.body ();
+      final JVar aRet = aBody.decl (JMod.FINAL, cm.LONG.array (), "ret", JExpr.newArray (cm.LONG, fBucketCount));
+      final JVar aProperties = aBody.decl (JMod.FINAL, jPropertyMap, "aProperties", fLists.invoke ("get").arg (aClass));
+      final JVar aCounters = aBody.decl (JMod.FINAL,
+                                         jLongAdder.array (),
+                                         "aCounters",
+                                         JOp.cond (aProperties.eq (JExpr._null ()),
+                                                   JExpr._null (),
+                                                   aProperties.invoke ("get").arg (aPropertyName)));
+      final JForLoop aFor = aBody._if (aCounters.ne (JExpr._null ()))._then ()._for ();
+      final JVar aIndex = aFor.init (cm.INT, "i", JExpr.lit (0));
+      aFor.test (aIndex.lt (fBucketCount));
+      aFor.update (aIndex.incr ());
+      aFor.body ().assign (aRet.component (aIndex), aCounters.component (aIndex).invoke ("sum"));
+      aBody._return (aRet);
+      m.javadoc ().addParam (aClass).add ("The class declaring the property. May not be <code>null</code>.");
+      m.javadoc ().addParam (aPropertyName).add ("The property name. May not be <code>null</code>.");
+      m.javadoc ().addReturn ().add ("The number of lists per size bucket. Never <code>null</code>.");
+    }
+
+    // void reset ()
+    {
+      final JMethod m = jStats.method (JMod.PUBLIC, cm.VOID, "reset");
+      m.body ().add (fInstances.invoke ("clear"));
+      m.body ().add (fLists.invoke ("clear"));
+      m.javadoc ().add ("Remove all collected statistics.");
+    }
+
+    // String getReport ()
+    {
+      final JMethod m = jStats.method (JMod.PUBLIC, jString, "getReport");
+      final JBlock aBody = m.body ();
+      final JClass jLines = cm.ref (List.class).narrow (jString);
+      final JVar aLines = aBody.decl (JMod.FINAL, jLines, "aLines", JExpr._new (cm.ref (ArrayList.class).narrow (jString)));
+
+      final JForEach aForInstances = aBody.forEach (cm.ref (Map.Entry.class).narrow (jClassType, jLongAdder),
+                                                    "aEntry",
+                                                    fInstances.invoke ("entrySet"));
+      aForInstances.body ()
+                   .add (aLines.invoke ("add")
+                               .arg (JOp.plus (JOp.plus (aForInstances.var ().invoke ("getKey").invoke ("getName"),
+                                                         JExpr.lit (" instances=")),
+                                               aForInstances.var ().invoke ("getValue").invoke ("sum"))));
+
+      final JForEach aForClasses = aBody.forEach (cm.ref (Map.Entry.class).narrow (jClassType, jPropertyMap),
+                                                  "aEntry",
+                                                  fLists.invoke ("entrySet"));
+      final JForEach aForProperties = aForClasses.body ()
+                                                 .forEach (cm.ref (Map.Entry.class).narrow (jString, jLongAdder.array ()),
+                                                           "aProperty",
+                                                           aForClasses.var ().invoke ("getValue").invoke ("entrySet"));
+      final JBlock aPropBody = aForProperties.body ();
+      final JVar aCounters = aPropBody.decl (JMod.FINAL,
+                                             jLongAdder.array (),
+                                             "aCounters",
+                                             aForProperties.var ().invoke ("getValue"));
+      final JVar aCount = aPropBody.decl (cm.LONG, "nCount", JExpr.lit (0L));
+      {
+        final JForLoop aFor = aPropBody._for ();
+        final JVar aIndex = aFor.init (cm.INT, "i", JExpr.lit (0));
+        aFor.test (aIndex.lt (fBucketCount));
+        aFor.update (aIndex.incr ());
+        aFor.body ().assignPlus (aCount, aCounters.component (aIndex).invoke ("sum"));
+      }
+      final JVar aSB = aPropBody.decl (JMod.FINAL,
+                                       cm.ref (StringBuilder.class),
+                                       "aSB",
+                                       JExpr._new (cm.ref (StringBuilder.class))
+                                            .arg (aForClasses.var ().invoke ("getKey").invoke ("getName")));
+      aPropBody.add (aSB.invoke ("append")
+                        .arg (JExpr.lit ('#'))
+                        .invoke ("append")
+                        .arg (aForProperties.var ().invoke ("getKey"))
+                        .invoke ("append")
+                        .arg (" count=")
+                        .invoke ("append")
+                        .arg (aCount)
+                        .invoke ("append")
+                        .arg (" total=")
+                        .invoke ("append")
+                        .arg (aCounters.component (fBucketCount).invoke ("sum")));
+      {
+        final JForLoop aFor = aPropBody._for ();
+        final JVar aIndex = aFor.init (cm.INT, "i", JExpr.lit (0));
+        aFor.test (aIndex.lt (fBucketCount));
+        aFor.update (aIndex.incr ());
+        final JVar aBucketCount = aFor.body ()
+                                      .decl (JMod.FINAL, cm.LONG, "nBucketCount", aCounters.component (aIndex).invoke ("sum"));
+        aFor.body ()
+            ._if (aBucketCount.gt (JExpr.lit (0L)))
+            ._then ()
+            .add (aSB.invoke ("append")
+                     .arg (" size")
+                     .invoke ("append")
+                     .arg (JExpr.invoke (mGetBucketLabel).arg (aIndex))
+                     .invoke ("append")
+                     .arg (JExpr.lit ('='))
+                     .invoke ("append")
+                     .arg (aBucketCount));
+      }
+      aPropBody.add (aLines.invoke ("add").arg (aSB.invoke ("toString")));
+
+      aBody.add (cm.ref (Collections.class).staticInvoke ("sort").arg (aLines));
+      aBody._return (jString.staticInvoke ("join").arg ("\n").arg (aLines));
+      m.javadoc ()
+       .add ("Create a report with one line per class (<code>class instances=n</code>) and one line per list\n" +
+             "property (<code>class#property count=n total=n sizeX=n ...</code>), sorted by name.");
+      m.javadoc ().addReturn ().add ("The report. Never <code>null</code>.");
+    }
+    return jCollector;
+  }
+
+  @Nullable
+  private static String _getPropertyName (@NonNull final ClassOutline aClassOutline, @NonNull final JFieldVar aField)
+  {
+    final CPropertyInfo aPI = aClassOutline.target.getProperty (aField.name ());
+    return aPI == null ? null : aPI.getName (true);
+  }
+
+  @Override
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler)
+  {
+    logInfo ("Running JAXB plugin -" + getOptionName ());
+
+    // All classes that get a callback
+    final ICommonsSet <JDefinedClass> aGeneratedClasses = new CommonsHashSet <> ();
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+      aGeneratedClasses.add (aClassOutline.implClass);
+    if (aGeneratedClasses.isEmpty ())
+      return true;
+
+    // One profiler class for all packages
+    final JDefinedClass jCollector = _createProfilerClass (aOutline.getClasses ().iterator ().next ().implClass._package ());
+    final JClass jProfiler = jCollector.outer ();
+
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+    {
+      final JDefinedClass jClass = aClassOutline.implClass;
+      final JClass jSuper = jClass._extends ();
+      // Instances are only counted once, in the top most generated class
+      final boolean bCountInstance = !(jSuper instanceof final JDefinedClass jdSuper &&
+                                       aGeneratedClasses.contains (jdSuper));
+
+      final JMethod aAfter = getOrCreateUnmarshalCallback (jClass, METHOD_AFTER_UNMARSHAL);
+      final JVar aCollector = aAfter.body ()
+                                    .decl (JMod.FINAL, jCollector, "aCollector", jProfiler.staticInvoke ("getCollector"));
+      final JBlock aEnabled = aAfter.body ()._if (aCollector.ne (JExpr._null ()))._then ();
+      if (bCountInstance)
+        aEnabled.add (aCollector.invoke ("onInstance").arg (JExpr.invoke ("getClass")));
+
+      for (final JFieldVar aField : getAllInstanceFields (aClassOutline).keySet ())
+      {
+        if (!aField.type ().erasure ().name ().equals ("List"))
+          continue;
+        final String sPropertyName = _getPropertyName (aClassOutline, aField);
+        if (sPropertyName == null)
+          continue;
+
+        final JExpression aFieldRef = JExpr._this ().ref (aField);
+        aEnabled.add (aCollector.invoke ("onList")
+                                .arg (JExpr.dotclass (jClass))
+                                .arg (sPropertyName)
+                                .arg (JOp.cond (aFieldRef.eq (JExpr._null ()), JExpr.lit (0), aFieldRef.invoke ("size"))));
+      }
+
+      // General information
+      getJavadoc (jClass).add ("<p>This class contains methods created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+    }
+    return true;
+  }
+}
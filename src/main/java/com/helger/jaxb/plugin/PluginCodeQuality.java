@@ -24,6 +24,8 @@ import org.xml.sax.ErrorHandler;
 import com.helger.annotation.style.IsSPIImplementation;
 import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.CommonsLinkedHashSet;
+import com.helger.collection.commons.ICommonsOrderedSet;
 import com.helger.collection.commons.ICommonsSet;
 import com.sun.codemodel.JAssignment;
 import com.sun.codemodel.JConditional;
@@ -61,11 +63,10 @@ public class PluginCodeQuality extends AbstractPlugin
   }
 
   @Override
-  public boolean run (@NonNull final Outline aOutline,
-                      @NonNull final Options aOpts,
-                      @NonNull final ErrorHandler aErrorHandler)
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler)
   {
-    initPluginLogging (aOpts.debugMode);
     logInfo ("Running JAXB plugin -" + getOptionName ());
 
     for (final ClassOutline aClassOutline : aOutline.getClasses ())
@@ -134,7 +135,7 @@ public class PluginCodeQuality extends AbstractPlugin
     }
 
     // Get all ObjectFactory classes
-    final ICommonsSet <JDefinedClass> aObjFactories = new CommonsHashSet <> ();
+    final ICommonsOrderedSet <JDefinedClass> aObjFactories = new CommonsLinkedHashSet <> ();
     for (final CElementInfo ei : aOutline.getModel ().getAllElements ())
     {
       final JDefinedClass aClass = aOutline.getPackageContext (ei._package ())
@@ -168,7 +169,7 @@ public class PluginCodeQuality extends AbstractPlugin
           aParam.mods ().setFinal (true);
 
           // Modify method
-          aMethod.javadoc ().addReturn ().add ("The created JAXBElement and never <code>null</code>.");
+          getJavadoc (aMethod).addReturn ().add ("The created JAXBElement and never <code>null</code>.");
 
           if (false)
             if (aParam.type ().name ().equals (sByteArrayTypeName))
@@ -183,9 +184,8 @@ public class PluginCodeQuality extends AbstractPlugin
           if (aMethod.name ().startsWith ("create") && aParams.isEmpty ())
           {
             // Modify all Object createObject() methods
-            aMethod.javadoc ()
-                   .addReturn ()
-                   .add ("The created " + aMethod.type ().name () + " object and never <code>null</code>.");
+            getJavadoc (aMethod).addReturn ()
+                                .add ("The created " + aMethod.type ().name () + " object and never <code>null</code>.");
           }
       }
     }
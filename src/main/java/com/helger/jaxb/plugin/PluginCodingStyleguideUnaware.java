@@ -65,11 +65,10 @@ public class PluginCodingStyleguideUnaware extends AbstractPlugin
   }
 
   @Override
-  public boolean run (@NonNull final Outline aOutline,
-                      @NonNull final Options aOpts,
-                      @NonNull final ErrorHandler aErrorHandler)
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler)
   {
-    initPluginLogging (aOpts.debugMode);
     logInfo ("Running JAXB plugin -" + getOptionName ());
 
     final JCodeModel aCodeModel = aOutline.getCodeModel ();
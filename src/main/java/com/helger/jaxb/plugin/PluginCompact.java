@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import java.util.ArrayList;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.xml.sax.ErrorHandler;
+
+import com.helger.annotation.style.IsSPIImplementation;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsSet;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JConditional;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldRef;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JType;
+import com.sun.tools.xjc.BadCommandLineException;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.Outline;
+
+/**
+ * Create a recursive <code>compact()</code> method in all classes, that releases the slack of
+ * unmarshalled or modified object trees:
+ * <ul>
+ * <li>Empty lists are replaced with <code>null</code> - the getters recreate them on demand</li>
+ * <li>The capacity of all other lists is trimmed to the size</li>
+ * <li>All contained objects of generated classes are compacted as well</li>
+ * <li>If {@link PluginLazyOtherAttributes} is active, an empty map of foreign attributes is
+ * replaced with <code>null</code></li>
+ * </ul>
+ * With the additional option <code>-Xph-compact-after-unmarshal</code> the lists of each object
+ * are already compacted in the <code>afterUnmarshal</code> callback. As JAXB invokes this callback
+ * for every unmarshalled object, no recursion is needed there.
+ *
+ * @author Philip Helger
+ * @since 5.1.3
+ */
+@IsSPIImplementation
+public class PluginCompact extends AbstractPlugin
+{
+  public static final String OPT = "Xph-compact";
+
+  /**
+   * Suffix to the plugin option name to compact all lists in the <code>afterUnmarshal</code>
+   * callback.
+   */
+  public static final String OPT_SUFFIX_AFTER_UNMARSHAL = "-after-unmarshal";
+
+  public static final String METHOD_COMPACT = "compact";
+
+  private boolean m_bAfterUnmarshal = false;
+
+  @Override
+  public String getOptionName ()
+  {
+    return OPT;
+  }
+
+  @Override
+  public String getUsage ()
+  {
+    return "  -" + OPT + "    :  create compact() methods to trim lists of object trees\n" +
+           "  -" + OPT + OPT_SUFFIX_AFTER_UNMARSHAL + "    :  additionally trim the lists after unmarshalling";
+  }
+
+  @Override
+  public int parseArgument (final Options opt, final String [] args, final int i) throws BadCommandLineException
+  {
+    if (args[i].equals ("-" + OPT + OPT_SUFFIX_AFTER_UNMARSHAL))
+    {
+      m_bAfterUnmarshal = true;
+      return 1;
+    }
+    return 0;
+  }
+
+  private static boolean _isList (@NonNull final JFieldVar aField)
+  {
+    return aField.type ().erasure ().name ().equals ("List");
+  }
+
+  /**
+   * Add the code to trim the list fields of a single object.
+   */
+  private static void _addTrimListCode (@NonNull final JBlock aBlock,
+                                        @NonNull final JDefinedClass jClass,
+                                        @NonNull final Iterable <JFieldVar> aListFields,
+                                        @Nullable final PluginPrimitiveList aPrimitiveList)
+  {
+    final JCodeModel cm = jClass.owner ();
+    for (final JFieldVar aField : aListFields)
+    {
+      final JFieldRef aFieldRef = JExpr._this ().ref (aField);
+      final JConditional aIf = aBlock._if (aFieldRef.ne (JExpr._null ()))
+                                     ._then ()
+                                     ._if (aFieldRef.invoke ("isEmpty"));
+      aIf._then ().assign (aFieldRef, JExpr._null ());
+
+      final JClass jFieldList;
+      final JClass jPrimitiveList = aPrimitiveList == null ? null : aPrimitiveList.getListClass (jClass, aField);
+      if (jPrimitiveList != null)
+        jFieldList = jPrimitiveList;
+      else
+        jFieldList = cm.ref (ArrayList.class).narrow (((JClass) aField.type ()).getTypeParameters ().get (0));
+      aIf._elseif (aFieldRef._instanceof (jFieldList.erasure ()))
+         ._then ()
+         .add (JExpr.cast (jFieldList, aFieldRef).invoke ("trimToSize"));
+    }
+  }
+
+  @Override
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler)
+  {
+    logInfo ("Running JAXB plugin -" + getOptionName ());
+
+    final JCodeModel aCodeModel = aOutline.getCodeModel ();
+    final PluginPrimitiveList aPrimitiveList = findActivePlugin (aOpts, PluginPrimitiveList.class);
+    final boolean bLazyOtherAttributes = findActivePlugin (aOpts, PluginLazyOtherAttributes.class) != null;
+
+    // All classes that get a compact method
+    final ICommonsSet <JDefinedClass> aGeneratedClasses = new CommonsHashSet <> ();
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+      aGeneratedClasses.add (aClassOutline.implClass);
+
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+    {
+      final JDefinedClass jClass = aClassOutline.implClass;
+      if (jClass.getMethod (METHOD_COMPACT, new JType [0]) != null)
+      {
+        logWarn ("Class " + jClass.fullName () + " already has a method " + METHOD_COMPACT + "()");
+        continue;
+      }
+
+      final ICommonsList <JFieldVar> aAllFields = new CommonsArrayList <> (getAllInstanceFields (aClassOutline).keySet ());
+      final ICommonsList <JFieldVar> aListFields = new CommonsArrayList <> ();
+      for (final JFieldVar aField : aAllFields)
+        if (_isList (aField))
+          aListFields.add (aField);
+
+      // void compact ()
+      final JMethod mCompact = jClass.method (JMod.PUBLIC, aCodeModel.VOID, METHOD_COMPACT);
+      final JClass jSuper = jClass._extends ();
+      if (jSuper instanceof final JDefinedClass jdSuper && aGeneratedClasses.contains (jdSuper))
+      {
+        mCompact.annotate (Override.class);
+        mCompact.body ().add (JExpr._super ().invoke (METHOD_COMPACT));
+      }
+      _addTrimListCode (mCompact.body (), jClass, aListFields, aPrimitiveList);
+      if (bLazyOtherAttributes)
+        for (final JFieldVar aField : aAllFields)
+          if (PluginLazyOtherAttributes.isOtherAttributesField (aField))
+          {
+            // The getter recreates the map on demand
+            final JFieldRef aFieldRef = JExpr._this ().ref (aField);
+            mCompact.body ()
+                    ._if (aFieldRef.ne (JExpr._null ()).cand (aFieldRef.invoke ("isEmpty")))
+                    ._then ()
+                    .assign (aFieldRef, JExpr._null ());
+          }
+
+      // Recurse into the contained objects
+      for (final JFieldVar aField : aAllFields)
+      {
+        final JExpression aFieldRef = JExpr._this ().ref (aField);
+        if (_isList (aField))
+        {
+          final JClass aElementType = ((JClass) aField.type ()).getTypeParameters ().get (0);
+          if (aElementType instanceof final JDefinedClass jdElementType && aGeneratedClasses.contains (jdElementType))
+          {
+            final JForEach aForEach = mCompact.body ()
+                                              ._if (aFieldRef.ne (JExpr._null ()))
+                                              ._then ()
+                                              .forEach (aElementType, "aItem", aFieldRef);
+            aForEach.body ()
+                    ._if (aForEach.var ().ne (JExpr._null ()))
+                    ._then ()
+                    .add (aForEach.var ().invoke (METHOD_COMPACT));
+          }
+        }
+        else
+          if (aField.type () instanceof final JDefinedClass jdFieldType && aGeneratedClasses.contains (jdFieldType))
+            mCompact.body ()._if (aFieldRef.ne (JExpr._null ()))._then ().add (aFieldRef.invoke (METHOD_COMPACT));
+      }
+
+      getJavadoc (mCompact).add ("Release the unused memory of this object and all contained objects: empty lists are replaced\n" +
+                                 "with <code>null</code> and the capacity of all other lists is trimmed to their size.\n");
+      getJavadoc (mCompact).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+
+      if (m_bAfterUnmarshal && aListFields.isNotEmpty ())
+      {
+        // The contained objects were already handled by their own callback
+        final JMethod aAfter = getOrCreateUnmarshalCallback (jClass, METHOD_AFTER_UNMARSHAL);
+        _addTrimListCode (aAfter.body (), jClass, aListFields, aPrimitiveList);
+      }
+
+      // General information
+      getJavadoc (jClass).add ("<p>This class contains methods created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+    }
+    return true;
+  }
+}
@@ -0,0 +1,372 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.jspecify.annotations.NonNull;
+import org.xml.sax.ErrorHandler;
+
+import com.helger.annotation.style.IsSPIImplementation;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.CommonsTreeMap;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.collection.commons.ICommonsNavigableMap;
+import com.helger.collection.commons.ICommonsSet;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JPrimitiveType;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.fmt.JBinaryFile;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.model.CPropertyInfo;
+import com.sun.tools.xjc.model.CReferencePropertyInfo;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.Outline;
+
+/**
+ * Plugin that writes a report with the estimated memory and operation cost of each generated class
+ * to the target directory, as CSV ({@value #FILENAME_CSV}) and JSON ({@value #FILENAME_JSON}). All
+ * values are computed for a complete instance, including the fields of the generated super classes:
+ * <ul>
+ * <li><code>hierarchyDepth</code> - the number of generated super classes</li>
+ * <li><code>fields</code> - the number of instance fields</li>
+ * <li><code>shallowSize</code> - the estimated instance size in bytes on a 64 bit JVM with compressed
+ * oops (12 byte header, 4 byte references, 8 byte alignment)</li>
+ * <li><code>shallowSizeUncompressed</code> - the same without compressed oops (16 byte header, 8
+ * byte references)</li>
+ * <li><code>boxedFields</code> and <code>boxedBytes</code> - the number of fields with a boxed
+ * primitive type and the size of the boxes, if all of them are set</li>
+ * <li><code>listFields</code> - the number of list fields</li>
+ * <li><code>anyFields</code> - the number of <code>xs:any</code> properties plus 1 for
+ * <code>xs:anyAttribute</code></li>
+ * <li><code>directFanOut</code> - the number of generated classes used as field types</li>
+ * <li><code>reachableFanOut</code> - the number of generated classes transitively reachable via
+ * field types. This is an indicator for the cost of deep operations like <code>clone</code> or
+ * <code>equals</code></li>
+ * </ul>
+ * The reports are written with the generated sources, so they also work together with
+ * {@link PluginWriteIfChanged}.
+ *
+ * @author Philip Helger
+ * @since 5.1.3
+ */
+@IsSPIImplementation
+public class PluginCostReport extends AbstractPlugin
+{
+  public static final String OPT = "Xph-cost-report";
+  public static final String FILENAME_CSV = "ph-jaxb-plugin-cost-report.csv";
+  public static final String FILENAME_JSON = "ph-jaxb-plugin-cost-report.json";
+
+  private static final int HEADER_SIZE_COMPRESSED = 12;
+  private static final int HEADER_SIZE_UNCOMPRESSED = 16;
+  private static final int REFERENCE_SIZE_COMPRESSED = 4;
+  private static final int REFERENCE_SIZE_UNCOMPRESSED = 8;
+  private static final int OBJECT_ALIGNMENT = 8;
+
+  /** The instance size of the boxed primitive types with compressed oops */
+  private static final ICommonsMap <String, Integer> BOX_SIZES = new CommonsHashMap <> ();
+  static
+  {
+    BOX_SIZES.put (Boolean.class.getName (), Integer.valueOf (16));
+    BOX_SIZES.put (Byte.class.getName (), Integer.valueOf (16));
+    BOX_SIZES.put (Character.class.getName (), Integer.valueOf (16));
+    BOX_SIZES.put (Short.class.getName (), Integer.valueOf (16));
+    BOX_SIZES.put (Integer.class.getName (), Integer.valueOf (16));
+    BOX_SIZES.put (Float.class.getName (), Integer.valueOf (16));
+    BOX_SIZES.put (Long.class.getName (), Integer.valueOf (24));
+    BOX_SIZES.put (Double.class.getName (), Integer.valueOf (24));
+  }
+
+  private static final String [] COLUMNS = { "class",
+                                             "hierarchyDepth",
+                                             "fields",
+                                             "shallowSize",
+                                             "shallowSizeUncompressed",
+                                             "boxedFields",
+                                             "boxedBytes",
+                                             "listFields",
+                                             "anyFields",
+                                             "directFanOut",
+                                             "reachableFanOut" };
+
+  @Override
+  public String getOptionName ()
+  {
+    return OPT;
+  }
+
+  @Override
+  public String getUsage ()
+  {
+    return "  -" + OPT + "    :  write a CSV and JSON report with the estimated memory and operation cost per class";
+  }
+
+  private static int _align (final int nSize)
+  {
+    return (nSize + OBJECT_ALIGNMENT - 1) / OBJECT_ALIGNMENT * OBJECT_ALIGNMENT;
+  }
+
+  /**
+   * Get the size of a primitive value in a field or an array.
+   *
+   * @param aType
+   *        The primitive type. May not be <code>null</code>.
+   * @return The size in bytes.
+   */
+  static int getPrimitiveSize (@NonNull final JPrimitiveType aType)
+  {
+    switch (aType.name ())
+    {
+      case "boolean":
+      case "byte":
+        return 1;
+      case "short":
+      case "char":
+        return 2;
+      case "long":
+      case "double":
+        return 8;
+      // int and float
+    }
+    return 4;
+  }
+
+  /**
+   * Collect all generated classes contained in the provided type, including the type parameters
+   * (e.g. <code>List&lt;JAXBElement&lt;X&gt;&gt;</code>).
+   */
+  private static void _collectGeneratedTypes (@NonNull final JType aType,
+                                              @NonNull final ICommonsSet <JDefinedClass> aGeneratedClasses,
+                                              @NonNull final ICommonsSet <JDefinedClass> aTarget)
+  {
+    if (aType instanceof final JDefinedClass jdType)
+    {
+      if (aGeneratedClasses.contains (jdType))
+        aTarget.add (jdType);
+    }
+    else
+      if (aType instanceof final JClass jType)
+        for (final JClass aTypeParam : jType.getTypeParameters ())
+          _collectGeneratedTypes (aTypeParam, aGeneratedClasses, aTarget);
+  }
+
+  /**
+   * Get all fields that are part of an instance of the provided class.
+   *
+   * @param jClass
+   *        The class to start at. May not be <code>null</code>.
+   * @param aGeneratedClasses
+   *        All generated classes. Only the fields of these super classes are considered. May not be
+   *        <code>null</code>.
+   * @return All non-static fields of the class and its generated super classes. Transient fields
+   *         are included, because they use memory as well.
+   */
+  @NonNull
+  static ICommonsList <JFieldVar> getAllFieldsOfHierarchy (@NonNull final JDefinedClass jClass,
+                                                         @NonNull final ICommonsSet <JDefinedClass> aGeneratedClasses)
+  {
+    final ICommonsList <JFieldVar> ret = new CommonsArrayList <> ();
+    JClass jCur = jClass;
+    while (jCur instanceof final JDefinedClass jdCur && aGeneratedClasses.contains (jdCur))
+    {
+      for (final JFieldVar aField : jdCur.fields ().values ())
+        if ((aField.mods ().getValue () & JMod.STATIC) == 0)
+          ret.add (aField);
+      jCur = jdCur._extends ();
+    }
+    return ret;
+  }
+
+  /**
+   * Estimate the shallow size of an instance with the provided fields on a 64 bit JVM.
+   *
+   * @param aFields
+   *        All fields of the instance. May not be <code>null</code>.
+   * @param bCompressedOops
+   *        <code>true</code> to assume compressed oops, <code>false</code> if not.
+   * @return The estimated size in bytes, aligned to 8 bytes.
+   */
+  static int getShallowSize (@NonNull final Iterable <JFieldVar> aFields, final boolean bCompressedOops)
+  {
+    int ret = bCompressedOops ? HEADER_SIZE_COMPRESSED : HEADER_SIZE_UNCOMPRESSED;
+    for (final JFieldVar aField : aFields)
+      if (aField.type () instanceof final JPrimitiveType aPrimitiveType)
+        ret += getPrimitiveSize (aPrimitiveType);
+      else
+        ret += bCompressedOops ? REFERENCE_SIZE_COMPRESSED : REFERENCE_SIZE_UNCOMPRESSED;
+    return _align (ret);
+  }
+
+  @NonNull
+  private static String _getCSV (@NonNull final ICommonsNavigableMap <String, long []> aRows)
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    aSB.append (String.join (",", COLUMNS)).append ('\n');
+    for (final Map.Entry <String, long []> aEntry : aRows.entrySet ())
+    {
+      aSB.append (aEntry.getKey ());
+      for (final long nValue : aEntry.getValue ())
+        aSB.append (',').append (nValue);
+      aSB.append ('\n');
+    }
+    return aSB.toString ();
+  }
+
+  @NonNull
+  private static String _getJSON (@NonNull final ICommonsNavigableMap <String, long []> aRows)
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    aSB.append ("[");
+    boolean bFirst = true;
+    for (final Map.Entry <String, long []> aEntry : aRows.entrySet ())
+    {
+      aSB.append (bFirst ? "\n" : ",\n");
+      bFirst = false;
+      // Class names never need escaping
+      aSB.append ("  {\"").append (COLUMNS[0]).append ("\":\"").append (aEntry.getKey ()).append ('"');
+      final long [] aValues = aEntry.getValue ();
+      for (int i = 0; i < aValues.length; ++i)
+        aSB.append (",\"").append (COLUMNS[i + 1]).append ("\":").append (aValues[i]);
+      aSB.append ('}');
+    }
+    aSB.append ("\n]\n");
+    return aSB.toString ();
+  }
+
+  private static void _addFile (@NonNull final JCodeModel aCodeModel,
+                                @NonNull final String sFilename,
+                                @NonNull final String sContent)
+  {
+    final JBinaryFile aFile = new JBinaryFile (sFilename);
+    try
+    {
+      aFile.getDataStore ().write (sContent.getBytes (StandardCharsets.UTF_8));
+    }
+    catch (final IOException ex)
+    {
+      // Cannot happen for an in-memory stream
+      throw new UncheckedIOException (ex);
+    }
+    aCodeModel.rootPackage ().addResourceFile (aFile);
+  }
+
+  @Override
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler)
+  {
+    logInfo ("Running JAXB plugin -" + getOptionName ());
+
+    final ICommonsSet <JDefinedClass> aGeneratedClasses = new CommonsHashSet <> ();
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+      aGeneratedClasses.add (aClassOutline.implClass);
+
+    // The generated classes directly used by each class
+    final ICommonsMap <JDefinedClass, ICommonsSet <JDefinedClass>> aDirect = new CommonsHashMap <> ();
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+    {
+      final ICommonsSet <JDefinedClass> aUsed = new CommonsHashSet <> ();
+      for (final JFieldVar aField : getAllFieldsOfHierarchy (aClassOutline.implClass, aGeneratedClasses))
+        _collectGeneratedTypes (aField.type (), aGeneratedClasses, aUsed);
+      aDirect.put (aClassOutline.implClass, aUsed);
+    }
+
+    // Sorted by class name for a stable output
+    final ICommonsNavigableMap <String, long []> aRows = new CommonsTreeMap <> ();
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+    {
+      final JDefinedClass jClass = aClassOutline.implClass;
+
+      int nHierarchyDepth = 0;
+      int nListFields = 0;
+      int nAnyFields = 0;
+      ClassOutline aCur = aClassOutline;
+      while (aCur != null)
+      {
+        for (final CPropertyInfo aPI : aCur.target.getProperties ())
+          if (aPI instanceof final CReferencePropertyInfo aRefPI && aRefPI.getWildcard () != null)
+            nAnyFields++;
+        if (aCur.target.declaresAttributeWildcard ())
+          nAnyFields++;
+        aCur = aCur.getSuperClass ();
+        if (aCur != null)
+          nHierarchyDepth++;
+      }
+
+      final ICommonsList <JFieldVar> aFields = getAllFieldsOfHierarchy (jClass, aGeneratedClasses);
+      int nBoxedFields = 0;
+      int nBoxedBytes = 0;
+      for (final JFieldVar aField : aFields)
+      {
+        final JType aType = aField.type ();
+        if (!aType.isPrimitive ())
+        {
+          final Integer aBoxSize = BOX_SIZES.get (aType.fullName ());
+          if (aBoxSize != null)
+          {
+            nBoxedFields++;
+            nBoxedBytes += aBoxSize.intValue ();
+          }
+          if (aType.erasure ().name ().equals ("List"))
+            nListFields++;
+        }
+      }
+
+      // All transitively reachable classes
+      final ICommonsSet <JDefinedClass> aReachable = new CommonsHashSet <> ();
+      final ICommonsList <JDefinedClass> aOpen = new CommonsArrayList <> (aDirect.get (jClass));
+      while (aOpen.isNotEmpty ())
+      {
+        final JDefinedClass jNext = aOpen.remove (aOpen.size () - 1);
+        if (aReachable.add (jNext))
+          aOpen.addAll (aDirect.get (jNext));
+      }
+      // Don't count the class itself for recursive structures
+      aReachable.remove (jClass);
+
+      final ICommonsSet <JDefinedClass> aDirectWithoutSelf = new CommonsHashSet <> (aDirect.get (jClass));
+      aDirectWithoutSelf.remove (jClass);
+
+      aRows.put (jClass.fullName (),
+                 new long [] { nHierarchyDepth,
+                               aFields.size (),
+                               getShallowSize (aFields, true),
+                               getShallowSize (aFields, false),
+                               nBoxedFields,
+                               nBoxedBytes,
+                               nListFields,
+                               nAnyFields,
+                               aDirectWithoutSelf.size (),
+                               aReachable.size () });
+    }
+
+    _addFile (aOutline.getCodeModel (), FILENAME_CSV, _getCSV (aRows));
+    _addFile (aOutline.getCodeModel (), FILENAME_JSON, _getJSON (aRows));
+    logInfo ("Wrote the cost report for " + aRows.size () + " classes");
+    return true;
+  }
+}
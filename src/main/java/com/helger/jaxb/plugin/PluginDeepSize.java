@@ -0,0 +1,431 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+
+import org.jspecify.annotations.NonNull;
+import org.xml.sax.ErrorHandler;
+
+import com.helger.annotation.style.IsSPIImplementation;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.ICommonsSet;
+import com.sun.codemodel.ClassType;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JPackage;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.Outline;
+
+import jakarta.xml.bind.JAXBElement;
+
+/**
+ * Create a method <code>long estimateDeepSize()</code> in all classes, that returns the approximate
+ * retained heap size of the object and all contained objects, e.g. for size based cache eviction.
+ * No reflection is used:
+ * <ul>
+ * <li>The shallow size of each class is computed at generation time, with the same layout
+ * constants as {@link PluginCostReport} (64 bit JVM with compressed oops)</li>
+ * <li>The size of strings, lists, maps, byte arrays, boxed numbers and <code>JAXBElement</code>s is
+ * estimated at runtime. The lists created by {@link PluginPrimitiveList} are counted with their
+ * backing primitive array, if that plugin is active. Strings are assumed to use the compact Latin-1 representation. Enum
+ * constants are shared and therefore not counted. Other objects (e.g. dates or DOM nodes) are
+ * counted with a constant size</li>
+ * <li>The helper class {@value #CLASS_NAME} is created once, in the package of the first class. All
+ * classes implement its nested interface <code>IEstimable</code></li>
+ * </ul>
+ * Object trees are expected to be acyclic and without shared objects, as created by unmarshalling.
+ *
+ * @author Philip Helger
+ * @since 5.1.3
+ */
+@IsSPIImplementation
+public class PluginDeepSize extends AbstractPlugin
+{
+  public static final String OPT = "Xph-deep-size";
+  public static final String CLASS_NAME = "JAXBDeepSize";
+  public static final String METHOD_ESTIMATE_DEEP_SIZE = "estimateDeepSize";
+  public static final String METHOD_ESTIMATE_REFERENCED_SIZE = "estimateReferencedSize";
+  /** The estimated size of objects of an unknown type */
+  public static final int DEFAULT_VALUE_SIZE = 64;
+
+  @Override
+  public String getOptionName ()
+  {
+    return OPT;
+  }
+
+  @Override
+  public String getUsage ()
+  {
+    return "  -" + OPT + "    :  create estimateDeepSize() methods to estimate the retained heap size of object trees";
+  }
+
+  /**
+   * Create the helper class.
+   *
+   * @param aPackage
+   *        The package to create the class in. May not be <code>null</code>.
+   * @return The nested interface <code>IEstimable</code> of the helper class. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  private static JDefinedClass _createHelperClass (@NonNull final JPackage aPackage)
+  {
+    final JCodeModel cm = aPackage.owner ();
+    final JDefinedClass jHelper;
+    final JDefinedClass jEstimable;
+    try
+    {
+      jHelper = aPackage._class (JMod.PUBLIC | JMod.FINAL, CLASS_NAME);
+      jEstimable = jHelper._interface (JMod.PUBLIC, "IEstimable");
+    }
+    catch (final JClassAlreadyExistsException ex)
+    {
+      throw new IllegalStateException ("Failed to create class " + CLASS_NAME + " in " + aPackage.name (), ex);
+    }
+    jHelper.javadoc ()
+           .add ("Helper methods to estimate the retained heap size of object trees on a 64 bit JVM with\n" +
+                 "compressed oops.\n" +
+                 "<p>This class was created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+    jHelper.constructor (JMod.PRIVATE);
+
+    jEstimable.javadoc ().add ("Implemented by all classes that can estimate their retained heap size.");
+    {
+      final JMethod m = jEstimable.method (JMod.NONE, cm.LONG, METHOD_ESTIMATE_DEEP_SIZE);
+      m.javadoc ().addReturn ().add ("The estimated size of this object and all contained objects in bytes.");
+    }
+
+    final JClass jObject = cm.ref (Object.class);
+    final JClass jListType = cm.ref (List.class).narrow (jObject.wildcard ());
+    final JClass jMapType = cm.ref (Map.class).narrow (jObject.wildcard (), jObject.wildcard ());
+
+    // long align (long)
+    final JMethod mAlign = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.LONG, "align");
+    {
+      final JVar aSize = mAlign.param (JMod.FINAL, cm.LONG, "nSize");
+      mAlign.body ()._return (aSize.plus (JExpr.lit (7)).div (JExpr.lit (8)).mul (JExpr.lit (8)));
+      mAlign.javadoc ().addParam (aSize).add ("The raw size in bytes.");
+      mAlign.javadoc ().addReturn ().add ("The size aligned to 8 bytes.");
+    }
+
+    // long getStringSize (String)
+    final JMethod mString = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.LONG, "getStringSize");
+    {
+      final JVar aValue = mString.param (JMod.FINAL, String.class, "s");
+      // String object plus byte array
+      mString.body ()
+             ._return (JOp.cond (aValue.eq (JExpr._null ()),
+                                 JExpr.lit (0L),
+                                 JExpr.lit (24L)
+                                      .plus (JExpr.invoke (mAlign).arg (JExpr.lit (16L).plus (aValue.invoke ("length"))))));
+      mString.javadoc ().addParam (aValue).add ("The string. May be <code>null</code>.");
+      mString.javadoc ().addReturn ().add ("The estimated size in bytes.");
+    }
+
+    // Declared here, because the list and map methods call it
+    final JMethod mValue = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.LONG, "getValueSize");
+
+    // long getListSize (List<?>)
+    final JMethod mList = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.LONG, "getListSize");
+    {
+      final JVar aList = mList.param (JMod.FINAL, jListType, "aList");
+      final JBlock aBody = mList.body ();
+      aBody._if (aList.eq (JExpr._null ()))._then ()._return (JExpr.lit (0L));
+      // ArrayList object plus array
+      final JVar aRet = aBody.decl (cm.LONG,
+                                    "ret",
+                                    JExpr.lit (24L)
+                                         .plus (JExpr.invoke (mAlign)
+                                                     .arg (JExpr.lit (16L)
+                                                                .plus (JExpr.lit (4L).mul (aList.invoke ("size"))))));
+      final JForEach aForEach = aBody.forEach (jObject, "aItem", aList);
+      aForEach.body ().assignPlus (aRet, JExpr.invoke (mValue).arg (aForEach.var ()));
+      aBody._return (aRet);
+      mList.javadoc ().addParam (aList).add ("The list. May be <code>null</code>.");
+      mList.javadoc ().addReturn ().add ("The estimated size of the list and all elements in bytes.");
+    }
+
+    // long getMapSize (Map<?,?>)
+    final JMethod mMap = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.LONG, "getMapSize");
+    {
+      final JVar aMap = mMap.param (JMod.FINAL, jMapType, "aMap");
+      final JBlock aBody = mMap.body ();
+      aBody._if (aMap.eq (JExpr._null ()))._then ()._return (JExpr.lit (0L));
+      // HashMap object plus table with the default load factor
+      final JVar aRet = aBody.decl (cm.LONG,
+                                    "ret",
+                                    JExpr.lit (48L)
+                                         .plus (JExpr.invoke (mAlign)
+                                                     .arg (JExpr.lit (16L)
+                                                                .plus (JExpr.lit (8L).mul (aMap.invoke ("size"))))));
+      final JForEach aForEach = aBody.forEach (cm.ref (Map.Entry.class).narrow (jObject.wildcard (), jObject.wildcard ()),
+                                               "aEntry",
+                                               aMap.invoke ("entrySet"));
+      // One node per entry
+      aForEach.body ()
+              .assignPlus (aRet,
+                           JExpr.lit (32L)
+                                .plus (JExpr.invoke (mValue).arg (aForEach.var ().invoke ("getKey")))
+                                .plus (JExpr.invoke (mValue).arg (aForEach.var ().invoke ("getValue"))));
+      aBody._return (aRet);
+      mMap.javadoc ().addParam (aMap).add ("The map. May be <code>null</code>.");
+      mMap.javadoc ().addReturn ().add ("The estimated size of the map and all entries in bytes.");
+    }
+
+    // long getPrimitiveListSize (long, int, int)
+    {
+      final JMethod m = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.LONG, "getPrimitiveListSize");
+      final JVar aFixedSize = m.param (JMod.FINAL, cm.LONG, "nFixedSize");
+      final JVar aElementSize = m.param (JMod.FINAL, cm.INT, "nElementSize");
+      final JVar aSize = m.param (JMod.FINAL, cm.INT, "nSize");
+      // List object plus primitive array
+      m.body ()
+       ._return (aFixedSize.plus (JExpr.invoke (mAlign)
+                                       .arg (JExpr.lit (16L).plus (JExpr.cast (cm.LONG, aElementSize).mul (aSize)))));
+      m.javadoc ().add ("Estimate the size of a list backed by a primitive array.");
+      m.javadoc ().addParam (aFixedSize).add ("The size of the list object and all other objects it owns.");
+      m.javadoc ().addParam (aElementSize).add ("The size of a single array element in bytes.");
+      m.javadoc ().addParam (aSize).add ("The number of list elements.");
+      m.javadoc ().addReturn ().add ("The estimated size in bytes.");
+    }
+
+    // long getValueSize (Object)
+    {
+      final JVar aValue = mValue.param (JMod.FINAL, jObject, "aValue");
+      final JBlock aBody = mValue.body ();
+      // Enum constants are shared
+      aBody._if (aValue.eq (JExpr._null ()).cor (aValue._instanceof (cm.ref (Enum.class))))
+           ._then ()
+           ._return (JExpr.lit (0L));
+      aBody._if (aValue._instanceof (jEstimable))
+           ._then ()
+           ._return (JExpr.cast (jEstimable, aValue).invoke (METHOD_ESTIMATE_DEEP_SIZE));
+      aBody._if (aValue._instanceof (cm.ref (String.class)))
+           ._then ()
+           ._return (JExpr.invoke (mString).arg (JExpr.cast (cm.ref (String.class), aValue)));
+      aBody._if (aValue._instanceof (cm.ref (List.class)))
+           ._then ()
+           ._return (JExpr.invoke (mList).arg (JExpr.cast (jListType, aValue)));
+      aBody._if (aValue._instanceof (cm.ref (Map.class)))
+           ._then ()
+           ._return (JExpr.invoke (mMap).arg (JExpr.cast (jMapType, aValue)));
+      aBody._if (aValue._instanceof (cm.BYTE.array ()))
+           ._then ()
+           ._return (JExpr.invoke (mAlign)
+                          .arg (JExpr.lit (16L).plus (JExpr.cast (cm.BYTE.array (), aValue).ref ("length"))));
+      aBody._if (aValue._instanceof (cm.ref (JAXBElement.class)))
+           ._then ()
+           ._return (JExpr.lit (32L)
+                          .plus (JExpr.invoke (mValue)
+                                      .arg (JExpr.cast (cm.ref (JAXBElement.class).narrow (jObject.wildcard ()), aValue)
+                                                 .invoke ("getValue"))));
+      // BigInteger object plus int array
+      final JExpression aBigIntegerSize = JExpr.lit (40L)
+                                               .plus (JExpr.invoke (mAlign)
+                                                           .arg (JExpr.lit (16L)
+                                                                      .plus (JExpr.lit (4L)
+                                                                                  .mul (JExpr.cast (cm.ref (BigInteger.class),
+                                                                                                    aValue)
+                                                                                             .invoke ("bitLength")
+                                                                                             .div (JExpr.lit (32))
+                                                                                             .plus (JExpr.lit (1))))));
+      aBody._if (aValue._instanceof (cm.ref (BigInteger.class)))._then ()._return (aBigIntegerSize);
+      // Small unscaled values are stored inline
+      final JExpression aPrecision = JExpr.cast (cm.ref (BigDecimal.class), aValue).invoke ("precision");
+      aBody._if (aValue._instanceof (cm.ref (BigDecimal.class)))
+           ._then ()
+           ._return (JExpr.lit (40L)
+                          .plus (JOp.cond (aPrecision.gt (JExpr.lit (18)),
+                                           JExpr.lit (40L)
+                                                .plus (JExpr.invoke (mAlign)
+                                                            .arg (JExpr.lit (16L)
+                                                                       .plus (JExpr.lit (4L)
+                                                                                   .mul (aPrecision.div (JExpr.lit (9))
+                                                                                                   .plus (JExpr.lit (1)))))),
+                                           JExpr.lit (0L))));
+      aBody._if (aValue._instanceof (cm.ref (Long.class)).cor (aValue._instanceof (cm.ref (Double.class))))
+           ._then ()
+           ._return (JExpr.lit (24L));
+      aBody._if (aValue._instanceof (cm.ref (Number.class))
+                       .cor (aValue._instanceof (cm.ref (Boolean.class)))
+                       .cor (aValue._instanceof (cm.ref (Character.class))))
+           ._then ()
+           ._return (JExpr.lit (16L));
+      aBody._return (JExpr.lit ((long) DEFAULT_VALUE_SIZE));
+      mValue.javadoc ()
+            .add ("Estimate the size of an arbitrary value. Objects of unknown types are counted with " +
+                  DEFAULT_VALUE_SIZE +
+                  " bytes.");
+      mValue.javadoc ().addParam (aValue).add ("The value. May be <code>null</code>.");
+      mValue.javadoc ().addReturn ().add ("The estimated size in bytes.");
+    }
+    return jEstimable;
+  }
+
+  /**
+   * Get the size of a list object created by {@link PluginPrimitiveList}, without the primitive
+   * array.
+   *
+   * @param nEnumConstantCount
+   *        The number of enum constants for enum lists, 0 for numeric lists.
+   * @return The size in bytes.
+   */
+  private static long _getPrimitiveListFixedSize (final int nEnumConstantCount)
+  {
+    // Header, data reference, size and the modCount of AbstractList
+    if (nEnumConstantCount == 0)
+      return 24L;
+    // Additionally the enum class reference and the own array of all constants
+    return 32L + (16L + 4L * nEnumConstantCount + 7) / 8 * 8;
+  }
+
+  @Override
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler)
+  {
+    logInfo ("Running JAXB plugin -" + getOptionName ());
+
+    final JCodeModel aCodeModel = aOutline.getCodeModel ();
+    final PluginPrimitiveList aPrimitiveListPlugin = findActivePlugin (aOpts, PluginPrimitiveList.class);
+    final ICommonsSet <JDefinedClass> aGeneratedClasses = new CommonsHashSet <> ();
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+      aGeneratedClasses.add (aClassOutline.implClass);
+    if (aGeneratedClasses.isEmpty ())
+      return true;
+
+    // One helper class for all packages
+    final JDefinedClass jEstimable = _createHelperClass (aOutline.getClasses ().iterator ().next ().implClass._package ());
+    final JClass jHelper = jEstimable.outer ();
+
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+    {
+      final JDefinedClass jClass = aClassOutline.implClass;
+      final boolean bHasSuper = jClass._extends () instanceof final JDefinedClass jdSuper &&
+                                aGeneratedClasses.contains (jdSuper);
+      if (!bHasSuper)
+        jClass._implements (jEstimable);
+
+      // long estimateReferencedSize ()
+      final JMethod mReferenced = jClass.method (JMod.PROTECTED, aCodeModel.LONG, METHOD_ESTIMATE_REFERENCED_SIZE);
+      if (bHasSuper)
+        mReferenced.annotate (Override.class);
+      final JVar aRet = mReferenced.body ()
+                                   .decl (aCodeModel.LONG,
+                                          "ret",
+                                          bHasSuper ? JExpr._super ().invoke (METHOD_ESTIMATE_REFERENCED_SIZE)
+                                                    : JExpr.lit (0L));
+      for (final JFieldVar aField : jClass.fields ().values ())
+      {
+        if ((aField.mods ().getValue () & JMod.STATIC) != 0)
+          continue;
+        final JType aType = aField.type ();
+        if (aType.isPrimitive ())
+        {
+          // Part of the shallow size
+          continue;
+        }
+
+        final JExpression aFieldRef = JExpr._this ().ref (aField);
+        if (aType instanceof final JDefinedClass jdType)
+        {
+          if (aGeneratedClasses.contains (jdType))
+          {
+            // Direct invocation
+            mReferenced.body ()
+                       ._if (aFieldRef.ne (JExpr._null ()))
+                       ._then ()
+                       .assignPlus (aRet, aFieldRef.invoke (METHOD_ESTIMATE_DEEP_SIZE));
+            continue;
+          }
+          if (jdType.getClassType () == ClassType.ENUM)
+          {
+            // Enum constants are shared
+            continue;
+          }
+        }
+
+        final JClass jPrimitiveList = aPrimitiveListPlugin == null ? null : aPrimitiveListPlugin.getListClass (jClass,
+                                                                                                                aField);
+        if (jPrimitiveList != null)
+        {
+          // The list may still be a regular list, if it contains null values
+          mReferenced.body ()
+                     .assignPlus (aRet,
+                                  JOp.cond (aFieldRef._instanceof (jPrimitiveList.erasure ()),
+                                            jHelper.staticInvoke ("getPrimitiveListSize")
+                                                   .arg (JExpr.lit (_getPrimitiveListFixedSize (aPrimitiveListPlugin.getEnumConstantCount (jClass,
+                                                                                                                                             aField))))
+                                                   .arg (JExpr.lit (PluginCostReport.getPrimitiveSize (aPrimitiveListPlugin.getStoredType (jClass,
+                                                                                                                                          aField))))
+                                                   .arg (aFieldRef.invoke ("size")),
+                                            jHelper.staticInvoke ("getListSize").arg (aFieldRef)));
+          continue;
+        }
+
+        final String sHelperMethod;
+        if (aType.fullName ().equals (String.class.getName ()))
+          sHelperMethod = "getStringSize";
+        else
+          if (aType.erasure ().name ().equals ("List"))
+            sHelperMethod = "getListSize";
+          else
+            sHelperMethod = "getValueSize";
+        mReferenced.body ().assignPlus (aRet, jHelper.staticInvoke (sHelperMethod).arg (aFieldRef));
+      }
+      mReferenced.body ()._return (aRet);
+      getJavadoc (mReferenced).add ("Estimate the size of all objects referenced by the fields of this object.");
+      getJavadoc (mReferenced).addReturn ().add ("The estimated size in bytes.");
+      getJavadoc (mReferenced).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+
+      // long estimateDeepSize ()
+      final int nShallowSize = PluginCostReport.getShallowSize (PluginCostReport.getAllFieldsOfHierarchy (jClass,
+                                                                                                          aGeneratedClasses),
+                                                                true);
+      final JMethod mDeep = jClass.method (JMod.PUBLIC, aCodeModel.LONG, METHOD_ESTIMATE_DEEP_SIZE);
+      mDeep.annotate (Override.class);
+      mDeep.body ()._return (JExpr.lit ((long) nShallowSize).plus (JExpr.invoke (mReferenced)));
+      getJavadoc (mDeep).add ("Estimate the retained heap size of this object and all contained objects. The shallow size\n" +
+                              "of " +
+                              nShallowSize +
+                              " bytes was computed at generation time.");
+      getJavadoc (mDeep).addReturn ().add ("The estimated size in bytes.");
+      getJavadoc (mDeep).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+
+      // General information
+      getJavadoc (jClass).add ("<p>This class contains methods created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+    }
+    return true;
+  }
+}
@@ -67,11 +67,10 @@ public class PluginDefaultLocale extends AbstractPlugin
   }
 
   @Override
-  public boolean run (@NonNull final Outline aOutline,
-                      @NonNull final Options aOpts,
-                      @NonNull final ErrorHandler aErrorHandler)
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler)
   {
-    initPluginLogging (aOpts.debugMode);
     // Nothing to do here
     return true;
   }
@@ -16,6 +16,10 @@
  */
 package com.helger.jaxb.plugin;
 
+import java.util.List;
+import java.util.Objects;
+
+import org.jspecify.annotations.NonNull;
 import org.w3c.dom.Node;
 import org.xml.sax.ErrorHandler;
 
@@ -25,9 +29,12 @@ import com.helger.base.equals.EqualsHelper;
 import com.helger.base.hashcode.HashCodeCalculator;
 import com.helger.base.hashcode.HashCodeGenerator;
 import com.helger.base.reflection.GenericReflection;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
 import com.helger.collection.commons.ICommonsOrderedMap;
 import com.helger.collection.helper.CollectionEqualsHelper;
 import com.helger.jaxb.adapter.JAXBHelper;
+import com.helger.jaxb.plugin.cm.MyConditionalAndOp;
 import com.sun.codemodel.JBlock;
 import com.sun.codemodel.JClass;
 import com.sun.codemodel.JCodeModel;
@@ -70,10 +77,33 @@ public class PluginEqualsHashCode extends AbstractPlugin
            "    :  auto implement equals and hashCode using com.helger.base.equals.EqualsHelper and com.helger.base.hashcode.HashCodeGenerator";
   }
 
+  /**
+   * Add the code that returns <code>true</code> if all conditions are fulfilled.
+   *
+   * @param aBlock
+   *        The block to add the code to. May not be <code>null</code>.
+   * @param aConditions
+   *        The conditions to check. May not be <code>null</code>.
+   */
+  private void _addConditions (@NonNull final JBlock aBlock, @NonNull final List <JExpression> aConditions)
+  {
+    if (isLeanMode ())
+    {
+      // return a && b && ...;
+      aBlock._return (aConditions.isEmpty () ? JExpr.TRUE : MyConditionalAndOp.cand (aConditions));
+    }
+    else
+    {
+      // if(!a)return false; ...
+      for (final JExpression aCondition : aConditions)
+        aBlock._if (JOp.not (aCondition))._then ()._return (JExpr.FALSE);
+      aBlock._return (JExpr.TRUE);
+    }
+  }
+
   @Override
-  public boolean run (final Outline aOutline, final Options aOpts, final ErrorHandler aErrorHandler)
+  protected boolean runPlugin (final Outline aOutline, final Options aOpts, final ErrorHandler aErrorHandler)
   {
-    initPluginLogging (aOpts.debugMode);
     logInfo ("Running JAXB plugin -" + getOptionName ());
 
     final JCodeModel aCodeModel = aOutline.getCodeModel ();
@@ -85,24 +115,41 @@ public class PluginEqualsHashCode extends AbstractPlugin
     final JClass jHashCodeCalculator = aCodeModel.ref (HashCodeCalculator.class);
     final JClass jHashCodeGenerator = aCodeModel.ref (HashCodeGenerator.class);
     final JClass jGenericReflection = aCodeModel.ref (GenericReflection.class);
+    final JClass jObjects = aCodeModel.ref (Objects.class);
+    final PluginPrimitiveList aPrimitiveList = findActivePlugin (aOpts, PluginPrimitiveList.class);
+    final boolean bLazyOtherAttributes = findActivePlugin (aOpts, PluginLazyOtherAttributes.class) != null;
+    final PluginPresenceBitset aPresenceBitset = findActivePlugin (aOpts, PluginPresenceBitset.class);
+    final PluginSharedHelper aSharedHelper = findActivePlugin (aOpts, PluginSharedHelper.class);
+    final PluginJFREvents aJFREvents = findActivePlugin (aOpts, PluginJFREvents.class);
+    final PluginBinaryDataHandler aBinaryDataHandler = findActivePlugin (aOpts, PluginBinaryDataHandler.class);
     for (final ClassOutline aClassOutline : aOutline.getClasses ())
     {
       final FieldOutline [] aFields = aClassOutline.getDeclaredFields ();
       final ICommonsOrderedMap <JFieldVar, String> aFieldVars = getAllInstanceFields (aClassOutline);
       final JDefinedClass jClass = aClassOutline.implClass;
       final boolean bIsRoot = jClass._extends () == null || jClass._extends ().equals (jObject);
+      final String sPresenceFieldName = aPresenceBitset == null ? null
+                                                                : aPresenceBitset.getPresenceFieldName (aClassOutline);
+      // Classes that only delegate to the super class are recorded by the super class
+      final boolean bRecord = aJFREvents != null && (bIsRoot || aFields.length > 0);
 
       // equals
       {
-        final JMethod mEquals = jClass.method (JMod.PUBLIC, aCodeModel.BOOLEAN, "equals");
-        mEquals.annotate (Override.class);
+        final JMethod mEquals;
+        if (bRecord)
+          mEquals = aJFREvents.createUnrecordedMethod (jClass, aCodeModel.BOOLEAN, "equals");
+        else
+        {
+          mEquals = jClass.method (JMod.PUBLIC, aCodeModel.BOOLEAN, "equals");
+          mEquals.annotate (Override.class);
+        }
         final JVar param = mEquals.param (JMod.FINAL, aCodeModel.ref (Object.class), "o");
         final JBlock jBody = mEquals.body ();
 
         if (!bIsRoot && aFields.length == 0)
         {
           // No additional fields -> no need to create code
-          jBody._return (JExpr._super ().invoke (mEquals).arg (param));
+          jBody._return (JExpr._super ().invoke ("equals").arg (param));
         }
         else
         {
@@ -119,12 +166,20 @@ public class PluginEqualsHashCode extends AbstractPlugin
           else
           {
             // if(!super.equals(this))return false;
-            jBody._if (JOp.not (JExpr._super ().invoke (mEquals).arg (param)))._then ()._return (JExpr.FALSE);
+            jBody._if (JOp.not (JExpr._super ().invoke ("equals").arg (param)))._then ()._return (JExpr.FALSE);
           }
+          // All conditions that must be fulfilled for equality
+          final ICommonsList <JExpression> aConditions = new CommonsArrayList <> ();
+          JVar jTyped = null;
           if (ArrayHelper.isNotEmpty (aFields))
           {
             // final type rhs = (type)o;
-            final JVar jTyped = jBody.decl (JMod.FINAL, jClass, "rhs", JExpr.cast (jClass, param));
+            jTyped = jBody.decl (JMod.FINAL, jClass, "rhs", JExpr.cast (jClass, param));
+            if (sPresenceFieldName != null)
+            {
+              // Compare the presence of the optional attributes
+              aConditions.add (JExpr.ref (sPresenceFieldName).eq (jTyped.ref (sPresenceFieldName)));
+            }
             for (final JFieldVar aField : aFieldVars.keySet ())
             {
               final String sFieldName = aField.name ();
@@ -151,14 +206,20 @@ public class PluginEqualsHashCode extends AbstractPlugin
                   // b. [com.sun.codemodel.JDefinedClass(Ebi40ReductionAndSurchargeType)]
                   boolean bNeedsCast = aTypeParam.getTypeParameters ().get (0) instanceof JDefinedClass;
 
-                  final JExpression aThisExpr = jJaxbHelper.staticInvoke ("equalListJAXBElements")
-                                                           .arg (bNeedsCast ? jGenericReflection.staticInvoke ("uncheckedCast")
-                                                                                                .arg (JExpr.ref (sFieldName))
-                                                                            : JExpr.ref (sFieldName))
-                                                           .arg (bNeedsCast ? jGenericReflection.staticInvoke ("uncheckedCast")
-                                                                                                .arg (jTyped.ref (sFieldName))
-                                                                            : jTyped.ref (sFieldName));
-                  jBody._if (JOp.not (aThisExpr))._then ()._return (JExpr.FALSE);
+                  final JExpression aThisExpr;
+                  if (aSharedHelper != null)
+                    aThisExpr = aSharedHelper.invokeEqualListJAXBElements (jClass,
+                                                                           JExpr.ref (sFieldName),
+                                                                           jTyped.ref (sFieldName));
+                  else
+                    aThisExpr = jJaxbHelper.staticInvoke ("equalListJAXBElements")
+                                           .arg (bNeedsCast ? jGenericReflection.staticInvoke ("uncheckedCast")
+                                                                                .arg (JExpr.ref (sFieldName))
+                                                            : JExpr.ref (sFieldName))
+                                           .arg (bNeedsCast ? jGenericReflection.staticInvoke ("uncheckedCast")
+                                                                                .arg (jTyped.ref (sFieldName))
+                                                            : jTyped.ref (sFieldName));
+                  aConditions.add (aThisExpr);
                 }
                 else
                   if (aTypeParam.erasure ().name ().equals ("Object"))
@@ -170,7 +231,7 @@ public class PluginEqualsHashCode extends AbstractPlugin
                     final JExpression aThisExpr = jJaxbHelper.staticInvoke ("equalListAnys")
                                                              .arg (JExpr.ref (sFieldName))
                                                              .arg (jTyped.ref (sFieldName));
-                    jBody._if (JOp.not (aThisExpr))._then ()._return (JExpr.FALSE);
+                    aConditions.add (aThisExpr);
                   }
                   else
                   {
@@ -180,10 +241,30 @@ public class PluginEqualsHashCode extends AbstractPlugin
                      * does not implement equals. Note: use "equalsCollection" to allow for null
                      * values as well
                      */
-                    final JExpression aThisExpr = jCollEqualsHelper.staticInvoke ("equalsCollection")
-                                                                   .arg (JExpr.ref (sFieldName))
-                                                                   .arg (jTyped.ref (sFieldName));
-                    jBody._if (JOp.not (aThisExpr))._then ()._return (JExpr.FALSE);
+                    final JExpression aThisExpr;
+                    if (aBinaryDataHandler != null && PluginBinaryDataHandler.isDataHandlerField (aField))
+                    {
+                      // Compare the binary content
+                      aThisExpr = aBinaryDataHandler.invokeEqualDataHandlers (jClass,
+                                                                              aField,
+                                                                              JExpr.ref (sFieldName),
+                                                                              jTyped.ref (sFieldName));
+                    }
+                    else
+                      if (aPrimitiveList != null && aPrimitiveList.isPrimitiveListField (jClass, aField))
+                      {
+                        // The list implementation compares the primitive arrays
+                        // and falls back to AbstractList.equals for lists with
+                        // null values
+                        aThisExpr = jObjects.staticInvoke ("equals")
+                                            .arg (JExpr.ref (sFieldName))
+                                            .arg (jTyped.ref (sFieldName));
+                      }
+                      else
+                        aThisExpr = jCollEqualsHelper.staticInvoke ("equalsCollection")
+                                                     .arg (JExpr.ref (sFieldName))
+                                                     .arg (jTyped.ref (sFieldName));
+                    aConditions.add (aThisExpr);
                   }
               }
               else
@@ -192,45 +273,103 @@ public class PluginEqualsHashCode extends AbstractPlugin
                   final JExpression aThisExpr = jJaxbHelper.staticInvoke ("equalJAXBElements")
                                                            .arg (JExpr.ref (sFieldName))
                                                            .arg (jTyped.ref (sFieldName));
-                  jBody._if (JOp.not (aThisExpr))._then ()._return (JExpr.FALSE);
+                  aConditions.add (aThisExpr);
                 }
                 else
                   if (aField.type ().erasure ().name ().equals ("Object"))
                   {
                     // Runtime check, if an xs:any "Object" is a DOM Node or not
-                    final JExpression aNodeExpr = jJaxbHelper.staticInvoke ("equalDOMNodes")
-                                                             .arg (JExpr.cast (jNode, JExpr.ref (sFieldName)))
-                                                             .arg (JExpr.cast (jNode, jTyped.ref (sFieldName)));
-                    final JExpression aThisExpr = jEqualsHelper.staticInvoke ("equals")
-                                                               .arg (JExpr.ref (sFieldName))
-                                                               .arg (jTyped.ref (sFieldName));
-                    JExpression aEquals = JOp.cond (JExpr.ref (sFieldName)._instanceof (jNode), aNodeExpr, aThisExpr);
-                    jBody._if (JOp.not (aEquals))._then ()._return (JExpr.FALSE);
+                    final JExpression aEquals;
+                    if (aSharedHelper != null)
+                      aEquals = aSharedHelper.invokeEqualAny (jClass, JExpr.ref (sFieldName), jTyped.ref (sFieldName));
+                    else
+                    {
+                      final JExpression aNodeExpr = jJaxbHelper.staticInvoke ("equalDOMNodes")
+                                                               .arg (JExpr.cast (jNode, JExpr.ref (sFieldName)))
+                                                               .arg (JExpr.cast (jNode, jTyped.ref (sFieldName)));
+                      final JExpression aThisExpr = jEqualsHelper.staticInvoke ("equals")
+                                                                 .arg (JExpr.ref (sFieldName))
+                                                                 .arg (jTyped.ref (sFieldName));
+                      aEquals = JOp.cond (JExpr.ref (sFieldName)._instanceof (jNode), aNodeExpr, aThisExpr);
+                    }
+                    aConditions.add (aEquals);
                   }
                   else
-                  {
-                    final JExpression aThisExpr = jEqualsHelper.staticInvoke ("equals")
-                                                               .arg (JExpr.ref (sFieldName))
-                                                               .arg (jTyped.ref (sFieldName));
-                    jBody._if (JOp.not (aThisExpr))._then ()._return (JExpr.FALSE);
-                  }
+                    if (bLazyOtherAttributes && PluginLazyOtherAttributes.isOtherAttributesField (aField))
+                    {
+                      // A lazy map equals an empty map
+                      final JExpression aLhs = PluginLazyOtherAttributes.getNonNullReadCode (aCodeModel,
+                                                                                             JExpr.ref (sFieldName));
+                      final JExpression aRhs = PluginLazyOtherAttributes.getNonNullReadCode (aCodeModel,
+                                                                                             jTyped.ref (sFieldName));
+                      final JExpression aThisExpr = jEqualsHelper.staticInvoke ("equals").arg (aLhs).arg (aRhs);
+                      aConditions.add (aThisExpr);
+                    }
+                    else
+                      if (aBinaryDataHandler != null && PluginBinaryDataHandler.isDataHandlerField (aField))
+                      {
+                        // Compare the binary content
+                        aConditions.add (aBinaryDataHandler.invokeEqualDataHandlers (jClass,
+                                                                                     aField,
+                                                                                     JExpr.ref (sFieldName),
+                                                                                     jTyped.ref (sFieldName)));
+                      }
+                      else
+                      {
+                        final JExpression aThisExpr = jEqualsHelper.staticInvoke ("equals")
+                                                                   .arg (JExpr.ref (sFieldName))
+                                                                   .arg (jTyped.ref (sFieldName));
+                        aConditions.add (aThisExpr);
+                      }
             }
           }
-          jBody._return (JExpr.TRUE);
+
+          if (aConditions.size () > MAX_FIELDS_PER_METHOD)
+          {
+            // Wide class - split the comparisons into part methods
+            final JVar [] aPartParams = { jTyped };
+            final ICommonsList <JExpression> aPartConditions = new CommonsArrayList <> ();
+            for (int nStart = 0; nStart < aConditions.size (); nStart += MAX_FIELDS_PER_METHOD)
+            {
+              final JMethod mPart = getOrCreatePartMethod (jClass,
+                                                           mEquals,
+                                                           aCodeModel.BOOLEAN,
+                                                           aPartParams,
+                                                           nStart / MAX_FIELDS_PER_METHOD);
+              _addConditions (mPart.body (),
+                              aConditions.subList (nStart,
+                                                   Math.min (nStart + MAX_FIELDS_PER_METHOD, aConditions.size ())));
+              aPartConditions.add (JExpr.invoke (mPart).arg (jTyped));
+            }
+            _addConditions (jBody, aPartConditions);
+          }
+          else
+            _addConditions (jBody, aConditions);
         }
 
-        mEquals.javadoc ().add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+        getJavadoc (mEquals).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+        if (bRecord)
+          getJavadoc (aJFREvents.createRecordingMethod (jClass, mEquals, "equals")).add ("Created by " +
+                                                                                         CJAXB.PLUGIN_NAME +
+                                                                                         " -" +
+                                                                                         PluginJFREvents.OPT);
       }
 
       // hashCode
       {
-        final JMethod mHashCode = jClass.method (JMod.PUBLIC, aCodeModel.INT, "hashCode");
-        mHashCode.annotate (Override.class);
+        final JMethod mHashCode;
+        if (bRecord)
+          mHashCode = aJFREvents.createUnrecordedMethod (jClass, aCodeModel.INT, "hashCode");
+        else
+        {
+          mHashCode = jClass.method (JMod.PUBLIC, aCodeModel.INT, "hashCode");
+          mHashCode.annotate (Override.class);
+        }
 
         if (!bIsRoot && aFields.length == 0)
         {
           // No additional fields -> no need to create code
-          mHashCode.body ()._return (JExpr._super ().invoke (mHashCode));
+          mHashCode.body ()._return (JExpr._super ().invoke ("hashCode"));
         }
         else
         {
@@ -238,7 +377,12 @@ public class PluginEqualsHashCode extends AbstractPlugin
           if (bIsRoot)
             aInvocation = JExpr._new (jHashCodeGenerator).arg (JExpr._this ());
           else
-            aInvocation = jHashCodeGenerator.staticInvoke ("getDerived").arg (JExpr._super ().invoke (mHashCode));
+            aInvocation = jHashCodeGenerator.staticInvoke ("getDerived").arg (JExpr._super ().invoke ("hashCode"));
+
+          // All values to be appended
+          final ICommonsList <JExpression> aValues = new CommonsArrayList <> ();
+          if (sPresenceFieldName != null)
+            aValues.add (JExpr.ref (sPresenceFieldName));
 
           // Instance fields only
           for (final JFieldVar aField : aFieldVars.keySet ())
@@ -258,56 +402,112 @@ public class PluginEqualsHashCode extends AbstractPlugin
                 // b. [com.sun.codemodel.JDefinedClass(Ebi40ReductionAndSurchargeType)]
                 boolean bNeedsCast = aTypeParam.getTypeParameters ().get (0) instanceof JDefinedClass;
 
-                aInvocation = aInvocation.invoke ("append")
-                                         .arg (jJaxbHelper.staticInvoke ("getListJAXBElementHashCode")
-                                                          .arg (bNeedsCast ? jGenericReflection.staticInvoke ("uncheckedCast")
-                                                                                               .arg (JExpr.ref (sFieldName))
-                                                                           : JExpr.ref (sFieldName)));
+                if (aSharedHelper != null)
+                  aValues.add (aSharedHelper.invokeListJAXBElementHashCode (jClass, JExpr.ref (sFieldName)));
+                else
+                  aValues.add (jJaxbHelper.staticInvoke ("getListJAXBElementHashCode")
+                                          .arg (bNeedsCast ? jGenericReflection.staticInvoke ("uncheckedCast")
+                                                                               .arg (JExpr.ref (sFieldName))
+                                                           : JExpr.ref (sFieldName)));
               }
               else
                 if (aTypeParam.erasure ().name ().equals ("Object"))
                 {
                   // Special hashCode
-                  aInvocation = aInvocation.invoke ("append")
-                                           .arg (jJaxbHelper.staticInvoke ("getListAnyHashCode")
-                                                            .arg (JExpr.ref (sFieldName)));
+                  aValues.add (jJaxbHelper.staticInvoke ("getListAnyHashCode").arg (JExpr.ref (sFieldName)));
                 }
                 else
-                {
-                  aInvocation = aInvocation.invoke ("append").arg (JExpr.ref (sFieldName));
-                }
+                  if (aBinaryDataHandler != null && PluginBinaryDataHandler.isDataHandlerField (aField))
+                  {
+                    // Hash the binary content
+                    aValues.add (aBinaryDataHandler.invokeDataHandlerHashCode (jClass, aField, JExpr.ref (sFieldName)));
+                  }
+                  else
+                  {
+                    aValues.add (JExpr.ref (sFieldName));
+                  }
             }
             else
               if (aField.type ().erasure ().name ().equals ("JAXBElement"))
               {
                 // Special hashCode
-                aInvocation = aInvocation.invoke ("append")
-                                         .arg (jJaxbHelper.staticInvoke ("getHashCode").arg (JExpr.ref (sFieldName)));
+                aValues.add (jJaxbHelper.staticInvoke ("getHashCode").arg (JExpr.ref (sFieldName)));
               }
               else
                 if (aField.type ().erasure ().name ().equals ("Object"))
                 {
                   // Runtime check, if an xs:any "Object" is a DOM Node or not
                   // Make sure, both expressions return "int"
-                  final JExpression aNodeExpr = jJaxbHelper.staticInvoke ("getHashCode")
-                                                           .arg (JExpr.cast (jNode, JExpr.ref (sFieldName)));
-                  final JExpression aThisExpr = jHashCodeCalculator.staticInvoke ("hashCode")
-                                                                   .arg (JExpr.ref (sFieldName));
-                  JExpression aHashCode = JOp.cond (JExpr.ref (sFieldName)._instanceof (jNode), aNodeExpr, aThisExpr);
-                  aInvocation = aInvocation.invoke ("append").arg (aHashCode);
+                  final JExpression aHashCode;
+                  if (aSharedHelper != null)
+                    aHashCode = aSharedHelper.invokeAnyHashCode (jClass, JExpr.ref (sFieldName));
+                  else
+                  {
+                    final JExpression aNodeExpr = jJaxbHelper.staticInvoke ("getHashCode")
+                                                             .arg (JExpr.cast (jNode, JExpr.ref (sFieldName)));
+                    final JExpression aThisExpr = jHashCodeCalculator.staticInvoke ("hashCode")
+                                                                     .arg (JExpr.ref (sFieldName));
+                    aHashCode = JOp.cond (JExpr.ref (sFieldName)._instanceof (jNode), aNodeExpr, aThisExpr);
+                  }
+                  aValues.add (aHashCode);
                 }
                 else
-                  aInvocation = aInvocation.invoke ("append").arg (JExpr.ref (sFieldName));
+                  if (bLazyOtherAttributes && PluginLazyOtherAttributes.isOtherAttributesField (aField))
+                  {
+                    // Same hash code for a lazy and an empty map
+                    aValues.add (PluginLazyOtherAttributes.getNonNullReadCode (aCodeModel, JExpr.ref (sFieldName)));
+                  }
+                  else
+                    if (aBinaryDataHandler != null && PluginBinaryDataHandler.isDataHandlerField (aField))
+                    {
+                      // Hash the binary content
+                      aValues.add (aBinaryDataHandler.invokeDataHandlerHashCode (jClass,
+                                                                                 aField,
+                                                                                 JExpr.ref (sFieldName)));
+                    }
+                    else
+                      aValues.add (JExpr.ref (sFieldName));
           }
 
-          mHashCode.body ()._return (aInvocation.invoke ("getHashCode"));
+          if (aValues.size () > MAX_FIELDS_PER_METHOD)
+          {
+            // Wide class - append the values in part methods
+            // final HashCodeGenerator aHCG = ...;
+            final JVar jGenerator = mHashCode.body ().decl (JMod.FINAL, jHashCodeGenerator, "aHCG", aInvocation);
+            final JVar [] aPartParams = { jGenerator };
+            for (int nStart = 0; nStart < aValues.size (); nStart += MAX_FIELDS_PER_METHOD)
+            {
+              final JMethod mPart = getOrCreatePartMethod (jClass,
+                                                           mHashCode,
+                                                           aCodeModel.VOID,
+                                                           aPartParams,
+                                                           nStart / MAX_FIELDS_PER_METHOD);
+              JInvocation aPartInvocation = jGenerator.invoke ("append").arg (aValues.get (nStart));
+              for (int i = nStart + 1; i < Math.min (nStart + MAX_FIELDS_PER_METHOD, aValues.size ()); ++i)
+                aPartInvocation = aPartInvocation.invoke ("append").arg (aValues.get (i));
+              mPart.body ().add (aPartInvocation);
+              mHashCode.body ().invoke (mPart).arg (jGenerator);
+            }
+            mHashCode.body ()._return (jGenerator.invoke ("getHashCode"));
+          }
+          else
+          {
+            for (final JExpression aValue : aValues)
+              aInvocation = aInvocation.invoke ("append").arg (aValue);
+            mHashCode.body ()._return (aInvocation.invoke ("getHashCode"));
+          }
         }
 
-        mHashCode.javadoc ().add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+        getJavadoc (mHashCode).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+        if (bRecord)
+          getJavadoc (aJFREvents.createRecordingMethod (jClass, mHashCode, "hashCode")).add ("Created by " +
+                                                                                             CJAXB.PLUGIN_NAME +
+                                                                                             " -" +
+                                                                                             PluginJFREvents.OPT);
       }
 
       // General information
-      jClass.javadoc ().add ("<p>This class contains methods created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+      getJavadoc (jClass).add ("<p>This class contains methods created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
     }
     return true;
   }
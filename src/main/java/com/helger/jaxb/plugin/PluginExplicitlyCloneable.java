@@ -33,10 +33,12 @@ import com.sun.codemodel.JCodeModel;
 import com.sun.codemodel.JConditional;
 import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
 import com.sun.codemodel.JFieldVar;
 import com.sun.codemodel.JForEach;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
 import com.sun.codemodel.JVar;
 import com.sun.tools.xjc.Options;
 import com.sun.tools.xjc.outline.ClassOutline;
@@ -62,15 +64,18 @@ public class PluginExplicitlyCloneable extends AbstractPluginCloneable
   @Override
   public String getUsage ()
   {
-    return "  -" + OPT + "    :  implement clone() of IExplicitlyCloneable interface and cloneTo(target)";
+    return "  -" + OPT + "    :  implement clone() of IExplicitlyCloneable interface and cloneTo(target)\n" +
+           "  -" + OPT + OPT_SUFFIX_SPEC + " <fqcn>    :  additionally create clone(spec) and cloneTo(target, spec) using the provided clone specification class\n" +
+           "  -" + OPT + OPT_SUFFIX_SHARE_BINARY + "    :  share byte[] properties between original and clone with copy-on-write\n" +
+           "                             (modifying a shared array changes both objects - treat them as read-only)";
   }
 
   @Override
-  public boolean run (@NonNull final Outline aOutline,
-                      @NonNull final Options aOpts,
-                      @NonNull final ErrorHandler aErrorHandler)
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler)
   {
-    initPluginLogging (aOpts.debugMode);
+    initCloneablePlugin (aOpts);
     logInfo ("Running JAXB plugin -" + getOptionName ());
 
     final JCodeModel aCodeModel = aOutline.getCodeModel ();
@@ -78,6 +83,7 @@ public class PluginExplicitlyCloneable extends AbstractPluginCloneable
     final JClass jExplicitlyCloneable = aCodeModel.ref (IExplicitlyCloneable.class);
     final JClass jArrayList = aCodeModel.ref (ArrayList.class);
     final JClass jHashMap = aCodeModel.ref (HashMap.class);
+    final JClass jCloneSpec = _getOrCreateCloneSpecClass (aCodeModel);
 
     for (final ClassOutline aClassOutline : aOutline.getClasses ())
     {
@@ -99,69 +105,96 @@ public class PluginExplicitlyCloneable extends AbstractPluginCloneable
         mCloneTo = jClass.method (JMod.PUBLIC, aCodeModel.VOID, "cloneTo");
         // No @Override because parameter types are different in the class
         // hierarchy
-        mCloneTo.javadoc ()
-                .add ("This method clones all values from <code>this</code> to the passed object. All data in the parameter object is overwritten!");
+        getJavadoc (mCloneTo).add ("This method clones all values from <code>this</code> to the passed object. All data in the parameter object is overwritten!");
 
         final JVar jRet = mCloneTo.param (jClass, "ret");
         if (allowsJSpecifyAnnotations (jClass, jClass))
           jRet.annotate (NonNull.class);
-        mCloneTo.javadoc ().addParam (jRet).add ("The target object to clone to. May not be <code>null</code>.");
+        getJavadoc (mCloneTo).addParam (jRet).add ("The target object to clone to. May not be <code>null</code>.");
 
         // Call from super class as well
         if (!bIsRoot)
           mCloneTo.body ().add (JExpr._super ().invoke (mCloneTo).arg (jRet));
+        _addPresenceCopyCode (mCloneTo.body (), aClassOutline, jRet);
 
+        final JVar [] aPartParams = { jRet };
+        int nFieldIndex = 0;
         for (final Map.Entry <JFieldVar, String> aEntry : aAllFields.entrySet ())
         {
           final JFieldVar aField = aEntry.getKey ();
+          // Wide classes are split into part methods
+          final JBlock aBlock = getFieldBlock (jClass,
+                                               mCloneTo,
+                                               mCloneTo.body (),
+                                               aPartParams,
+                                               nFieldIndex++,
+                                               aAllFields.size ());
 
-          if (aField.type ().erasure ().name ().equals ("List"))
-          {
-            // List
-            final JClass aTypeParam = ((JClass) aField.type ()).getTypeParameters ().get (0);
-
-            // if (x == null)
-            // ret.x = null;
-            final JConditional aIf = mCloneTo.body ()._if (aField.eq (JExpr._null ()));
-            aIf._then ().assign (jRet.ref (aField), JExpr._null ());
+          final JExpression aListCopy = _getSpecialListCopyCode (jClass, aField);
 
-            // else
-            {
-              final JBlock aJElse = aIf._else ();
-
-              // Ensure list is created :)
-              final JVar aTargetList = aJElse.decl (aField.type (),
-                                                    "ret" + aEntry.getValue (),
-                                                    JExpr._new (jArrayList.narrow (aTypeParam)));
-
-              // for (X aItem : getX())
-              final String sGetter = CJAXB.getGetterName (aField.type (), aEntry.getValue ());
-              final JForEach jForEach = aJElse.forEach (aTypeParam, "aItem", JExpr.invoke (sGetter));
-              // aTargetList.add (_cloneOf_ (aItem))
-              jForEach.body ()
-                      .add (aTargetList.invoke ("add").arg (_getCloneCode (aCodeModel, jForEach.var (), aTypeParam)));
-              aJElse.assign (jRet.ref (aField), aTargetList);
-            }
+          if (aListCopy != null)
+          {
+            // List with a special implementation
+            // ret.x = x == null ? null : new XList (x);
+            aBlock.assign (jRet.ref (aField), JOp.cond (aField.eq (JExpr._null ()), JExpr._null (), aListCopy));
           }
           else
-            if (aField.type ().erasure ().name ().equals ("Map"))
+            if (aField.type ().erasure ().name ().equals ("List"))
             {
-              // Map (for xs:anyAttribute/> - Map<QName,String>)
-              // has no setter - need to assign directly!
-              final JConditional aIf = mCloneTo.body ()._if (aField.eq (JExpr._null ()));
+              // List
+              final JClass aTypeParam = ((JClass) aField.type ()).getTypeParameters ().get (0);
+
+              // if (x == null)
+              // ret.x = null;
+              final JConditional aIf = aBlock._if (aField.eq (JExpr._null ()));
               aIf._then ().assign (jRet.ref (aField), JExpr._null ());
-              // Use regular HashMap to ensure the same type is created
-              final JBlock aElse = aIf._else ();
-              aElse.assign (jRet.ref (aField),
-                            JExpr._new (jHashMap.narrow (((JClass) aField.type ()).getTypeParameters ())).arg (aField));
+
+              // else
+              final JExpression aSharedClone = _getSharedListCloneCode (jClass, aField, aTypeParam);
+              if (aSharedClone != null)
+                aIf._else ().assign (jRet.ref (aField), aSharedClone);
+              else
+              {
+                final JBlock aJElse = aIf._else ();
+
+                // Ensure list is created :)
+                final JVar aTargetList = aJElse.decl (aField.type (),
+                                                      "ret" + aEntry.getValue (),
+                                                      JExpr._new (jArrayList.narrow (aTypeParam)));
+
+                // for (X aItem : getX())
+                final String sGetter = CJAXB.getGetterName (aField.type (), aEntry.getValue ());
+                final JForEach jForEach = aJElse.forEach (aTypeParam, "aItem", JExpr.invoke (sGetter));
+                // aTargetList.add (_cloneOf_ (aItem))
+                jForEach.body ()
+                        .add (aTargetList.invoke ("add").arg (_getCloneCode (aCodeModel, jForEach.var (), aTypeParam)));
+                aJElse.assign (jRet.ref (aField), aTargetList);
+              }
             }
             else
-            {
-              mCloneTo.body ().assign (jRet.ref (aField), _getCloneCode (aCodeModel, aField, aField.type ()));
-            }
+              if (aField.type ().erasure ().name ().equals ("Map"))
+              {
+                // Map (for xs:anyAttribute/> - Map<QName,String>)
+                // has no setter - need to assign directly!
+                final JConditional aIf = aBlock._if (_getMapIsAbsentCode (aField));
+                aIf._then ().assign (jRet.ref (aField), JExpr._null ());
+                // Use regular HashMap to ensure the same type is created
+                final JBlock aElse = aIf._else ();
+                aElse.assign (jRet.ref (aField),
+                              JExpr._new (jHashMap.narrow (((JClass) aField.type ()).getTypeParameters ())).arg (aField));
+              }
+              else
+              {
+                final JFieldVar fShared = getOrCreateSharedBinaryFlag (jClass, aField, aEntry.getValue ());
+                if (fShared != null)
+                  _addSharedBinaryCode (aBlock, aField, fShared, jRet);
+                else
+                  aBlock.assign (jRet.ref (aField), _getCloneCode (aCodeModel, aField, aField.type ()));
+              }
         }
 
-        mCloneTo.javadoc ().add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+        addShareBinaryJavadoc (mCloneTo);
+        getJavadoc (mCloneTo).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
       }
 
       // Cannot instantiate abstract classes
@@ -177,32 +210,48 @@ public class PluginExplicitlyCloneable extends AbstractPluginCloneable
         mClone.annotate (ReturnsMutableCopy.class);
         mClone.annotate (Override.class);
 
-        mClone.javadoc ().addReturn ().add ("The cloned object. Never <code>null</code>.");
+        getJavadoc (mClone).addReturn ().add ("The cloned object. Never <code>null</code>.");
 
-        mClone.javadoc ().add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+        getJavadoc (mClone).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
       }
       else
       {
         // clone
         // Do not use "getClone" as this is the name of a JAXB generated method
         // for the XSD Element "Clone" :(
-        final JMethod mClone = jClass.method (JMod.PUBLIC, jClass, "clone");
-        if (allowsJSpecifyAnnotations (jClass, jClass))
-          mClone.annotate (NonNull.class);
-        mClone.annotate (ReturnsMutableCopy.class);
-        mClone.annotate (Override.class);
-
-        mClone.javadoc ().addReturn ().add ("The cloned object. Never <code>null</code>.");
+        final PluginJFREvents aJFREvents = getJFREventsPlugin ();
+        final JMethod mClone;
+        if (aJFREvents != null)
+          mClone = aJFREvents.createUnrecordedMethod (jClass, jClass, "clone");
+        else
+          mClone = jClass.method (JMod.PUBLIC, jClass, "clone");
 
         final JVar jRet = mClone.body ().decl (jClass, "ret", JExpr._new (jClass));
         mClone.body ().invoke (mCloneTo).arg (jRet);
         mClone.body ()._return (jRet);
 
-        mClone.javadoc ().add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+        getJavadoc (mClone).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+
+        // The public method records the invocation if JFR events are enabled
+        final JMethod mPublicClone = aJFREvents != null ? aJFREvents.createRecordingMethod (jClass, mClone, "clone")
+                                                        : mClone;
+        if (allowsJSpecifyAnnotations (jClass, jClass))
+          mPublicClone.annotate (NonNull.class);
+        mPublicClone.annotate (ReturnsMutableCopy.class);
+        if (aJFREvents == null)
+          mPublicClone.annotate (Override.class);
+        else
+          getJavadoc (mPublicClone).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + PluginJFREvents.OPT);
+
+        getJavadoc (mPublicClone).addReturn ().add ("The cloned object. Never <code>null</code>.");
       }
 
+      // Partial clone
+      if (jCloneSpec != null)
+        _addCloneSpecMethods (aCodeModel, aClassOutline, aAllFields, jCloneSpec);
+
       // General information
-      jClass.javadoc ().add ("<p>This class contains methods created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+      getJavadoc (jClass).add ("<p>This class contains methods created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
     }
     return true;
   }
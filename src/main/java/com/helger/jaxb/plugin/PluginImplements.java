@@ -75,9 +75,8 @@ public class PluginImplements extends AbstractPlugin
   }
 
   @Override
-  public boolean run (final Outline aOutline, final Options aOpts, final ErrorHandler aErrorHandler)
+  protected boolean runPlugin (final Outline aOutline, final Options aOpts, final ErrorHandler aErrorHandler)
   {
-    initPluginLogging (aOpts.debugMode);
     logInfo ("Running JAXB plugin -" + getOptionName ());
 
     final JCodeModel aCodeModel = aOutline.getCodeModel ();
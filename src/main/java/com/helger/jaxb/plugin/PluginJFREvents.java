@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import org.jspecify.annotations.NonNull;
+import org.xml.sax.ErrorHandler;
+
+import com.helger.annotation.style.IsSPIImplementation;
+import com.helger.base.string.StringParser;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JInvocation;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JTryBlock;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.BadCommandLineException;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.outline.Outline;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Threshold;
+
+/**
+ * Plugin that records the outermost <code>equals</code>, <code>hashCode</code> and
+ * <code>clone</code> invocations of the generated classes as Java Flight Recorder events. If this
+ * plugin is active, <code>ph-equalshashcode</code>, <code>ph-cloneable</code> and
+ * <code>ph-cloneable2</code> create these methods as private methods with the suffix
+ * {@value #METHOD_SUFFIX_UNRECORDED} and a public method with the original name, that records the
+ * invocation in the event class {@value #CLASS_NAME}. Nested invocations are only counted. Events
+ * are only committed above a threshold, that can be configured with
+ * <code>-Xph-jfr-events-threshold &lt;ms&gt;</code>. If no recording is active, the overhead is a
+ * single check of <code>isEnabled()</code>. The position on the command line does not matter.
+ *
+ * @author Philip Helger
+ * @since 5.1.3
+ */
+@IsSPIImplementation
+public class PluginJFREvents extends AbstractPlugin
+{
+  public static final String OPT = "Xph-jfr-events";
+  /**
+   * Suffix to the plugin option name to define the threshold in milliseconds, e.g.
+   * <code>-Xph-jfr-events-threshold 100</code>
+   */
+  public static final String OPT_SUFFIX_THRESHOLD = "-threshold";
+  public static final int DEFAULT_THRESHOLD_MS = 20;
+  public static final String CLASS_NAME = "JAXBOperationEvent";
+  public static final String METHOD_SUFFIX_UNRECORDED = "Unrecorded";
+
+  private int m_nThresholdMS = DEFAULT_THRESHOLD_MS;
+  private JDefinedClass m_jEventClass;
+
+  @Override
+  public String getOptionName ()
+  {
+    return OPT;
+  }
+
+  @Override
+  public String getUsage ()
+  {
+    return "  -" + OPT + "    :  record the outermost equals, hashCode and clone invocations as JFR events\n" +
+           "  -" + OPT + OPT_SUFFIX_THRESHOLD + " <ms>    :  only record invocations that took at least the provided milliseconds (default: " + DEFAULT_THRESHOLD_MS + ")";
+  }
+
+  @Override
+  public int parseArgument (final Options opt, final String [] args, final int i) throws BadCommandLineException
+  {
+    final String sThresholdOption = "-" + OPT + OPT_SUFFIX_THRESHOLD;
+    if (args[i].equals (sThresholdOption))
+    {
+      final String sThreshold = opt.requireArgument (sThresholdOption, args, i + 1);
+      final int nThresholdMS = StringParser.parseInt (sThreshold, -1);
+      if (nThresholdMS < 0)
+        throw new BadCommandLineException ("The threshold must be a non-negative number of milliseconds, but is '" +
+                                           sThreshold +
+                                           "'");
+      m_nThresholdMS = nThresholdMS;
+      return 2;
+    }
+    return 0;
+  }
+
+  /**
+   * @return The threshold in milliseconds, above which events are committed.
+   */
+  public int getThresholdMS ()
+  {
+    return m_nThresholdMS;
+  }
+
+  @NonNull
+  private JDefinedClass _getOrCreateEventClass (@NonNull final JDefinedClass jClass)
+  {
+    final JCodeModel cm = jClass.owner ();
+    // The event class is created once in the package of the first class using it, so that nested
+    // invocations are detected across packages
+    if (m_jEventClass != null && m_jEventClass.owner () == cm)
+      return m_jEventClass;
+
+    final JDefinedClass jEvent;
+    try
+    {
+      jEvent = jClass._package ()._class (JMod.PUBLIC | JMod.FINAL, CLASS_NAME);
+    }
+    catch (final JClassAlreadyExistsException ex)
+    {
+      throw new IllegalStateException ("Failed to create class " + CLASS_NAME + " in " + jClass._package ().name (), ex);
+    }
+    jEvent._extends (cm.ref (Event.class));
+    jEvent.annotate (Label.class).param ("value", "JAXB Operation");
+    jEvent.annotate (Description.class)
+          .param ("value", "Outermost equals, hashCode or clone invocation of a generated JAXB class");
+    jEvent.annotate (Category.class).paramArray ("value").param (CJAXB.PLUGIN_NAME);
+    jEvent.annotate (Threshold.class).param ("value", m_nThresholdMS + " ms");
+    jEvent.javadoc ()
+          .add ("Java Flight Recorder event for the outermost equals, hashCode and clone invocations.\n" +
+                "<p>This class was created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+
+    // The number of visited objects of the current thread - only set during an operation
+    final JClass jCounterType = cm.ref (ThreadLocal.class).narrow (cm.INT.array ());
+    final JFieldVar fCounter = jEvent.field (JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+                                             jCounterType,
+                                             "NODE_COUNTER",
+                                             JExpr._new (jCounterType));
+
+    final JFieldVar fClassName = jEvent.field (JMod.NONE, String.class, "className");
+    fClassName.annotate (Label.class).param ("value", "Class");
+    final JFieldVar fOperation = jEvent.field (JMod.NONE, String.class, "operation");
+    fOperation.annotate (Label.class).param ("value", "Operation");
+    final JFieldVar fNodeCount = jEvent.field (JMod.NONE, cm.INT, "nodeCount");
+    fNodeCount.annotate (Label.class).param ("value", "Node Count");
+    fNodeCount.annotate (Description.class)
+              .param ("value", "The number of generated objects visited, counted per class hierarchy level");
+
+    // start
+    {
+      final JMethod m = jEvent.method (JMod.PUBLIC | JMod.STATIC, jEvent, "start");
+      final JBlock aBody = m.body ();
+      final JVar aRet = aBody.decl (JMod.FINAL, jEvent, "ret", JExpr._new (jEvent));
+      aBody._if (aRet.invoke ("isEnabled").not ())._then ()._return (JExpr._null ());
+      final JVar aCounter = aBody.decl (JMod.FINAL, cm.INT.array (), "aCounter", fCounter.invoke ("get"));
+      final JBlock aNested = aBody._if (aCounter.ne (JExpr._null ()))._then ();
+      aNested.assignPlus (aCounter.component (JExpr.lit (0)), JExpr.lit (1));
+      aNested._return (JExpr._null ());
+      aBody.add (fCounter.invoke ("set").arg (JExpr.newArray (cm.INT).add (JExpr.lit (1))));
+      aBody.add (aRet.invoke ("begin"));
+      aBody._return (aRet);
+      m.javadoc ()
+       .add ("Start recording an operation. Nested operations of the current thread are only counted.");
+      m.javadoc ()
+       .addReturn ()
+       .add ("<code>null</code> if the event is disabled or if an outer operation is already recorded.");
+    }
+
+    // finish
+    {
+      final JMethod m = jEvent.method (JMod.PUBLIC, cm.VOID, "finish");
+      final JVar aClassName = m.param (JMod.FINAL, String.class, "sClassName");
+      final JVar aOperation = m.param (JMod.FINAL, String.class, "sOperation");
+      final JBlock aBody = m.body ();
+      aBody.invoke ("end");
+      final JVar aNodeCount = aBody.decl (JMod.FINAL,
+                                          cm.INT,
+                                          "nNodeCount",
+                                          fCounter.invoke ("get").component (JExpr.lit (0)));
+      aBody.add (fCounter.invoke ("remove"));
+      final JBlock aCommit = aBody._if (JExpr.invoke ("shouldCommit"))._then ();
+      aCommit.assign (fClassName, aClassName);
+      aCommit.assign (fOperation, aOperation);
+      aCommit.assign (fNodeCount, aNodeCount);
+      aCommit.invoke ("commit");
+      m.javadoc ().add ("Finish recording the operation and commit it, if it is above the threshold.");
+      m.javadoc ().addParam (aClassName).add ("The class name of the object.");
+      m.javadoc ().addParam (aOperation).add ("The operation name.");
+    }
+
+    m_jEventClass = jEvent;
+    return jEvent;
+  }
+
+  /**
+   * Create the private method that contains the code of an operation.
+   *
+   * @param jClass
+   *        The class to add the method to. May not be <code>null</code>.
+   * @param aReturnType
+   *        The return type of the operation. May not be <code>null</code>.
+   * @param sMethodName
+   *        The public name of the operation, e.g. <code>equals</code>. May not be
+   *        <code>null</code>.
+   * @return The created method. Never <code>null</code>.
+   */
+  @NonNull
+  public JMethod createUnrecordedMethod (@NonNull final JDefinedClass jClass,
+                                         @NonNull final JType aReturnType,
+                                         @NonNull final String sMethodName)
+  {
+    return jClass.method (JMod.PRIVATE, aReturnType, sMethodName + METHOD_SUFFIX_UNRECORDED);
+  }
+
+  /**
+   * Create the public method, that invokes the method created by
+   * {@link #createUnrecordedMethod(JDefinedClass, JType, String)} and records the invocation. Must
+   * be called after all parameters were added to the unrecorded method.
+   *
+   * @param jClass
+   *        The class to add the method to. May not be <code>null</code>.
+   * @param aUnrecorded
+   *        The method with the code of the operation. May not be <code>null</code>.
+   * @param sMethodName
+   *        The public name of the operation, e.g. <code>equals</code>. May not be
+   *        <code>null</code>.
+   * @return The created public method. Never <code>null</code>.
+   */
+  @NonNull
+  public JMethod createRecordingMethod (@NonNull final JDefinedClass jClass,
+                                        @NonNull final JMethod aUnrecorded,
+                                        @NonNull final String sMethodName)
+  {
+    final JDefinedClass jEvent = _getOrCreateEventClass (jClass);
+
+    final JMethod ret = jClass.method (JMod.PUBLIC, aUnrecorded.type (), sMethodName);
+    ret.annotate (Override.class);
+    final JInvocation aInvocation = JExpr.invoke (aUnrecorded);
+    for (final JVar aParam : aUnrecorded.listParams ())
+      aInvocation.arg (ret.param (JMod.FINAL, aParam.type (), aParam.name ()));
+
+    // final JAXBOperationEvent aEvent = JAXBOperationEvent.start ();
+    final JBlock aBody = ret.body ();
+    final JVar aEvent = aBody.decl (JMod.FINAL, jEvent, "aEvent", jEvent.staticInvoke ("start"));
+    // Not recording or nested invocation
+    aBody._if (aEvent.eq (JExpr._null ()))._then ()._return (aInvocation);
+    final JTryBlock aTry = aBody._try ();
+    aTry.body ()._return (aInvocation);
+    aTry._finally ()
+        .add (aEvent.invoke ("finish").arg (JExpr.invoke ("getClass").invoke ("getName")).arg (sMethodName));
+    return ret;
+  }
+
+  @Override
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler)
+  {
+    logInfo ("Running JAXB plugin -" + getOptionName ());
+    // The methods are created on demand by the other plugins
+    return true;
+  }
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.jspecify.annotations.NonNull;
+import org.xml.sax.ErrorHandler;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.style.IsSPIImplementation;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsLinkedHashSet;
+import com.helger.collection.commons.ICommonsOrderedSet;
+import com.sun.codemodel.JAnnotationUse;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JPackage;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JTypeVar;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.model.CPropertyInfo;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.Outline;
+
+/**
+ * Don't create empty lists when reading list properties:
+ * <ul>
+ * <li>The list creation of the getter is moved to a private method
+ * <code>create...IfAbsent()</code></li>
+ * <li>While the field is <code>null</code>, the getter returns a thin view, that reads from the
+ * shared empty list and creates the real list on the first modification</li>
+ * <li>A package private abstract class <code>LazyList</code> is created once per package</li>
+ * </ul>
+ * JAXB accesses the fields directly and is therefore not affected.
+ *
+ * @author Philip Helger
+ * @since 5.1.3
+ */
+@IsSPIImplementation
+public class PluginLazyList extends AbstractPlugin
+{
+  public static final String OPT = "Xph-lazy-list";
+
+  private static final String CLASS_NAME = "LazyList";
+  private static final String METHOD_READ = "read";
+  private static final String METHOD_CREATE = "create";
+
+  @Override
+  public String getOptionName ()
+  {
+    return OPT;
+  }
+
+  @Override
+  public String getUsage ()
+  {
+    return "  -" + OPT + "    :  don't create empty lists in the list getters before the first modification";
+  }
+
+  /**
+   * Get the name of the private method that creates the list, if it is absent.
+   *
+   * @param sPropertyName
+   *        The public property name (e.g. "Line"). May neither be <code>null</code> nor empty.
+   * @return The method name (e.g. "createLineIfAbsent")
+   */
+  @NonNull
+  @Nonempty
+  public static String getCreatorMethodName (@NonNull @Nonempty final String sPropertyName)
+  {
+    return "create" + sPropertyName + "IfAbsent";
+  }
+
+  @NonNull
+  private static JDefinedClass _getOrCreateLazyList (@NonNull final JPackage aPackage)
+  {
+    final JDefinedClass aExisting = aPackage._getClass (CLASS_NAME);
+    if (aExisting != null)
+      return aExisting;
+
+    final JCodeModel cm = aPackage.owner ();
+    final JDefinedClass jList;
+    try
+    {
+      jList = aPackage._class (JMod.ABSTRACT, CLASS_NAME);
+    }
+    catch (final JClassAlreadyExistsException ex)
+    {
+      throw new IllegalStateException ("Failed to create class " + CLASS_NAME + " in " + aPackage.name (), ex);
+    }
+    final JTypeVar jE = jList.generify ("E");
+    final JClass jListOfE = cm.ref (List.class).narrow (jE);
+    jList._extends (cm.ref (AbstractList.class).narrow (jE));
+    jList._implements (RandomAccess.class);
+    jList.javadoc ()
+         .add ("A view on a list property that is not yet created. All read accesses use the shared empty\n" +
+               "list, and the first modification creates the real list.\n" +
+               "<p>This class was created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+    jList.javadoc ().addParam ("<E>").add ("The list element type");
+
+    // List<E> read ()
+    final JMethod mRead = jList.method (JMod.PROTECTED | JMod.ABSTRACT, jListOfE, METHOD_READ);
+    mRead.javadoc ().addReturn ().add ("The current list. May be <code>null</code>.");
+
+    // List<E> create ()
+    final JMethod mCreate = jList.method (JMod.PROTECTED | JMod.ABSTRACT, jListOfE, METHOD_CREATE);
+    mCreate.javadoc ().addReturn ().add ("The list, that is created if it is absent. Never <code>null</code>.");
+
+    // List<E> _current ()
+    final JMethod mCurrent = jList.method (JMod.PRIVATE, jListOfE, "_current");
+    {
+      final JVar aRet = mCurrent.body ().decl (JMod.FINAL, jListOfE, "ret", JExpr.invoke (mRead));
+      mCurrent.body ()
+              ._return (JOp.cond (aRet.eq (JExpr._null ()), cm.ref (Collections.class).staticInvoke ("emptyList"), aRet));
+    }
+
+    // int size ()
+    {
+      final JMethod m = jList.method (JMod.PUBLIC, cm.INT, "size");
+      m.annotate (Override.class);
+      m.body ()._return (JExpr.invoke (mCurrent).invoke ("size"));
+    }
+
+    // E get (int)
+    {
+      final JMethod m = jList.method (JMod.PUBLIC, jE, "get");
+      m.annotate (Override.class);
+      final JVar aIndex = m.param (JMod.FINAL, cm.INT, "index");
+      m.body ()._return (JExpr.invoke (mCurrent).invoke ("get").arg (aIndex));
+    }
+
+    // Iterator<E> iterator ()
+    {
+      final JMethod m = jList.method (JMod.PUBLIC, cm.ref (Iterator.class).narrow (jE), "iterator");
+      m.annotate (Override.class);
+      m.body ()._return (JExpr.invoke (mCurrent).invoke ("iterator"));
+    }
+
+    // E set (int, E)
+    {
+      final JMethod m = jList.method (JMod.PUBLIC, jE, "set");
+      m.annotate (Override.class);
+      final JVar aIndex = m.param (JMod.FINAL, cm.INT, "index");
+      final JVar aElement = m.param (JMod.FINAL, jE, "element");
+      m.body ()._return (JExpr.invoke (mCreate).invoke ("set").arg (aIndex).arg (aElement));
+    }
+
+    // boolean add (E)
+    {
+      final JMethod m = jList.method (JMod.PUBLIC, cm.BOOLEAN, "add");
+      m.annotate (Override.class);
+      final JVar aElement = m.param (JMod.FINAL, jE, "element");
+      m.body ()._return (JExpr.invoke (mCreate).invoke ("add").arg (aElement));
+    }
+
+    // void add (int, E)
+    {
+      final JMethod m = jList.method (JMod.PUBLIC, cm.VOID, "add");
+      m.annotate (Override.class);
+      final JVar aIndex = m.param (JMod.FINAL, cm.INT, "index");
+      final JVar aElement = m.param (JMod.FINAL, jE, "element");
+      m.body ().add (JExpr.invoke (mCreate).invoke ("add").arg (aIndex).arg (aElement));
+    }
+
+    // boolean addAll (Collection<? extends E>)
+    {
+      final JMethod m = jList.method (JMod.PUBLIC, cm.BOOLEAN, "addAll");
+      m.annotate (Override.class);
+      final JVar aSrc = m.param (JMod.FINAL, cm.ref (Collection.class).narrow (jE.wildcard ()), "aSrc");
+      m.body ()._if (aSrc.invoke ("isEmpty"))._then ()._return (JExpr.FALSE);
+      m.body ()._return (JExpr.invoke (mCreate).invoke ("addAll").arg (aSrc));
+    }
+
+    // E remove (int)
+    {
+      final JMethod m = jList.method (JMod.PUBLIC, jE, "remove");
+      m.annotate (Override.class);
+      final JVar aIndex = m.param (JMod.FINAL, cm.INT, "index");
+      m.body ()._return (JExpr.invoke (mCreate).invoke ("remove").arg (aIndex));
+    }
+
+    // void clear ()
+    {
+      final JMethod m = jList.method (JMod.PUBLIC, cm.VOID, "clear");
+      m.annotate (Override.class);
+      final JVar aList = m.body ().decl (JMod.FINAL, jListOfE, "aList", JExpr.invoke (mRead));
+      m.body ()._if (aList.ne (JExpr._null ()))._then ().add (aList.invoke ("clear"));
+    }
+    return jList;
+  }
+
+  @Override
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler)
+  {
+    logInfo ("Running JAXB plugin -" + getOptionName ());
+
+    final JCodeModel aCodeModel = aOutline.getCodeModel ();
+    final ICommonsOrderedSet <JDefinedClass> aEffectedClasses = new CommonsLinkedHashSet <> ();
+
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+    {
+      final JDefinedClass jClass = aClassOutline.implClass;
+
+      // Copy, because methods are added
+      for (final JFieldVar aField : new CommonsArrayList <> (jClass.fields ().values ()))
+      {
+        if ((aField.mods ().getValue () & (JMod.STATIC | JMod.TRANSIENT)) != 0)
+          continue;
+        if (!aField.type ().erasure ().name ().equals ("List"))
+          continue;
+        final CPropertyInfo aPI = aClassOutline.target.getProperty (aField.name ());
+        if (aPI == null)
+          continue;
+
+        final String sPropertyName = aPI.getName (true);
+        final String sCreatorName = getCreatorMethodName (sPropertyName);
+        final JMethod aOldGetter = jClass.getMethod (CJAXB.getGetterName (aField.type (), sPropertyName), new JType [0]);
+        if (aOldGetter == null || jClass.getMethod (sCreatorName, new JType [0]) != null)
+          continue;
+
+        final JClass jElementType = ((JClass) aField.type ()).getTypeParameters ().get (0);
+        final JClass jLazyList = _getOrCreateLazyList (jClass._package ()).narrow (jElementType);
+        final JExpression aFieldRef = JExpr._this ().ref (aField);
+
+        // The old getter becomes the private creator
+        final String sGetterName = aOldGetter.name ();
+        aOldGetter.name (sCreatorName);
+        aOldGetter.mods ().setPrivate ();
+
+        // New getter
+        final JMethod aGetter = jClass.method (JMod.PUBLIC, aField.type (), sGetterName);
+        for (final JAnnotationUse aAnnotation : aOldGetter.annotations ())
+          if (aAnnotation.getAnnotationMembers ().isEmpty ())
+            aGetter.annotate (aAnnotation.getAnnotationClass ());
+        {
+          final JBlock aThen = aGetter.body ()._if (aFieldRef.eq (JExpr._null ()))._then ();
+          final JDefinedClass jView = aCodeModel.anonymousClass (jLazyList);
+          final JMethod mRead = jView.method (JMod.PROTECTED, aField.type (), METHOD_READ);
+          mRead.annotate (Override.class);
+          mRead.body ()._return (JExpr.ref (aField.name ()));
+          final JMethod mCreate = jView.method (JMod.PROTECTED, aField.type (), METHOD_CREATE);
+          mCreate.annotate (Override.class);
+          mCreate.body ()._return (JExpr.invoke (sCreatorName));
+          aThen._return (JExpr._new (jView));
+        }
+        aGetter.body ()._return (aFieldRef);
+
+        // Move the documentation to the public getter
+        aGetter.javadoc ().addAll (aOldGetter.javadoc ());
+        aGetter.javadoc ().addReturn ().addAll (aOldGetter.javadoc ().addReturn ());
+        aOldGetter.javadoc ().clear ();
+        getJavadoc (aOldGetter).add ("Create the list " + aField.name () + " if it is absent.");
+        getJavadoc (aGetter).add ("<p>Created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>");
+
+        logDebug ( () -> "  Lazy list " + jClass.fullName () + "." + aField.name ());
+        aEffectedClasses.add (jClass);
+      }
+    }
+
+    for (final JDefinedClass jClass : aEffectedClasses)
+    {
+      // General information
+      getJavadoc (jClass).add ("<p>This class contains methods created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+    }
+    return true;
+  }
+}
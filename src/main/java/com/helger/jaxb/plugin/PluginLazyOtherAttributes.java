@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Objects;
+
+import org.jspecify.annotations.NonNull;
+import org.xml.sax.ErrorHandler;
+
+import com.helger.annotation.style.IsSPIImplementation;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldRef;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.Outline;
+
+/**
+ * Don't allocate the map of foreign attributes created for <code>&lt;xs:anyAttribute/&gt;</code>
+ * upfront, but only on first access:
+ * <ul>
+ * <li>The field <code>otherAttributes</code> is initially <code>null</code> - JAXB creates the map
+ * on demand when unmarshalling</li>
+ * <li>The getter <code>getOtherAttributes()</code> creates the map on first access</li>
+ * <li>The read-only accessors <code>hasOtherAttributes()</code> and
+ * <code>getOtherAttribute(QName)</code> are added, which never create the map</li>
+ * </ul>
+ * The equals/hashCode, cloneable and compact plugins treat a <code>null</code> map like an empty
+ * map, if this plugin is active.
+ *
+ * @author Philip Helger
+ * @since 5.1.3
+ */
+@IsSPIImplementation
+public class PluginLazyOtherAttributes extends AbstractPlugin
+{
+  public static final String OPT = "Xph-lazy-other-attributes";
+
+  /** The name of the field created by XJC for <code>&lt;xs:anyAttribute/&gt;</code> */
+  public static final String FIELD_OTHER_ATTRIBUTES = "otherAttributes";
+
+  @Override
+  public String getOptionName ()
+  {
+    return OPT;
+  }
+
+  @Override
+  public String getUsage ()
+  {
+    return "  -" + OPT + "    :  create the map for xs:anyAttribute only on first access";
+  }
+
+  /**
+   * Check if the provided field is the map of foreign attributes.
+   *
+   * @param aField
+   *        The field to check. May not be <code>null</code>.
+   * @return <code>true</code> if it is the field created for <code>&lt;xs:anyAttribute/&gt;</code>
+   */
+  public static boolean isOtherAttributesField (@NonNull final JFieldVar aField)
+  {
+    return FIELD_OTHER_ATTRIBUTES.equals (aField.name ()) && aField.type ().erasure ().name ().equals ("Map");
+  }
+
+  /**
+   * Get the code to read the map of foreign attributes, where <code>null</code> is replaced with
+   * the empty map.
+   *
+   * @param aCodeModel
+   *        The code model to use. May not be <code>null</code>.
+   * @param aFieldRef
+   *        The expression referencing the field. May not be <code>null</code>.
+   * @return The expression that never evaluates to <code>null</code>.
+   */
+  @NonNull
+  public static JExpression getNonNullReadCode (@NonNull final JCodeModel aCodeModel,
+                                                @NonNull final JExpression aFieldRef)
+  {
+    return aCodeModel.ref (Objects.class)
+                     .staticInvoke ("requireNonNullElse")
+                     .arg (aFieldRef)
+                     .arg (aCodeModel.ref (Collections.class).staticInvoke ("emptyMap"));
+  }
+
+  /**
+   * Get the code to check if the map of foreign attributes has no content.
+   *
+   * @param aFieldRef
+   *        The expression referencing the field. May not be <code>null</code>.
+   * @return The expression that evaluates to <code>true</code> if the map is <code>null</code> or
+   *         empty.
+   */
+  @NonNull
+  public static JExpression getIsEmptyCode (@NonNull final JExpression aFieldRef)
+  {
+    return aFieldRef.eq (JExpr._null ()).cor (aFieldRef.invoke ("isEmpty"));
+  }
+
+  @Override
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler)
+  {
+    logInfo ("Running JAXB plugin -" + getOptionName ());
+
+    final JCodeModel aCodeModel = aOutline.getCodeModel ();
+    final JClass jHashMap = aCodeModel.ref (HashMap.class);
+    int nModified = 0;
+
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+    {
+      final JDefinedClass jClass = aClassOutline.implClass;
+      final JFieldVar aField = jClass.fields ().get (FIELD_OTHER_ATTRIBUTES);
+      if (aField == null || !isOtherAttributesField (aField))
+        continue;
+
+      final JMethod aGetter = jClass.getMethod ("getOtherAttributes", new JType [0]);
+      if (aGetter == null)
+      {
+        logWarn ("Failed to find getter for " + jClass.fullName () + "." + aField.name ());
+        continue;
+      }
+
+      final JClass aFieldType = (JClass) aField.type ();
+      final JClass jKeyType = aFieldType.getTypeParameters ().get (0);
+      final JClass jValueType = aFieldType.getTypeParameters ().get (1);
+      final JFieldRef aFieldRef = JExpr._this ().ref (aField);
+
+      // No initial value
+      aField.init (null);
+
+      // Getter - prepend the lazy creation
+      {
+        final JBlock aBody = aGetter.body ();
+        aBody.pos (0);
+        aBody._if (aFieldRef.eq (JExpr._null ()))
+             ._then ()
+             .assign (aFieldRef, JExpr._new (jHashMap.narrow (jKeyType, jValueType)));
+        aBody.pos (aBody.getContents ().size ());
+      }
+
+      // boolean hasOtherAttributes ()
+      {
+        final JMethod m = jClass.method (JMod.PUBLIC, aCodeModel.BOOLEAN, "hasOtherAttributes");
+        m.body ()._return (JOp.not (getIsEmptyCode (aFieldRef)));
+
+        getJavadoc (m).addReturn ().add ("<code>true</code> if at least one foreign attribute is present.");
+        getJavadoc (m).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+      }
+
+      // String getOtherAttribute (QName)
+      {
+        final JMethod m = jClass.method (JMod.PUBLIC, jValueType, "getOtherAttribute");
+        final JVar aName = m.param (JMod.FINAL, jKeyType, "aName");
+        m.body ()._return (JOp.cond (aFieldRef.eq (JExpr._null ()),
+                                     JExpr._null (),
+                                     aFieldRef.invoke ("get").arg (aName)));
+
+        getJavadoc (m).addParam (aName).add ("The attribute name to query.");
+        getJavadoc (m).addReturn ().add ("The attribute value or <code>null</code> if no such attribute is present.");
+        getJavadoc (m).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+      }
+
+      logDebug ( () -> "  Lazy " + aField.name () + " in " + jClass.fullName ());
+      nModified++;
+
+      // General information
+      getJavadoc (jClass).add ("<p>This class contains methods created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+    }
+
+    logInfo ("  Made " + nModified + " maps lazy");
+    return true;
+  }
+}
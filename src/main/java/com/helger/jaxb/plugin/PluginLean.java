@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import org.jspecify.annotations.NonNull;
+import org.xml.sax.ErrorHandler;
+
+import com.helger.annotation.style.IsSPIImplementation;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.outline.Outline;
+
+/**
+ * Plugin that switches all other plugins of this project to a lean output mode: no javadoc and no
+ * class level notes are created for the added members, and compact code shapes are used (e.g. a
+ * single <code>return a &amp;&amp; b;</code> in <code>equals</code>). This reduces the size of the
+ * generated sources and the time to compile them. The plugin itself does not modify anything, and
+ * the position on the command line does not matter.
+ *
+ * @author Philip Helger
+ * @since 5.1.3
+ */
+@IsSPIImplementation
+public class PluginLean extends AbstractPlugin
+{
+  public static final String OPT = "Xph-lean";
+
+  @Override
+  public String getOptionName ()
+  {
+    return OPT;
+  }
+
+  @Override
+  public String getUsage ()
+  {
+    return "  -" + OPT + "    :  create no javadoc in the other ph-jaxb-plugin plugins and use compact code";
+  }
+
+  @Override
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler)
+  {
+    logInfo ("Running JAXB plugin -" + getOptionName ());
+    // Evaluated by the other plugins
+    return true;
+  }
+}
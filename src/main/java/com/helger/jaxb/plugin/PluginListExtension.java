@@ -16,27 +16,47 @@
  */
 package com.helger.jaxb.plugin;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 import org.xml.sax.ErrorHandler;
 
 import com.helger.annotation.Nonnegative;
 import com.helger.annotation.style.IsSPIImplementation;
+import com.helger.base.reflection.GenericReflection;
+import com.helger.base.string.StringHelper;
 import com.helger.collection.commons.CommonsArrayList;
-import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.CommonsLinkedHashSet;
 import com.helger.collection.commons.ICommonsList;
-import com.helger.collection.commons.ICommonsSet;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.collection.commons.ICommonsOrderedSet;
+import com.helger.jaxb.plugin.cm.MySuperWildcard;
+import com.sun.codemodel.JBlock;
 import com.sun.codemodel.JClass;
 import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JConditional;
 import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldRef;
 import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
 import com.sun.codemodel.JOp;
 import com.sun.codemodel.JType;
 import com.sun.codemodel.JVar;
 import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.model.CPluginCustomization;
+import com.sun.tools.xjc.model.CPropertyInfo;
 import com.sun.tools.xjc.outline.ClassOutline;
 import com.sun.tools.xjc.outline.Outline;
 
@@ -49,7 +69,19 @@ import com.sun.tools.xjc.outline.Outline;
  * <li>int get...Count()</li>
  * <li>T get...AtIndex(int)</li>
  * <li>void add...(T)</li>
+ * <li>void addAll...(Collection)</li>
+ * <li>void ensure...Capacity(int)</li>
+ * <li>void forEach...(Consumer&lt;? super ELEMENTTYPE&gt;)</li>
+ * <li>boolean removeIf...(Predicate&lt;? super ELEMENTTYPE&gt;)</li>
+ * <li>T get...ByKey(K) - only if a key customization is present</li>
  * </ul>
+ * A keyed lookup is created for all list properties that have a customization like
+ * <code>&lt;le:key property="ID.Value" /&gt;</code> with the namespace {@link #NAMESPACE_URI}. The
+ * property path is a dot separated list of property names, starting at the list element type. The
+ * index is build lazily on the first lookup and invalidated by the generated mutators. The first
+ * element with a certain key is used.
+ * The read-only methods access the field directly, so that they don't create an empty list if the
+ * field is <code>null</code>.<br>
  * Note: don't use ICommonsList here, because it is not supported in the underlying JAXB
  * implementation, which explicitly checks for ArrayList.
  *
@@ -59,9 +91,25 @@ import com.sun.tools.xjc.outline.Outline;
 public class PluginListExtension extends AbstractPlugin
 {
   public static final String OPT = "Xph-list-extension";
+  /** @since 5.1.3 */
+  public static final String NAMESPACE_URI = CJAXB.NSURI_PH + "/list-extension";
+  /** @since 5.1.3 */
+  public static final String CUSTOMIZATION_KEY = "key";
 
   private static final JType [] JTYPE_EMPTY = {};
 
+  private static final class KeyGetter
+  {
+    private final String m_sName;
+    private final JType m_aType;
+
+    private KeyGetter (@NonNull final String sName, @NonNull final JType aType)
+    {
+      m_sName = sName;
+      m_aType = aType;
+    }
+  }
+
   @Override
   public String getOptionName ()
   {
@@ -75,21 +123,193 @@ public class PluginListExtension extends AbstractPlugin
   }
 
   @Override
-  public boolean run (final Outline aOutline, final Options aOpts, final ErrorHandler aErrorHandler)
+  public List <String> getCustomizationURIs ()
+  {
+    return new CommonsArrayList <> (CJAXB.NSURI_PH, NAMESPACE_URI);
+  }
+
+  @Override
+  public boolean isCustomizationTagName (final String nsUri, final String localName)
+  {
+    return NAMESPACE_URI.equals (nsUri) && CUSTOMIZATION_KEY.equals (localName);
+  }
+
+  @Nullable
+  private static KeyGetter _findGetter (@NonNull final JCodeModel aCodeModel,
+                                        @NonNull final JType aType,
+                                        @NonNull final String sPropertyName)
+  {
+    final String [] aGetterNames = { "get" + sPropertyName, "is" + sPropertyName };
+    JClass aCurClass = aType instanceof final JClass aClass ? aClass : null;
+    while (aCurClass != null)
+    {
+      if (aCurClass instanceof final JDefinedClass jdClass)
+      {
+        // Created in this run
+        for (final String sGetterName : aGetterNames)
+        {
+          final JMethod aMethod = jdClass.getMethod (sGetterName, JTYPE_EMPTY);
+          if (aMethod != null)
+            return new KeyGetter (sGetterName, aMethod.type ());
+        }
+        aCurClass = jdClass._extends ();
+      }
+      else
+      {
+        // Referenced class, e.g. from an episode
+        final Class <?> aClass = GenericReflection.getClassFromNameSafe (aCurClass.binaryName ());
+        if (aClass != null)
+          for (final String sGetterName : aGetterNames)
+          {
+            try
+            {
+              return new KeyGetter (sGetterName, aCodeModel._ref (aClass.getMethod (sGetterName).getReturnType ()));
+            }
+            catch (final NoSuchMethodException ex)
+            {
+              // Try next
+            }
+          }
+        return null;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Create the transient index fields and the getXXXByKey method.
+   *
+   * @return The index field that needs to be invalidated by all mutators or <code>null</code> if
+   *         the index could not be created.
+   */
+  @Nullable
+  private JFieldVar _createKeyIndex (@NonNull final JCodeModel aCodeModel,
+                                     @NonNull final JDefinedClass jClass,
+                                     @NonNull final JFieldVar aField,
+                                     @NonNull final String sPropertyName,
+                                     @Nullable final String sKeyPath)
+  {
+    if (StringHelper.isEmpty (sKeyPath))
+    {
+      logWarn ("The '" + CUSTOMIZATION_KEY + "' customization of " + jClass.fullName () + "." + sPropertyName + " has no 'property' attribute");
+      return null;
+    }
+
+    final JClass aElementType = ((JClass) aField.type ()).getTypeParameters ().get (0);
+
+    // Resolve all getters of the key path
+    final ICommonsList <KeyGetter> aGetters = new CommonsArrayList <> ();
+    JType aCurType = aElementType;
+    for (final String sPart : sKeyPath.split ("\\."))
+    {
+      final KeyGetter aGetter = _findGetter (aCodeModel, aCurType, sPart);
+      if (aGetter == null)
+      {
+        logWarn ("Failed to resolve key property '" + sPart + "' of '" + sKeyPath + "' in " + aCurType.fullName ());
+        return null;
+      }
+      aGetters.add (aGetter);
+      aCurType = aGetter.m_aType;
+    }
+    final JClass aKeyType = aCurType.boxify ();
+
+    final String sIndexFieldName = aField.name () + "Index";
+    if (jClass.fields ().containsKey (sIndexFieldName) ||
+        jClass.fields ().containsKey (sIndexFieldName + "List") ||
+        jClass.fields ().containsKey (sIndexFieldName + "Size"))
+    {
+      logWarn ("Cannot create index for " + jClass.fullName () + "." + sPropertyName + " because the field names are already used");
+      return null;
+    }
+
+    // Transient fields are ignored by JAXB and by the other plugins
+    final JClass jMap = aCodeModel.ref (Map.class).narrow (aKeyType, aElementType);
+    final JFieldVar fIndex = jClass.field (JMod.PRIVATE | JMod.TRANSIENT | JMod.VOLATILE, jMap, sIndexFieldName);
+    final JFieldVar fIndexList = jClass.field (JMod.PRIVATE | JMod.TRANSIENT, aField.type (), sIndexFieldName + "List");
+    final JFieldVar fIndexSize = jClass.field (JMod.PRIVATE | JMod.TRANSIENT, aCodeModel.INT, sIndexFieldName + "Size");
+
+    // ELEMENTTYPE getXXXByKey (KEYTYPE)
+    final JMethod mByKey = jClass.method (JMod.PUBLIC, aElementType, "get" + sPropertyName + "ByKey");
+    if (allowsJSpecifyAnnotations (jClass, aElementType))
+      mByKey.annotate (Nullable.class);
+    final JVar aParam = mByKey.param (JMod.FINAL, aKeyType, "key");
+    if (allowsJSpecifyAnnotations (jClass, aKeyType))
+      aParam.annotate (Nullable.class);
+
+    final JFieldRef aFieldRef = JExpr._this ().ref (aField);
+    final JFieldRef aIndexRef = JExpr._this ().ref (fIndex);
+    final JFieldRef aIndexListRef = JExpr._this ().ref (fIndexList);
+    final JFieldRef aIndexSizeRef = JExpr._this ().ref (fIndexSize);
+    mByKey.body ()._if (aFieldRef.eq (JExpr._null ()).cor (aParam.eq (JExpr._null ())))._then ()._return (JExpr._null ());
+
+    // Read the volatile index only once
+    final JVar aIndex = mByKey.body ().decl (jMap, "aIndex", aIndexRef);
+
+    // (Re-)build the index if it was invalidated or if the list was modified
+    // via the getter
+    final JBlock aBuild = mByKey.body ()
+                                ._if (aIndex.eq (JExpr._null ())
+                                            .cor (aIndexListRef.ne (aFieldRef))
+                                            .cor (aIndexSizeRef.ne (aFieldRef.invoke ("size"))))
+                                ._then ();
+    // Build into a local map and publish it once it is complete
+    final JVar aMap = aBuild.decl (jMap,
+                                   "aNewIndex",
+                                   JExpr._new (aCodeModel.ref (HashMap.class).narrow (aKeyType, aElementType))
+                                        .arg (aFieldRef.invoke ("size")
+                                                       .mul (JExpr.lit (4))
+                                                       .div (JExpr.lit (3))
+                                                       .plus (JExpr.lit (1))));
+    final JForEach aForEach = aBuild.forEach (aElementType, "aItem", aFieldRef);
+    JBlock aLoopBody = aForEach.body ()._if (aForEach.var ().ne (JExpr._null ()))._then ();
+    JExpression aCurKey = aForEach.var ();
+    int nIndex = 0;
+    for (final KeyGetter aGetter : aGetters)
+    {
+      final JVar aKeyPart = aLoopBody.decl (aGetter.m_aType, "aKey" + nIndex++, aCurKey.invoke (aGetter.m_sName));
+      if (!aGetter.m_aType.isPrimitive ())
+        aLoopBody = aLoopBody._if (aKeyPart.ne (JExpr._null ()))._then ();
+      aCurKey = aKeyPart;
+    }
+    // First one wins
+    aLoopBody.add (aMap.invoke ("putIfAbsent").arg (aCurKey).arg (aForEach.var ()));
+    aBuild.assign (aIndexListRef, aFieldRef);
+    aBuild.assign (aIndexSizeRef, aFieldRef.invoke ("size"));
+    // The volatile write must be the last one
+    aBuild.assign (aIndexRef, aMap);
+    aBuild.assign (aIndex, aMap);
+
+    mByKey.body ()._return (aIndex.invoke ("get").arg (aParam));
+
+    getJavadoc (mByKey).add ("Get the first element with the provided key <code>" +
+                             sKeyPath +
+                             "</code>. The lookup index is build lazily and invalidated by all mutators of this class. Modifications of the list returned by the getter are detected only if they change the size of the list. Concurrent lookups are safe as long as the object is not modified at the same time, because the index is built locally and published via a volatile field.");
+    getJavadoc (mByKey).addParam (aParam).add ("The key to search. May be <code>null</code>.");
+    getJavadoc (mByKey).addReturn ().add ("<code>null</code> if no such element is contained.");
+    getJavadoc (mByKey).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+
+    return fIndex;
+  }
+
+  @Override
+  protected boolean runPlugin (final Outline aOutline, final Options aOpts, final ErrorHandler aErrorHandler)
   {
-    initPluginLogging (aOpts.debugMode);
     logInfo ("Running JAXB plugin -" + getOptionName ());
 
     final JCodeModel aCodeModel = aOutline.getCodeModel ();
-    final ICommonsSet <JDefinedClass> aEffectedClasses = new CommonsHashSet <> ();
+    final ICommonsOrderedSet <JDefinedClass> aEffectedClasses = new CommonsLinkedHashSet <> ();
 
     // For all classes
     for (final ClassOutline aClassOutline : aOutline.getClasses ())
     {
       final JDefinedClass jClass = aClassOutline.implClass;
+      // Map from getter name to list field
+      final ICommonsMap <String, JFieldVar> aGetterToField = new CommonsHashMap <> ();
+      // Map from getter name to the index field to be invalidated
+      final ICommonsMap <String, JFieldVar> aGetterToIndex = new CommonsHashMap <> ();
 
-      // Find all List members
-      for (final JFieldVar aField : jClass.fields ().values ())
+      // Find all List members - copy, because index fields may be added
+      for (final JFieldVar aField : new CommonsArrayList <> (jClass.fields ().values ()))
       {
         final JType aOldType = aField.type ();
         if (aOldType.erasure ().name ().equals ("List"))
@@ -104,7 +324,22 @@ public class PluginListExtension extends AbstractPlugin
           }
 
           // Important for correct casing
-          final String sFieldName = aClassOutline.target.getProperty (aField.name ()).getName (true);
+          final CPropertyInfo aPI = aClassOutline.target.getProperty (aField.name ());
+          final String sFieldName = aPI.getName (true);
+          final String sGetterName = CJAXB.getGetterName (aField.type (), sFieldName);
+
+          // Create keyed lookup
+          final CPluginCustomization aKeyCust = aPI.getCustomizations ().find (NAMESPACE_URI, CUSTOMIZATION_KEY);
+          final JFieldVar fIndex;
+          if (aKeyCust != null)
+          {
+            aKeyCust.markAsAcknowledged ();
+            fIndex = _createKeyIndex (aCodeModel, jClass, aField, sFieldName, aKeyCust.element.getAttribute ("property"));
+            if (fIndex != null)
+              aGetterToIndex.put (sGetterName, fIndex);
+          }
+          else
+            fIndex = null;
 
           // Create Setter
           {
@@ -113,10 +348,13 @@ public class PluginListExtension extends AbstractPlugin
             if (allowsJSpecifyAnnotations (jClass, aField.type ()))
               aParam.annotate (Nullable.class);
             aSetter.body ().assign (aField, aParam);
-            aSetter.javadoc ().addParam (aParam).add ("The new list member to set. May be <code>null</code>.");
-            aSetter.javadoc ().add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+            if (fIndex != null)
+              aSetter.body ().assign (JExpr._this ().ref (fIndex), JExpr._null ());
+            getJavadoc (aSetter).addParam (aParam).add ("The new list member to set. May be <code>null</code>.");
+            getJavadoc (aSetter).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
           }
 
+          aGetterToField.put (sGetterName, aField);
           aEffectedClasses.add (jClass);
         }
       }
@@ -131,18 +369,26 @@ public class PluginListExtension extends AbstractPlugin
           {
             final String sRelevantTypeName = aMethod.name ().substring (3);
             final JType aListElementType = ((JClass) aReturnType).getTypeParameters ().get (0);
+            // The field is accessed directly for read-only access, so that no
+            // empty list is created
+            final JFieldVar aField = aGetterToField.get (aMethod.name ());
+            final JFieldRef aFieldRef = aField == null ? null : JExpr._this ().ref (aField);
+            final JFieldVar fIndex = aGetterToIndex.get (aMethod.name ());
 
             // boolean hasXXXEntries ()
             {
               final JMethod mHasEntries = jClass.method (JMod.PUBLIC,
                                                          aCodeModel.BOOLEAN,
                                                          "has" + sRelevantTypeName + "Entries");
-              mHasEntries.body ()._return (JOp.not (JExpr.invoke (aMethod).invoke ("isEmpty")));
+              if (aFieldRef != null)
+                mHasEntries.body ()
+                           ._return (aFieldRef.ne (JExpr._null ()).cand (JOp.not (aFieldRef.invoke ("isEmpty"))));
+              else
+                mHasEntries.body ()._return (JOp.not (JExpr.invoke (aMethod).invoke ("isEmpty")));
 
-              mHasEntries.javadoc ()
-                         .addReturn ()
-                         .add ("<code>true</code> if at least one item is contained, <code>false</code> otherwise.");
-              mHasEntries.javadoc ().add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+              getJavadoc (mHasEntries).addReturn ()
+                                      .add ("<code>true</code> if at least one item is contained, <code>false</code> otherwise.");
+              getJavadoc (mHasEntries).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
             }
 
             // boolean hasNoXXXEntries ()
@@ -150,12 +396,14 @@ public class PluginListExtension extends AbstractPlugin
               final JMethod mHasNoEntries = jClass.method (JMod.PUBLIC,
                                                            aCodeModel.BOOLEAN,
                                                            "hasNo" + sRelevantTypeName + "Entries");
-              mHasNoEntries.body ()._return (JExpr.invoke (aMethod).invoke ("isEmpty"));
+              if (aFieldRef != null)
+                mHasNoEntries.body ()._return (aFieldRef.eq (JExpr._null ()).cor (aFieldRef.invoke ("isEmpty")));
+              else
+                mHasNoEntries.body ()._return (JExpr.invoke (aMethod).invoke ("isEmpty"));
 
-              mHasNoEntries.javadoc ()
-                           .addReturn ()
-                           .add ("<code>true</code> if no item is contained, <code>false</code> otherwise.");
-              mHasNoEntries.javadoc ().add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+              getJavadoc (mHasNoEntries).addReturn ()
+                                        .add ("<code>true</code> if no item is contained, <code>false</code> otherwise.");
+              getJavadoc (mHasNoEntries).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
             }
 
             // int getXXXCount () or getXXXListCount ()
@@ -168,10 +416,13 @@ public class PluginListExtension extends AbstractPlugin
               {
                 final JMethod mCount = jClass.method (JMod.PUBLIC, aCodeModel.INT, sName);
                 mCount.annotate (Nonnegative.class);
-                mCount.body ()._return (JExpr.invoke (aMethod).invoke ("size"));
+                if (aFieldRef != null)
+                  mCount.body ()._return (JOp.cond (aFieldRef.eq (JExpr._null ()), JExpr.lit (0), aFieldRef.invoke ("size")));
+                else
+                  mCount.body ()._return (JExpr.invoke (aMethod).invoke ("size"));
 
-                mCount.javadoc ().addReturn ().add ("The number of contained elements. Always &ge; 0.");
-                mCount.javadoc ().add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+                getJavadoc (mCount).addReturn ().add ("The number of contained elements. Always &ge; 0.");
+                getJavadoc (mCount).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
               }
               else
                 logWarn ("Cannot create 'get" + sRelevantTypeName + "Count' method because it already exists");
@@ -187,12 +438,21 @@ public class PluginListExtension extends AbstractPlugin
               mAtIndex._throws (IndexOutOfBoundsException.class);
               final JVar aParam = mAtIndex.param (JMod.FINAL, aCodeModel.INT, "index");
               aParam.annotate (Nonnegative.class);
-              mAtIndex.body ()._return (JExpr.invoke (aMethod).invoke ("get").arg (aParam));
+              if (aFieldRef != null)
+              {
+                final JConditional aIf = mAtIndex.body ()._if (aFieldRef.eq (JExpr._null ()));
+                aIf._then ()
+                   ._throw (JExpr._new (aCodeModel.ref (IndexOutOfBoundsException.class))
+                                 .arg (JExpr.lit ("Index ").plus (aParam).plus (JExpr.lit (" out of bounds for length 0"))));
+                mAtIndex.body ()._return (aFieldRef.invoke ("get").arg (aParam));
+              }
+              else
+                mAtIndex.body ()._return (JExpr.invoke (aMethod).invoke ("get").arg (aParam));
 
-              mAtIndex.javadoc ().addParam (aParam).add ("The index to retrieve");
-              mAtIndex.javadoc ().addReturn ().add ("The element at the specified index. May be <code>null</code>");
-              mAtIndex.javadoc ().addThrows (IndexOutOfBoundsException.class).add ("if the index is invalid!");
-              mAtIndex.javadoc ().add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+              getJavadoc (mAtIndex).addParam (aParam).add ("The index to retrieve");
+              getJavadoc (mAtIndex).addReturn ().add ("The element at the specified index. May be <code>null</code>");
+              getJavadoc (mAtIndex).addThrows (IndexOutOfBoundsException.class).add ("if the index is invalid!");
+              getJavadoc (mAtIndex).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
             }
 
             // void addXXX (ELEMENTTYPE)
@@ -202,9 +462,87 @@ public class PluginListExtension extends AbstractPlugin
               if (allowsJSpecifyAnnotations (jClass, aListElementType))
                 aParam.annotate (NonNull.class);
               mAdd.body ().add (JExpr.invoke (aMethod).invoke ("add").arg (aParam));
+              if (fIndex != null)
+                mAdd.body ().assign (JExpr._this ().ref (fIndex), JExpr._null ());
+
+              getJavadoc (mAdd).addParam (aParam).add ("The element to be added. May not be <code>null</code>.");
+              getJavadoc (mAdd).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+            }
+
+            if (aFieldRef != null)
+            {
+              final JClass jArrayList = aCodeModel.ref (ArrayList.class).narrow (aListElementType);
+              // Create the list like the getter does, so that modifications of other plugins are
+              // kept (e.g. presized or primitive lists)
+              final JMethod aCreator = getListCreatingMethod (jClass, aField.type (), sRelevantTypeName);
+
+              // void addAllXXX (Collection<? extends ELEMENTTYPE>)
+              {
+                final JMethod mAddAll = jClass.method (JMod.PUBLIC, aCodeModel.VOID, "addAll" + sRelevantTypeName);
+                final JVar aParam = mAddAll.param (JMod.FINAL,
+                                                   aCodeModel.ref (Collection.class)
+                                                             .narrow (((JClass) aListElementType).wildcard ()),
+                                                   "elems");
+                if (allowsJSpecifyAnnotations (jClass, aParam.type ()))
+                  aParam.annotate (NonNull.class);
+                mAddAll.body ().add (JExpr.invoke (aCreator).invoke ("addAll").arg (aParam));
+                if (fIndex != null)
+                  mAddAll.body ().assign (JExpr._this ().ref (fIndex), JExpr._null ());
+
+                getJavadoc (mAddAll).addParam (aParam).add ("The elements to be added. May not be <code>null</code>.");
+                getJavadoc (mAddAll).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+              }
+
+              // void ensureXXXCapacity (int)
+              {
+                final JMethod mEnsure = jClass.method (JMod.PUBLIC,
+                                                       aCodeModel.VOID,
+                                                       "ensure" + sRelevantTypeName + "Capacity");
+                final JVar aParam = mEnsure.param (JMod.FINAL, aCodeModel.INT, "minCapacity");
+                aParam.annotate (Nonnegative.class);
+                final JVar aList = mEnsure.body ().decl (JMod.FINAL, aField.type (), "aList", JExpr.invoke (aCreator));
+                mEnsure.body ()
+                       ._if (aList._instanceof (aCodeModel.ref (ArrayList.class)))
+                       ._then ()
+                       .add (JExpr.cast (jArrayList, aList).invoke ("ensureCapacity").arg (aParam));
+
+                getJavadoc (mEnsure).add ("Ensure that the list can hold at least the provided number of elements without resizing. The list is created if it is absent. Only an <code>ArrayList</code> is resized. ");
+                getJavadoc (mEnsure).addParam (aParam).add ("The minimum capacity. Should be &ge; 0.");
+                getJavadoc (mEnsure).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+              }
+
+              // void forEachXXX (Consumer<? super ELEMENTTYPE>)
+              {
+                final JMethod mForEach = jClass.method (JMod.PUBLIC, aCodeModel.VOID, "forEach" + sRelevantTypeName);
+                final JVar aParam = mForEach.param (JMod.FINAL,
+                                                    aCodeModel.ref (Consumer.class)
+                                                              .narrow (MySuperWildcard.superOf ((JClass) aListElementType)),
+                                                    "consumer");
+                if (allowsJSpecifyAnnotations (jClass, aParam.type ()))
+                  aParam.annotate (NonNull.class);
+                mForEach.body ()._if (aFieldRef.ne (JExpr._null ()))._then ().add (aFieldRef.invoke ("forEach").arg (aParam));
 
-              mAdd.javadoc ().addParam (aParam).add ("The element to be added. May not be <code>null</code>.");
-              mAdd.javadoc ().add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+                getJavadoc (mForEach).addParam (aParam).add ("The consumer to be invoked for each element. May not be <code>null</code>.");
+                getJavadoc (mForEach).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+              }
+
+              // boolean removeIfXXX (Predicate<? super ELEMENTTYPE>)
+              {
+                final JMethod mRemoveIf = jClass.method (JMod.PUBLIC, aCodeModel.BOOLEAN, "removeIf" + sRelevantTypeName);
+                final JVar aParam = mRemoveIf.param (JMod.FINAL,
+                                                     aCodeModel.ref (Predicate.class)
+                                                               .narrow (MySuperWildcard.superOf ((JClass) aListElementType)),
+                                                     "filter");
+                if (allowsJSpecifyAnnotations (jClass, aParam.type ()))
+                  aParam.annotate (NonNull.class);
+                if (fIndex != null)
+                  mRemoveIf.body ().assign (JExpr._this ().ref (fIndex), JExpr._null ());
+                mRemoveIf.body ()._return (aFieldRef.ne (JExpr._null ()).cand (aFieldRef.invoke ("removeIf").arg (aParam)));
+
+                getJavadoc (mRemoveIf).addParam (aParam).add ("The filter for the elements to be removed. May not be <code>null</code>.");
+                getJavadoc (mRemoveIf).addReturn ().add ("<code>true</code> if at least one element was removed.");
+                getJavadoc (mRemoveIf).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+              }
             }
 
             aEffectedClasses.add (jClass);
@@ -215,7 +553,7 @@ public class PluginListExtension extends AbstractPlugin
     for (final JDefinedClass jClass : aEffectedClasses)
     {
       // General information
-      jClass.javadoc ().add ("<p>This class contains methods created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+      getJavadoc (jClass).add ("<p>This class contains methods created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
     }
 
     return true;
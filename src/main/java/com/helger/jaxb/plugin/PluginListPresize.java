@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+
+import org.jspecify.annotations.NonNull;
+import org.xml.sax.ErrorHandler;
+
+import com.helger.annotation.style.IsSPIImplementation;
+import com.helger.base.numeric.BigHelper;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldRef;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JType;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.model.CElementPropertyInfo;
+import com.sun.tools.xjc.model.CPropertyInfo;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.Outline;
+import com.sun.xml.xsom.XSComponent;
+import com.sun.xml.xsom.XSParticle;
+
+/**
+ * Create all lists of elements with a small bounded <code>maxOccurs</code> with the exact initial
+ * capacity instead of the default capacity of 10:
+ * <ul>
+ * <li>The list getters create the list with the exact capacity</li>
+ * <li>For required elements the list is created in <code>beforeUnmarshal</code> so that JAXB
+ * fills the presized list</li>
+ * </ul>
+ * Optional elements are not created upfront by the unmarshaller, to avoid allocations for absent
+ * elements.
+ *
+ * @author Philip Helger
+ * @since 5.1.3
+ */
+@IsSPIImplementation
+public class PluginListPresize extends AbstractPlugin
+{
+  public static final String OPT = "Xph-list-presize";
+
+  /**
+   * Lists with a <code>maxOccurs</code> of at least this value are not modified, as this is the
+   * default capacity of {@link ArrayList}.
+   */
+  public static final int MAX_PRESIZE_CAPACITY = 10;
+
+  @Override
+  public String getOptionName ()
+  {
+    return OPT;
+  }
+
+  @Override
+  public String getUsage ()
+  {
+    return "  -" + OPT + "    :  create lists with a small bounded maxOccurs with the exact capacity";
+  }
+
+  @Override
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler)
+  {
+    logInfo ("Running JAXB plugin -" + getOptionName ());
+
+    final JCodeModel aCodeModel = aOutline.getCodeModel ();
+    final JClass jArrayList = aCodeModel.ref (ArrayList.class);
+    final BigInteger aMaxPresize = BigInteger.valueOf (MAX_PRESIZE_CAPACITY);
+    final PluginPrimitiveList aPrimitiveList = findActivePlugin (aOpts, PluginPrimitiveList.class);
+    int nModified = 0;
+
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+    {
+      final JDefinedClass jClass = aClassOutline.implClass;
+
+      for (final CPropertyInfo aPropInfo : aClassOutline.target.getProperties ())
+      {
+        if (!(aPropInfo instanceof final CElementPropertyInfo aElement) || !aElement.isCollection ())
+          continue;
+
+        // Lists of a repeating model group don't have a repeating particle
+        final XSComponent aSchemaComponent = aElement.getSchemaComponent ();
+        if (!(aSchemaComponent instanceof final XSParticle aParticle))
+          continue;
+
+        final BigInteger aMaxOccurs = aParticle.getMaxOccurs ();
+        if (aMaxOccurs.compareTo (BigInteger.ONE) <= 0 || aMaxOccurs.compareTo (aMaxPresize) >= 0)
+        {
+          // Unbounded (-1), single or large
+          continue;
+        }
+
+        final JFieldVar aField = jClass.fields ().get (aElement.getName (false));
+        if (aField == null || !aField.type ().erasure ().name ().equals ("List"))
+          continue;
+
+        // Uses a different list implementation
+        if (aPrimitiveList != null && aPrimitiveList.isPrimitiveListField (jClass, aField))
+          continue;
+
+        final int nCapacity = aMaxOccurs.intValue ();
+        final JType aElementType = ((JClass) aField.type ()).getTypeParameters ().get (0);
+        final JFieldRef aFieldRef = JExpr._this ().ref (aField);
+        final JExpression aNewList = JExpr._new (jArrayList.narrow (aElementType)).arg (JExpr.lit (nCapacity));
+
+        // Getter - prepend the creation, so that the default creation is not
+        // invoked
+        final JMethod aGetter = getListCreatingMethod (jClass, aField.type (), aElement.getName (true));
+        if (aGetter != null)
+        {
+          final JBlock aBody = aGetter.body ();
+          aBody.pos (0);
+          aBody._if (aFieldRef.eq (JExpr._null ()))._then ().assign (aFieldRef, aNewList);
+          aBody.pos (aBody.getContents ().size ());
+        }
+        else
+          logWarn ("Failed to find getter for " + jClass.fullName () + "." + aField.name ());
+
+        // Required lists are always filled by the unmarshaller
+        if (aElement.isRequired () && BigHelper.isGE1 (aParticle.getMinOccurs ()))
+        {
+          final JMethod aBefore = getOrCreateUnmarshalCallback (jClass, METHOD_BEFORE_UNMARSHAL);
+          aBefore.body ()._if (aFieldRef.eq (JExpr._null ()))._then ().assign (aFieldRef, aNewList);
+        }
+
+        logDebug ( () -> "  Presizing " + jClass.fullName () + "." + aField.name () + " to " + nCapacity);
+        nModified++;
+      }
+    }
+
+    logInfo ("  Presized " + nModified + " lists");
+    return true;
+  }
+}
@@ -133,9 +133,8 @@ public class PluginNamespacePrefix extends AbstractPlugin
   }
 
   @Override
-  public boolean run (final Outline aOutline, final Options aOpts, final ErrorHandler aErrorHandler)
+  protected boolean runPlugin (final Outline aOutline, final Options aOpts, final ErrorHandler aErrorHandler)
   {
-    initPluginLogging (aOpts.debugMode);
     logInfo ("Running JAXB plugin -" + getOptionName ());
 
     final JClass jXmlNsClass = aOutline.getCodeModel ().ref (XmlNs.class);
@@ -28,8 +28,8 @@ import org.jspecify.annotations.Nullable;
 import org.xml.sax.ErrorHandler;
 
 import com.helger.annotation.style.IsSPIImplementation;
-import com.helger.collection.commons.CommonsHashSet;
-import com.helger.collection.commons.ICommonsSet;
+import com.helger.collection.commons.CommonsLinkedHashSet;
+import com.helger.collection.commons.ICommonsOrderedSet;
 import com.helger.datetime.rt.OffsetDate;
 import com.helger.datetime.xml.XMLOffsetDate;
 import com.helger.datetime.xml.XMLOffsetDateTime;
@@ -92,13 +92,12 @@ public class PluginOffsetDTExtension extends AbstractPlugin
   }
 
   @Override
-  public boolean run (final Outline aOutline, final Options aOpts, final ErrorHandler aErrorHandler)
+  protected boolean runPlugin (final Outline aOutline, final Options aOpts, final ErrorHandler aErrorHandler)
   {
-    initPluginLogging (aOpts.debugMode);
     logInfo ("Running JAXB plugin -" + getOptionName ());
 
     final JCodeModel aCodeModel = aOutline.getCodeModel ();
-    final ICommonsSet <JDefinedClass> aEffectedClasses = new CommonsHashSet <> ();
+    final ICommonsOrderedSet <JDefinedClass> aEffectedClasses = new CommonsLinkedHashSet <> ();
 
     // For all classes
     for (final ClassOutline aClassOutline : aOutline.getClasses ())
@@ -129,10 +128,9 @@ public class PluginOffsetDTExtension extends AbstractPlugin
                      ._return (MyTernaryOp.cond (aField.eq (JExpr._null ()),
                                                  JExpr._null (),
                                                  aField.invoke ("toLocalDate")));
-              aGetter.javadoc ()
-                     .addReturn ()
-                     .add ("The LocalDate representation of " + aField.name () + ". May be <code>null</code>.");
-              aGetter.javadoc ().add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+              getJavadoc (aGetter).addReturn ()
+                                  .add ("The LocalDate representation of " + aField.name () + ". May be <code>null</code>.");
+              getJavadoc (aGetter).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
             }
 
             // Create Setter
@@ -156,8 +154,8 @@ public class PluginOffsetDTExtension extends AbstractPlugin
                                                                                                      .arg (aParam)
                                                                                                      .arg (aCodeModel.ref (ZoneOffset.class)
                                                                                                                      .staticRef ("UTC"))));
-              aSetter.javadoc ().addParam (aParam).add ("The LocalDate to set. May be <code>null</code>.");
-              aSetter.javadoc ().add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+              getJavadoc (aSetter).addParam (aParam).add ("The LocalDate to set. May be <code>null</code>.");
+              getJavadoc (aSetter).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
             }
 
             aEffectedClasses.add (jClass);
@@ -181,10 +179,9 @@ public class PluginOffsetDTExtension extends AbstractPlugin
                      ._return (MyTernaryOp.cond (aField.eq (JExpr._null ()),
                                                  JExpr._null (),
                                                  aField.invoke ("toLocalTime")));
-              aGetter.javadoc ()
-                     .addReturn ()
-                     .add ("The LocalTime representation of " + aField.name () + ". May be <code>null</code>.");
-              aGetter.javadoc ().add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+              getJavadoc (aGetter).addReturn ()
+                                  .add ("The LocalTime representation of " + aField.name () + ". May be <code>null</code>.");
+              getJavadoc (aGetter).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
             }
 
             // Create Setter
@@ -208,8 +205,8 @@ public class PluginOffsetDTExtension extends AbstractPlugin
                                                                                                      .arg (aParam)
                                                                                                      .arg (aCodeModel.ref (ZoneOffset.class)
                                                                                                                      .staticRef ("UTC"))));
-              aSetter.javadoc ().addParam (aParam).add ("The LocalTime to set. May be <code>null</code>.");
-              aSetter.javadoc ().add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+              getJavadoc (aSetter).addParam (aParam).add ("The LocalTime to set. May be <code>null</code>.");
+              getJavadoc (aSetter).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
             }
 
             aEffectedClasses.add (jClass);
@@ -233,10 +230,9 @@ public class PluginOffsetDTExtension extends AbstractPlugin
                      ._return (MyTernaryOp.cond (aField.eq (JExpr._null ()),
                                                  JExpr._null (),
                                                  aField.invoke ("toLocalDateTime")));
-              aGetter.javadoc ()
-                     .addReturn ()
-                     .add ("The LocalDateTime representation of " + aField.name () + ". May be <code>null</code>.");
-              aGetter.javadoc ().add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+              getJavadoc (aGetter).addReturn ()
+                                  .add ("The LocalDateTime representation of " + aField.name () + ". May be <code>null</code>.");
+              getJavadoc (aGetter).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
             }
 
             // Create Setter
@@ -260,8 +256,8 @@ public class PluginOffsetDTExtension extends AbstractPlugin
                                                                                                      .arg (aParam)
                                                                                                      .arg (aCodeModel.ref (ZoneOffset.class)
                                                                                                                      .staticRef ("UTC"))));
-              aSetter.javadoc ().addParam (aParam).add ("The LocalDateTime to set. May be <code>null</code>.");
-              aSetter.javadoc ().add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+              getJavadoc (aSetter).addParam (aParam).add ("The LocalDateTime to set. May be <code>null</code>.");
+              getJavadoc (aSetter).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
             }
 
             aEffectedClasses.add (jClass);
@@ -275,7 +271,7 @@ public class PluginOffsetDTExtension extends AbstractPlugin
     for (final JDefinedClass jClass : aEffectedClasses)
     {
       // General information
-      jClass.javadoc ().add ("<p>This class contains methods created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+      getJavadoc (jClass).add ("<p>This class contains methods created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
     }
 
     return true;
@@ -21,8 +21,8 @@ import org.jspecify.annotations.NullMarked;
 import org.xml.sax.ErrorHandler;
 
 import com.helger.annotation.style.IsSPIImplementation;
-import com.helger.collection.commons.CommonsHashSet;
-import com.helger.collection.commons.ICommonsSet;
+import com.helger.collection.commons.CommonsLinkedHashSet;
+import com.helger.collection.commons.ICommonsOrderedSet;
 import com.sun.codemodel.JPackage;
 import com.sun.tools.xjc.Options;
 import com.sun.tools.xjc.outline.ClassOutline;
@@ -52,14 +52,13 @@ public class PluginPackageNullMarked extends AbstractPlugin
   }
 
   @Override
-  public boolean run (@NonNull final Outline aOutline,
-                      @NonNull final Options aOpts,
-                      @NonNull final ErrorHandler aErrorHandler)
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler)
   {
-    initPluginLogging (aOpts.debugMode);
     logInfo ("Running JAXB plugin -" + getOptionName ());
 
-    final ICommonsSet <JPackage> aEffectedPackages = new CommonsHashSet <> ();
+    final ICommonsOrderedSet <JPackage> aEffectedPackages = new CommonsLinkedHashSet <> ();
 
     // Find all packages
     for (final ClassOutline aClassOutline : aOutline.getClasses ())
@@ -73,7 +72,7 @@ public class PluginPackageNullMarked extends AbstractPlugin
       jPackage.annotate (NullMarked.class);
 
       // add docs
-      jPackage.javadoc ().add ("<p>This class was annotated by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+      getJavadoc (jPackage).add ("<p>This class was annotated by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
     }
 
     return true;
@@ -0,0 +1,299 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import java.util.Collection;
+
+import javax.xml.namespace.QName;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.xml.sax.ErrorHandler;
+
+import com.helger.annotation.style.IsSPIImplementation;
+import com.helger.base.string.StringHelper;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.collection.commons.ICommonsOrderedMap;
+import com.helger.collection.commons.ICommonsSet;
+import com.sun.codemodel.JAnnotationUse;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JConditional;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.model.CAttributePropertyInfo;
+import com.sun.tools.xjc.model.CPropertyInfo;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.Outline;
+
+import jakarta.xml.bind.annotation.XmlAttribute;
+import jakarta.xml.bind.annotation.XmlTransient;
+
+/**
+ * Store optional attributes of type <code>Boolean</code>, <code>Byte</code>, <code>Short</code>,
+ * <code>Integer</code>, <code>Long</code>, <code>Float</code> and <code>Double</code> as primitive
+ * fields, and their presence in a single bit mask field per class:
+ * <ul>
+ * <li>The fields become primitive and <code>@XmlTransient</code></li>
+ * <li>The getters and setters keep their nullable wrapper signatures, and JAXB uses them instead
+ * of the fields</li>
+ * <li>A field <code>presenceBits</code> of type <code>int</code> (up to 32 attributes) or
+ * <code>long</code> (up to 64 attributes) is added</li>
+ * </ul>
+ * Attributes with a default value or additional annotations (e.g. adapters) are not modified. The
+ * equals/hashCode, toString and cloneable plugins consider the presence bits, if this plugin is
+ * active.
+ *
+ * @author Philip Helger
+ * @since 5.1.3
+ */
+@IsSPIImplementation
+public class PluginPresenceBitset extends AbstractPlugin
+{
+  public static final String OPT = "Xph-presence-bitset";
+
+  /** The name of the created bit mask field */
+  public static final String FIELD_PRESENCE_BITS = "presenceBits";
+
+  private static final int MAX_BITS = 64;
+
+  private static final ICommonsSet <String> BOXED_TYPES = new CommonsHashSet <> (Boolean.class.getName (),
+                                                                                Byte.class.getName (),
+                                                                                Short.class.getName (),
+                                                                                Integer.class.getName (),
+                                                                                Long.class.getName (),
+                                                                                Float.class.getName (),
+                                                                                Double.class.getName ());
+
+  // Class to field name to bit index - determined on the original fields
+  private final ICommonsMap <JDefinedClass, ICommonsOrderedMap <String, Integer>> m_aBitIndices = new CommonsHashMap <> ();
+
+  @Override
+  public String getOptionName ()
+  {
+    return OPT;
+  }
+
+  @Override
+  public String getUsage ()
+  {
+    return "  -" + OPT + "    :  store optional numeric and boolean attributes as primitives with a presence bit mask";
+  }
+
+  private static boolean _isOnlyXmlAttributeAnnotated (@NonNull final JFieldVar aField)
+  {
+    final Collection <JAnnotationUse> aAnnotations = aField.annotations ();
+    return aAnnotations != null &&
+           aAnnotations.size () == 1 &&
+           aAnnotations.iterator ().next ().getAnnotationClass ().fullName ().equals (XmlAttribute.class.getName ());
+  }
+
+  @NonNull
+  private static ICommonsOrderedMap <String, Integer> _findBitIndices (@NonNull final ClassOutline aClassOutline)
+  {
+    final JDefinedClass jClass = aClassOutline.implClass;
+    final ICommonsOrderedMap <String, Integer> ret = new CommonsLinkedHashMap <> ();
+    if (jClass.fields ().containsKey (FIELD_PRESENCE_BITS))
+      return ret;
+
+    for (final CPropertyInfo aPropInfo : aClassOutline.target.getProperties ())
+    {
+      if (!(aPropInfo instanceof final CAttributePropertyInfo aAttr) || aAttr.isRequired ())
+        continue;
+
+      // Getters of attributes with a default value contain additional logic
+      if (aAttr.defaultValue != null)
+        continue;
+
+      final JFieldVar aField = jClass.fields ().get (aAttr.getName (false));
+      if (aField == null || (aField.mods ().getValue () & JMod.STATIC) != 0)
+        continue;
+      if (!BOXED_TYPES.contains (aField.type ().fullName ()) || !_isOnlyXmlAttributeAnnotated (aField))
+        continue;
+
+      // Getters with additional logic cannot be replaced
+      final JMethod aGetter = jClass.getMethod (CJAXB.getGetterName (aField.type (), aAttr.getName (true)),
+                                                new JType [0]);
+      if (aGetter == null || aGetter.body ().getContents ().size () != 1)
+        continue;
+
+      if (ret.size () == MAX_BITS)
+        break;
+      ret.put (aField.name (), Integer.valueOf (ret.size ()));
+    }
+    return ret;
+  }
+
+  @NonNull
+  private ICommonsOrderedMap <String, Integer> _getBitIndices (@NonNull final ClassOutline aClassOutline)
+  {
+    // Determine once, because the field types are modified afterwards
+    return m_aBitIndices.computeIfAbsent (aClassOutline.implClass, k -> _findBitIndices (aClassOutline));
+  }
+
+  /**
+   * Get the name of the presence bit mask field of the provided class.
+   *
+   * @param aClassOutline
+   *        The class to check. May not be <code>null</code>.
+   * @return <code>null</code> if the class has no presence bit mask.
+   */
+  @Nullable
+  public String getPresenceFieldName (@NonNull final ClassOutline aClassOutline)
+  {
+    return _getBitIndices (aClassOutline).isEmpty () ? null : FIELD_PRESENCE_BITS;
+  }
+
+  /**
+   * Check if the provided field is stored with a presence bit by this plugin. The accessors of such
+   * fields must be used, because the field value alone cannot express absence.
+   *
+   * @param aClassOutline
+   *        The class containing the field. May not be <code>null</code>.
+   * @param aField
+   *        The field to check. May not be <code>null</code>.
+   * @return <code>true</code> if the field is handled by this plugin.
+   */
+  public boolean isPresenceField (@NonNull final ClassOutline aClassOutline, @NonNull final JFieldVar aField)
+  {
+    return _getBitIndices (aClassOutline).containsKey (aField.name ());
+  }
+
+  private static void _copyMarkerAnnotations (@NonNull final Collection <JAnnotationUse> aSrc,
+                                              @NonNull final JMethod aDst)
+  {
+    // Only annotations without members (like @Nullable) can be copied
+    for (final JAnnotationUse aAnnotation : aSrc)
+      if (aAnnotation.getAnnotationMembers ().isEmpty ())
+        aDst.annotate (aAnnotation.getAnnotationClass ());
+  }
+
+  @Override
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler)
+  {
+    logInfo ("Running JAXB plugin -" + getOptionName ());
+
+    final JCodeModel aCodeModel = aOutline.getCodeModel ();
+    int nModified = 0;
+
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+    {
+      final ICommonsOrderedMap <String, Integer> aBitIndices = _getBitIndices (aClassOutline);
+      if (aBitIndices.isEmpty ())
+        continue;
+
+      final JDefinedClass jClass = aClassOutline.implClass;
+      final boolean bLong = aBitIndices.size () > 32;
+      final JFieldVar fBits = jClass.field (JMod.PRIVATE, bLong ? aCodeModel.LONG : aCodeModel.INT, FIELD_PRESENCE_BITS);
+      fBits.annotate (XmlTransient.class);
+      getJavadoc (fBits).add ("The presence of the optional attributes, one bit per attribute.");
+
+      for (final CPropertyInfo aPropInfo : aClassOutline.target.getProperties ())
+      {
+        final Integer aBitIndex = aBitIndices.get (aPropInfo.getName (false));
+        if (aBitIndex == null)
+          continue;
+
+        final CAttributePropertyInfo aAttr = (CAttributePropertyInfo) aPropInfo;
+        final JFieldVar aField = jClass.fields ().get (aAttr.getName (false));
+        final JType aBoxedType = aField.type ();
+        final JType aPrimitiveType = aBoxedType.unboxify ();
+        final String sPropertyName = aAttr.getName (true);
+        final JExpression aBit = (bLong ? JExpr.lit (1L) : JExpr.lit (1)).shl (JExpr.lit (aBitIndex.intValue ()));
+
+        final JMethod aOldGetter = jClass.getMethod (CJAXB.getGetterName (aBoxedType, sPropertyName), new JType [0]);
+        final JMethod aOldSetter = jClass.getMethod (CJAXB.getSetterName (sPropertyName), new JType [] { aBoxedType });
+        if (aOldGetter == null || aOldSetter == null)
+        {
+          logWarn ("Failed to find accessors for " + jClass.fullName () + "." + aField.name ());
+          continue;
+        }
+
+        // The field is no longer bound by JAXB
+        aField.removeAnnotation (aField.annotations ().iterator ().next ());
+        aField.annotate (XmlTransient.class);
+        aField.type (aPrimitiveType);
+
+        // Replace the getter, that is now used by JAXB
+        {
+          jClass.methods ().remove (aOldGetter);
+          final JMethod m = jClass.method (aOldGetter.mods ().getValue (), aBoxedType, aOldGetter.name ());
+          final JAnnotationUse aXmlAttr = m.annotate (XmlAttribute.class);
+          final QName aXmlName = aAttr.getXmlName ();
+          aXmlAttr.param ("name", aXmlName.getLocalPart ());
+          if (StringHelper.isNotEmpty (aXmlName.getNamespaceURI ()))
+            aXmlAttr.param ("namespace", aXmlName.getNamespaceURI ());
+          _copyMarkerAnnotations (aOldGetter.annotations (), m);
+
+          m.body ()
+           ._return (JOp.cond (fBits.band (aBit).ne (JExpr.lit (0)),
+                               ((JClass) aBoxedType).staticInvoke ("valueOf").arg (aField),
+                               JExpr._null ()));
+          m.javadoc ().addAll (aOldGetter.javadoc ());
+          m.javadoc ().addReturn ().addAll (aOldGetter.javadoc ().addReturn ());
+        }
+
+        // Replace the setter
+        {
+          jClass.methods ().remove (aOldSetter);
+          final JMethod m = jClass.method (aOldSetter.mods ().getValue (), aCodeModel.VOID, aOldSetter.name ());
+          _copyMarkerAnnotations (aOldSetter.annotations (), m);
+          final JVar aOldParam = aOldSetter.params ().get (0);
+          final JVar aValue = m.param (aOldParam.mods ().getValue (), aBoxedType, aOldParam.name ());
+          for (final JAnnotationUse aAnnotation : aOldParam.annotations ())
+            if (aAnnotation.getAnnotationMembers ().isEmpty ())
+              aValue.annotate (aAnnotation.getAnnotationClass ());
+
+          final JConditional aIf = m.body ()._if (aValue.eq (JExpr._null ()));
+          final JBlock aThen = aIf._then ();
+          aThen.assign (fBits, fBits.band (JOp.complement (aBit)));
+          aThen.assign (JExpr._this ().ref (aField),
+                        aPrimitiveType == aCodeModel.BOOLEAN ? JExpr.FALSE : JExpr.lit (0));
+          final JBlock aElse = aIf._else ();
+          aElse.assign (fBits, fBits.bor (aBit));
+          aElse.assign (JExpr._this ().ref (aField), aValue.invoke (aPrimitiveType.name () + "Value"));
+
+          m.javadoc ().addAll (aOldSetter.javadoc ());
+          m.javadoc ().addParam (aValue).addAll (aOldSetter.javadoc ().addParam (aOldParam));
+        }
+
+        logDebug ( () -> "  Presence bit " + aBitIndex + " for " + jClass.fullName () + "." + aField.name ());
+        nModified++;
+      }
+
+      // General information
+      getJavadoc (jClass).add ("<p>This class contains methods created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+    }
+
+    logInfo ("  Stored " + nModified + " optional attributes with presence bits");
+    return true;
+  }
+}
@@ -0,0 +1,824 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.UnaryOperator;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.xml.sax.ErrorHandler;
+
+import com.helger.annotation.style.IsSPIImplementation;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.CommonsLinkedHashSet;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.collection.commons.ICommonsOrderedSet;
+import com.helger.collection.commons.ICommonsSet;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JConditional;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldRef;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JForLoop;
+import com.sun.codemodel.JInvocation;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JPackage;
+import com.sun.codemodel.JPrimitiveType;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JTypeVar;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.BadCommandLineException;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.model.CClassInfo;
+import com.sun.tools.xjc.model.CElementPropertyInfo;
+import com.sun.tools.xjc.model.CEnumLeafInfo;
+import com.sun.tools.xjc.model.CPropertyInfo;
+import com.sun.tools.xjc.model.CTypeRef;
+import com.sun.tools.xjc.model.Model;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.Outline;
+
+/**
+ * Store all lists of <code>Integer</code>, <code>Long</code> and <code>Double</code> values (from
+ * repeated elements and from <code>xs:list</code>) in list implementations backed by primitive
+ * arrays. The field type stays <code>List</code> as required by JAXB:
+ * <ul>
+ * <li>A package private list class (e.g. <code>IntArrayList</code>) is created once per
+ * package</li>
+ * <li>The list getters create the primitive list</li>
+ * <li>Lists created by the unmarshaller are converted in <code>afterUnmarshal</code></li>
+ * <li>Additional accessors <code>get...AsIntArray()</code> and <code>add...(int)</code> are
+ * created</li>
+ * </ul>
+ * With the additional option <code>-Xph-primitive-list-enums</code> all lists of enum values are
+ * stored as ordinals in <code>byte[]</code> (up to 256 constants) or <code>short[]</code> (up to
+ * 65536 constants) arrays, and an accessor <code>get...AsEnumSet()</code> is added.<br>
+ * The primitive lists implement <code>equals</code> and <code>hashCode</code> on the underlying
+ * arrays. The cloneable and equals/hashCode plugins use them, if this plugin is active.<br>
+ * The primitive lists cannot contain <code>null</code> values. Therefore lists of nillable elements
+ * are not modified, and lists created by the unmarshaller that contain <code>null</code> (e.g. for
+ * unknown enum values) are kept as they are.
+ *
+ * @author Philip Helger
+ * @since 5.1.3
+ */
+@IsSPIImplementation
+public class PluginPrimitiveList extends AbstractPlugin
+{
+  public static final String OPT = "Xph-primitive-list";
+
+  /**
+   * Suffix to the plugin option name to also store lists of enum values as ordinals.
+   */
+  public static final String OPT_SUFFIX_ENUMS = "-enums";
+
+  private static final String FIELD_DATA = "data";
+  private static final String FIELD_SIZE = "size";
+  private static final String FIELD_ENUM_CLASS = "enumClass";
+
+  /**
+   * The storage of a single list field
+   */
+  private static final class ListKind
+  {
+    /** The primitive type stored in the array */
+    private final JPrimitiveType m_aStoredType;
+    /** The enum class or null for numeric lists */
+    private final JClass m_aEnumClass;
+
+    private ListKind (@NonNull final JPrimitiveType aStoredType, @Nullable final JClass aEnumClass)
+    {
+      m_aStoredType = aStoredType;
+      m_aEnumClass = aEnumClass;
+    }
+  }
+
+  private boolean m_bEnums = false;
+  // Enum class name to number of constants
+  private final ICommonsMap <String, Integer> m_aEnumConstantCount = new CommonsHashMap <> ();
+  // Class name and field name of all nillable element lists
+  private final ICommonsSet <String> m_aNillableFields = new CommonsHashSet <> ();
+
+  @Override
+  public String getOptionName ()
+  {
+    return OPT;
+  }
+
+  @Override
+  public String getUsage ()
+  {
+    return "  -" + OPT + "    :  store lists of Integer, Long and Double values in primitive arrays\n" +
+           "  -" + OPT + OPT_SUFFIX_ENUMS + "    :  additionally store lists of enum values as ordinals";
+  }
+
+  @Override
+  public int parseArgument (final Options opt, final String [] args, final int i) throws BadCommandLineException
+  {
+    if (args[i].equals ("-" + OPT + OPT_SUFFIX_ENUMS))
+    {
+      m_bEnums = true;
+      return 1;
+    }
+    return 0;
+  }
+
+  @NonNull
+  private static String _getFieldKey (@NonNull final String sClassName, @NonNull final String sFieldName)
+  {
+    return sClassName + '#' + sFieldName;
+  }
+
+  private static boolean _isNillable (@NonNull final CElementPropertyInfo aElement)
+  {
+    if (aElement.isCollectionNillable ())
+      return true;
+    for (final CTypeRef aTypeRef : aElement.getTypes ())
+      if (aTypeRef.isNillable ())
+        return true;
+    return false;
+  }
+
+  @Override
+  public void postProcessModel (@NonNull final Model aModel, @NonNull final ErrorHandler aErrorHandler)
+  {
+    // Remember the number of constants, to choose the storage type
+    if (m_bEnums)
+      for (final CEnumLeafInfo aEnum : aModel.enums ().values ())
+        m_aEnumConstantCount.put (aEnum.fullName (), Integer.valueOf (aEnum.getConstants ().size ()));
+
+    // Nillable elements are unmarshalled as null values
+    for (final CClassInfo aClassInfo : aModel.beans ().values ())
+      for (final CPropertyInfo aPropInfo : aClassInfo.getProperties ())
+        if (aPropInfo instanceof final CElementPropertyInfo aElement && aElement.isCollection () && _isNillable (aElement))
+          m_aNillableFields.add (_getFieldKey (aClassInfo.fullName (), aElement.getName (false)));
+  }
+
+  @NonNull
+  private static String _ucFirst (@NonNull final String s)
+  {
+    return s.substring (0, 1).toUpperCase (Locale.ROOT) + s.substring (1);
+  }
+
+  @Nullable
+  private ListKind _getListKind (@NonNull final JDefinedClass jClass, @NonNull final JFieldVar aField)
+  {
+    if ((aField.mods ().getValue () & (JMod.STATIC | JMod.TRANSIENT)) != 0)
+      return null;
+    if (m_aNillableFields.contains (_getFieldKey (jClass.fullName (), aField.name ())))
+      return null;
+    final JType aType = aField.type ();
+    if (!aType.erasure ().name ().equals ("List"))
+      return null;
+    final JClass aTypeParam = ((JClass) aType).getTypeParameters ().get (0);
+    final String sName = aTypeParam.fullName ();
+    if (sName.equals ("java.lang.Integer") || sName.equals ("java.lang.Long") || sName.equals ("java.lang.Double"))
+      return new ListKind ((JPrimitiveType) aTypeParam.unboxify (), null);
+
+    if (m_bEnums)
+    {
+      // Only for enums created in this run
+      final Integer aConstantCount = m_aEnumConstantCount.get (sName);
+      if (aConstantCount != null)
+      {
+        final JCodeModel cm = aField.type ().owner ();
+        if (aConstantCount.intValue () <= 0x100)
+          return new ListKind (cm.BYTE, aTypeParam);
+        if (aConstantCount.intValue () <= 0x10000)
+          return new ListKind (cm.SHORT, aTypeParam);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Add the common members of all array backed lists.
+   *
+   * @param jList
+   *        The list class to add the members to
+   * @param aStoredType
+   *        The primitive type that is stored in the array
+   * @param aElementType
+   *        The element type of the list
+   * @param aToStored
+   *        Convert an element to the stored type
+   * @param aFromStored
+   *        Convert a stored value to an element
+   * @param aHashCode
+   *        Get the hash code of a stored value, compatible to the hash code of the element
+   * @return The data array field
+   */
+  @NonNull
+  private static JFieldVar _addArrayListMembers (@NonNull final JDefinedClass jList,
+                                                 @NonNull final JPrimitiveType aStoredType,
+                                                 @NonNull final JClass aElementType,
+                                                 @NonNull final UnaryOperator <JExpression> aToStored,
+                                                 @NonNull final UnaryOperator <JExpression> aFromStored,
+                                                 @NonNull final UnaryOperator <JExpression> aHashCode)
+  {
+    final JCodeModel cm = jList.owner ();
+    final JClass jArrays = cm.ref (Arrays.class);
+    final JClass jObjects = cm.ref (Objects.class);
+    final JFieldRef aModCount = JExpr.ref ("modCount");
+
+    final JFieldVar fEmpty = jList.field (JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+                                          aStoredType.array (),
+                                          "EMPTY",
+                                          JExpr.newArray (aStoredType, 0));
+    final JFieldVar fData = jList.field (JMod.PRIVATE, aStoredType.array (), FIELD_DATA, fEmpty);
+    final JFieldVar fSize = jList.field (JMod.PRIVATE, cm.INT, FIELD_SIZE);
+
+    // void grow (int)
+    final JMethod mGrow = jList.method (JMod.PRIVATE, cm.VOID, "grow");
+    {
+      final JVar aMinCapacity = mGrow.param (JMod.FINAL, cm.INT, "minCapacity");
+      final JBlock aThen = mGrow.body ()._if (aMinCapacity.gt (fData.ref ("length")))._then ();
+      aThen.assign (fData,
+                    jArrays.staticInvoke ("copyOf")
+                           .arg (fData)
+                           .arg (cm.ref (Math.class)
+                                   .staticInvoke ("max")
+                                   .arg (aMinCapacity)
+                                   .arg (fData.ref ("length")
+                                              .plus (fData.ref ("length").shr (JExpr.lit (1)))
+                                              .plus (JExpr.lit (1)))));
+    }
+
+    // void ensureCapacity (int)
+    {
+      final JMethod m = jList.method (JMod.PUBLIC, cm.VOID, "ensureCapacity");
+      final JVar aMinCapacity = m.param (JMod.FINAL, cm.INT, "minCapacity");
+      m.body ().invoke (mGrow).arg (aMinCapacity);
+    }
+
+    // void trimToSize ()
+    {
+      final JMethod m = jList.method (JMod.PUBLIC, cm.VOID, "trimToSize");
+      m.body ()
+       ._if (fSize.lt (fData.ref ("length")))
+       ._then ()
+       .assign (fData, jArrays.staticInvoke ("copyOf").arg (fData).arg (fSize));
+    }
+
+    // int size ()
+    {
+      final JMethod m = jList.method (JMod.PUBLIC, cm.INT, "size");
+      m.annotate (Override.class);
+      m.body ()._return (fSize);
+    }
+
+    // E get (int)
+    {
+      final JMethod m = jList.method (JMod.PUBLIC, aElementType, "get");
+      m.annotate (Override.class);
+      final JVar aIndex = m.param (JMod.FINAL, cm.INT, "index");
+      m.body ().add (jObjects.staticInvoke ("checkIndex").arg (aIndex).arg (fSize));
+      m.body ()._return (aFromStored.apply (fData.component (aIndex)));
+    }
+
+    // E set (int, E)
+    {
+      final JMethod m = jList.method (JMod.PUBLIC, aElementType, "set");
+      m.annotate (Override.class);
+      final JVar aIndex = m.param (JMod.FINAL, cm.INT, "index");
+      final JVar aElement = m.param (JMod.FINAL, aElementType, "element");
+      m.body ().add (jObjects.staticInvoke ("checkIndex").arg (aIndex).arg (fSize));
+      final JVar aOld = m.body ().decl (JMod.FINAL, aElementType, "ret", aFromStored.apply (fData.component (aIndex)));
+      m.body ().assign (fData.component (aIndex), aToStored.apply (aElement));
+      m.body ()._return (aOld);
+    }
+
+    // boolean add (E)
+    {
+      final JMethod m = jList.method (JMod.PUBLIC, cm.BOOLEAN, "add");
+      m.annotate (Override.class);
+      final JVar aElement = m.param (JMod.FINAL, aElementType, "element");
+      final JVar aValue = m.body ().decl (JMod.FINAL, aStoredType, "aValue", aToStored.apply (aElement));
+      m.body ().invoke (mGrow).arg (fSize.plus (JExpr.lit (1)));
+      m.body ().assign (fData.component (fSize), aValue);
+      m.body ().assignPlus (fSize, JExpr.lit (1));
+      m.body ().assignPlus (aModCount, JExpr.lit (1));
+      m.body ()._return (JExpr.TRUE);
+    }
+
+    // void add (int, E)
+    {
+      final JMethod m = jList.method (JMod.PUBLIC, cm.VOID, "add");
+      m.annotate (Override.class);
+      final JVar aIndex = m.param (JMod.FINAL, cm.INT, "index");
+      final JVar aElement = m.param (JMod.FINAL, aElementType, "element");
+      m.body ()
+       ._if (aIndex.lt (JExpr.lit (0)).cor (aIndex.gt (fSize)))
+       ._then ()
+       ._throw (JExpr._new (cm.ref (IndexOutOfBoundsException.class))
+                     .arg (JExpr.lit ("Index: ").plus (aIndex).plus (JExpr.lit (", Size: ")).plus (fSize)));
+      final JVar aValue = m.body ().decl (JMod.FINAL, aStoredType, "aValue", aToStored.apply (aElement));
+      m.body ().invoke (mGrow).arg (fSize.plus (JExpr.lit (1)));
+      m.body ()
+       .add (cm.ref (System.class)
+               .staticInvoke ("arraycopy")
+               .arg (fData)
+               .arg (aIndex)
+               .arg (fData)
+               .arg (aIndex.plus (JExpr.lit (1)))
+               .arg (fSize.minus (aIndex)));
+      m.body ().assign (fData.component (aIndex), aValue);
+      m.body ().assignPlus (fSize, JExpr.lit (1));
+      m.body ().assignPlus (aModCount, JExpr.lit (1));
+    }
+
+    // E remove (int)
+    {
+      final JMethod m = jList.method (JMod.PUBLIC, aElementType, "remove");
+      m.annotate (Override.class);
+      final JVar aIndex = m.param (JMod.FINAL, cm.INT, "index");
+      m.body ().add (jObjects.staticInvoke ("checkIndex").arg (aIndex).arg (fSize));
+      final JVar aOld = m.body ().decl (JMod.FINAL, aElementType, "ret", aFromStored.apply (fData.component (aIndex)));
+      final JVar aMove = m.body ()
+                          .decl (JMod.FINAL, cm.INT, "nMove", fSize.minus (aIndex).minus (JExpr.lit (1)));
+      m.body ()
+       ._if (aMove.gt (JExpr.lit (0)))
+       ._then ()
+       .add (cm.ref (System.class)
+               .staticInvoke ("arraycopy")
+               .arg (fData)
+               .arg (aIndex.plus (JExpr.lit (1)))
+               .arg (fData)
+               .arg (aIndex)
+               .arg (aMove));
+      m.body ().assign (fSize, fSize.minus (JExpr.lit (1)));
+      m.body ().assignPlus (aModCount, JExpr.lit (1));
+      m.body ()._return (aOld);
+    }
+
+    // void clear ()
+    {
+      final JMethod m = jList.method (JMod.PUBLIC, cm.VOID, "clear");
+      m.annotate (Override.class);
+      m.body ().assign (fSize, JExpr.lit (0));
+      m.body ().assignPlus (aModCount, JExpr.lit (1));
+    }
+
+    // int hashCode () - compatible to List.hashCode
+    {
+      final JMethod m = jList.method (JMod.PUBLIC, cm.INT, "hashCode");
+      m.annotate (Override.class);
+      final JVar aRet = m.body ().decl (cm.INT, "ret", JExpr.lit (1));
+      final JForLoop aLoop = m.body ()._for ();
+      final JVar aIndex = aLoop.init (cm.INT, "i", JExpr.lit (0));
+      aLoop.test (aIndex.lt (fSize));
+      aLoop.update (aIndex.incr ());
+      aLoop.body ().assign (aRet, JExpr.lit (31).mul (aRet).plus (aHashCode.apply (fData.component (aIndex))));
+      m.body ()._return (aRet);
+    }
+
+    return fData;
+  }
+
+  /**
+   * Add the equals method, comparing the arrays if both lists are of the same class.
+   */
+  private static void _addArrayListEquals (@NonNull final JDefinedClass jList,
+                                           @NonNull final JClass aRawListType,
+                                           @Nullable final String sAdditionalEqualField)
+  {
+    final JCodeModel cm = jList.owner ();
+    final JMethod m = jList.method (JMod.PUBLIC, cm.BOOLEAN, "equals");
+    m.annotate (Override.class);
+    final JVar aParam = m.param (JMod.FINAL, Object.class, "o");
+    m.body ()._if (aParam.eq (JExpr._this ()))._then ()._return (JExpr.TRUE);
+    final JBlock aThen = m.body ()._if (aParam._instanceof (aRawListType))._then ();
+    final JVar aRhs = aThen.decl (JMod.FINAL, aRawListType, "rhs", JExpr.cast (aRawListType, aParam));
+    if (sAdditionalEqualField != null)
+      aThen._if (aRhs.ref (sAdditionalEqualField).ne (JExpr.ref (sAdditionalEqualField)))._then ()._return (JExpr.FALSE);
+    aThen._return (cm.ref (Arrays.class)
+                     .staticInvoke ("equals")
+                     .arg (JExpr.ref (FIELD_DATA))
+                     .arg (JExpr.lit (0))
+                     .arg (JExpr.ref (FIELD_SIZE))
+                     .arg (aRhs.ref (FIELD_DATA))
+                     .arg (JExpr.lit (0))
+                     .arg (aRhs.ref (FIELD_SIZE)));
+    m.body ()._return (JExpr._super ().invoke (m).arg (aParam));
+  }
+
+  @NonNull
+  private static JDefinedClass _getOrCreateNumericList (@NonNull final JPackage aPackage,
+                                                        @NonNull final JPrimitiveType aPrimitive)
+  {
+    final String sPrimitiveName = _ucFirst (aPrimitive.name ());
+    final String sClassName = sPrimitiveName + "ArrayList";
+    final JDefinedClass aExisting = aPackage._getClass (sClassName);
+    if (aExisting != null)
+      return aExisting;
+
+    final JCodeModel cm = aPackage.owner ();
+    final JDefinedClass jList;
+    try
+    {
+      jList = aPackage._class (JMod.FINAL, sClassName);
+    }
+    catch (final JClassAlreadyExistsException ex)
+    {
+      throw new IllegalStateException ("Failed to create class " + sClassName + " in " + aPackage.name (), ex);
+    }
+    final JClass jBoxed = aPrimitive.boxify ();
+    jList._extends (cm.ref (AbstractList.class).narrow (jBoxed));
+    jList._implements (RandomAccess.class);
+    jList.javadoc ()
+         .add ("A list of " + aPrimitive.name () + " values, backed by a primitive array.\n" +
+               "<p>This class was created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+
+    final JFieldVar fData = _addArrayListMembers (jList,
+                                                  aPrimitive,
+                                                  jBoxed,
+                                                  x -> x.invoke (aPrimitive.name () + "Value"),
+                                                  x -> jBoxed.staticInvoke ("valueOf").arg (x),
+                                                  x -> jBoxed.staticInvoke ("hashCode").arg (x));
+    final JFieldRef fSize = JExpr.ref (FIELD_SIZE);
+    _addArrayListEquals (jList, jList, null);
+
+    // Constructors
+    jList.constructor (JMod.NONE);
+    {
+      final JMethod aCtor = jList.constructor (JMod.NONE);
+      final JVar aCapacity = aCtor.param (JMod.FINAL, cm.INT, "initialCapacity");
+      aCtor.body ().assign (fData, JExpr.newArray (aPrimitive, aCapacity));
+    }
+    {
+      final JMethod aCtor = jList.constructor (JMod.NONE);
+      final JVar aSrc = aCtor.param (JMod.FINAL, cm.ref (Collection.class).narrow (jBoxed.wildcard ()), "aSrc");
+      aCtor.body ().assign (fData, JExpr.newArray (aPrimitive, aSrc.invoke ("size")));
+      final JForEach aForEach = aCtor.body ().forEach (jBoxed, "aItem", aSrc);
+      aForEach.body ().assign (fData.component (fSize), aForEach.var ().invoke (aPrimitive.name () + "Value"));
+      aForEach.body ().assignPlus (fSize, JExpr.lit (1));
+    }
+
+    // boolean addInt (int)
+    {
+      final JMethod m = jList.method (JMod.PUBLIC, cm.BOOLEAN, "add" + sPrimitiveName);
+      final JVar aValue = m.param (JMod.FINAL, aPrimitive, "aValue");
+      m.body ().invoke ("grow").arg (fSize.plus (JExpr.lit (1)));
+      m.body ().assign (fData.component (fSize), aValue);
+      m.body ().assignPlus (fSize, JExpr.lit (1));
+      m.body ().assignPlus (JExpr.ref ("modCount"), JExpr.lit (1));
+      m.body ()._return (JExpr.TRUE);
+    }
+
+    // int getInt (int)
+    {
+      final JMethod m = jList.method (JMod.PUBLIC, aPrimitive, "get" + sPrimitiveName);
+      final JVar aIndex = m.param (JMod.FINAL, cm.INT, "index");
+      m.body ().add (cm.ref (Objects.class).staticInvoke ("checkIndex").arg (aIndex).arg (fSize));
+      m.body ()._return (fData.component (aIndex));
+    }
+
+    // int[] toIntArray ()
+    {
+      final JMethod m = jList.method (JMod.PUBLIC, aPrimitive.array (), "to" + sPrimitiveName + "Array");
+      m.body ()._return (cm.ref (Arrays.class).staticInvoke ("copyOf").arg (fData).arg (fSize));
+    }
+    return jList;
+  }
+
+  @NonNull
+  private static JDefinedClass _getOrCreateEnumList (@NonNull final JPackage aPackage,
+                                                     @NonNull final JPrimitiveType aStoredType)
+  {
+    final String sClassName = "Enum" + _ucFirst (aStoredType.name ()) + "List";
+    final JDefinedClass aExisting = aPackage._getClass (sClassName);
+    if (aExisting != null)
+      return aExisting;
+
+    final JCodeModel cm = aPackage.owner ();
+    final JDefinedClass jList;
+    try
+    {
+      jList = aPackage._class (JMod.FINAL, sClassName);
+    }
+    catch (final JClassAlreadyExistsException ex)
+    {
+      throw new IllegalStateException ("Failed to create class " + sClassName + " in " + aPackage.name (), ex);
+    }
+    final JTypeVar jE = jList.generify ("E");
+    jE.bound (cm.ref (Enum.class).narrow (jE));
+    jList._extends (cm.ref (AbstractList.class).narrow (jE));
+    jList._implements (RandomAccess.class);
+    jList.javadoc ()
+         .add ("A list of enum values, backed by a primitive array of ordinals.\n" +
+               "<p>This class was created by " + CJAXB.PLUGIN_NAME + " -" + OPT + OPT_SUFFIX_ENUMS + "</p>\n");
+    jList.javadoc ().addParam ("<E>").add ("The enum type");
+
+    final JClass jClassOfE = cm.ref (Class.class).narrow (jE);
+    final JFieldVar fEnumClass = jList.field (JMod.PRIVATE | JMod.FINAL, jClassOfE, FIELD_ENUM_CLASS);
+    final JFieldVar fUniverse = jList.field (JMod.PRIVATE | JMod.FINAL, jE.array (), "universe");
+
+    // Unsigned conversion of the ordinal
+    final JExpression aMask = JExpr.lit (aStoredType == cm.BYTE ? 0xff : 0xffff);
+    final JFieldVar fData = _addArrayListMembers (jList,
+                                                  aStoredType,
+                                                  jE,
+                                                  x -> JExpr.cast (aStoredType, x.invoke ("ordinal")),
+                                                  x -> fUniverse.component (x.band (aMask)),
+                                                  x -> fUniverse.component (x.band (aMask)).invoke ("hashCode"));
+    final JFieldRef fSize = JExpr.ref (FIELD_SIZE);
+    _addArrayListEquals (jList, jList, FIELD_ENUM_CLASS);
+
+    // Constructors
+    {
+      final JMethod aCtor = jList.constructor (JMod.NONE);
+      final JVar aEnumClass = aCtor.param (JMod.FINAL, jClassOfE, "aEnumClass");
+      aCtor.body ().assign (JExpr._this ().ref (fEnumClass), aEnumClass);
+      aCtor.body ().assign (JExpr._this ().ref (fUniverse), aEnumClass.invoke ("getEnumConstants"));
+    }
+    {
+      final JMethod aCtor = jList.constructor (JMod.NONE);
+      final JVar aEnumClass = aCtor.param (JMod.FINAL, jClassOfE, "aEnumClass");
+      final JVar aSrc = aCtor.param (JMod.FINAL, cm.ref (Collection.class).narrow (jE.wildcard ()), "aSrc");
+      aCtor.body ().invoke ("this").arg (aEnumClass);
+      aCtor.body ().assign (fData, JExpr.newArray (aStoredType, aSrc.invoke ("size")));
+      final JForEach aForEach = aCtor.body ().forEach (jE, "aItem", aSrc);
+      aForEach.body ().assign (fData.component (fSize), JExpr.cast (aStoredType, aForEach.var ().invoke ("ordinal")));
+      aForEach.body ().assignPlus (fSize, JExpr.lit (1));
+    }
+    return jList;
+  }
+
+  @NonNull
+  private static JClass _getOrCreateListClass (@NonNull final JPackage aPackage, @NonNull final ListKind aKind)
+  {
+    if (aKind.m_aEnumClass == null)
+      return _getOrCreateNumericList (aPackage, aKind.m_aStoredType);
+    return _getOrCreateEnumList (aPackage, aKind.m_aStoredType).narrow (aKind.m_aEnumClass);
+  }
+
+  @NonNull
+  private static JExpression _createNewList (@NonNull final JClass aListClass,
+                                             @NonNull final ListKind aKind,
+                                             @Nullable final JExpression aSrc)
+  {
+    final JInvocation ret = JExpr._new (aListClass);
+    if (aKind.m_aEnumClass != null)
+      ret.arg (aKind.m_aEnumClass.dotclass ());
+    if (aSrc != null)
+      ret.arg (aSrc);
+    return ret;
+  }
+
+  /**
+   * Check if the provided field is stored in a primitive list by this plugin. Note: such a field may
+   * still contain a regular list after unmarshalling, if it contains <code>null</code> values.
+   *
+   * @param jClass
+   *        The class containing the field. May not be <code>null</code>.
+   * @param aField
+   *        The field to check. May not be <code>null</code>.
+   * @return <code>true</code> if it is handled by this plugin
+   */
+  public boolean isPrimitiveListField (@NonNull final JDefinedClass jClass, @NonNull final JFieldVar aField)
+  {
+    return _getListKind (jClass, aField) != null;
+  }
+
+  /**
+   * Get the list class used for the provided field.
+   *
+   * @param jClass
+   *        The class containing the field. May not be <code>null</code>.
+   * @param aField
+   *        The list field. May not be <code>null</code>.
+   * @return <code>null</code> if the field is not handled by this plugin.
+   */
+  @Nullable
+  public JClass getListClass (@NonNull final JDefinedClass jClass, @NonNull final JFieldVar aField)
+  {
+    final ListKind aKind = _getListKind (jClass, aField);
+    if (aKind == null)
+      return null;
+    return _getOrCreateListClass (jClass._package (), aKind);
+  }
+
+  /**
+   * Get the primitive type of the array backing the list of the provided field.
+   *
+   * @param jClass
+   *        The class containing the field. May not be <code>null</code>.
+   * @param aField
+   *        The list field. May not be <code>null</code>.
+   * @return <code>null</code> if the field is not handled by this plugin.
+   */
+  @Nullable
+  public JPrimitiveType getStoredType (@NonNull final JDefinedClass jClass, @NonNull final JFieldVar aField)
+  {
+    final ListKind aKind = _getListKind (jClass, aField);
+    return aKind == null ? null : aKind.m_aStoredType;
+  }
+
+  /**
+   * Get the number of enum constants of a list field, that is stored as ordinals. Each enum list
+   * holds its own array of all constants.
+   *
+   * @param jClass
+   *        The class containing the field. May not be <code>null</code>.
+   * @param aField
+   *        The list field. May not be <code>null</code>.
+   * @return The number of constants, or 0 if the field is not an enum list handled by this plugin.
+   */
+  public int getEnumConstantCount (@NonNull final JDefinedClass jClass, @NonNull final JFieldVar aField)
+  {
+    final ListKind aKind = _getListKind (jClass, aField);
+    if (aKind == null || aKind.m_aEnumClass == null)
+      return 0;
+    return m_aEnumConstantCount.get (aKind.m_aEnumClass.fullName ()).intValue ();
+  }
+
+  /**
+   * Get the code to create a copy of the provided list field. The primitive list implementation is
+   * used if the source is a primitive list, and a regular list otherwise, because it may contain
+   * <code>null</code> values.
+   *
+   * @param jClass
+   *        The class containing the field. May not be <code>null</code>.
+   * @param aField
+   *        The list field. May not be <code>null</code>.
+   * @param aSrc
+   *        The source list expression. Must not evaluate to <code>null</code> and is evaluated more
+   *        than once.
+   * @return <code>null</code> if the field is not handled by this plugin.
+   */
+  @Nullable
+  public JExpression getListCopyCode (@NonNull final JDefinedClass jClass,
+                                      @NonNull final JFieldVar aField,
+                                      @NonNull final JExpression aSrc)
+  {
+    final ListKind aKind = _getListKind (jClass, aField);
+    if (aKind == null)
+      return null;
+    final JClass jList = _getOrCreateListClass (jClass._package (), aKind);
+    final JClass jArrayList = jClass.owner ().ref (ArrayList.class).narrow (((JClass) aField.type ()).getTypeParameters ());
+    return JOp.cond (aSrc._instanceof (jList.erasure ()),
+                     _createNewList (jList, aKind, aSrc),
+                     JExpr._new (jArrayList).arg (aSrc));
+  }
+
+  @Override
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler)
+  {
+    logInfo ("Running JAXB plugin -" + getOptionName ());
+
+    final JCodeModel aCodeModel = aOutline.getCodeModel ();
+    final ICommonsOrderedSet <JDefinedClass> aEffectedClasses = new CommonsLinkedHashSet <> ();
+
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+    {
+      final JDefinedClass jClass = aClassOutline.implClass;
+
+      // Copy, because no modifications are allowed while iterating
+      for (final JFieldVar aField : new CommonsArrayList <> (jClass.fields ().values ()))
+      {
+        final ListKind aKind = _getListKind (jClass, aField);
+        if (aKind == null)
+          continue;
+
+        final JClass jList = _getOrCreateListClass (jClass._package (), aKind);
+        final JClass jRawList = jList.erasure ();
+        final String sPropertyName = aClassOutline.target.getProperty (aField.name ()).getName (true);
+        final JFieldRef aFieldRef = JExpr._this ().ref (aField);
+
+        // Getter - prepend the creation, so that the default creation is not
+        // invoked
+        final JMethod aGetter = getListCreatingMethod (jClass, aField.type (), sPropertyName);
+        if (aGetter != null)
+        {
+          final JBlock aBody = aGetter.body ();
+          aBody.pos (0);
+          aBody._if (aFieldRef.eq (JExpr._null ()))._then ().assign (aFieldRef, _createNewList (jList, aKind, null));
+          aBody.pos (aBody.getContents ().size ());
+        }
+        else
+          logWarn ("Failed to find getter for " + jClass.fullName () + "." + aField.name ());
+
+        // Convert lists created by the unmarshaller, unless they contain null
+        // (e.g. for unknown enum values)
+        {
+          final JMethod aAfter = getOrCreateUnmarshalCallback (jClass, METHOD_AFTER_UNMARSHAL);
+          aAfter.body ()
+                ._if (aFieldRef.ne (JExpr._null ())
+                               .cand (JOp.not (aFieldRef._instanceof (jRawList)))
+                               .cand (JOp.not (aFieldRef.invoke ("contains").arg (JExpr._null ()))))
+                ._then ()
+                .assign (aFieldRef, _createNewList (jList, aKind, aFieldRef));
+        }
+
+        if (aKind.m_aEnumClass != null)
+        {
+          // EnumSet<E> getXXXAsEnumSet ()
+          final JClass jEnumSet = aCodeModel.ref (EnumSet.class);
+          final JMethod m = jClass.method (JMod.PUBLIC,
+                                           jEnumSet.narrow (aKind.m_aEnumClass),
+                                           "get" + sPropertyName + "AsEnumSet");
+          final JVar aRet = m.body ()
+                             .decl (JMod.FINAL,
+                                    jEnumSet.narrow (aKind.m_aEnumClass),
+                                    "ret",
+                                    jEnumSet.staticInvoke ("noneOf").arg (aKind.m_aEnumClass.dotclass ()));
+          m.body ()._if (aFieldRef.ne (JExpr._null ()))._then ().add (aRet.invoke ("addAll").arg (aFieldRef));
+          m.body ()._return (aRet);
+
+          getJavadoc (m).addReturn ().add ("A new set with all distinct contained values. Never <code>null</code>.");
+          getJavadoc (m).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+
+          logDebug ( () -> "  Using " + jRawList.name () + " for " + jClass.fullName () + "." + aField.name ());
+          aEffectedClasses.add (jClass);
+          continue;
+        }
+
+        final JPrimitiveType aPrimitive = aKind.m_aStoredType;
+        final String sPrimitiveName = _ucFirst (aPrimitive.name ());
+
+        // int[] getXXXAsIntArray ()
+        {
+          final JMethod m = jClass.method (JMod.PUBLIC,
+                                           aPrimitive.array (),
+                                           "get" + sPropertyName + "As" + sPrimitiveName + "Array");
+          final JVar aList = m.body ().decl (JMod.FINAL, aField.type (), "aList", aFieldRef);
+          m.body ()._if (aList.eq (JExpr._null ()))._then ()._return (JExpr.newArray (aPrimitive, 0));
+          m.body ()
+           ._if (aList._instanceof (jList))
+           ._then ()
+           ._return (JExpr.cast (jList, aList).invoke ("to" + sPrimitiveName + "Array"));
+          final JVar aRet = m.body ()
+                             .decl (JMod.FINAL, aPrimitive.array (), "ret", JExpr.newArray (aPrimitive, aList.invoke ("size")));
+          final JVar aIndex = m.body ().decl (aCodeModel.INT, "nIndex", JExpr.lit (0));
+          final JForEach aForEach = m.body ().forEach (aPrimitive.boxify (), "aItem", aList);
+          aForEach.body ().assign (aRet.component (aIndex), aForEach.var ().invoke (aPrimitive.name () + "Value"));
+          aForEach.body ().assignPlus (aIndex, JExpr.lit (1));
+          m.body ()._return (aRet);
+
+          getJavadoc (m).addReturn ().add ("A copy of all values as a primitive array. Never <code>null</code>.");
+          getJavadoc (m).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+        }
+
+        // void addXXX (int)
+        final String sAddName = "add" + sPropertyName;
+        if (jClass.getMethod (sAddName, new JType [] { aPrimitive }) == null)
+        {
+          final JMethod m = jClass.method (JMod.PUBLIC, aCodeModel.VOID, sAddName);
+          final JVar aValue = m.param (JMod.FINAL, aPrimitive, "aValue");
+          final JVar aList = m.body ().decl (JMod.FINAL, aField.type (), "aList",
+                                              JExpr.invoke (CJAXB.getGetterName (aField.type (), sPropertyName)));
+          final JConditional aIf = m.body ()._if (aList._instanceof (jList));
+          aIf._then ().add (JExpr.cast (jList, aList).invoke ("add" + sPrimitiveName).arg (aValue));
+          aIf._else ().add (aList.invoke ("add").arg (aPrimitive.boxify ().staticInvoke ("valueOf").arg (aValue)));
+
+          getJavadoc (m).addParam (aValue).add ("The value to be added.");
+          getJavadoc (m).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+        }
+
+        logDebug ( () -> "  Using " + jRawList.name () + " for " + jClass.fullName () + "." + aField.name ());
+        aEffectedClasses.add (jClass);
+      }
+    }
+
+    for (final JDefinedClass jClass : aEffectedClasses)
+    {
+      // General information
+      getJavadoc (jClass).add ("<p>This class contains methods created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+    }
+    return true;
+  }
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.w3c.dom.Node;
+import org.xml.sax.ErrorHandler;
+
+import com.helger.annotation.style.IsSPIImplementation;
+import com.helger.base.equals.EqualsHelper;
+import com.helger.base.hashcode.HashCodeCalculator;
+import com.helger.base.reflection.GenericReflection;
+import com.helger.jaxb.adapter.JAXBHelper;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JInvocation;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JPackage;
+import com.sun.codemodel.JTypeVar;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.outline.Outline;
+
+import jakarta.xml.bind.JAXBElement;
+
+/**
+ * Plugin that creates one package private helper class {@value #CLASS_NAME} per package, with
+ * small static methods for the code patterns that are otherwise repeated in each generated class.
+ * If this plugin is active, <code>ph-equalshashcode</code>, <code>ph-cloneable</code> and
+ * <code>ph-cloneable2</code> delegate to these methods. This reduces the byte code size of the
+ * generated classes, and the JIT compiler only needs to optimize one monomorphic method per
+ * pattern. The helper methods are only created if they are used. The position on the command line
+ * does not matter.<br>
+ * <code>ph-binary-datahandler</code> always creates its content comparison methods in this class.
+ *
+ * @author Philip Helger
+ * @since 5.1.3
+ */
+@IsSPIImplementation
+public class PluginSharedHelper extends AbstractPlugin
+{
+  public static final String OPT = "Xph-shared-helper";
+  public static final String CLASS_NAME = "JAXBPluginHelper";
+
+  @Override
+  public String getOptionName ()
+  {
+    return OPT;
+  }
+
+  @Override
+  public String getUsage ()
+  {
+    return "  -" + OPT + "    :  create one helper class per package for the code of equals, hashCode and clone";
+  }
+
+  /**
+   * Get or create the helper class of a package.
+   *
+   * @param aPackage
+   *        The package to use. May not be <code>null</code>.
+   * @return The existing or created helper class. Never <code>null</code>.
+   */
+  @NonNull
+  static JDefinedClass getOrCreateHelperClass (@NonNull final JPackage aPackage)
+  {
+    final JDefinedClass aExisting = aPackage._getClass (CLASS_NAME);
+    if (aExisting != null)
+      return aExisting;
+
+    final JDefinedClass jHelper;
+    try
+    {
+      jHelper = aPackage._class (JMod.FINAL, CLASS_NAME);
+    }
+    catch (final JClassAlreadyExistsException ex)
+    {
+      throw new IllegalStateException ("Failed to create class " + CLASS_NAME + " in " + aPackage.name (), ex);
+    }
+    jHelper.javadoc ()
+           .add ("Helper methods shared by all classes of this package.\n" +
+                 "<p>This class was created by " + CJAXB.PLUGIN_NAME + "</p>\n");
+    jHelper.constructor (JMod.PRIVATE);
+    return jHelper;
+  }
+
+  @Nullable
+  static JMethod findMethod (@NonNull final JDefinedClass jHelper, @NonNull final String sMethodName)
+  {
+    for (final JMethod aMethod : jHelper.methods ())
+      if (aMethod.name ().equals (sMethodName))
+        return aMethod;
+    return null;
+  }
+
+  @NonNull
+  private static JClass _getJAXBElementListType (@NonNull final JCodeModel cm)
+  {
+    // List<? extends JAXBElement<?>>
+    return cm.ref (List.class).narrow (cm.ref (JAXBElement.class).narrow (cm.wildcard ()).wildcard ());
+  }
+
+  /**
+   * Get the code to compare two lists of <code>JAXBElement</code>s.
+   *
+   * @param jClass
+   *        The class in which the code is used. May not be <code>null</code>.
+   * @param aLhs
+   *        The first list. May not be <code>null</code>.
+   * @param aRhs
+   *        The second list. May not be <code>null</code>.
+   * @return The boolean expression. Never <code>null</code>.
+   */
+  @NonNull
+  public JInvocation invokeEqualListJAXBElements (@NonNull final JDefinedClass jClass,
+                                                  @NonNull final JExpression aLhs,
+                                                  @NonNull final JExpression aRhs)
+  {
+    final String sMethodName = "equalListJAXBElements";
+    final JDefinedClass jHelper = getOrCreateHelperClass (jClass._package ());
+    if (findMethod (jHelper, sMethodName) == null)
+    {
+      final JCodeModel cm = jHelper.owner ();
+      final JClass jGenericReflection = cm.ref (GenericReflection.class);
+      final JMethod m = jHelper.method (JMod.STATIC, cm.BOOLEAN, sMethodName);
+      final JVar aList1 = m.param (JMod.FINAL, _getJAXBElementListType (cm), "aList1");
+      final JVar aList2 = m.param (JMod.FINAL, _getJAXBElementListType (cm), "aList2");
+      m.body ()
+       ._return (cm.ref (JAXBHelper.class)
+                   .staticInvoke (sMethodName)
+                   .arg (jGenericReflection.staticInvoke ("uncheckedCast").arg (aList1))
+                   .arg (jGenericReflection.staticInvoke ("uncheckedCast").arg (aList2)));
+    }
+    return jHelper.staticInvoke (sMethodName).arg (aLhs).arg (aRhs);
+  }
+
+  /**
+   * Get the code to calculate the hash code of a list of <code>JAXBElement</code>s.
+   *
+   * @param jClass
+   *        The class in which the code is used. May not be <code>null</code>.
+   * @param aList
+   *        The list. May not be <code>null</code>.
+   * @return The int expression. Never <code>null</code>.
+   */
+  @NonNull
+  public JInvocation invokeListJAXBElementHashCode (@NonNull final JDefinedClass jClass,
+                                                    @NonNull final JExpression aList)
+  {
+    final String sMethodName = "getListJAXBElementHashCode";
+    final JDefinedClass jHelper = getOrCreateHelperClass (jClass._package ());
+    if (findMethod (jHelper, sMethodName) == null)
+    {
+      final JCodeModel cm = jHelper.owner ();
+      final JMethod m = jHelper.method (JMod.STATIC, cm.INT, sMethodName);
+      final JVar aParam = m.param (JMod.FINAL, _getJAXBElementListType (cm), "aList");
+      m.body ()
+       ._return (cm.ref (JAXBHelper.class)
+                   .staticInvoke (sMethodName)
+                   .arg (cm.ref (GenericReflection.class).staticInvoke ("uncheckedCast").arg (aParam)));
+    }
+    return jHelper.staticInvoke (sMethodName).arg (aList);
+  }
+
+  /**
+   * Get the code to compare two values of an <code>xs:any</code> property, that may be DOM nodes.
+   *
+   * @param jClass
+   *        The class in which the code is used. May not be <code>null</code>.
+   * @param aLhs
+   *        The first value. May not be <code>null</code>.
+   * @param aRhs
+   *        The second value. May not be <code>null</code>.
+   * @return The boolean expression. Never <code>null</code>.
+   */
+  @NonNull
+  public JInvocation invokeEqualAny (@NonNull final JDefinedClass jClass,
+                                     @NonNull final JExpression aLhs,
+                                     @NonNull final JExpression aRhs)
+  {
+    final String sMethodName = "equalAny";
+    final JDefinedClass jHelper = getOrCreateHelperClass (jClass._package ());
+    if (findMethod (jHelper, sMethodName) == null)
+    {
+      final JCodeModel cm = jHelper.owner ();
+      final JClass jNode = cm.ref (Node.class);
+      final JMethod m = jHelper.method (JMod.STATIC, cm.BOOLEAN, sMethodName);
+      final JVar aObj1 = m.param (JMod.FINAL, cm.ref (Object.class), "aObj1");
+      final JVar aObj2 = m.param (JMod.FINAL, cm.ref (Object.class), "aObj2");
+      // Runtime check, if an xs:any "Object" is a DOM Node or not
+      m.body ()
+       ._return (JOp.cond (aObj1._instanceof (jNode),
+                           cm.ref (JAXBHelper.class)
+                             .staticInvoke ("equalDOMNodes")
+                             .arg (JExpr.cast (jNode, aObj1))
+                             .arg (JExpr.cast (jNode, aObj2)),
+                           cm.ref (EqualsHelper.class).staticInvoke ("equals").arg (aObj1).arg (aObj2)));
+    }
+    return jHelper.staticInvoke (sMethodName).arg (aLhs).arg (aRhs);
+  }
+
+  /**
+   * Get the code to calculate the hash code of an <code>xs:any</code> property, that may be a DOM
+   * node.
+   *
+   * @param jClass
+   *        The class in which the code is used. May not be <code>null</code>.
+   * @param aValue
+   *        The value. May not be <code>null</code>.
+   * @return The int expression. Never <code>null</code>.
+   */
+  @NonNull
+  public JInvocation invokeAnyHashCode (@NonNull final JDefinedClass jClass, @NonNull final JExpression aValue)
+  {
+    final String sMethodName = "getAnyHashCode";
+    final JDefinedClass jHelper = getOrCreateHelperClass (jClass._package ());
+    if (findMethod (jHelper, sMethodName) == null)
+    {
+      final JCodeModel cm = jHelper.owner ();
+      final JClass jNode = cm.ref (Node.class);
+      final JMethod m = jHelper.method (JMod.STATIC, cm.INT, sMethodName);
+      final JVar aObj = m.param (JMod.FINAL, cm.ref (Object.class), "aObj");
+      m.body ()
+       ._return (JOp.cond (aObj._instanceof (jNode),
+                           cm.ref (JAXBHelper.class).staticInvoke ("getHashCode").arg (JExpr.cast (jNode, aObj)),
+                           cm.ref (HashCodeCalculator.class).staticInvoke ("hashCode").arg (aObj)));
+    }
+    return jHelper.staticInvoke (sMethodName).arg (aValue);
+  }
+
+  /**
+   * Get the code to copy a list with immutable elements.
+   *
+   * @param jClass
+   *        The class in which the code is used. May not be <code>null</code>.
+   * @param aList
+   *        The list to copy. May not be <code>null</code> at runtime.
+   * @return The list expression. Never <code>null</code>.
+   */
+  @NonNull
+  public JInvocation invokeCopyList (@NonNull final JDefinedClass jClass, @NonNull final JExpression aList)
+  {
+    final String sMethodName = "getCopy";
+    final JDefinedClass jHelper = getOrCreateHelperClass (jClass._package ());
+    if (findMethod (jHelper, sMethodName) == null)
+    {
+      final JCodeModel cm = jHelper.owner ();
+      final JMethod m = jHelper.method (JMod.STATIC, cm.VOID, sMethodName);
+      final JTypeVar jT = m.generify ("T");
+      m.type (cm.ref (List.class).narrow (jT));
+      final JVar aParam = m.param (JMod.FINAL, cm.ref (List.class).narrow (jT), "aList");
+      m.body ()._return (JExpr._new (cm.ref (ArrayList.class).narrow (jT)).arg (aParam));
+    }
+    return jHelper.staticInvoke (sMethodName).arg (aList);
+  }
+
+  /**
+   * Get the code to clone a list of <code>JAXBElement</code>s.
+   *
+   * @param jClass
+   *        The class in which the code is used. May not be <code>null</code>.
+   * @param aList
+   *        The list to clone. May not be <code>null</code> at runtime.
+   * @return The list expression. Never <code>null</code>.
+   */
+  @NonNull
+  public JInvocation invokeCloneListJAXBElements (@NonNull final JDefinedClass jClass, @NonNull final JExpression aList)
+  {
+    final String sMethodName = "getClonedListJAXBElements";
+    final JDefinedClass jHelper = getOrCreateHelperClass (jClass._package ());
+    if (findMethod (jHelper, sMethodName) == null)
+    {
+      final JCodeModel cm = jHelper.owner ();
+      final JMethod m = jHelper.method (JMod.STATIC, cm.VOID, sMethodName);
+      final JClass jElement = cm.ref (JAXBElement.class).narrow (cm.wildcard ());
+      final JTypeVar jT = m.generify ("T", jElement);
+      final JClass jListOfT = cm.ref (List.class).narrow (jT);
+      m.type (jListOfT);
+      final JVar aParam = m.param (JMod.FINAL, jListOfT, "aList");
+      final JVar aRet = m.body ()
+                         .decl (JMod.FINAL,
+                                jListOfT,
+                                "ret",
+                                JExpr._new (cm.ref (ArrayList.class).narrow (jT)).arg (aParam.invoke ("size")));
+      // The wildcard type is required for the type inference of the cloning method
+      final JForEach jForEach = m.body ().forEach (jElement, "aItem", aParam);
+      // Method is null-safe
+      jForEach.body ()
+              .add (aRet.invoke ("add")
+                        .arg (cm.ref (GenericReflection.class)
+                                .staticInvoke ("uncheckedCast")
+                                .arg (cm.ref (JAXBHelper.class)
+                                        .staticInvoke ("getClonedJAXBElement")
+                                        .arg (jForEach.var ()))));
+      m.body ()._return (aRet);
+    }
+    return jHelper.staticInvoke (sMethodName).arg (aList);
+  }
+
+  @Override
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler)
+  {
+    logInfo ("Running JAXB plugin -" + getOptionName ());
+    // The helper methods are created on demand by the other plugins
+    return true;
+  }
+}
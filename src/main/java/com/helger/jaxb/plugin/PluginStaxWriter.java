@@ -0,0 +1,1372 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import java.math.BigDecimal;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import com.helger.annotation.style.IsSPIImplementation;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.CommonsTreeSet;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.collection.commons.ICommonsSet;
+import com.helger.collection.commons.ICommonsSortedSet;
+import com.sun.codemodel.JArray;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JCatchBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JConditional;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JDoLoop;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JForLoop;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JPackage;
+import com.sun.codemodel.JTryBlock;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JVar;
+import com.sun.codemodel.JWhileLoop;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.model.CAdapter;
+import com.sun.tools.xjc.model.CAttributePropertyInfo;
+import com.sun.tools.xjc.model.CClassInfo;
+import com.sun.tools.xjc.model.CClassRef;
+import com.sun.tools.xjc.model.CElement;
+import com.sun.tools.xjc.model.CElementPropertyInfo;
+import com.sun.tools.xjc.model.CPropertyInfo;
+import com.sun.tools.xjc.model.CReferencePropertyInfo;
+import com.sun.tools.xjc.model.CTypeRef;
+import com.sun.tools.xjc.model.CValuePropertyInfo;
+import com.sun.tools.xjc.outline.Aspect;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.EnumOutline;
+import com.sun.tools.xjc.outline.Outline;
+
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.annotation.adapters.XmlAdapter;
+
+/**
+ * Create methods to write all objects to a <code>javax.xml.stream.XMLStreamWriter</code> without
+ * a <code>JAXBContext</code> and without reflection:
+ * <ul>
+ * <li>All classes get the methods <code>writeXmlAttributes(XMLStreamWriter)</code> and
+ * <code>writeXmlContent(XMLStreamWriter)</code>, that write the properties in the order of the
+ * schema. The element and attribute names are known at generation time and are added as
+ * literals</li>
+ * <li>Classes with an <code>@XmlRootElement</code> annotation get the method
+ * <code>writeTo(XMLStreamWriter)</code>, that writes a complete document. Objects of all other
+ * types are written as documents with <code>JAXBStaxWriter.writeDocument</code>, e.g. using the
+ * <code>JAXBElement</code> from the <code>ObjectFactory</code></li>
+ * <li>The helper class {@value #CLASS_NAME} is created once, in the package of the first class. It
+ * contains the value conversions (equivalent to the ones of the JAXB marshaller), the namespace
+ * handling, and the handling of <code>JAXBElement</code> and DOM elements (e.g. of
+ * <code>xs:any</code>)</li>
+ * <li>All namespaces of the schema are declared on the root element with the prefixes
+ * <code>ns1</code>, <code>ns2</code> etc. in alphabetical order. Namespaces that are unknown at
+ * generation time are declared where they are used</li>
+ * </ul>
+ * The result is equivalent to the output of the JAXB marshaller, but the namespace prefixes may be
+ * different. Prefixes customized with {@link PluginNamespacePrefix} are not considered and the
+ * output is never formatted.<br>
+ * All XML content must be generated in the same XJC run: if a class extends a class of another
+ * compilation (e.g. referenced via an episode file), the generation fails, because the inherited
+ * content could not be written. A common super class defined with <code>xjc:superClass</code> has
+ * no XML content and is supported.
+ *
+ * @author Philip Helger
+ * @since 5.1.3
+ */
+@IsSPIImplementation
+public class PluginStaxWriter extends AbstractPlugin
+{
+  public static final String OPT = "Xph-stax-writer";
+  public static final String CLASS_NAME = "JAXBStaxWriter";
+  public static final String METHOD_WRITE_TO = "writeTo";
+  public static final String METHOD_WRITE_XML_ATTRIBUTES = "writeXmlAttributes";
+  public static final String METHOD_WRITE_XML_CONTENT = "writeXmlContent";
+  public static final String METHOD_GET_XML_TYPE_NAME = "getXmlTypeName";
+  public static final String METHOD_GET_XML_ELEMENT_NAME = "getXmlElementName";
+  public static final String METHOD_GET_XML_VALUE = "getXmlValue";
+
+  private Outline m_aOutline;
+  private JDefinedClass m_jHelper;
+  private JDefinedClass m_jXmlValue;
+  private final ICommonsSet <JDefinedClass> m_aGeneratedClasses = new CommonsHashSet <> ();
+  // All classes, that may be replaced by a sub class (requiring xsi:type)
+  private final ICommonsSet <JDefinedClass> m_aPolymorphicClasses = new CommonsHashSet <> ();
+  private final ICommonsSet <JDefinedClass> m_aEnumClasses = new CommonsHashSet <> ();
+  // Adapter class name to shared instance
+  private final ICommonsMap <String, JFieldVar> m_aAdapterFields = new CommonsHashMap <> ();
+
+  @Override
+  public String getOptionName ()
+  {
+    return OPT;
+  }
+
+  @Override
+  public String getUsage ()
+  {
+    return "  -" + OPT + "    :  create methods to write the objects to an XMLStreamWriter without JAXBContext";
+  }
+
+  private static void _addNamespace (@Nullable final QName aName, @NonNull final ICommonsSet <String> aNamespaces)
+  {
+    if (aName != null && !aName.getNamespaceURI ().isEmpty ())
+      aNamespaces.add (aName.getNamespaceURI ());
+  }
+
+  /**
+   * Create the helper class.
+   *
+   * @return The nested interface <code>IWritable</code> of the helper class. Never
+   *         <code>null</code>. The helper class and the nested interface <code>IXmlValue</code> are
+   *         remembered.
+   */
+  @NonNull
+  private JDefinedClass _createHelperClass (@NonNull final JPackage aPackage,
+                                                   @NonNull final ICommonsSortedSet <String> aNamespaces)
+  {
+    final JCodeModel cm = aPackage.owner ();
+    final JDefinedClass jHelper;
+    final JDefinedClass jWritable;
+    final JDefinedClass jXmlValue;
+    try
+    {
+      jHelper = aPackage._class (JMod.PUBLIC | JMod.FINAL, CLASS_NAME);
+      jWritable = jHelper._interface (JMod.PUBLIC, "IWritable");
+      jXmlValue = jHelper._interface (JMod.PUBLIC, "IXmlValue");
+    }
+    catch (final JClassAlreadyExistsException ex)
+    {
+      throw new IllegalStateException ("Failed to create class " + CLASS_NAME + " in " + aPackage.name (), ex);
+    }
+    m_jHelper = jHelper;
+    m_jXmlValue = jXmlValue;
+    jHelper.javadoc ()
+           .add ("Helper methods to write objects to an XMLStreamWriter without JAXBContext.\n" +
+                 "<p>This class was created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+    jHelper.constructor (JMod.PRIVATE);
+
+    final JClass jObject = cm.ref (Object.class);
+    final JClass jString = cm.ref (String.class);
+    final JClass jQName = cm.ref (QName.class);
+    final JClass jWriter = cm.ref (XMLStreamWriter.class);
+    final JClass jElement = cm.ref (Element.class);
+    final JClass jNode = cm.ref (Node.class);
+    final JClass jJAXBElement = cm.ref (JAXBElement.class).narrow (jObject.wildcard ());
+    final JExpression aXsiNS = cm.ref (XMLConstants.class).staticRef ("W3C_XML_SCHEMA_INSTANCE_NS_URI");
+
+    jWritable.javadoc ().add ("Implemented by all classes that can write themselves to an XMLStreamWriter.");
+    {
+      final JMethod m = jWritable.method (JMod.NONE, jQName, METHOD_GET_XML_TYPE_NAME);
+      m.javadoc ().addReturn ().add ("The name of the XML type, used for <code>xsi:type</code>. May be <code>null</code>.");
+    }
+    {
+      final JMethod m = jWritable.method (JMod.NONE, jQName, METHOD_GET_XML_ELEMENT_NAME);
+      m.javadoc ().addReturn ().add ("The name of the root element. May be <code>null</code>.");
+    }
+    {
+      final JMethod m = jWritable.method (JMod.NONE, cm.VOID, METHOD_WRITE_XML_ATTRIBUTES);
+      m.param (JMod.FINAL, jWriter, "aWriter");
+      m._throws (XMLStreamException.class);
+      m.javadoc ().add ("Write all attributes. The start tag of the element must be open.");
+    }
+    {
+      final JMethod m = jWritable.method (JMod.NONE, cm.VOID, METHOD_WRITE_XML_CONTENT);
+      m.param (JMod.FINAL, jWriter, "aWriter");
+      m._throws (XMLStreamException.class);
+      m.javadoc ().add ("Write the text and the child elements. The attributes must already be written.");
+    }
+
+    jXmlValue.javadoc ().add ("Implemented by all enums to get the lexical value.");
+    {
+      final JMethod m = jXmlValue.method (JMod.NONE, jString, METHOD_GET_XML_VALUE);
+      m.javadoc ().addReturn ().add ("The lexical value as written to XML. Never <code>null</code>.");
+    }
+
+    // The namespaces declared on the root element, sorted for a stable output
+    final JArray aPrefixes = JExpr.newArray (jString);
+    final JArray aURIs = JExpr.newArray (jString);
+    int nIndex = 0;
+    for (final String sNamespaceURI : aNamespaces)
+    {
+      aPrefixes.add (JExpr.lit ("ns" + ++nIndex));
+      aURIs.add (JExpr.lit (sNamespaceURI));
+    }
+    aPrefixes.add (JExpr.lit ("xsi"));
+    aURIs.add (aXsiNS);
+    final JFieldVar fPrefixes = jHelper.field (JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+                                               jString.array (),
+                                               "PREFIXES",
+                                               aPrefixes);
+    final JFieldVar fURIs = jHelper.field (JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+                                           jString.array (),
+                                           "NAMESPACE_URIS",
+                                           aURIs);
+
+    // boolean _isUnbound (NamespaceContext, String)
+    final JMethod mIsUnbound = jHelper.method (JMod.PRIVATE | JMod.STATIC, cm.BOOLEAN, "_isUnbound");
+    {
+      final JVar aCtx = mIsUnbound.param (JMod.FINAL, cm.ref (NamespaceContext.class), "aCtx");
+      final JVar aPrefix = mIsUnbound.param (JMod.FINAL, jString, "sPrefix");
+      final JBlock aBody = mIsUnbound.body ();
+      final JVar aURI = aBody.decl (JMod.FINAL, jString, "sURI", aCtx.invoke ("getNamespaceURI").arg (aPrefix));
+      aBody._return (aURI.eq (JExpr._null ()).cor (aURI.invoke ("isEmpty")));
+    }
+
+    // String _getFreePrefix (XMLStreamWriter, String)
+    final JMethod mFreePrefix = jHelper.method (JMod.PRIVATE | JMod.STATIC, jString, "_getFreePrefix");
+    {
+      final JVar aWriter = mFreePrefix.param (JMod.FINAL, jWriter, "aWriter");
+      final JVar aNamespaceURI = mFreePrefix.param (JMod.FINAL, jString, "sNamespaceURI");
+      final JBlock aBody = mFreePrefix.body ();
+      final JVar aCtx = aBody.decl (JMod.FINAL,
+                                    cm.ref (NamespaceContext.class),
+                                    "aCtx",
+                                    aWriter.invoke ("getNamespaceContext"));
+      // Prefer the prefix defined at generation time
+      final JForLoop aFor = aBody._for ();
+      final JVar aIndex = aFor.init (cm.INT, "i", JExpr.lit (0));
+      aFor.test (aIndex.lt (fURIs.ref ("length")));
+      aFor.update (aIndex.incr ());
+      final JBlock aFound = aFor.body ()._if (fURIs.component (aIndex).invoke ("equals").arg (aNamespaceURI))._then ();
+      aFound._if (JExpr.invoke (mIsUnbound).arg (aCtx).arg (fPrefixes.component (aIndex)))
+            ._then ()
+            ._return (fPrefixes.component (aIndex));
+      aFound._break ();
+      final JVar aCount = aBody.decl (cm.INT, "nIndex", fURIs.ref ("length"));
+      final JVar aPrefix = aBody.decl (jString, "sPrefix");
+      final JDoLoop aDo = aBody._do (JOp.not (JExpr.invoke (mIsUnbound).arg (aCtx).arg (aPrefix)));
+      aDo.body ().assignPlus (aCount, JExpr.lit (1));
+      aDo.body ().assign (aPrefix, JExpr.lit ("ns").plus (aCount));
+      aBody._return (aPrefix);
+    }
+
+    // String _getPrefix (XMLStreamWriter, String)
+    final JMethod mPrefix = jHelper.method (JMod.PRIVATE | JMod.STATIC, jString, "_getPrefix");
+    {
+      final JVar aWriter = mPrefix.param (JMod.FINAL, jWriter, "aWriter");
+      final JVar aNamespaceURI = mPrefix.param (JMod.FINAL, jString, "sNamespaceURI");
+      mPrefix._throws (XMLStreamException.class);
+      final JBlock aBody = mPrefix.body ();
+      final JVar aPrefix = aBody.decl (jString, "sPrefix", aWriter.invoke ("getPrefix").arg (aNamespaceURI));
+      final JBlock aThen = aBody._if (aPrefix.eq (JExpr._null ()).cor (aPrefix.invoke ("isEmpty")))._then ();
+      aThen.assign (aPrefix, JExpr.invoke (mFreePrefix).arg (aWriter).arg (aNamespaceURI));
+      aThen.add (aWriter.invoke ("setPrefix").arg (aPrefix).arg (aNamespaceURI));
+      aThen.add (aWriter.invoke ("writeNamespace").arg (aPrefix).arg (aNamespaceURI));
+      aBody._return (aPrefix);
+      mPrefix.javadoc ()
+             .add ("Get the prefix of a namespace and declare it, if it is not yet declared. The start tag of the\n" +
+                   "current element must be open.");
+    }
+
+    // void writeStartElement (XMLStreamWriter, String, String)
+    final JMethod mStart = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.VOID, "writeStartElement");
+    {
+      final JVar aWriter = mStart.param (JMod.FINAL, jWriter, "aWriter");
+      final JVar aNamespaceURI = mStart.param (JMod.FINAL, jString, "sNamespaceURI");
+      final JVar aLocalName = mStart.param (JMod.FINAL, jString, "sLocalName");
+      mStart._throws (XMLStreamException.class);
+      final JBlock aBody = mStart.body ();
+      {
+        // The default namespace is never bound
+        final JBlock aThen = aBody._if (aNamespaceURI.invoke ("isEmpty"))._then ();
+        aThen.add (aWriter.invoke ("writeStartElement").arg (aLocalName));
+        aThen._return ();
+      }
+      final JVar aPrefix = aBody.decl (jString, "sPrefix", aWriter.invoke ("getPrefix").arg (aNamespaceURI));
+      {
+        final JBlock aThen = aBody._if (aPrefix.ne (JExpr._null ()))._then ();
+        aThen.add (aWriter.invoke ("writeStartElement").arg (aPrefix).arg (aLocalName).arg (aNamespaceURI));
+        aThen._return ();
+      }
+      aBody.assign (aPrefix, JExpr.invoke (mFreePrefix).arg (aWriter).arg (aNamespaceURI));
+      aBody.add (aWriter.invoke ("writeStartElement").arg (aPrefix).arg (aLocalName).arg (aNamespaceURI));
+      aBody.add (aWriter.invoke ("setPrefix").arg (aPrefix).arg (aNamespaceURI));
+      aBody.add (aWriter.invoke ("writeNamespace").arg (aPrefix).arg (aNamespaceURI));
+      mStart.javadoc ().add ("Write a start tag and declare the namespace, if it is not yet declared.");
+      mStart.javadoc ().addParam (aWriter).add ("The writer to use. May not be <code>null</code>.");
+      mStart.javadoc ().addParam (aNamespaceURI).add ("The namespace URI. May be empty but not <code>null</code>.");
+      mStart.javadoc ().addParam (aLocalName).add ("The local name. May not be <code>null</code>.");
+      mStart.javadoc ().addThrows (XMLStreamException.class).add ("In case of a writing error");
+    }
+
+    // void writeAttribute (XMLStreamWriter, String, String, String)
+    final JMethod mAttr = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.VOID, "writeAttribute");
+    {
+      final JVar aWriter = mAttr.param (JMod.FINAL, jWriter, "aWriter");
+      final JVar aNamespaceURI = mAttr.param (JMod.FINAL, jString, "sNamespaceURI");
+      final JVar aLocalName = mAttr.param (JMod.FINAL, jString, "sLocalName");
+      final JVar aValue = mAttr.param (JMod.FINAL, jString, "sValue");
+      mAttr._throws (XMLStreamException.class);
+      final JConditional aIf = mAttr.body ()._if (aNamespaceURI.invoke ("isEmpty"));
+      aIf._then ().add (aWriter.invoke ("writeAttribute").arg (aLocalName).arg (aValue));
+      aIf._else ()
+         .add (aWriter.invoke ("writeAttribute")
+                      .arg (JExpr.invoke (mPrefix).arg (aWriter).arg (aNamespaceURI))
+                      .arg (aNamespaceURI)
+                      .arg (aLocalName)
+                      .arg (aValue));
+      mAttr.javadoc ().add ("Write an attribute and declare the namespace, if it is not yet declared.");
+      mAttr.javadoc ().addParam (aWriter).add ("The writer to use. May not be <code>null</code>.");
+      mAttr.javadoc ().addParam (aNamespaceURI).add ("The namespace URI. May be empty but not <code>null</code>.");
+      mAttr.javadoc ().addParam (aLocalName).add ("The local name. May not be <code>null</code>.");
+      mAttr.javadoc ().addParam (aValue).add ("The attribute value. May not be <code>null</code>.");
+      mAttr.javadoc ().addThrows (XMLStreamException.class).add ("In case of a writing error");
+    }
+
+    // void writeAttributes (XMLStreamWriter, Map<QName,String>)
+    {
+      final JMethod m = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.VOID, "writeAttributes");
+      final JVar aWriter = m.param (JMod.FINAL, jWriter, "aWriter");
+      final JVar aMap = m.param (JMod.FINAL, cm.ref (Map.class).narrow (jQName, jString), "aMap");
+      m._throws (XMLStreamException.class);
+      final JBlock aBody = m.body ();
+      aBody._if (aMap.eq (JExpr._null ()))._then ()._return ();
+      final JForEach aForEach = aBody.forEach (cm.ref (Map.Entry.class).narrow (jQName, jString),
+                                               "aEntry",
+                                               aMap.invoke ("entrySet"));
+      final JExpression aName = aForEach.var ().invoke ("getKey");
+      aForEach.body ()
+              .invoke (mAttr)
+              .arg (aWriter)
+              .arg (aName.invoke ("getNamespaceURI"))
+              .arg (aName.invoke ("getLocalPart"))
+              .arg (aForEach.var ().invoke ("getValue"));
+      m.javadoc ().add ("Write foreign attributes.");
+      m.javadoc ().addParam (aWriter).add ("The writer to use. May not be <code>null</code>.");
+      m.javadoc ().addParam (aMap).add ("The attribute map. May be <code>null</code>.");
+      m.javadoc ().addThrows (XMLStreamException.class).add ("In case of a writing error");
+    }
+
+    // String printFloat (float)
+    {
+      final JMethod m = jHelper.method (JMod.PUBLIC | JMod.STATIC, jString, "printFloat");
+      final JVar aValue = m.param (JMod.FINAL, cm.FLOAT, "f");
+      final JBlock aBody = m.body ();
+      aBody._if (cm.ref (Float.class).staticInvoke ("isNaN").arg (aValue))._then ()._return (JExpr.lit ("NaN"));
+      aBody._if (aValue.eq (cm.ref (Float.class).staticRef ("POSITIVE_INFINITY")))._then ()._return (JExpr.lit ("INF"));
+      aBody._if (aValue.eq (cm.ref (Float.class).staticRef ("NEGATIVE_INFINITY")))
+           ._then ()
+           ._return (JExpr.lit ("-INF"));
+      aBody._return (jString.staticInvoke ("valueOf").arg (aValue));
+      m.javadoc ().add ("Convert a float to the lexical representation of <code>xs:float</code>.");
+    }
+
+    // String printDouble (double)
+    {
+      final JMethod m = jHelper.method (JMod.PUBLIC | JMod.STATIC, jString, "printDouble");
+      final JVar aValue = m.param (JMod.FINAL, cm.DOUBLE, "d");
+      final JBlock aBody = m.body ();
+      aBody._if (cm.ref (Double.class).staticInvoke ("isNaN").arg (aValue))._then ()._return (JExpr.lit ("NaN"));
+      aBody._if (aValue.eq (cm.ref (Double.class).staticRef ("POSITIVE_INFINITY")))
+           ._then ()
+           ._return (JExpr.lit ("INF"));
+      aBody._if (aValue.eq (cm.ref (Double.class).staticRef ("NEGATIVE_INFINITY")))
+           ._then ()
+           ._return (JExpr.lit ("-INF"));
+      aBody._return (jString.staticInvoke ("valueOf").arg (aValue));
+      m.javadoc ().add ("Convert a double to the lexical representation of <code>xs:double</code>.");
+    }
+
+    // String printBase64 (byte[])
+    final JMethod mBase64 = jHelper.method (JMod.PUBLIC | JMod.STATIC, jString, "printBase64");
+    {
+      final JVar aValue = mBase64.param (JMod.FINAL, cm.BYTE.array (), "aBytes");
+      mBase64.body ()
+             ._return (cm.ref (Base64.class).staticInvoke ("getEncoder").invoke ("encodeToString").arg (aValue));
+      mBase64.javadoc ().add ("Convert bytes to the lexical representation of <code>xs:base64Binary</code>.");
+    }
+
+    // String printQName (XMLStreamWriter, QName)
+    final JMethod mQName = jHelper.method (JMod.PUBLIC | JMod.STATIC, jString, "printQName");
+    {
+      final JVar aWriter = mQName.param (JMod.FINAL, jWriter, "aWriter");
+      final JVar aValue = mQName.param (JMod.FINAL, jQName, "aQName");
+      mQName._throws (XMLStreamException.class);
+      final JBlock aBody = mQName.body ();
+      aBody._if (aValue.invoke ("getNamespaceURI").invoke ("isEmpty"))
+           ._then ()
+           ._return (aValue.invoke ("getLocalPart"));
+      aBody._return (JExpr.invoke (mPrefix)
+                          .arg (aWriter)
+                          .arg (aValue.invoke ("getNamespaceURI"))
+                          .plus (JExpr.lit (':'))
+                          .plus (aValue.invoke ("getLocalPart")));
+      mQName.javadoc ()
+            .add ("Convert a QName to the lexical representation of <code>xs:QName</code>. The namespace is declared,\n" +
+                  "if it is not yet declared, so the start tag of the current element must be open.");
+    }
+
+    // String printAdapted (XmlAdapter, Object)
+    {
+      final JMethod m = jHelper.method (JMod.PUBLIC | JMod.STATIC, jString, "printAdapted");
+      m.annotate (SuppressWarnings.class).paramArray ("value").param ("rawtypes").param ("unchecked");
+      final JVar aAdapter = m.param (JMod.FINAL, cm.ref (XmlAdapter.class), "aAdapter");
+      final JVar aValue = m.param (JMod.FINAL, jObject, "aValue");
+      m._throws (XMLStreamException.class);
+      final JTryBlock aTry = m.body ()._try ();
+      aTry.body ()._return (jString.staticInvoke ("valueOf").arg (aAdapter.invoke ("marshal").arg (aValue)));
+      final JCatchBlock aCatch = aTry._catch (cm.ref (Exception.class));
+      final JVar aEx = aCatch.param ("ex");
+      aCatch.body ()._throw (JExpr._new (cm.ref (XMLStreamException.class)).arg (aEx));
+      m.javadoc ().add ("Convert a value with an XmlAdapter.");
+    }
+
+    // String print (XMLStreamWriter, Object)
+    final JMethod mPrint = jHelper.method (JMod.PUBLIC | JMod.STATIC, jString, "print");
+    {
+      final JVar aWriter = mPrint.param (JMod.FINAL, jWriter, "aWriter");
+      final JVar aValue = mPrint.param (JMod.FINAL, jObject, "aValue");
+      mPrint._throws (XMLStreamException.class);
+      final JBlock aBody = mPrint.body ();
+      aBody._if (aValue._instanceof (jString))._then ()._return (JExpr.cast (jString, aValue));
+      aBody._if (aValue._instanceof (jXmlValue))
+           ._then ()
+           ._return (JExpr.cast (jXmlValue, aValue).invoke (METHOD_GET_XML_VALUE));
+      aBody._if (aValue._instanceof (cm.ref (Float.class)))
+           ._then ()
+           ._return (jHelper.staticInvoke ("printFloat").arg (JExpr.cast (cm.ref (Float.class), aValue).invoke ("floatValue")));
+      aBody._if (aValue._instanceof (cm.ref (Double.class)))
+           ._then ()
+           ._return (jHelper.staticInvoke ("printDouble")
+                            .arg (JExpr.cast (cm.ref (Double.class), aValue).invoke ("doubleValue")));
+      aBody._if (aValue._instanceof (cm.ref (BigDecimal.class)))
+           ._then ()
+           ._return (JExpr.cast (cm.ref (BigDecimal.class), aValue).invoke ("toPlainString"));
+      aBody._if (aValue._instanceof (cm.ref (XMLGregorianCalendar.class)))
+           ._then ()
+           ._return (JExpr.cast (cm.ref (XMLGregorianCalendar.class), aValue).invoke ("toXMLFormat"));
+      aBody._if (aValue._instanceof (jQName))
+           ._then ()
+           ._return (JExpr.invoke (mQName).arg (aWriter).arg (JExpr.cast (jQName, aValue)));
+      aBody._if (aValue._instanceof (cm.BYTE.array ()))
+           ._then ()
+           ._return (JExpr.invoke (mBase64).arg (JExpr.cast (cm.BYTE.array (), aValue)));
+      // Boolean, other numbers and Duration
+      aBody._return (aValue.invoke ("toString"));
+      mPrint.javadoc ().add ("Convert a simple value of any type to its lexical representation.");
+      mPrint.javadoc ().addParam (aWriter).add ("The writer, used to declare the namespaces of QNames. May not be <code>null</code>.");
+      mPrint.javadoc ().addParam (aValue).add ("The value. May not be <code>null</code>.");
+      mPrint.javadoc ().addReturn ().add ("The lexical representation. Never <code>null</code>.");
+      mPrint.javadoc ().addThrows (XMLStreamException.class).add ("In case of a writing error");
+    }
+
+    // void writeSimpleElement (XMLStreamWriter, String, String, String)
+    {
+      final JMethod m = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.VOID, "writeSimpleElement");
+      final JVar aWriter = m.param (JMod.FINAL, jWriter, "aWriter");
+      final JVar aNamespaceURI = m.param (JMod.FINAL, jString, "sNamespaceURI");
+      final JVar aLocalName = m.param (JMod.FINAL, jString, "sLocalName");
+      final JVar aText = m.param (JMod.FINAL, jString, "sText");
+      m._throws (XMLStreamException.class);
+      final JBlock aBody = m.body ();
+      aBody.invoke (mStart).arg (aWriter).arg (aNamespaceURI).arg (aLocalName);
+      aBody.add (aWriter.invoke ("writeCharacters").arg (aText));
+      aBody.add (aWriter.invoke ("writeEndElement"));
+      m.javadoc ().add ("Write an element with a text only.");
+    }
+
+    // void writeNil (XMLStreamWriter, String, String)
+    final JMethod mNil = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.VOID, "writeNil");
+    {
+      final JVar aWriter = mNil.param (JMod.FINAL, jWriter, "aWriter");
+      final JVar aNamespaceURI = mNil.param (JMod.FINAL, jString, "sNamespaceURI");
+      final JVar aLocalName = mNil.param (JMod.FINAL, jString, "sLocalName");
+      mNil._throws (XMLStreamException.class);
+      final JBlock aBody = mNil.body ();
+      aBody.invoke (mStart).arg (aWriter).arg (aNamespaceURI).arg (aLocalName);
+      aBody.invoke (mAttr).arg (aWriter).arg (aXsiNS).arg ("nil").arg ("true");
+      aBody.add (aWriter.invoke ("writeEndElement"));
+      mNil.javadoc ().add ("Write an empty element with <code>xsi:nil=\"true\"</code>.");
+    }
+
+    // void _writeType (XMLStreamWriter, QName)
+    final JMethod mType = jHelper.method (JMod.PRIVATE | JMod.STATIC, cm.VOID, "_writeType");
+    {
+      final JVar aWriter = mType.param (JMod.FINAL, jWriter, "aWriter");
+      final JVar aTypeName = mType.param (JMod.FINAL, jQName, "aTypeName");
+      mType._throws (XMLStreamException.class);
+      mType.body ()
+           ._if (aTypeName.ne (JExpr._null ()))
+           ._then ()
+           .invoke (mAttr)
+           .arg (aWriter)
+           .arg (aXsiNS)
+           .arg ("type")
+           .arg (JExpr.invoke (mQName).arg (aWriter).arg (aTypeName));
+    }
+
+    // void writeObject (XMLStreamWriter, IWritable, String, String, boolean)
+    final JMethod mObject = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.VOID, "writeObject");
+    {
+      final JVar aWriter = mObject.param (JMod.FINAL, jWriter, "aWriter");
+      final JVar aValue = mObject.param (JMod.FINAL, jWritable, "aValue");
+      final JVar aNamespaceURI = mObject.param (JMod.FINAL, jString, "sNamespaceURI");
+      final JVar aLocalName = mObject.param (JMod.FINAL, jString, "sLocalName");
+      final JVar aWriteType = mObject.param (JMod.FINAL, cm.BOOLEAN, "bWriteType");
+      mObject._throws (XMLStreamException.class);
+      final JBlock aBody = mObject.body ();
+      aBody.invoke (mStart).arg (aWriter).arg (aNamespaceURI).arg (aLocalName);
+      aBody._if (aWriteType)._then ().invoke (mType).arg (aWriter).arg (aValue.invoke (METHOD_GET_XML_TYPE_NAME));
+      aBody.add (aValue.invoke (METHOD_WRITE_XML_ATTRIBUTES).arg (aWriter));
+      aBody.add (aValue.invoke (METHOD_WRITE_XML_CONTENT).arg (aWriter));
+      aBody.add (aWriter.invoke ("writeEndElement"));
+      mObject.javadoc ().add ("Write an element with a generated object as its content.");
+      mObject.javadoc ().addParam (aWriter).add ("The writer to use. May not be <code>null</code>.");
+      mObject.javadoc ().addParam (aValue).add ("The object to write. May not be <code>null</code>.");
+      mObject.javadoc ().addParam (aNamespaceURI).add ("The namespace URI. May be empty but not <code>null</code>.");
+      mObject.javadoc ().addParam (aLocalName).add ("The local name. May not be <code>null</code>.");
+      mObject.javadoc ()
+             .addParam (aWriteType)
+             .add ("<code>true</code> to write <code>xsi:type</code>, because the object is not of the declared type.");
+      mObject.javadoc ().addThrows (XMLStreamException.class).add ("In case of a writing error");
+    }
+
+    // String _getNamespaceURI (Node)
+    final JMethod mNodeNS = jHelper.method (JMod.PRIVATE | JMod.STATIC, jString, "_getNamespaceURI");
+    {
+      final JVar aNode = mNodeNS.param (JMod.FINAL, jNode, "aNode");
+      final JBlock aBody = mNodeNS.body ();
+      final JVar aURI = aBody.decl (JMod.FINAL, jString, "sURI", aNode.invoke ("getNamespaceURI"));
+      aBody._return (JOp.cond (aURI.eq (JExpr._null ()), JExpr.lit (""), aURI));
+    }
+
+    // String _getLocalName (Node)
+    final JMethod mNodeName = jHelper.method (JMod.PRIVATE | JMod.STATIC, jString, "_getLocalName");
+    {
+      final JVar aNode = mNodeName.param (JMod.FINAL, jNode, "aNode");
+      final JBlock aBody = mNodeName.body ();
+      final JVar aName = aBody.decl (JMod.FINAL, jString, "sName", aNode.invoke ("getLocalName"));
+      aBody._return (JOp.cond (aName.eq (JExpr._null ()), aNode.invoke ("getNodeName"), aName));
+    }
+
+    // void _writeDOMContent (XMLStreamWriter, Element)
+    final JMethod mDOMContent = jHelper.method (JMod.PRIVATE | JMod.STATIC, cm.VOID, "_writeDOMContent");
+    // void writeDOM (XMLStreamWriter, Element)
+    final JMethod mDOM = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.VOID, "writeDOM");
+    {
+      final JVar aWriter = mDOMContent.param (JMod.FINAL, jWriter, "aWriter");
+      final JVar aElement = mDOMContent.param (JMod.FINAL, jElement, "aElement");
+      mDOMContent._throws (XMLStreamException.class);
+      final JBlock aBody = mDOMContent.body ();
+      // Namespace declarations are created where needed
+      final JVar aAttrs = aBody.decl (JMod.FINAL, cm.ref (NamedNodeMap.class), "aAttrs", aElement.invoke ("getAttributes"));
+      final JForLoop aFor = aBody._for ();
+      final JVar aIndex = aFor.init (cm.INT, "i", JExpr.lit (0));
+      aFor.test (aIndex.lt (aAttrs.invoke ("getLength")));
+      aFor.update (aIndex.incr ());
+      final JVar aAttr = aFor.body ().decl (JMod.FINAL, jNode, "aAttr", aAttrs.invoke ("item").arg (aIndex));
+      final JVar aAttrNS = aFor.body ()
+                               .decl (JMod.FINAL, jString, "sNamespaceURI", JExpr.invoke (mNodeNS).arg (aAttr));
+      final JVar aAttrName = aFor.body ().decl (JMod.FINAL, jString, "sName", aAttr.invoke ("getNodeName"));
+      aFor.body ()
+          ._if (JOp.not (aAttrNS.invoke ("equals")
+                                .arg (cm.ref (XMLConstants.class).staticRef ("XMLNS_ATTRIBUTE_NS_URI"))
+                                .cor (aAttrName.invoke ("equals").arg ("xmlns"))
+                                .cor (aAttrName.invoke ("startsWith").arg ("xmlns:"))))
+          ._then ()
+          .invoke (mAttr)
+          .arg (aWriter)
+          .arg (aAttrNS)
+          .arg (JExpr.invoke (mNodeName).arg (aAttr))
+          .arg (aAttr.invoke ("getNodeValue"));
+
+      final JVar aChild = aBody.decl (jNode, "aChild", aElement.invoke ("getFirstChild"));
+      final JWhileLoop aWhile = aBody._while (aChild.ne (JExpr._null ()));
+      final JVar aNodeType = aWhile.body ().decl (JMod.FINAL, cm.SHORT, "nNodeType", aChild.invoke ("getNodeType"));
+      final JConditional aIf = aWhile.body ()._if (aNodeType.eq (jNode.staticRef ("ELEMENT_NODE")));
+      aIf._then ().invoke (mDOM).arg (aWriter).arg (JExpr.cast (jElement, aChild));
+      aIf._elseif (aNodeType.eq (jNode.staticRef ("TEXT_NODE")).cor (aNodeType.eq (jNode.staticRef ("CDATA_SECTION_NODE"))))
+         ._then ()
+         .add (aWriter.invoke ("writeCharacters").arg (aChild.invoke ("getNodeValue")));
+      aWhile.body ().assign (aChild, aChild.invoke ("getNextSibling"));
+    }
+    {
+      final JVar aWriter = mDOM.param (JMod.FINAL, jWriter, "aWriter");
+      final JVar aElement = mDOM.param (JMod.FINAL, jElement, "aElement");
+      mDOM._throws (XMLStreamException.class);
+      final JBlock aBody = mDOM.body ();
+      aBody.invoke (mStart)
+           .arg (aWriter)
+           .arg (JExpr.invoke (mNodeNS).arg (aElement))
+           .arg (JExpr.invoke (mNodeName).arg (aElement));
+      aBody.invoke (mDOMContent).arg (aWriter).arg (aElement);
+      aBody.add (aWriter.invoke ("writeEndElement"));
+      mDOM.javadoc ().add ("Write a DOM element, e.g. of <code>xs:any</code>. Comments and processing instructions are ignored.");
+      mDOM.javadoc ().addParam (aWriter).add ("The writer to use. May not be <code>null</code>.");
+      mDOM.javadoc ().addParam (aElement).add ("The element to write. May not be <code>null</code>.");
+      mDOM.javadoc ().addThrows (XMLStreamException.class).add ("In case of a writing error");
+    }
+
+    // void writeValueElement (XMLStreamWriter, String, String, Object)
+    final JMethod mValueElement = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.VOID, "writeValueElement");
+    {
+      final JVar aWriter = mValueElement.param (JMod.FINAL, jWriter, "aWriter");
+      final JVar aNamespaceURI = mValueElement.param (JMod.FINAL, jString, "sNamespaceURI");
+      final JVar aLocalName = mValueElement.param (JMod.FINAL, jString, "sLocalName");
+      final JVar aValue = mValueElement.param (JMod.FINAL, jObject, "aValue");
+      mValueElement._throws (XMLStreamException.class);
+      final JBlock aBody = mValueElement.body ();
+      {
+        // The declared type is unknown
+        final JBlock aThen = aBody._if (aValue._instanceof (jWritable))._then ();
+        aThen.invoke (mObject)
+             .arg (aWriter)
+             .arg (JExpr.cast (jWritable, aValue))
+             .arg (aNamespaceURI)
+             .arg (aLocalName)
+             .arg (JExpr.TRUE);
+        aThen._return ();
+      }
+      aBody.invoke (mStart).arg (aWriter).arg (aNamespaceURI).arg (aLocalName);
+      final JConditional aIf = aBody._if (aValue._instanceof (jElement));
+      aIf._then ().invoke (mDOMContent).arg (aWriter).arg (JExpr.cast (jElement, aValue));
+      aIf._else ().add (aWriter.invoke ("writeCharacters").arg (JExpr.invoke (mPrint).arg (aWriter).arg (aValue)));
+      aBody.add (aWriter.invoke ("writeEndElement"));
+      mValueElement.javadoc ().add ("Write an element with a value of a type, that is only known at runtime.");
+      mValueElement.javadoc ().addParam (aWriter).add ("The writer to use. May not be <code>null</code>.");
+      mValueElement.javadoc ().addParam (aNamespaceURI).add ("The namespace URI. May be empty but not <code>null</code>.");
+      mValueElement.javadoc ().addParam (aLocalName).add ("The local name. May not be <code>null</code>.");
+      mValueElement.javadoc ().addParam (aValue).add ("The value to write. May not be <code>null</code>.");
+      mValueElement.javadoc ().addThrows (XMLStreamException.class).add ("In case of a writing error");
+    }
+
+    // void writeElement (XMLStreamWriter, Object)
+    {
+      final JMethod m = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.VOID, "writeElement");
+      final JVar aWriter = m.param (JMod.FINAL, jWriter, "aWriter");
+      final JVar aValue = m.param (JMod.FINAL, jObject, "aValue");
+      m._throws (XMLStreamException.class);
+      final JBlock aBody = m.body ();
+      aBody._if (aValue.eq (JExpr._null ()))._then ()._return ();
+      {
+        final JBlock aThen = aBody._if (aValue._instanceof (cm.ref (JAXBElement.class)))._then ();
+        final JVar aJAXBElement = aThen.decl (JMod.FINAL, jJAXBElement, "aElement", JExpr.cast (jJAXBElement, aValue));
+        final JVar aName = aThen.decl (JMod.FINAL, jQName, "aName", aJAXBElement.invoke ("getName"));
+        final JVar aContent = aThen.decl (JMod.FINAL, jObject, "aContent", aJAXBElement.invoke ("getValue"));
+        final JConditional aIf = aThen._if (aContent.eq (JExpr._null ()));
+        aIf._then ()
+           .invoke (mNil)
+           .arg (aWriter)
+           .arg (aName.invoke ("getNamespaceURI"))
+           .arg (aName.invoke ("getLocalPart"));
+        final JConditional aIfWritable = aIf._elseif (aContent._instanceof (jWritable));
+        aIfWritable._then ()
+                   .invoke (mObject)
+                   .arg (aWriter)
+                   .arg (JExpr.cast (jWritable, aContent))
+                   .arg (aName.invoke ("getNamespaceURI"))
+                   .arg (aName.invoke ("getLocalPart"))
+                   .arg (aContent.invoke ("getClass").ne (aJAXBElement.invoke ("getDeclaredType")));
+        aIfWritable._else ()
+                   .invoke (mValueElement)
+                   .arg (aWriter)
+                   .arg (aName.invoke ("getNamespaceURI"))
+                   .arg (aName.invoke ("getLocalPart"))
+                   .arg (aContent);
+        aThen._return ();
+      }
+      {
+        final JBlock aThen = aBody._if (aValue._instanceof (jWritable))._then ();
+        final JVar aName = aThen.decl (JMod.FINAL,
+                                       jQName,
+                                       "aName",
+                                       JExpr.cast (jWritable, aValue).invoke (METHOD_GET_XML_ELEMENT_NAME));
+        aThen._if (aName.eq (JExpr._null ()))
+             ._then ()
+             ._throw (JExpr._new (cm.ref (XMLStreamException.class))
+                           .arg (JExpr.lit ("The object of ")
+                                      .plus (aValue.invoke ("getClass").invoke ("getName"))
+                                      .plus (JExpr.lit (" is no root element"))));
+        aThen.invoke (mObject)
+             .arg (aWriter)
+             .arg (JExpr.cast (jWritable, aValue))
+             .arg (aName.invoke ("getNamespaceURI"))
+             .arg (aName.invoke ("getLocalPart"))
+             .arg (JExpr.FALSE);
+        aThen._return ();
+      }
+      {
+        final JBlock aThen = aBody._if (aValue._instanceof (jElement))._then ();
+        aThen.invoke (mDOM).arg (aWriter).arg (JExpr.cast (jElement, aValue));
+        aThen._return ();
+      }
+      // Text of mixed content
+      aBody.add (aWriter.invoke ("writeCharacters").arg (JExpr.invoke (mPrint).arg (aWriter).arg (aValue)));
+      m.javadoc ()
+       .add ("Write an element, that defines its own name: a JAXBElement, an object with a root element name or\n" +
+             "a DOM element. Strings are written as text of mixed content.");
+      m.javadoc ().addParam (aWriter).add ("The writer to use. May not be <code>null</code>.");
+      m.javadoc ().addParam (aValue).add ("The element to write. May be <code>null</code>.");
+      m.javadoc ().addThrows (XMLStreamException.class).add ("In case of a writing error");
+    }
+
+    // void writeRootElement (XMLStreamWriter, Object)
+    final JMethod mRoot = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.VOID, "writeRootElement");
+    {
+      final JVar aWriter = mRoot.param (JMod.FINAL, jWriter, "aWriter");
+      final JVar aRoot = mRoot.param (JMod.FINAL, jObject, "aRoot");
+      mRoot._throws (XMLStreamException.class);
+      final JBlock aBody = mRoot.body ();
+      final JVar aName = aBody.decl (jQName, "aName", JExpr._null ());
+      final JVar aValue = aBody.decl (jObject, "aValue", aRoot);
+      final JVar aWriteType = aBody.decl (cm.BOOLEAN, "bWriteType", JExpr.FALSE);
+      final JConditional aIf = aBody._if (aRoot._instanceof (cm.ref (JAXBElement.class)));
+      {
+        final JBlock aThen = aIf._then ();
+        final JVar aJAXBElement = aThen.decl (JMod.FINAL, jJAXBElement, "aElement", JExpr.cast (jJAXBElement, aRoot));
+        aThen.assign (aName, aJAXBElement.invoke ("getName"));
+        aThen.assign (aValue, aJAXBElement.invoke ("getValue"));
+        aThen.assign (aWriteType,
+                      aValue.ne (JExpr._null ())
+                            .cand (aValue.invoke ("getClass").ne (aJAXBElement.invoke ("getDeclaredType"))));
+      }
+      aIf._elseif (aRoot._instanceof (jWritable))
+         ._then ()
+         .assign (aName, JExpr.cast (jWritable, aRoot).invoke (METHOD_GET_XML_ELEMENT_NAME));
+      aBody._if (aName.eq (JExpr._null ()))
+           ._then ()
+           ._throw (JExpr._new (cm.ref (IllegalArgumentException.class))
+                         .arg (JExpr.lit ("The object of ")
+                                    .plus (aRoot.invoke ("getClass").invoke ("getName"))
+                                    .plus (JExpr.lit (" is no root element"))));
+
+      aBody.invoke (mStart).arg (aWriter).arg (aName.invoke ("getNamespaceURI")).arg (aName.invoke ("getLocalPart"));
+      {
+        // Declare all known namespaces once, like the JAXB marshaller
+        final JForLoop aFor = aBody._for ();
+        final JVar aIndex = aFor.init (cm.INT, "i", JExpr.lit (0));
+        aFor.test (aIndex.lt (fURIs.ref ("length")));
+        aFor.update (aIndex.incr ());
+        final JBlock aThen = aFor.body ()
+                                 ._if (JOp.not (fURIs.component (aIndex).invoke ("equals").arg (aXsiNS))
+                                          .cand (aWriter.invoke ("getPrefix").arg (fURIs.component (aIndex)).eq (JExpr._null ()))
+                                          .cand (JExpr.invoke (mIsUnbound)
+                                                      .arg (aWriter.invoke ("getNamespaceContext"))
+                                                      .arg (fPrefixes.component (aIndex))))
+                                 ._then ();
+        aThen.add (aWriter.invoke ("setPrefix").arg (fPrefixes.component (aIndex)).arg (fURIs.component (aIndex)));
+        aThen.add (aWriter.invoke ("writeNamespace").arg (fPrefixes.component (aIndex)).arg (fURIs.component (aIndex)));
+      }
+      final JConditional aIfValue = aBody._if (aValue.eq (JExpr._null ()));
+      aIfValue._then ().invoke (mAttr).arg (aWriter).arg (aXsiNS).arg ("nil").arg ("true");
+      final JConditional aIfWritable = aIfValue._elseif (aValue._instanceof (jWritable));
+      {
+        final JBlock aThen = aIfWritable._then ();
+        aThen._if (aWriteType)
+             ._then ()
+             .invoke (mType)
+             .arg (aWriter)
+             .arg (JExpr.cast (jWritable, aValue).invoke (METHOD_GET_XML_TYPE_NAME));
+        aThen.add (JExpr.cast (jWritable, aValue).invoke (METHOD_WRITE_XML_ATTRIBUTES).arg (aWriter));
+        aThen.add (JExpr.cast (jWritable, aValue).invoke (METHOD_WRITE_XML_CONTENT).arg (aWriter));
+      }
+      final JConditional aIfDOM = aIfWritable._elseif (aValue._instanceof (jElement));
+      aIfDOM._then ().invoke (mDOMContent).arg (aWriter).arg (JExpr.cast (jElement, aValue));
+      aIfDOM._else ().add (aWriter.invoke ("writeCharacters").arg (JExpr.invoke (mPrint).arg (aWriter).arg (aValue)));
+      aBody.add (aWriter.invoke ("writeEndElement"));
+      mRoot.javadoc ()
+           .add ("Write a root element, that declares all known namespaces. Use this method to embed the element\n" +
+                 "into another document.");
+      mRoot.javadoc ().addParam (aWriter).add ("The writer to use. May not be <code>null</code>.");
+      mRoot.javadoc ()
+           .addParam (aRoot)
+           .add ("The JAXBElement or the object with a root element name to write. May not be <code>null</code>.");
+      mRoot.javadoc ().addThrows (XMLStreamException.class).add ("In case of a writing error");
+    }
+
+    // void writeDocument (XMLStreamWriter, Object)
+    {
+      final JMethod m = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.VOID, "writeDocument");
+      final JVar aWriter = m.param (JMod.FINAL, jWriter, "aWriter");
+      final JVar aRoot = m.param (JMod.FINAL, jObject, "aRoot");
+      m._throws (XMLStreamException.class);
+      final JBlock aBody = m.body ();
+      aBody.add (aWriter.invoke ("writeStartDocument").arg ("UTF-8").arg ("1.0"));
+      aBody.invoke (mRoot).arg (aWriter).arg (aRoot);
+      aBody.add (aWriter.invoke ("writeEndDocument"));
+      m.javadoc ()
+       .add ("Write a complete document. The writer must use the UTF-8 encoding. The writer is neither flushed\n" +
+             "nor closed.");
+      m.javadoc ().addParam (aWriter).add ("The writer to use. May not be <code>null</code>.");
+      m.javadoc ()
+       .addParam (aRoot)
+       .add ("The JAXBElement or the object with a root element name to write. May not be <code>null</code>.");
+      m.javadoc ().addThrows (XMLStreamException.class).add ("In case of a writing error");
+    }
+    return jWritable;
+  }
+
+  @NonNull
+  private JFieldVar _getAdapterField (@NonNull final CAdapter aAdapter)
+  {
+    final JClass jAdapter = aAdapter.getAdapterClass (m_aOutline);
+    JFieldVar ret = m_aAdapterFields.get (jAdapter.fullName ());
+    if (ret == null)
+    {
+      // Adapters created by XJC are stateless and can be shared
+      ret = m_jHelper.field (JMod.PUBLIC | JMod.STATIC | JMod.FINAL,
+                             jAdapter,
+                             "ADAPTER_" + m_aAdapterFields.size (),
+                             JExpr._new (jAdapter));
+      ret.javadoc ().add ("Shared instance of {@link " + jAdapter.fullName () + "}");
+      m_aAdapterFields.put (jAdapter.fullName (), ret);
+    }
+    return ret;
+  }
+
+  /**
+   * Get the expression for the lexical representation of a single non-null value, that does not
+   * depend on the writer.
+   *
+   * @return <code>null</code> if the value must be converted at runtime with
+   *         <code>JAXBStaxWriter.print</code>.
+   */
+  @Nullable
+  private JExpression _getTextExpression (@NonNull final JType aType,
+                                          @NonNull final JExpression aValue,
+                                          @Nullable final CAdapter aAdapter)
+  {
+    if (aAdapter != null && !aAdapter.isWhitespaceAdapter ())
+      return m_jHelper.staticInvoke ("printAdapted").arg (m_jHelper.staticRef (_getAdapterField (aAdapter))).arg (aValue);
+
+    if (aType instanceof final JDefinedClass jdType && m_aEnumClasses.contains (jdType))
+      return aValue.invoke (METHOD_GET_XML_VALUE);
+
+    final JClass jString = m_aOutline.getCodeModel ().ref (String.class);
+    switch (aType.fullName ())
+    {
+      case "java.lang.String":
+        return aValue;
+      case "float":
+      case "java.lang.Float":
+        return m_jHelper.staticInvoke ("printFloat").arg (aValue);
+      case "double":
+      case "java.lang.Double":
+        return m_jHelper.staticInvoke ("printDouble").arg (aValue);
+      case "boolean":
+      case "byte":
+      case "short":
+      case "int":
+      case "long":
+        return jString.staticInvoke ("valueOf").arg (aValue);
+      case "java.lang.Boolean":
+      case "java.lang.Byte":
+      case "java.lang.Short":
+      case "java.lang.Integer":
+      case "java.lang.Long":
+      case "java.math.BigInteger":
+      case "javax.xml.datatype.Duration":
+        return aValue.invoke ("toString");
+      case "java.math.BigDecimal":
+        return aValue.invoke ("toPlainString");
+      case "javax.xml.datatype.XMLGregorianCalendar":
+        return aValue.invoke ("toXMLFormat");
+      case "byte[]":
+        return m_jHelper.staticInvoke ("printBase64").arg (aValue);
+    }
+    // E.g. QName or Object
+    return null;
+  }
+
+  /**
+   * Get the lexical representation of a single non-null value. The start tag of the current
+   * element must be open, because QNames may declare a namespace.
+   */
+  @NonNull
+  private JExpression _getPrintExpression (@NonNull final JVar aWriter,
+                                           @NonNull final JType aType,
+                                           @NonNull final JExpression aValue,
+                                           @Nullable final CAdapter aAdapter)
+  {
+    final JExpression ret = _getTextExpression (aType, aValue, aAdapter);
+    if (ret != null)
+      return ret;
+    return m_jHelper.staticInvoke ("print").arg (aWriter).arg (aValue);
+  }
+
+  /**
+   * Create the code to join all items of a list with a space.
+   *
+   * @return The variable of the <code>StringBuilder</code> containing the joined values.
+   */
+  @NonNull
+  private JVar _joinValues (@NonNull final JBlock aBlock,
+                            @NonNull final JVar aWriter,
+                            @NonNull final JExpression aList,
+                            @NonNull final JType aItemType,
+                            @Nullable final CAdapter aAdapter)
+  {
+    final JClass jSB = m_aOutline.getCodeModel ().ref (StringBuilder.class);
+    final JVar aSB = aBlock.decl (JMod.FINAL, jSB, "aSB", JExpr._new (jSB));
+    final JForEach aForEach = aBlock.forEach (aItemType, "aItem", aList);
+    aForEach.body ()._if (aSB.invoke ("length").gt (JExpr.lit (0)))._then ().add (aSB.invoke ("append").arg (JExpr.lit (' ')));
+    aForEach.body ().add (aSB.invoke ("append").arg (_getPrintExpression (aWriter, aItemType, aForEach.var (), aAdapter)));
+    return aSB;
+  }
+
+  private int _getDepth (@NonNull final JType aType)
+  {
+    int ret = 0;
+    if (aType instanceof final JDefinedClass jdType)
+    {
+      JClass aCur = jdType._extends ();
+      while (aCur instanceof final JDefinedClass jdCur && m_aGeneratedClasses.contains (jdCur))
+      {
+        ret++;
+        aCur = jdCur._extends ();
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Write a single non-null item as an element with a name known at generation time.
+   */
+  private void _writeTypedElement (@NonNull final JBlock aBlock,
+                                   @NonNull final JVar aWriter,
+                                   @NonNull final JExpression aItem,
+                                   @NonNull final JType aItemType,
+                                   @NonNull final QName aTagName,
+                                   @Nullable final CAdapter aAdapter)
+  {
+    final JExpression aNamespaceURI = JExpr.lit (aTagName.getNamespaceURI ());
+    final JExpression aLocalName = JExpr.lit (aTagName.getLocalPart ());
+    if (aItemType instanceof final JDefinedClass jdItemType && m_aGeneratedClasses.contains (jdItemType))
+    {
+      final JExpression aWriteType = m_aPolymorphicClasses.contains (jdItemType) ? aItem.invoke ("getClass")
+                                                                                         .ne (jdItemType.dotclass ())
+                                                                                 : JExpr.FALSE;
+      aBlock.add (m_jHelper.staticInvoke ("writeObject")
+                           .arg (aWriter)
+                           .arg (aItem)
+                           .arg (aNamespaceURI)
+                           .arg (aLocalName)
+                           .arg (aWriteType));
+      return;
+    }
+
+    final JExpression aText = _getTextExpression (aItemType, aItem, aAdapter);
+    if (aText != null)
+      aBlock.add (m_jHelper.staticInvoke ("writeSimpleElement")
+                           .arg (aWriter)
+                           .arg (aNamespaceURI)
+                           .arg (aLocalName)
+                           .arg (aText));
+    else
+      aBlock.add (m_jHelper.staticInvoke ("writeValueElement")
+                           .arg (aWriter)
+                           .arg (aNamespaceURI)
+                           .arg (aLocalName)
+                           .arg (aItem));
+  }
+
+  /**
+   * Write a single non-null item of an element property.
+   */
+  private void _writeElementItem (@NonNull final JBlock aBlock,
+                                  @NonNull final JVar aWriter,
+                                  @NonNull final JExpression aItem,
+                                  @NonNull final JType aItemType,
+                                  @NonNull final CElementPropertyInfo aPI)
+  {
+    final List <CTypeRef> aTypes = aPI.getTypes ();
+    if (aTypes.size () == 1)
+    {
+      _writeTypedElement (aBlock, aWriter, aItem, aItemType, aTypes.get (0).getTagName (), aPI.getAdapter ());
+      return;
+    }
+
+    // The element name depends on the runtime type - check sub classes first
+    final ICommonsList <CTypeRef> aSortedTypes = new CommonsArrayList <> (aTypes);
+    aSortedTypes.sort ( (x, y) -> Integer.compare (_getDepth (y.getTarget ().toType (m_aOutline, Aspect.EXPOSED)),
+                                                   _getDepth (x.getTarget ().toType (m_aOutline, Aspect.EXPOSED))));
+    JConditional aIf = null;
+    for (final CTypeRef aTypeRef : aSortedTypes)
+    {
+      final JClass jType = aTypeRef.getTarget ().toType (m_aOutline, Aspect.EXPOSED).boxify ();
+      final JExpression aTest = aItem._instanceof (jType);
+      aIf = aIf == null ? aBlock._if (aTest) : aIf._elseif (aTest);
+      _writeTypedElement (aIf._then (), aWriter, JExpr.cast (jType, aItem), jType, aTypeRef.getTagName (), null);
+    }
+    aIf._else ().add (m_jHelper.staticInvoke ("writeElement").arg (aWriter).arg (aItem));
+  }
+
+  private void _writeAttributeProperty (@NonNull final JBlock aBlock,
+                                        @NonNull final JVar aWriter,
+                                        @NonNull final CAttributePropertyInfo aPI,
+                                        @NonNull final JExpression aValue,
+                                        @NonNull final JType aValueType)
+  {
+    final QName aName = aPI.getXmlName ();
+    final JBlock aPresent = aValueType.isPrimitive () ? aBlock : aBlock._if (aValue.ne (JExpr._null ()))._then ();
+    final JExpression aText;
+    if (aPI.isCollection ())
+    {
+      // A single attribute with all values
+      final JType aItemType = ((JClass) aValueType).getTypeParameters ().get (0);
+      aText = _joinValues (aPresent, aWriter, aValue, aItemType, aPI.getAdapter ()).invoke ("toString");
+    }
+    else
+      aText = _getPrintExpression (aWriter, aValueType, aValue, aPI.getAdapter ());
+    aPresent.add (m_jHelper.staticInvoke ("writeAttribute")
+                           .arg (aWriter)
+                           .arg (aName.getNamespaceURI ())
+                           .arg (aName.getLocalPart ())
+                           .arg (aText));
+  }
+
+  private void _writeValueProperty (@NonNull final JBlock aBlock,
+                                    @NonNull final JVar aWriter,
+                                    @NonNull final CValuePropertyInfo aPI,
+                                    @NonNull final JExpression aValue,
+                                    @NonNull final JType aValueType)
+  {
+    final JBlock aPresent = aValueType.isPrimitive () ? aBlock : aBlock._if (aValue.ne (JExpr._null ()))._then ();
+    final JExpression aText;
+    if (aPI.isCollection ())
+    {
+      final JType aItemType = ((JClass) aValueType).getTypeParameters ().get (0);
+      aText = _joinValues (aPresent, aWriter, aValue, aItemType, aPI.getAdapter ()).invoke ("toString");
+    }
+    else
+      aText = _getPrintExpression (aWriter, aValueType, aValue, aPI.getAdapter ());
+    aPresent.add (aWriter.invoke ("writeCharacters").arg (aText));
+  }
+
+  private void _writeElementProperty (@NonNull final JBlock aBlock,
+                                      @NonNull final JVar aWriter,
+                                      @NonNull final CElementPropertyInfo aPI,
+                                      @NonNull final JExpression aValue,
+                                      @NonNull final JType aValueType)
+  {
+    final CTypeRef aFirstType = aPI.getTypes ().get (0);
+    final boolean bNillable = aPI.getTypes ().size () == 1 && aFirstType.isNillable ();
+    if (aValueType.isPrimitive ())
+    {
+      // Always written
+      _writeElementItem (aBlock, aWriter, aValue, aValueType, aPI);
+      return;
+    }
+
+    final JConditional aIfPresent = aBlock._if (aValue.ne (JExpr._null ()));
+    final JBlock aPresent = aIfPresent._then ();
+    if (aPI.isValueList ())
+    {
+      // A single element with all values
+      final QName aTagName = aFirstType.getTagName ();
+      final JType aItemType = ((JClass) aValueType).getTypeParameters ().get (0);
+      aPresent.add (m_jHelper.staticInvoke ("writeStartElement")
+                             .arg (aWriter)
+                             .arg (aTagName.getNamespaceURI ())
+                             .arg (aTagName.getLocalPart ()));
+      final JVar aSB = _joinValues (aPresent, aWriter, aValue, aItemType, aPI.getAdapter ());
+      aPresent.add (aWriter.invoke ("writeCharacters").arg (aSB.invoke ("toString")));
+      aPresent.add (aWriter.invoke ("writeEndElement"));
+      return;
+    }
+
+    // XJC creates no element wrappers
+    if (aPI.isCollection ())
+    {
+      final JType aItemType = ((JClass) aValueType).getTypeParameters ().get (0);
+      final JForEach aForEach = aPresent.forEach (aItemType, "aItem", aValue);
+      final JConditional aIfItem = aForEach.body ()._if (aForEach.var ().ne (JExpr._null ()));
+      _writeElementItem (aIfItem._then (), aWriter, aForEach.var (), aItemType, aPI);
+      if (bNillable)
+        aIfItem._else ()
+               .add (m_jHelper.staticInvoke ("writeNil")
+                              .arg (aWriter)
+                              .arg (aFirstType.getTagName ().getNamespaceURI ())
+                              .arg (aFirstType.getTagName ().getLocalPart ()));
+    }
+    else
+    {
+      _writeElementItem (aPresent, aWriter, aValue, aValueType, aPI);
+      if (bNillable && aPI.isRequired ())
+        aIfPresent._else ()
+                  .add (m_jHelper.staticInvoke ("writeNil")
+                                 .arg (aWriter)
+                                 .arg (aFirstType.getTagName ().getNamespaceURI ())
+                                 .arg (aFirstType.getTagName ().getLocalPart ()));
+    }
+  }
+
+  private void _writeReferenceProperty (@NonNull final JBlock aBlock,
+                                        @NonNull final JVar aWriter,
+                                        @NonNull final CReferencePropertyInfo aPI,
+                                        @NonNull final JExpression aValue,
+                                        @NonNull final JType aValueType)
+  {
+    // JAXBElement, objects with root element names, DOM elements and mixed text
+    if (aPI.isCollection ())
+    {
+      final JType aItemType = ((JClass) aValueType).getTypeParameters ().get (0);
+      final JForEach aForEach = aBlock._if (aValue.ne (JExpr._null ()))._then ().forEach (aItemType, "aItem", aValue);
+      aForEach.body ().add (m_jHelper.staticInvoke ("writeElement").arg (aWriter).arg (aForEach.var ()));
+    }
+    else
+      aBlock.add (m_jHelper.staticInvoke ("writeElement").arg (aWriter).arg (aValue));
+  }
+
+  @Override
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler) throws SAXException
+  {
+    logInfo ("Running JAXB plugin -" + getOptionName ());
+
+    final JCodeModel aCodeModel = aOutline.getCodeModel ();
+    m_aOutline = aOutline;
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+      m_aGeneratedClasses.add (aClassOutline.implClass);
+    if (m_aGeneratedClasses.isEmpty ())
+      return true;
+
+    // The content of super classes from other compilations is unknown
+    boolean bError = false;
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+    {
+      final CClassRef aRefBaseClass = aClassOutline.target.getRefBaseClass ();
+      if (aRefBaseClass != null)
+      {
+        aErrorHandler.error (new SAXParseException ("The plugin -" +
+                                                    OPT +
+                                                    " cannot write " +
+                                                    aClassOutline.implClass.fullName () +
+                                                    ", because the super class " +
+                                                    aRefBaseClass.fullName () +
+                                                    " is not generated in this XJC run",
+                                                    aClassOutline.target.getLocator ()));
+        bError = true;
+      }
+    }
+    if (bError)
+      return false;
+
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+    {
+      ClassOutline aSuper = aClassOutline.getSuperClass ();
+      while (aSuper != null)
+      {
+        m_aPolymorphicClasses.add (aSuper.implClass);
+        aSuper = aSuper.getSuperClass ();
+      }
+    }
+    for (final EnumOutline aEnumOutline : aOutline.getEnums ())
+      m_aEnumClasses.add (aEnumOutline.clazz);
+
+    // All namespaces declared on the root element, sorted for a stable output
+    final ICommonsSortedSet <String> aNamespaces = new CommonsTreeSet <> ();
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+    {
+      final CClassInfo aClassInfo = aClassOutline.target;
+      _addNamespace (aClassInfo.getTypeName (), aNamespaces);
+      if (aClassInfo.isElement ())
+        _addNamespace (aClassInfo.getElementName (), aNamespaces);
+      for (final CPropertyInfo aPI : aClassInfo.getProperties ())
+      {
+        if (aPI instanceof final CAttributePropertyInfo aAttrPI)
+          _addNamespace (aAttrPI.getXmlName (), aNamespaces);
+        else
+          if (aPI instanceof final CElementPropertyInfo aElementPI)
+            for (final CTypeRef aTypeRef : aElementPI.getTypes ())
+              _addNamespace (aTypeRef.getTagName (), aNamespaces);
+          else
+            if (aPI instanceof final CReferencePropertyInfo aRefPI)
+              for (final CElement aElement : aRefPI.getElements ())
+                _addNamespace (aElement.getElementName (), aNamespaces);
+      }
+    }
+    aNamespaces.remove (XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI);
+
+    // One helper class for all packages
+    final JDefinedClass jWritable = _createHelperClass (aOutline.getClasses ().iterator ().next ().implClass._package (),
+                                                        aNamespaces);
+    final JClass jQName = aCodeModel.ref (QName.class);
+    final JClass jWriter = aCodeModel.ref (XMLStreamWriter.class);
+
+    // Enums provide their lexical value
+    for (final EnumOutline aEnumOutline : aOutline.getEnums ())
+    {
+      final JDefinedClass jEnum = aEnumOutline.clazz;
+      final JMethod aValueMethod = jEnum.getMethod ("value", new JType [0]);
+      jEnum._implements (m_jXmlValue);
+      final JMethod m = jEnum.method (JMod.PUBLIC, aCodeModel.ref (String.class), METHOD_GET_XML_VALUE);
+      m.annotate (Override.class);
+      m.body ()
+       ._return (aValueMethod == null ? JExpr.invoke ("name")
+                                      : aCodeModel.ref (String.class).staticInvoke ("valueOf").arg (JExpr.invoke (aValueMethod)));
+      getJavadoc (m).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+    }
+
+    final PluginPresenceBitset aPresenceBitset = findActivePlugin (aOpts, PluginPresenceBitset.class);
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+    {
+      final JDefinedClass jClass = aClassOutline.implClass;
+      final CClassInfo aClassInfo = aClassOutline.target;
+      final boolean bHasSuper = jClass._extends () instanceof final JDefinedClass jdSuper &&
+                                m_aGeneratedClasses.contains (jdSuper);
+      if (!bHasSuper)
+        jClass._implements (jWritable);
+
+      // QName getXmlTypeName ()
+      {
+        final QName aTypeName = aClassInfo.getTypeName ();
+        final JMethod m = jClass.method (JMod.PUBLIC, jQName, METHOD_GET_XML_TYPE_NAME);
+        m.annotate (Override.class);
+        m.body ()
+         ._return (aTypeName == null ? JExpr._null ()
+                                     : JExpr._new (jQName).arg (aTypeName.getNamespaceURI ()).arg (aTypeName.getLocalPart ()));
+        getJavadoc (m).addReturn ().add ("The name of the XML type or <code>null</code> for anonymous types.");
+        getJavadoc (m).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+      }
+
+      // QName getXmlElementName ()
+      {
+        final QName aElementName = aClassInfo.isElement () ? aClassInfo.getElementName () : null;
+        final JMethod m = jClass.method (JMod.PUBLIC, jQName, METHOD_GET_XML_ELEMENT_NAME);
+        m.annotate (Override.class);
+        m.body ()
+         ._return (aElementName == null ? JExpr._null ()
+                                        : JExpr._new (jQName)
+                                               .arg (aElementName.getNamespaceURI ())
+                                               .arg (aElementName.getLocalPart ()));
+        getJavadoc (m).addReturn ()
+                      .add ("The name of the root element or <code>null</code> if this class has no @XmlRootElement.");
+        getJavadoc (m).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+      }
+
+      // void writeXmlAttributes (XMLStreamWriter) and void writeXmlContent (XMLStreamWriter)
+      final JMethod mAttrs = jClass.method (JMod.PUBLIC, aCodeModel.VOID, METHOD_WRITE_XML_ATTRIBUTES);
+      mAttrs.annotate (Override.class);
+      mAttrs._throws (XMLStreamException.class);
+      final JVar aAttrsWriter = mAttrs.param (JMod.FINAL, jWriter, "aWriter");
+      if (bHasSuper)
+        mAttrs.body ().add (JExpr._super ().invoke (METHOD_WRITE_XML_ATTRIBUTES).arg (aAttrsWriter));
+
+      final JMethod mContent = jClass.method (JMod.PUBLIC, aCodeModel.VOID, METHOD_WRITE_XML_CONTENT);
+      mContent.annotate (Override.class);
+      mContent._throws (XMLStreamException.class);
+      final JVar aContentWriter = mContent.param (JMod.FINAL, jWriter, "aWriter");
+      if (bHasSuper)
+        mContent.body ().add (JExpr._super ().invoke (METHOD_WRITE_XML_CONTENT).arg (aContentWriter));
+
+      // In the order of the schema
+      for (final CPropertyInfo aPI : aClassInfo.getProperties ())
+      {
+        final JFieldVar aField = jClass.fields ().get (aPI.getName (false));
+        if (aField == null)
+        {
+          logWarn ("Ignoring property '" + aPI.getName (false) + "' of " + jClass.fullName ());
+          continue;
+        }
+
+        final JExpression aValue;
+        final JType aValueType;
+        if (aPresenceBitset != null && aPresenceBitset.isPresenceField (aClassOutline, aField))
+        {
+          // Only the getter returns null for absent attributes
+          aValue = JExpr.invoke (CJAXB.getGetterName (aField.type (), aPI.getName (true)));
+          aValueType = aField.type ().boxify ();
+        }
+        else
+        {
+          aValue = JExpr._this ().ref (aField);
+          aValueType = aField.type ();
+        }
+
+        if (aPI instanceof final CAttributePropertyInfo aAttrPI)
+          _writeAttributeProperty (mAttrs.body (), aAttrsWriter, aAttrPI, aValue, aValueType);
+        else
+          if (aPI instanceof final CValuePropertyInfo aValuePI)
+            _writeValueProperty (mContent.body (), aContentWriter, aValuePI, aValue, aValueType);
+          else
+            if (aPI instanceof final CElementPropertyInfo aElementPI)
+              _writeElementProperty (mContent.body (), aContentWriter, aElementPI, aValue, aValueType);
+            else
+              if (aPI instanceof final CReferencePropertyInfo aRefPI)
+                _writeReferenceProperty (mContent.body (), aContentWriter, aRefPI, aValue, aValueType);
+              else
+                logWarn ("Ignoring property '" + aPI.getName (false) + "' of " + jClass.fullName ());
+      }
+
+      // xs:anyAttribute
+      for (final JFieldVar aField : jClass.fields ().values ())
+        if (PluginLazyOtherAttributes.isOtherAttributesField (aField))
+          mAttrs.body ()
+                .add (m_jHelper.staticInvoke ("writeAttributes").arg (aAttrsWriter).arg (JExpr._this ().ref (aField)));
+
+      getJavadoc (mAttrs).add ("Write all attributes of this object. The start tag of the element must be open.");
+      getJavadoc (mAttrs).addParam (aAttrsWriter).add ("The writer to use. May not be <code>null</code>.");
+      getJavadoc (mAttrs).addThrows (XMLStreamException.class).add ("In case of a writing error");
+      getJavadoc (mAttrs).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+      getJavadoc (mContent).add ("Write the text and all child elements of this object, in the order of the schema.");
+      getJavadoc (mContent).addParam (aContentWriter).add ("The writer to use. May not be <code>null</code>.");
+      getJavadoc (mContent).addThrows (XMLStreamException.class).add ("In case of a writing error");
+      getJavadoc (mContent).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+
+      if (aClassInfo.isElement ())
+      {
+        // void writeTo (XMLStreamWriter)
+        final JMethod mWriteTo = jClass.method (JMod.PUBLIC, aCodeModel.VOID, METHOD_WRITE_TO);
+        mWriteTo._throws (XMLStreamException.class);
+        final JVar aWriter = mWriteTo.param (JMod.FINAL, jWriter, "aWriter");
+        mWriteTo.body ().add (m_jHelper.staticInvoke ("writeDocument").arg (aWriter).arg (JExpr._this ()));
+        getJavadoc (mWriteTo).add ("Write this object as a complete document, without JAXBContext. The writer must use the\n" +
+                                   "UTF-8 encoding.");
+        getJavadoc (mWriteTo).addParam (aWriter).add ("The writer to use. May not be <code>null</code>.");
+        getJavadoc (mWriteTo).addThrows (XMLStreamException.class).add ("In case of a writing error");
+        getJavadoc (mWriteTo).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+      }
+
+      // General information
+      getJavadoc (jClass).add ("<p>This class contains methods created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+    }
+    return true;
+  }
+}
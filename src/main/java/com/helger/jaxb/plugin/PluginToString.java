@@ -16,20 +16,27 @@
  */
 package com.helger.jaxb.plugin;
 
+import java.util.Map;
+
 import org.jspecify.annotations.NonNull;
 import org.xml.sax.ErrorHandler;
 
 import com.helger.annotation.style.IsSPIImplementation;
 import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.ICommonsList;
 import com.helger.collection.commons.ICommonsOrderedMap;
 import com.sun.codemodel.JClass;
 import com.sun.codemodel.JCodeModel;
 import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
 import com.sun.codemodel.JFieldVar;
 import com.sun.codemodel.JInvocation;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
+import com.sun.codemodel.JVar;
 import com.sun.tools.xjc.Options;
 import com.sun.tools.xjc.outline.ClassOutline;
 import com.sun.tools.xjc.outline.FieldOutline;
@@ -69,16 +76,16 @@ public class PluginToString extends AbstractPlugin
   }
 
   @Override
-  public boolean run (@NonNull final Outline aOutline,
-                      @NonNull final Options aOpts,
-                      @NonNull final ErrorHandler aErrorHandler)
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler)
   {
-    initPluginLogging (aOpts.debugMode);
     logInfo ("Running JAXB plugin -" + getOptionName ());
 
     final JCodeModel aCodeModel = aOutline.getCodeModel ();
     final JClass jObject = aCodeModel.ref (Object.class);
     final JClass jToStringGenerator = aCodeModel.ref (ToStringGenerator.class);
+    final PluginPresenceBitset aPresenceBitset = findActivePlugin (aOpts, PluginPresenceBitset.class);
     for (final ClassOutline aClassOutline : aOutline.getClasses ())
     {
       final JDefinedClass jClass = aClassOutline.implClass;
@@ -104,15 +111,23 @@ public class PluginToString extends AbstractPlugin
         else
           aInvocation = jToStringGenerator.staticInvoke ("getDerived").arg (JExpr._super ().invoke (mToString));
 
+        // All values to be appended, by name
+        final ICommonsOrderedMap <String, JExpression> aValues = new CommonsLinkedHashMap <> ();
         if (true)
         {
           // Instance fields only
           for (final JFieldVar aField : aFieldVars.keySet ())
           {
             final String sFieldName = aField.name ();
-            aInvocation = aInvocation.invoke ("append")
-                                     .arg (JExpr.lit (_ucFirst (sFieldName)))
-                                     .arg (JExpr.ref (sFieldName));
+            final JExpression aValue;
+            if (aPresenceBitset != null && aPresenceBitset.isPresenceField (aClassOutline, aField))
+            {
+              // Only the getter returns null for absent attributes
+              aValue = JExpr.invoke (CJAXB.getGetterName (aField.type (), aFieldVars.get (aField)));
+            }
+            else
+              aValue = JExpr.ref (sFieldName);
+            aValues.put (_ucFirst (sFieldName), aValue);
           }
         }
         else
@@ -121,16 +136,47 @@ public class PluginToString extends AbstractPlugin
           for (final FieldOutline aField : aFields)
           {
             final String sFieldName = aField.getPropertyInfo ().getName (false);
-            aInvocation = aInvocation.invoke ("append").arg (JExpr.lit (sFieldName)).arg (JExpr.ref (sFieldName));
+            aValues.put (sFieldName, JExpr.ref (sFieldName));
           }
         }
-        mToString.body ()._return (aInvocation.invoke ("getToString"));
 
-        mToString.javadoc ().add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+        if (aValues.size () > MAX_FIELDS_PER_METHOD)
+        {
+          // Wide class - append the values in part methods
+          // final ToStringGenerator aTSG = ...;
+          final JVar jGenerator = mToString.body ().decl (JMod.FINAL, jToStringGenerator, "aTSG", aInvocation);
+          final JVar [] aPartParams = { jGenerator };
+          final ICommonsList <String> aNames = new CommonsArrayList <> (aValues.keySet ());
+          for (int nStart = 0; nStart < aNames.size (); nStart += MAX_FIELDS_PER_METHOD)
+          {
+            final JMethod mPart = getOrCreatePartMethod (jClass,
+                                                         mToString,
+                                                         aCodeModel.VOID,
+                                                         aPartParams,
+                                                         nStart / MAX_FIELDS_PER_METHOD);
+            JExpression aPartInvocation = jGenerator;
+            for (int i = nStart; i < Math.min (nStart + MAX_FIELDS_PER_METHOD, aNames.size ()); ++i)
+            {
+              final String sName = aNames.get (i);
+              aPartInvocation = aPartInvocation.invoke ("append").arg (JExpr.lit (sName)).arg (aValues.get (sName));
+            }
+            mPart.body ().add ((JInvocation) aPartInvocation);
+            mToString.body ().invoke (mPart).arg (jGenerator);
+          }
+          mToString.body ()._return (jGenerator.invoke ("getToString"));
+        }
+        else
+        {
+          for (final Map.Entry <String, JExpression> aEntry : aValues.entrySet ())
+            aInvocation = aInvocation.invoke ("append").arg (JExpr.lit (aEntry.getKey ())).arg (aEntry.getValue ());
+          mToString.body ()._return (aInvocation.invoke ("getToString"));
+        }
+
+        getJavadoc (mToString).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
       }
 
       // General information
-      jClass.javadoc ().add ("<p>This class contains methods created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+      getJavadoc (jClass).add ("<p>This class contains methods created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
     }
     return true;
   }
@@ -40,6 +40,7 @@ import com.helger.collection.commons.ICommonsNavigableMap;
 import com.helger.collection.commons.ICommonsNavigableSet;
 import com.helger.collection.commons.ICommonsSet;
 import com.helger.jaxb.plugin.cm.MyTernaryOp;
+import com.helger.jaxb.plugin.jfr.PluginPhaseEvent;
 import com.sun.codemodel.JClass;
 import com.sun.codemodel.JCodeModel;
 import com.sun.codemodel.JConditional;
@@ -136,6 +137,9 @@ public class PluginValueExtender extends AbstractPlugin
 
     private void _fill (@NonNull final Outline aOutline)
     {
+      final PluginPhaseEvent aEvent = new PluginPhaseEvent ();
+      aEvent.begin ();
+
       final JCodeModel cm = aOutline.getCodeModel ();
       final ICommonsSet <String> aHandledClasses = new CommonsHashSet <> ();
       for (final ClassOutline aClassOutline : aOutline.getClasses ())
@@ -144,6 +148,8 @@ public class PluginValueExtender extends AbstractPlugin
         // Never deal with the classes we created
         _recursiveFill (aHandledClasses, cm, jClass._extends ());
       }
+
+      aEvent.commitPhase (OPT, PluginPhaseEvent.PHASE_VALUE_FIELD_SCAN, null, aHandledClasses.size ());
     }
 
     private void _addIfNotPresent (@NonNull final String sClassname, @NonNull final JType aFieldType)
@@ -270,11 +276,11 @@ public class PluginValueExtender extends AbstractPlugin
 
       // Always add default constructor
       final JMethod aDefCtor = jClass.constructor (JMod.PUBLIC);
-      aDefCtor.javadoc ().add ("Default constructor");
-      aDefCtor.javadoc ().add (AUTHOR);
+      getJavadoc (aDefCtor).add ("Default constructor");
+      getJavadoc (aDefCtor).add (AUTHOR);
 
       // General information
-      jClass.javadoc ().add ("<p>This class contains methods created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+      getJavadoc (jClass).add ("<p>This class contains methods created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
     }
     logDebug ( () -> "Added default constructors to " + aOutline.getClasses ().size () + " classes");
   }
@@ -317,11 +323,10 @@ public class PluginValueExtender extends AbstractPlugin
             aParam.annotate (Nullable.class);
           // Just call "setValue" in the constructor
           aValueCtor.body ().invoke ("setValue").arg (aParam);
-          aValueCtor.javadoc ().add ("Constructor for value of type " + aValueType.erasure ().name ());
-          aValueCtor.javadoc ()
-                    .addParam (aParam)
-                    .add ("The value to be set." + (aValueType.isPrimitive () ? "" : " May be <code>null</code>."));
-          aValueCtor.javadoc ().add (AUTHOR);
+          getJavadoc (aValueCtor).add ("Constructor for value of type " + aValueType.erasure ().name ());
+          getJavadoc (aValueCtor).addParam (aParam)
+                                 .add ("The value to be set." + (aValueType.isPrimitive () ? "" : " May be <code>null</code>."));
+          getJavadoc (aValueCtor).add (AUTHOR);
         }
 
         if (bHasPluginOffsetDT)
@@ -337,9 +342,9 @@ public class PluginValueExtender extends AbstractPlugin
               aParam.annotate (Nullable.class);
             // Just call "setValue" in the constructor
             aValueCtor.body ().invoke ("setValue").arg (aParam);
-            aValueCtor.javadoc ().add ("Constructor for value of type " + aSecondaryValueType.name ());
-            aValueCtor.javadoc ().addParam (aParam).add ("The value to be set. May be <code>null</code>.");
-            aValueCtor.javadoc ().add (AUTHOR);
+            getJavadoc (aValueCtor).add ("Constructor for value of type " + aSecondaryValueType.name ());
+            getJavadoc (aValueCtor).addParam (aParam).add ("The value to be set. May be <code>null</code>.");
+            getJavadoc (aValueCtor).add (AUTHOR);
           }
         }
 
@@ -414,16 +419,14 @@ public class PluginValueExtender extends AbstractPlugin
               aIf._then ().invoke (aMethod).arg (aObj);
               aIf._else ().invoke (aObj, "setValue").arg (aParam);
               aSetter.body ()._return (aObj);
-              aSetter.javadoc ().add ("Special setter with value of type " + aParam.type ().name ());
-              aSetter.javadoc ()
-                     .addParam (aParam)
-                     .add ("The value to be set." + (aValueType.isPrimitive () ? "" : " May be <code>null</code>."));
-              aSetter.javadoc ()
-                     .addReturn ()
-                     .add ("The created intermediary object of type " +
-                           aParamType.name () +
-                           " and never <code>null</code>");
-              aSetter.javadoc ().add (AUTHOR);
+              getJavadoc (aSetter).add ("Special setter with value of type " + aParam.type ().name ());
+              getJavadoc (aSetter).addParam (aParam)
+                                  .add ("The value to be set." + (aValueType.isPrimitive () ? "" : " May be <code>null</code>."));
+              getJavadoc (aSetter).addReturn ()
+                                  .add ("The created intermediary object of type " +
+                                        aParamType.name () +
+                                        " and never <code>null</code>");
+              getJavadoc (aSetter).add (AUTHOR);
             }
 
             if (bHasPluginOffsetDT)
@@ -456,14 +459,13 @@ public class PluginValueExtender extends AbstractPlugin
                 aIf._then ().invoke (aMethod).arg (aObj);
                 aIf._else ().invoke (aObj, "setValue").arg (aParam);
                 aSetter.body ()._return (aObj);
-                aSetter.javadoc ().add ("Special setter with value of type " + aParam.type ().name ());
-                aSetter.javadoc ().addParam (aParam).add ("The value to be set. May be <code>null</code>.");
-                aSetter.javadoc ()
-                       .addReturn ()
-                       .add ("The created intermediary object of type " +
-                             aParamType.name () +
-                             " and never <code>null</code>");
-                aSetter.javadoc ().add (AUTHOR);
+                getJavadoc (aSetter).add ("Special setter with value of type " + aParam.type ().name ());
+                getJavadoc (aSetter).addParam (aParam).add ("The value to be set. May be <code>null</code>.");
+                getJavadoc (aSetter).addReturn ()
+                                    .add ("The created intermediary object of type " +
+                                          aParamType.name () +
+                                          " and never <code>null</code>");
+                getJavadoc (aSetter).add (AUTHOR);
               }
             }
           }
@@ -568,17 +570,15 @@ public class PluginValueExtender extends AbstractPlugin
               }
 
               // Javadoc
-              aGetter.javadoc ().add ("Get the value of the contained " + aReturnType.name () + " object");
-              aGetter.javadoc ()
-                     .addParam (aParam)
-                     .add ("The value to be returned, if the owning object is <code>null</code>");
-              aGetter.javadoc ()
-                     .addReturn ()
-                     .add ("Either the value of the contained " +
-                           aReturnType.name () +
-                           " object or the passed " +
-                           aParam.name ());
-              aGetter.javadoc ().add (AUTHOR);
+              getJavadoc (aGetter).add ("Get the value of the contained " + aReturnType.name () + " object");
+              getJavadoc (aGetter).addParam (aParam)
+                                  .add ("The value to be returned, if the owning object is <code>null</code>");
+              getJavadoc (aGetter).addReturn ()
+                                  .add ("Either the value of the contained " +
+                                        aReturnType.name () +
+                                        " object or the passed " +
+                                        aParam.name ());
+              getJavadoc (aGetter).add (AUTHOR);
             }
             else
             {
@@ -592,13 +592,12 @@ public class PluginValueExtender extends AbstractPlugin
                 final JVar aObj = aGetter.body ().decl (aReturnType, "aObj", JExpr.invoke (aMethod));
                 aGetter.body ()
                        ._return (MyTernaryOp.cond (aObj.eq (JExpr._null ()), JExpr._null (), aObj.invoke ("getValue")));
-                aGetter.javadoc ().add ("Get the value of the contained " + aReturnType.name () + " object");
-                aGetter.javadoc ()
-                       .addReturn ()
-                       .add ("Either the value of the contained " +
-                             aReturnType.name () +
-                             " object or <code>null</code>");
-                aGetter.javadoc ().add (AUTHOR);
+                getJavadoc (aGetter).add ("Get the value of the contained " + aReturnType.name () + " object");
+                getJavadoc (aGetter).addReturn ()
+                                    .add ("Either the value of the contained " +
+                                          aReturnType.name () +
+                                          " object or <code>null</code>");
+                getJavadoc (aGetter).add (AUTHOR);
               }
 
               if (bHasPluginOffsetDT)
@@ -620,13 +619,12 @@ public class PluginValueExtender extends AbstractPlugin
                          ._return (MyTernaryOp.cond (aObj.eq (JExpr._null ()),
                                                      JExpr._null (),
                                                      aObj.invoke ("getValueLocal")));
-                  aGetter.javadoc ().add ("Get the value of the contained " + aReturnType.name () + " object");
-                  aGetter.javadoc ()
-                         .addReturn ()
-                         .add ("Either the value of the contained " +
-                               aReturnType.name () +
-                               " object or <code>null</code>");
-                  aGetter.javadoc ().add (AUTHOR);
+                  getJavadoc (aGetter).add ("Get the value of the contained " + aReturnType.name () + " object");
+                  getJavadoc (aGetter).addReturn ()
+                                      .add ("Either the value of the contained " +
+                                            aReturnType.name () +
+                                            " object or <code>null</code>");
+                  getJavadoc (aGetter).add (AUTHOR);
                 }
               }
             }
@@ -646,11 +644,10 @@ public class PluginValueExtender extends AbstractPlugin
    *        Error handler
    */
   @Override
-  public boolean run (@NonNull final Outline aOutline,
-                      @NonNull final Options aOpts,
-                      @NonNull final ErrorHandler aErrorHandler)
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler)
   {
-    initPluginLogging (aOpts.debugMode);
     logInfo ("Running JAXB plugin -" + getOptionName ());
 
     // Check if the "Plugin OffsetDT plugin" is also registered
@@ -0,0 +1,281 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import com.helger.annotation.style.IsSPIImplementation;
+import com.helger.collection.commons.CommonsTreeMap;
+import com.helger.collection.commons.ICommonsNavigableMap;
+import com.sun.codemodel.CodeWriter;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JPackage;
+import com.sun.codemodel.JResourceFile;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.Plugin;
+import com.sun.tools.xjc.outline.Outline;
+
+/**
+ * Plugin that writes the generated files itself and only touches files whose content changed. The
+ * content is compared by SHA-256 hash, so unchanged files keep their last modification time and
+ * incremental builds don't need to recompile them. Additionally a manifest file
+ * ({@value #MANIFEST_FILENAME}) in <code>sha256sum</code> format is written to the target
+ * directory. Its hash identifies the complete output and can be used as a build cache key.<br>
+ * This plugin must be the last plugin on the command line, as the modifications of all other
+ * plugins need to be present when writing. Afterwards the default output of XJC is suppressed.
+ *
+ * @author Philip Helger
+ * @since 5.1.3
+ */
+@IsSPIImplementation
+public class PluginWriteIfChanged extends AbstractPlugin
+{
+  public static final String OPT = "Xph-write-if-changed";
+  public static final String MANIFEST_FILENAME = "ph-jaxb-plugin-output.sha256";
+
+  /**
+   * A code writer that collects each file in memory and only writes it, if the content differs from
+   * the existing file.
+   */
+  private static final class ChangeDetectingCodeWriter extends CodeWriter
+  {
+    private final File m_aTargetDir;
+    private final boolean m_bReadOnly;
+    // Sorted by path to get a stable manifest
+    private final ICommonsNavigableMap <String, String> m_aHashes = new CommonsTreeMap <> ();
+    private int m_nWritten = 0;
+    private int m_nUnchanged = 0;
+    private String m_sManifestHash;
+
+    ChangeDetectingCodeWriter (@NonNull final File aTargetDir, final boolean bReadOnly, @Nullable final String sEncoding)
+    {
+      m_aTargetDir = aTargetDir;
+      m_bReadOnly = bReadOnly;
+      encoding = sEncoding;
+    }
+
+    @NonNull
+    private static byte [] _getSHA256 (@NonNull final byte [] aBytes)
+    {
+      try
+      {
+        return MessageDigest.getInstance ("SHA-256").digest (aBytes);
+      }
+      catch (final NoSuchAlgorithmException ex)
+      {
+        throw new IllegalStateException ("SHA-256 is not supported", ex);
+      }
+    }
+
+    /**
+     * Write the file, if the content changed.
+     *
+     * @return The hex encoded SHA-256 hash of the content
+     */
+    @NonNull
+    private String _writeIfChanged (@NonNull final String sRelativePath, @NonNull final byte [] aBytes) throws IOException
+    {
+      final byte [] aHash = _getSHA256 (aBytes);
+      final File aFile = new File (m_aTargetDir, sRelativePath);
+      if (aFile.isFile () && MessageDigest.isEqual (aHash, _getSHA256 (Files.readAllBytes (aFile.toPath ()))))
+        m_nUnchanged++;
+      else
+      {
+        Files.createDirectories (aFile.getParentFile ().toPath ());
+        if (aFile.exists () && !aFile.canWrite ())
+          aFile.setWritable (true);
+        Files.write (aFile.toPath (), aBytes);
+        if (m_bReadOnly)
+          aFile.setReadOnly ();
+        m_nWritten++;
+      }
+      return HexFormat.of ().formatHex (aHash);
+    }
+
+    @Override
+    public OutputStream openBinary (@NonNull final JPackage aPackage, @NonNull final String sFileName)
+    {
+      final String sRelativePath = aPackage.isUnnamed () ? sFileName
+                                                         : aPackage.name ().replace ('.', '/') + '/' + sFileName;
+      return new ByteArrayOutputStream ()
+      {
+        private boolean m_bClosed = false;
+
+        @Override
+        public void close () throws IOException
+        {
+          if (!m_bClosed)
+          {
+            m_bClosed = true;
+            m_aHashes.put (sRelativePath, _writeIfChanged (sRelativePath, toByteArray ()));
+          }
+        }
+      };
+    }
+
+    @Override
+    public void close () throws IOException
+    {
+      final StringBuilder aSB = new StringBuilder ();
+      for (final Map.Entry <String, String> aEntry : m_aHashes.entrySet ())
+        aSB.append (aEntry.getValue ()).append ("  ").append (aEntry.getKey ()).append ('\n');
+      final byte [] aManifest = aSB.toString ().getBytes (StandardCharsets.UTF_8);
+
+      // The manifest is never read-only, as it is not a source file
+      final File aFile = new File (m_aTargetDir, MANIFEST_FILENAME);
+      final byte [] aHash = _getSHA256 (aManifest);
+      if (!aFile.isFile () || !MessageDigest.isEqual (aHash, _getSHA256 (Files.readAllBytes (aFile.toPath ()))))
+        Files.write (aFile.toPath (), aManifest);
+      m_sManifestHash = HexFormat.of ().formatHex (aHash);
+    }
+  }
+
+  @Override
+  public String getOptionName ()
+  {
+    return OPT;
+  }
+
+  @Override
+  public String getUsage ()
+  {
+    return "  -" + OPT + "  :  only write generated files with changed content and create a SHA-256 manifest. Must be the last plugin.";
+  }
+
+  private boolean _setFieldNull (@NonNull final Object aObj, @NonNull final String sFieldName)
+  {
+    try
+    {
+      final Field aField = aObj.getClass ().getDeclaredField (sFieldName);
+      aField.setAccessible (true);
+      aField.set (aObj, null);
+      return true;
+    }
+    catch (final ReflectiveOperationException | RuntimeException ex)
+    {
+      logError ("Failed to reset field '" + sFieldName + "' of " + aObj.getClass ().getName (), ex);
+      return false;
+    }
+  }
+
+  /**
+   * Make sure the following build of the code model by XJC itself doesn't write anything.
+   *
+   * @param cm
+   *        The code model that was already written
+   * @return <code>true</code> if nothing is written, <code>false</code> if the package-info files
+   *         could not be suppressed.
+   */
+  private boolean _suppressDefaultOutput (@NonNull final JCodeModel cm)
+  {
+    boolean bSuccess = true;
+    final Iterator <JPackage> itPackages = cm.packages ();
+    while (itPackages.hasNext ())
+    {
+      final JPackage jPackage = itPackages.next ();
+
+      // Nested classes are written with the outer class
+      final Iterator <JDefinedClass> itClasses = jPackage.classes ();
+      while (itClasses.hasNext ())
+        itClasses.next ().hide ();
+
+      final Iterator <JResourceFile> itResources = jPackage.propertyFiles ();
+      while (itResources.hasNext ())
+      {
+        itResources.next ();
+        itResources.remove ();
+      }
+
+      // package-info.java is written if annotations or javadoc is present. There is no public API to
+      // remove them.
+      if (!_setFieldNull (jPackage, "annotations") || !_setFieldNull (jPackage, "jdoc"))
+        bSuccess = false;
+    }
+    return bSuccess;
+  }
+
+  @Override
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler) throws SAXException
+  {
+    logInfo ("Running JAXB plugin -" + getOptionName ());
+
+    final List <Plugin> aActivePlugins = aOpts.activePlugins;
+    if (aActivePlugins.get (aActivePlugins.size () - 1) != this)
+    {
+      // The changes of the following plugins would be lost
+      aErrorHandler.error (new SAXParseException ("The plugin -" + OPT + " must be the last plugin on the command line",
+                                                  null));
+      return false;
+    }
+
+    final JCodeModel cm = aOutline.getCodeModel ();
+    final ChangeDetectingCodeWriter aWriter = new ChangeDetectingCodeWriter (aOpts.targetDir,
+                                                                             aOpts.readOnly,
+                                                                             aOpts.encoding);
+    try
+    {
+      cm.build (aOpts.createCodeWriter (aWriter));
+    }
+    catch (final IOException ex)
+    {
+      aErrorHandler.error (new SAXParseException ("Failed to write the generated files to '" +
+                                                  aOpts.targetDir.getAbsolutePath () +
+                                                  "'",
+                                                  null,
+                                                  ex));
+      return false;
+    }
+
+    logInfo ("  Wrote " +
+             aWriter.m_nWritten +
+             " changed and skipped " +
+             aWriter.m_nUnchanged +
+             " unchanged files; output hash is " +
+             aWriter.m_sManifestHash);
+
+    if (!_suppressDefaultOutput (cm))
+    {
+      // XJC would write the package-info files again, unconditionally
+      aErrorHandler.error (new SAXParseException ("Failed to suppress the default output of the package-info files. The codemodel version is not supported by -" +
+                                                  OPT,
+                                                  null));
+      return false;
+    }
+    return true;
+  }
+}
@@ -0,0 +1,871 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.datatype.Duration;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.QName;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.xml.sax.ErrorHandler;
+
+import com.helger.annotation.style.IsSPIImplementation;
+import com.helger.base.string.StringParser;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.CommonsTreeSet;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.collection.commons.ICommonsSet;
+import com.helger.collection.commons.ICommonsSortedSet;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JConditional;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JForLoop;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JPackage;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.BadCommandLineException;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.model.CAdapter;
+import com.sun.tools.xjc.model.CAttributePropertyInfo;
+import com.sun.tools.xjc.model.CClassInfo;
+import com.sun.tools.xjc.model.CElement;
+import com.sun.tools.xjc.model.CElementInfo;
+import com.sun.tools.xjc.model.CElementPropertyInfo;
+import com.sun.tools.xjc.model.CEnumConstant;
+import com.sun.tools.xjc.model.CPropertyInfo;
+import com.sun.tools.xjc.model.CReferencePropertyInfo;
+import com.sun.tools.xjc.model.CTypeRef;
+import com.sun.tools.xjc.model.CValuePropertyInfo;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.EnumOutline;
+import com.sun.tools.xjc.outline.Outline;
+
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.annotation.adapters.HexBinaryAdapter;
+
+/**
+ * Create a method <code>long estimateXmlSize()</code> in all classes, that returns an upper bound
+ * of the UTF-8 encoded byte length of the marshalled document, e.g. to allocate output buffers
+ * once. Additionally <code>long estimateXmlContentSize()</code> returns the size of the attributes
+ * and the content of an object, without its own tag.
+ * <ul>
+ * <li>The element and attribute names are known at generation time and are added as
+ * constants</li>
+ * <li>The length of strings is computed at runtime, including UTF-8 encoding and XML escaping,
+ * without allocating memory. Numbers, enums and binary data (<code>xs:base64Binary</code> and
+ * <code>xs:hexBinary</code>) are bounded by their maximum lexical length. DOM nodes of
+ * <code>xs:any</code> are traversed, including a namespace declaration per element and attribute.
+ * Objects of other unknown types are counted with a constant</li>
+ * <li>Nillable elements without a value are counted with an <code>xsi:nil</code> attribute</li>
+ * <li>Namespace prefixes are assumed to have at most {@value #DEFAULT_PREFIX_LENGTH} characters.
+ * This can be changed with <code>-Xph-xml-size-prefix-length &lt;n&gt;</code>, e.g. if longer
+ * prefixes are defined with {@link PluginNamespacePrefix}</li>
+ * <li>The helper class {@value #CLASS_NAME} is created once, in the package of the first class. It
+ * contains the size of the XML declaration, the root element tag and all namespace
+ * declarations</li>
+ * </ul>
+ * The bound is only valid if the marshaller does not use formatted output.
+ *
+ * @author Philip Helger
+ * @since 5.1.3
+ */
+@IsSPIImplementation
+public class PluginXmlSize extends AbstractPlugin
+{
+  public static final String OPT = "Xph-xml-size";
+  /**
+   * Suffix to the plugin option name to define the maximum length of namespace prefixes, e.g.
+   * <code>-Xph-xml-size-prefix-length 12</code>
+   */
+  public static final String OPT_SUFFIX_PREFIX_LENGTH = "-prefix-length";
+  public static final int DEFAULT_PREFIX_LENGTH = 7;
+  public static final String CLASS_NAME = "JAXBXmlSize";
+  public static final String METHOD_ESTIMATE_XML_SIZE = "estimateXmlSize";
+  public static final String METHOD_ESTIMATE_XML_CONTENT_SIZE = "estimateXmlContentSize";
+  /** The size of objects of unknown types, e.g. DOM elements */
+  public static final int UNKNOWN_VALUE_SIZE = 256;
+
+  /** <code>&lt;?xml version="1.0" encoding="UTF-8" standalone="yes"?&gt;</code> plus line break */
+  private static final int XML_DECLARATION_SIZE = 56;
+  /** The maximum length of a date, time or duration */
+  private static final int DATE_TIME_SIZE = 64;
+
+  private int m_nPrefixLength = DEFAULT_PREFIX_LENGTH;
+
+  @Override
+  public String getOptionName ()
+  {
+    return OPT;
+  }
+
+  @Override
+  public String getUsage ()
+  {
+    return "  -" + OPT + "    :  create estimateXmlSize() methods with an upper bound of the marshalled size\n" +
+           "  -" + OPT + OPT_SUFFIX_PREFIX_LENGTH + " <n>    :  the maximum length of namespace prefixes (default: " + DEFAULT_PREFIX_LENGTH + ")";
+  }
+
+  @Override
+  public int parseArgument (final Options opt, final String [] args, final int i) throws BadCommandLineException
+  {
+    final String sPrefixLengthOption = "-" + OPT + OPT_SUFFIX_PREFIX_LENGTH;
+    if (args[i].equals (sPrefixLengthOption))
+    {
+      final String sPrefixLength = opt.requireArgument (sPrefixLengthOption, args, i + 1);
+      final int nPrefixLength = StringParser.parseInt (sPrefixLength, -1);
+      if (nPrefixLength < 0)
+        throw new BadCommandLineException ("The prefix length must be a non-negative number, but is '" +
+                                           sPrefixLength +
+                                           "'");
+      m_nPrefixLength = nPrefixLength;
+      return 2;
+    }
+    return 0;
+  }
+
+  /**
+   * Get the size of a text in the same way as the created code: UTF-8 encoded and with all XML
+   * escapes.
+   */
+  private static int _getTextSize (@NonNull final String s)
+  {
+    int ret = 0;
+    for (final char c : s.toCharArray ())
+      if (c == '"' || c == '\'')
+        ret += 6;
+      else
+        if (c == '&' || c == '\r' || c == '\n' || c == '\t')
+          ret += 5;
+        else
+          if (c == '<' || c == '>')
+            ret += 4;
+          else
+            if (c < 0x80)
+              ret++;
+            else
+              if (c < 0x800 || Character.isSurrogate (c))
+                ret += 2;
+              else
+                ret += 3;
+    return ret;
+  }
+
+  /**
+   * @return The size of a qualified name including the prefix and the colon.
+   */
+  private int _getNameSize (@NonNull final QName aName)
+  {
+    return m_nPrefixLength + 1 + _getTextSize (aName.getLocalPart ());
+  }
+
+  /**
+   * @return The size of the start and end tag of an element.
+   */
+  private int _getTagSize (@NonNull final QName aName)
+  {
+    // <name></name>
+    return 2 * _getNameSize (aName) + 5;
+  }
+
+  /**
+   * @return The size of a namespace declaration.
+   */
+  private int _getNamespaceDeclarationSize (@NonNull final String sNamespaceURI)
+  {
+    // xmlns:prefix="uri"
+    return 1 + 6 + m_nPrefixLength + 2 + _getTextSize (sNamespaceURI) + 1;
+  }
+
+  /**
+   * Create the helper class.
+   *
+   * @return The nested interface <code>IEstimable</code> of the helper class. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  private JDefinedClass _createHelperClass (@NonNull final JPackage aPackage,
+                                            final long nDocumentSize,
+                                            final int nXsiTypeSize)
+  {
+    final JCodeModel cm = aPackage.owner ();
+    final JDefinedClass jHelper;
+    final JDefinedClass jEstimable;
+    try
+    {
+      jHelper = aPackage._class (JMod.PUBLIC | JMod.FINAL, CLASS_NAME);
+      jEstimable = jHelper._interface (JMod.PUBLIC, "IEstimable");
+    }
+    catch (final JClassAlreadyExistsException ex)
+    {
+      throw new IllegalStateException ("Failed to create class " + CLASS_NAME + " in " + aPackage.name (), ex);
+    }
+    jHelper.javadoc ()
+           .add ("Helper methods to compute an upper bound of the UTF-8 encoded size of marshalled objects.\n" +
+                 "<p>This class was created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+    jHelper.constructor (JMod.PRIVATE);
+
+    jEstimable.javadoc ().add ("Implemented by all classes that can estimate their marshalled size.");
+    {
+      final JMethod m = jEstimable.method (JMod.NONE, cm.LONG, METHOD_ESTIMATE_XML_CONTENT_SIZE);
+      m.javadoc ()
+       .addReturn ()
+       .add ("The maximum size of the attributes and the content of this object in bytes, without the\n" +
+             "element tag.");
+    }
+
+    final JFieldVar fPrefixSize = jHelper.field (JMod.PUBLIC | JMod.STATIC | JMod.FINAL,
+                                                 cm.INT,
+                                                 "PREFIX_SIZE",
+                                                 JExpr.lit (m_nPrefixLength + 1));
+    fPrefixSize.javadoc ().add ("The maximum size of a namespace prefix including the colon");
+    final JFieldVar fXsiTypeSize = jHelper.field (JMod.PUBLIC | JMod.STATIC | JMod.FINAL,
+                                                  cm.INT,
+                                                  "XSI_TYPE_SIZE",
+                                                  JExpr.lit (nXsiTypeSize));
+    fXsiTypeSize.javadoc ().add ("The maximum size of an <code>xsi:type</code> or <code>xsi:nil</code> attribute");
+    final JFieldVar fDocumentSize = jHelper.field (JMod.PUBLIC | JMod.STATIC | JMod.FINAL,
+                                                   cm.LONG,
+                                                   "DOCUMENT_SIZE",
+                                                   JExpr.lit (nDocumentSize));
+    fDocumentSize.javadoc ()
+                 .add ("The maximum size of the XML declaration, the root element tag and all namespace declarations");
+
+    final JClass jObject = cm.ref (Object.class);
+    final JClass jString = cm.ref (String.class);
+
+    // long getTextSize (String)
+    final JMethod mText = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.LONG, "getTextSize");
+    {
+      final JVar aValue = mText.param (JMod.FINAL, jString, "s");
+      final JBlock aBody = mText.body ();
+      aBody._if (aValue.eq (JExpr._null ()))._then ()._return (JExpr.lit (0L));
+      final JVar aRet = aBody.decl (cm.LONG, "ret", JExpr.lit (0L));
+      final JVar aLen = aBody.decl (JMod.FINAL, cm.INT, "nLen", aValue.invoke ("length"));
+      final JForLoop aFor = aBody._for ();
+      final JVar aIndex = aFor.init (cm.INT, "i", JExpr.lit (0));
+      aFor.test (aIndex.lt (aLen));
+      aFor.update (aIndex.incr ());
+      final JVar aChar = aFor.body ().decl (JMod.FINAL, cm.CHAR, "c", aValue.invoke ("charAt").arg (aIndex));
+      JConditional aIf = aFor.body ()._if (aChar.eq (JExpr.lit ('"')).cor (aChar.eq (JExpr.lit ('\''))));
+      aIf._then ().assignPlus (aRet, JExpr.lit (6));
+      aIf = aIf._elseif (aChar.eq (JExpr.lit ('&'))
+                              .cor (aChar.eq (JExpr.lit ('\r')))
+                              .cor (aChar.eq (JExpr.lit ('\n')))
+                              .cor (aChar.eq (JExpr.lit ('\t'))));
+      aIf._then ().assignPlus (aRet, JExpr.lit (5));
+      aIf = aIf._elseif (aChar.eq (JExpr.lit ('<')).cor (aChar.eq (JExpr.lit ('>'))));
+      aIf._then ().assignPlus (aRet, JExpr.lit (4));
+      aIf = aIf._elseif (aChar.lt (JExpr.lit (0x80)));
+      aIf._then ().assignPlus (aRet, JExpr.lit (1));
+      aIf = aIf._elseif (aChar.lt (JExpr.lit (0x800)).cor (cm.ref (Character.class).staticInvoke ("isSurrogate").arg (aChar)));
+      aIf._then ().assignPlus (aRet, JExpr.lit (2));
+      aIf._else ().assignPlus (aRet, JExpr.lit (3));
+      aBody._return (aRet);
+      mText.javadoc ().add ("Get the UTF-8 encoded size of a text, assuming that all special characters are escaped.");
+      mText.javadoc ().addParam (aValue).add ("The text. May be <code>null</code>.");
+      mText.javadoc ().addReturn ().add ("The maximum size in bytes.");
+    }
+
+    // long getNodeSize (Node)
+    final JClass jNode = cm.ref (Node.class);
+    final JMethod mNode = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.LONG, "getNodeSize");
+    {
+      final JVar aNode = mNode.param (JMod.FINAL, jNode, "aNode");
+      final JBlock aBody = mNode.body ();
+      aBody._if (aNode.eq (JExpr._null ()))._then ()._return (JExpr.lit (0L));
+      final JVar aRet = aBody.decl (cm.LONG, "ret", JExpr.lit (0L));
+      final JVar aType = aBody.decl (JMod.FINAL, cm.SHORT, "nType", aNode.invoke ("getNodeType"));
+      final JConditional aIf = aBody._if (aType.eq (jNode.staticRef ("ELEMENT_NODE")));
+      {
+        // <name></name> plus a namespace declaration
+        final JBlock aThen = aIf._then ();
+        aThen.assign (aRet,
+                      JExpr.lit (2L)
+                           .mul (fPrefixSize.plus (JExpr.invoke (mText).arg (aNode.invoke ("getNodeName"))))
+                           .plus (JExpr.lit (5))
+                           .plus (JExpr.lit (10))
+                           .plus (fPrefixSize)
+                           .plus (JExpr.invoke (mText).arg (aNode.invoke ("getNamespaceURI"))));
+        // name="value" plus a namespace declaration
+        final JVar aAttrs = aThen.decl (JMod.FINAL, cm.ref (NamedNodeMap.class), "aAttrs", aNode.invoke ("getAttributes"));
+        final JForLoop aFor = aThen._for ();
+        final JVar aIndex = aFor.init (cm.INT, "i", JExpr.lit (0));
+        aFor.test (aIndex.lt (aAttrs.invoke ("getLength")));
+        aFor.update (aIndex.incr ());
+        final JVar aAttr = aFor.body ().decl (JMod.FINAL, jNode, "aAttr", aAttrs.invoke ("item").arg (aIndex));
+        aFor.body ()
+            .assignPlus (aRet,
+                         JExpr.lit (4)
+                              .plus (fPrefixSize)
+                              .plus (JExpr.invoke (mText).arg (aAttr.invoke ("getNodeName")))
+                              .plus (JExpr.invoke (mText).arg (aAttr.invoke ("getNodeValue")))
+                              .plus (JExpr.lit (10))
+                              .plus (fPrefixSize)
+                              .plus (JExpr.invoke (mText).arg (aAttr.invoke ("getNamespaceURI"))));
+      }
+      final JConditional aIfText = aIf._elseif (aType.eq (jNode.staticRef ("TEXT_NODE"))
+                                                     .cor (aType.eq (jNode.staticRef ("CDATA_SECTION_NODE"))));
+      aIfText._then ().assign (aRet, JExpr.invoke (mText).arg (aNode.invoke ("getNodeValue")));
+      // Comments and processing instructions
+      aIfText._elseif (aType.eq (jNode.staticRef ("COMMENT_NODE"))
+                            .cor (aType.eq (jNode.staticRef ("PROCESSING_INSTRUCTION_NODE"))))
+             ._then ()
+             .assign (aRet,
+                      JExpr.lit (7L)
+                           .plus (JExpr.invoke (mText).arg (aNode.invoke ("getNodeName")))
+                           .plus (JExpr.invoke (mText).arg (aNode.invoke ("getNodeValue"))));
+      final JForLoop aFor = aBody._for ();
+      final JVar aChild = aFor.init (jNode, "aChild", aNode.invoke ("getFirstChild"));
+      aFor.test (aChild.ne (JExpr._null ()));
+      aFor.update (JExpr.assign (aChild, aChild.invoke ("getNextSibling")));
+      aFor.body ().assignPlus (aRet, JExpr.invoke (mNode).arg (aChild));
+      aBody._return (aRet);
+      mNode.javadoc ()
+           .add ("Get the maximum marshalled size of a DOM node and all its children, assuming that each element and\n" +
+                 "attribute requires a namespace declaration.");
+      mNode.javadoc ().addParam (aNode).add ("The node. May be <code>null</code>.");
+      mNode.javadoc ().addReturn ().add ("The maximum size in bytes.");
+    }
+
+    // long getHexBinarySize (Object)
+    {
+      final JMethod m = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.LONG, "getHexBinarySize");
+      final JVar aValue = m.param (JMod.FINAL, jObject, "aValue");
+      final JBlock aBody = m.body ();
+      final JVar aData = aBody.decl (JMod.FINAL,
+                                     jObject,
+                                     "aData",
+                                     JOp.cond (aValue._instanceof (cm.ref (JAXBElement.class)),
+                                               JExpr.cast (cm.ref (JAXBElement.class).narrow (jObject.wildcard ()), aValue)
+                                                    .invoke ("getValue"),
+                                               aValue));
+      aBody._if (aData._instanceof (cm.BYTE.array ()))
+           ._then ()
+           ._return (JExpr.lit (2L).mul (JExpr.cast (cm.BYTE.array (), aData).ref ("length")));
+      aBody._return (JExpr.lit (0L));
+      m.javadoc ().add ("Get the size of binary data encoded as <code>xs:hexBinary</code>.");
+      m.javadoc ().addParam (aValue).add ("The byte array or a JAXBElement containing it. May be <code>null</code>.");
+      m.javadoc ().addReturn ().add ("The size in bytes.");
+    }
+
+    // long getValueSize (Object)
+    final JMethod mValue = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.LONG, "getValueSize");
+    {
+      final JVar aValue = mValue.param (JMod.FINAL, jObject, "aValue");
+      final JBlock aBody = mValue.body ();
+      aBody._if (aValue.eq (JExpr._null ()))._then ()._return (JExpr.lit (0L));
+      aBody._if (aValue._instanceof (jString))
+           ._then ()
+           ._return (JExpr.invoke (mText).arg (JExpr.cast (jString, aValue)));
+      aBody._if (aValue._instanceof (jEstimable))
+           ._then ()
+           ._return (JExpr.cast (jEstimable, aValue).invoke (METHOD_ESTIMATE_XML_CONTENT_SIZE));
+      aBody._if (aValue._instanceof (cm.ref (Boolean.class)))._then ()._return (JExpr.lit (5L));
+      aBody._if (aValue._instanceof (cm.ref (Long.class)))._then ()._return (JExpr.lit (20L));
+      aBody._if (aValue._instanceof (cm.ref (Byte.class))
+                       .cor (aValue._instanceof (cm.ref (Short.class)))
+                       .cor (aValue._instanceof (cm.ref (Integer.class))))
+           ._then ()
+           ._return (JExpr.lit (11L));
+      aBody._if (aValue._instanceof (cm.ref (Float.class)).cor (aValue._instanceof (cm.ref (Double.class))))
+           ._then ()
+           ._return (JExpr.lit (24L));
+      // log10(2) < 1/3
+      aBody._if (aValue._instanceof (cm.ref (BigInteger.class)))
+           ._then ()
+           ._return (JExpr.cast (cm.ref (BigInteger.class), aValue)
+                          .invoke ("bitLength")
+                          .div (JExpr.lit (3))
+                          .plus (JExpr.lit (2)));
+      {
+        // Sign, leading zero and decimal point
+        final JBlock aThen = aBody._if (aValue._instanceof (cm.ref (BigDecimal.class)))._then ();
+        final JVar aBD = aThen.decl (JMod.FINAL, cm.ref (BigDecimal.class), "aBD", JExpr.cast (cm.ref (BigDecimal.class), aValue));
+        aThen._return (aBD.invoke ("precision")
+                          .plus (cm.ref (Math.class).staticInvoke ("abs").arg (aBD.invoke ("scale")))
+                          .plus (JExpr.lit (3)));
+      }
+      // Base64
+      aBody._if (aValue._instanceof (cm.BYTE.array ()))
+           ._then ()
+           ._return (JExpr.cast (cm.BYTE.array (), aValue)
+                          .ref ("length")
+                          .plus (JExpr.lit (2))
+                          .div (JExpr.lit (3))
+                          .mul (JExpr.lit (4)));
+      aBody._if (aValue._instanceof (cm.ref (QName.class)))
+           ._then ()
+           ._return (fPrefixSize.plus (JExpr.invoke (mText)
+                                            .arg (JExpr.cast (cm.ref (QName.class), aValue).invoke ("getLocalPart"))));
+      aBody._if (aValue._instanceof (cm.ref (XMLGregorianCalendar.class))
+                       .cor (aValue._instanceof (cm.ref (Duration.class))))
+           ._then ()
+           ._return (JExpr.lit ((long) DATE_TIME_SIZE));
+      aBody._if (aValue._instanceof (cm.ref (Enum.class)))
+           ._then ()
+           ._return (JExpr.invoke (mText)
+                          .arg (JExpr.cast (cm.ref (Enum.class).narrow (jObject.wildcard ()), aValue).invoke ("name")));
+      aBody._if (aValue._instanceof (jNode))._then ()._return (JExpr.invoke (mNode).arg (JExpr.cast (jNode, aValue)));
+      aBody._return (JExpr.lit ((long) UNKNOWN_VALUE_SIZE));
+      mValue.javadoc ()
+            .add ("Get the maximum marshalled size of a simple value. Binary data is counted as base64 encoded.\n" +
+                  "Objects of unknown types are counted with " +
+                  UNKNOWN_VALUE_SIZE +
+                  " bytes.");
+      mValue.javadoc ().addParam (aValue).add ("The value. May be <code>null</code>.");
+      mValue.javadoc ().addReturn ().add ("The maximum size in bytes.");
+    }
+
+    // long getElementSize (Object, long)
+    {
+      final JMethod m = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.LONG, "getElementSize");
+      final JVar aValue = m.param (JMod.FINAL, jObject, "aValue");
+      final JVar aTagSize = m.param (JMod.FINAL, cm.LONG, "nTagSize");
+      final JBlock aBody = m.body ();
+      aBody._if (aValue.eq (JExpr._null ()))._then ()._return (JExpr.lit (0L));
+      {
+        // The element name is only known at runtime
+        final JBlock aThen = aBody._if (aValue._instanceof (cm.ref (JAXBElement.class)))._then ();
+        final JVar aElement = aThen.decl (JMod.FINAL,
+                                          cm.ref (JAXBElement.class).narrow (jObject.wildcard ()),
+                                          "aElement",
+                                          JExpr.cast (cm.ref (JAXBElement.class).narrow (jObject.wildcard ()), aValue));
+        aThen._return (JExpr.lit (2L)
+                            .mul (fPrefixSize.plus (JExpr.invoke (mText)
+                                                         .arg (aElement.invoke ("getName").invoke ("getLocalPart"))))
+                            .plus (JExpr.lit (5))
+                            .plus (fXsiTypeSize)
+                            .plus (JExpr.invoke (mValue).arg (aElement.invoke ("getValue"))));
+      }
+      // Generated objects may be a sub class of the declared type
+      aBody._if (aValue._instanceof (jEstimable))
+           ._then ()
+           ._return (aTagSize.plus (fXsiTypeSize)
+                             .plus (JExpr.cast (jEstimable, aValue).invoke (METHOD_ESTIMATE_XML_CONTENT_SIZE)));
+      aBody._return (aTagSize.plus (JExpr.invoke (mValue).arg (aValue)));
+      m.javadoc ().add ("Get the maximum marshalled size of an element including its tag.");
+      m.javadoc ().addParam (aValue).add ("The element value. May be <code>null</code>.");
+      m.javadoc ().addParam (aTagSize).add ("The maximum size of the start and end tag, if the value is no JAXBElement.");
+      m.javadoc ().addReturn ().add ("The maximum size in bytes.");
+    }
+
+    // long getAttributesSize (Map<QName,String>)
+    {
+      final JClass jMapType = cm.ref (Map.class).narrow (cm.ref (QName.class), jString);
+      final JMethod m = jHelper.method (JMod.PUBLIC | JMod.STATIC, cm.LONG, "getAttributesSize");
+      final JVar aMap = m.param (JMod.FINAL, jMapType, "aMap");
+      final JBlock aBody = m.body ();
+      aBody._if (aMap.eq (JExpr._null ()))._then ()._return (JExpr.lit (0L));
+      final JVar aRet = aBody.decl (cm.LONG, "ret", JExpr.lit (0L));
+      final JForEach aForEach = aBody.forEach (cm.ref (Map.Entry.class).narrow (cm.ref (QName.class), jString),
+                                               "aEntry",
+                                               aMap.invoke ("entrySet"));
+      final JExpression aName = aForEach.var ().invoke ("getKey");
+      // name="value" plus the namespace declaration
+      aForEach.body ()
+              .assignPlus (aRet,
+                           JExpr.lit (4)
+                                .plus (fPrefixSize)
+                                .plus (JExpr.invoke (mText).arg (aName.invoke ("getLocalPart")))
+                                .plus (JExpr.invoke (mText).arg (aForEach.var ().invoke ("getValue")))
+                                .plus (JExpr.lit (10))
+                                .plus (fPrefixSize)
+                                .plus (JExpr.invoke (mText).arg (aName.invoke ("getNamespaceURI"))));
+      aBody._return (aRet);
+      m.javadoc ().add ("Get the maximum marshalled size of foreign attributes.");
+      m.javadoc ().addParam (aMap).add ("The attribute map. May be <code>null</code>.");
+      m.javadoc ().addReturn ().add ("The maximum size in bytes.");
+    }
+    return jEstimable;
+  }
+
+  /**
+   * The information about how to marshal a single property.
+   */
+  private static final class PropertyLayout
+  {
+    /** The size of the tag or attribute name per item */
+    private final int m_nItemSize;
+    /** The size of the attribute name of a list attribute, that is written once */
+    private final int m_nWrapperSize;
+    /** <code>true</code> if the items are written as elements */
+    private final boolean m_bElement;
+    /** <code>true</code> if all items of the list are written space separated */
+    private final boolean m_bValueList;
+    /** <code>true</code> if the values are encoded as <code>xs:hexBinary</code> */
+    private final boolean m_bHexBinary;
+    /** The size of an element with <code>xsi:nil</code> for a null value, or 0 */
+    private int m_nNilSize;
+
+    PropertyLayout (final int nItemSize,
+                    final int nWrapperSize,
+                    final boolean bElement,
+                    final boolean bValueList,
+                    final boolean bHexBinary)
+    {
+      m_nItemSize = nItemSize;
+      m_nWrapperSize = nWrapperSize;
+      m_bElement = bElement;
+      m_bValueList = bValueList;
+      m_bHexBinary = bHexBinary;
+    }
+  }
+
+  private static boolean _isHexBinary (@NonNull final CPropertyInfo aPI)
+  {
+    final CAdapter aAdapter = aPI.getAdapter ();
+    return aAdapter != null && aAdapter.adapterType.fullName ().equals (HexBinaryAdapter.class.getName ());
+  }
+
+  @Nullable
+  private PropertyLayout _getLayout (@NonNull final CPropertyInfo aPI,
+                                     @NonNull final ICommonsSet <String> aNamespaces,
+                                     final int nXsiTypeSize)
+  {
+    final boolean bHexBinary = _isHexBinary (aPI);
+    if (aPI instanceof final CAttributePropertyInfo aAttrPI)
+    {
+      final QName aName = aAttrPI.getXmlName ();
+      aNamespaces.add (aName.getNamespaceURI ());
+      // name=""
+      final int nAttrSize = 1 + _getNameSize (aName) + 3;
+      if (aPI.isCollection ())
+      {
+        // A single attribute with all values
+        return new PropertyLayout (0, nAttrSize, false, true, bHexBinary);
+      }
+      return new PropertyLayout (nAttrSize, 0, false, false, bHexBinary);
+    }
+    if (aPI instanceof CValuePropertyInfo)
+      return new PropertyLayout (0, 0, false, aPI.isCollection (), bHexBinary);
+    if (aPI instanceof final CElementPropertyInfo aElementPI)
+    {
+      int nMaxTagSize = 0;
+      boolean bNillable = false;
+      for (final CTypeRef aTypeRef : aElementPI.getTypes ())
+      {
+        aNamespaces.add (aTypeRef.getTagName ().getNamespaceURI ());
+        nMaxTagSize = Math.max (nMaxTagSize, _getTagSize (aTypeRef.getTagName ()));
+        bNillable |= aTypeRef.isNillable ();
+      }
+      // XJC creates no element wrappers
+      final PropertyLayout ret;
+      if (aElementPI.isValueList ())
+      {
+        // A single element with all values
+        ret = new PropertyLayout (0, nMaxTagSize, false, true, bHexBinary);
+      }
+      else
+        ret = new PropertyLayout (nMaxTagSize, 0, true, false, bHexBinary);
+      // <name xsi:nil="true"></name>
+      if (bNillable)
+        ret.m_nNilSize = nMaxTagSize + nXsiTypeSize;
+      return ret;
+    }
+    if (aPI instanceof final CReferencePropertyInfo aRefPI)
+    {
+      int nMaxTagSize = 0;
+      for (final CElement aElement : aRefPI.getElements ())
+      {
+        aNamespaces.add (aElement.getElementName ().getNamespaceURI ());
+        nMaxTagSize = Math.max (nMaxTagSize, _getTagSize (aElement.getElementName ()));
+      }
+      // Wildcard content is handled by the runtime code
+      return new PropertyLayout (nMaxTagSize, 0, true, false, bHexBinary);
+    }
+    return null;
+  }
+
+  private static int _getPrimitiveSize (@NonNull final JType aType)
+  {
+    switch (aType.name ())
+    {
+      case "boolean":
+        return 5;
+      case "byte":
+      case "short":
+      case "int":
+        return 11;
+      case "long":
+        return 20;
+      case "char":
+        return 6;
+      // float and double
+    }
+    return 24;
+  }
+
+  /**
+   * Get the expression for the size of a single non-null item.
+   */
+  @NonNull
+  private JExpression _getItemSize (@NonNull final JClass jHelper,
+                                    @NonNull final JExpression aItem,
+                                    @NonNull final JType aItemType,
+                                    @NonNull final PropertyLayout aLayout,
+                                    @NonNull final ICommonsSet <JDefinedClass> aGeneratedClasses,
+                                    @NonNull final ICommonsSet <JDefinedClass> aPolymorphicClasses,
+                                    @NonNull final ICommonsMap <JDefinedClass, Integer> aEnumSizes,
+                                    final int nXsiTypeSize)
+  {
+    // Space separated lists
+    final int nItemSize = aLayout.m_bValueList ? aLayout.m_nItemSize + 1 : aLayout.m_nItemSize;
+    if (aLayout.m_bHexBinary)
+    {
+      final JExpression aHexSize = jHelper.staticInvoke ("getHexBinarySize").arg (aItem);
+      if (aItemType.equals (aItemType.owner ().BYTE.array ()))
+        return JExpr.lit ((long) nItemSize).plus (aHexSize);
+      // Other types are counted as base64 as well
+      final PropertyLayout aBase64Layout = new PropertyLayout (aLayout.m_nItemSize,
+                                                               aLayout.m_nWrapperSize,
+                                                               aLayout.m_bElement,
+                                                               aLayout.m_bValueList,
+                                                               false);
+      return _getItemSize (jHelper,
+                           aItem,
+                           aItemType,
+                           aBase64Layout,
+                           aGeneratedClasses,
+                           aPolymorphicClasses,
+                           aEnumSizes,
+                           nXsiTypeSize).plus (aHexSize);
+    }
+    if (aItemType instanceof final JDefinedClass jdItemType)
+    {
+      if (aGeneratedClasses.contains (jdItemType))
+      {
+        final int nSize = aPolymorphicClasses.contains (jdItemType) ? nItemSize + nXsiTypeSize : nItemSize;
+        return JExpr.lit ((long) nSize).plus (aItem.invoke (METHOD_ESTIMATE_XML_CONTENT_SIZE));
+      }
+      final Integer aEnumSize = aEnumSizes.get (jdItemType);
+      if (aEnumSize != null)
+        return JExpr.lit ((long) nItemSize + aEnumSize.intValue ());
+    }
+    if (aLayout.m_bElement)
+      return jHelper.staticInvoke ("getElementSize").arg (aItem).arg (JExpr.lit ((long) nItemSize));
+    return JExpr.lit ((long) nItemSize).plus (jHelper.staticInvoke ("getValueSize").arg (aItem));
+  }
+
+  @Override
+  protected boolean runPlugin (@NonNull final Outline aOutline,
+                               @NonNull final Options aOpts,
+                               @NonNull final ErrorHandler aErrorHandler)
+  {
+    logInfo ("Running JAXB plugin -" + getOptionName ());
+
+    final JCodeModel aCodeModel = aOutline.getCodeModel ();
+    final ICommonsSet <JDefinedClass> aGeneratedClasses = new CommonsHashSet <> ();
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+      aGeneratedClasses.add (aClassOutline.implClass);
+    if (aGeneratedClasses.isEmpty ())
+      return true;
+
+    // All classes, that may be replaced by a sub class (requiring xsi:type)
+    final ICommonsSet <JDefinedClass> aPolymorphicClasses = new CommonsHashSet <> ();
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+    {
+      ClassOutline aSuper = aClassOutline.getSuperClass ();
+      while (aSuper != null)
+      {
+        aPolymorphicClasses.add (aSuper.implClass);
+        aSuper = aSuper.getSuperClass ();
+      }
+    }
+
+    // The maximum lexical size of all enums
+    final ICommonsMap <JDefinedClass, Integer> aEnumSizes = new CommonsHashMap <> ();
+    for (final EnumOutline aEnumOutline : aOutline.getEnums ())
+    {
+      int nMax = 0;
+      for (final CEnumConstant aConstant : aEnumOutline.target.members)
+        nMax = Math.max (nMax, _getTextSize (aConstant.getLexicalValue ()));
+      aEnumSizes.put (aEnumOutline.clazz, Integer.valueOf (nMax));
+    }
+
+    // Collect all namespaces, sorted for a stable output
+    final ICommonsSortedSet <String> aNamespaces = new CommonsTreeSet <> ();
+    aNamespaces.add (XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI);
+    int nMaxTypeNameSize = 0;
+    int nMaxRootTagSize = 0;
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+    {
+      final CClassInfo aClassInfo = aClassOutline.target;
+      if (aClassInfo.getTypeName () != null)
+      {
+        aNamespaces.add (aClassInfo.getTypeName ().getNamespaceURI ());
+        nMaxTypeNameSize = Math.max (nMaxTypeNameSize, _getNameSize (aClassInfo.getTypeName ()));
+      }
+      if (aClassInfo.isElement ())
+        nMaxRootTagSize = Math.max (nMaxRootTagSize, _getTagSize (aClassInfo.getElementName ()));
+    }
+    for (final CElementInfo aElementInfo : aOutline.getModel ().getAllElements ())
+      nMaxRootTagSize = Math.max (nMaxRootTagSize, _getTagSize (aElementInfo.getElementName ()));
+
+    // xsi:type="prefix:name" or xsi:nil="true"
+    final int nXsiTypeSize = 1 + m_nPrefixLength + 1 + 4 + 2 + Math.max (nMaxTypeNameSize, 4) + 1;
+
+    // Collect the property layouts
+    final ICommonsMap <CPropertyInfo, PropertyLayout> aLayouts = new CommonsHashMap <> ();
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+      for (final CPropertyInfo aPI : aClassOutline.target.getProperties ())
+      {
+        final PropertyLayout aLayout = _getLayout (aPI, aNamespaces, nXsiTypeSize);
+        if (aLayout != null)
+          aLayouts.put (aPI, aLayout);
+      }
+    long nDocumentSize = XML_DECLARATION_SIZE + nMaxRootTagSize + nXsiTypeSize;
+    for (final String sNamespaceURI : aNamespaces)
+      if (!sNamespaceURI.isEmpty ())
+        nDocumentSize += _getNamespaceDeclarationSize (sNamespaceURI);
+
+    // One helper class for all packages
+    final JDefinedClass jEstimable = _createHelperClass (aOutline.getClasses ().iterator ().next ().implClass._package (),
+                                                         nDocumentSize,
+                                                         nXsiTypeSize);
+    final JClass jHelper = jEstimable.outer ();
+
+    for (final ClassOutline aClassOutline : aOutline.getClasses ())
+    {
+      final JDefinedClass jClass = aClassOutline.implClass;
+      final boolean bHasSuper = jClass._extends () instanceof final JDefinedClass jdSuper &&
+                                aGeneratedClasses.contains (jdSuper);
+
+      // long estimateXmlContentSize ()
+      final JMethod mContent = jClass.method (JMod.PUBLIC, aCodeModel.LONG, METHOD_ESTIMATE_XML_CONTENT_SIZE);
+      mContent.annotate (Override.class);
+      final JBlock aBody = mContent.body ();
+      final JVar aRet = aBody.decl (aCodeModel.LONG,
+                                    "ret",
+                                    bHasSuper ? JExpr._super ().invoke (METHOD_ESTIMATE_XML_CONTENT_SIZE)
+                                              : JExpr.lit (0L));
+      for (final CPropertyInfo aPI : aClassOutline.target.getProperties ())
+      {
+        final PropertyLayout aLayout = aLayouts.get (aPI);
+        final JFieldVar aField = jClass.fields ().get (aPI.getName (false));
+        if (aLayout == null || aField == null)
+        {
+          logWarn ("Ignoring property '" + aPI.getName (false) + "' of " + jClass.fullName ());
+          continue;
+        }
+
+        final JType aFieldType = aField.type ();
+        final JExpression aFieldRef = JExpr._this ().ref (aField);
+        if (aFieldType.isPrimitive ())
+        {
+          // Always written
+          aBody.assignPlus (aRet, JExpr.lit ((long) aLayout.m_nItemSize + _getPrimitiveSize (aFieldType)));
+          continue;
+        }
+
+        final JConditional aIfPresent = aBody._if (aFieldRef.ne (JExpr._null ()));
+        final JBlock aPresent = aIfPresent._then ();
+        if (aLayout.m_nWrapperSize > 0)
+          aPresent.assignPlus (aRet, JExpr.lit ((long) aLayout.m_nWrapperSize));
+        if (aFieldType.erasure ().name ().equals ("List"))
+        {
+          final JClass jItemType = ((JClass) aFieldType).getTypeParameters ().get (0);
+          final JType aUnboxedItemType = jItemType.unboxify ();
+          if (aUnboxedItemType.isPrimitive () && aLayout.m_nNilSize == 0)
+          {
+            // All items have the same maximum size - this also avoids boxing
+            // the values of primitive lists
+            final int nItemSize = aLayout.m_bValueList ? aLayout.m_nItemSize + 1 : aLayout.m_nItemSize;
+            aPresent.assignPlus (aRet,
+                                 JExpr.lit ((long) nItemSize + _getPrimitiveSize (aUnboxedItemType))
+                                      .mul (aFieldRef.invoke ("size")));
+            continue;
+          }
+          final JForEach aForEach = aPresent.forEach (jItemType, "aItem", aFieldRef);
+          final JConditional aIfItem = aForEach.body ()._if (aForEach.var ().ne (JExpr._null ()));
+          if (aLayout.m_nNilSize > 0)
+            aIfItem._else ().assignPlus (aRet, JExpr.lit ((long) aLayout.m_nNilSize));
+          aIfItem._then ()
+                 .assignPlus (aRet,
+                              _getItemSize (jHelper,
+                                            aForEach.var (),
+                                            jItemType,
+                                            aLayout,
+                                            aGeneratedClasses,
+                                            aPolymorphicClasses,
+                                            aEnumSizes,
+                                            nXsiTypeSize));
+        }
+        else
+        {
+          aPresent.assignPlus (aRet,
+                               _getItemSize (jHelper,
+                                             aFieldRef,
+                                             aFieldType,
+                                             aLayout,
+                                             aGeneratedClasses,
+                                             aPolymorphicClasses,
+                                             aEnumSizes,
+                                             nXsiTypeSize));
+          if (aLayout.m_nNilSize > 0)
+            aIfPresent._else ().assignPlus (aRet, JExpr.lit ((long) aLayout.m_nNilSize));
+        }
+      }
+
+      // xs:anyAttribute
+      for (final JFieldVar aField : jClass.fields ().values ())
+        if (PluginLazyOtherAttributes.isOtherAttributesField (aField))
+          aBody.assignPlus (aRet, jHelper.staticInvoke ("getAttributesSize").arg (JExpr._this ().ref (aField)));
+
+      aBody._return (aRet);
+      getJavadoc (mContent).add ("Get the maximum marshalled size of the attributes and the content of this object, without\n" +
+                                 "the element tag.");
+      getJavadoc (mContent).addReturn ().add ("The maximum size in bytes.");
+      getJavadoc (mContent).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+
+      if (!bHasSuper)
+      {
+        jClass._implements (jEstimable);
+
+        // long estimateXmlSize ()
+        final JMethod mSize = jClass.method (JMod.PUBLIC, aCodeModel.LONG, METHOD_ESTIMATE_XML_SIZE);
+        mSize.body ()._return (jHelper.staticRef ("DOCUMENT_SIZE").plus (JExpr.invoke (mContent)));
+        getJavadoc (mSize).add ("Get an upper bound of the UTF-8 encoded size, if this object is marshalled as a document\n" +
+                                "without formatting, e.g. to presize the output buffer.");
+        getJavadoc (mSize).addReturn ().add ("The maximum size in bytes.");
+        getJavadoc (mSize).add ("Created by " + CJAXB.PLUGIN_NAME + " -" + OPT);
+      }
+
+      // General information
+      getJavadoc (jClass).add ("<p>This class contains methods created by " + CJAXB.PLUGIN_NAME + " -" + OPT + "</p>\n");
+    }
+    return true;
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin.cm;
+
+import java.util.List;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonempty;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JExpressionImpl;
+import com.sun.codemodel.JFormatter;
+
+/**
+ * A chain of conditional and operations without nested parenthesis, one operand per line.
+ *
+ * @author Philip Helger
+ * @since 5.1.3
+ */
+public class MyConditionalAndOp extends JExpressionImpl
+{
+  private final List <JExpression> m_aOperands;
+
+  protected MyConditionalAndOp (@NonNull @Nonempty final List <JExpression> aOperands)
+  {
+    m_aOperands = aOperands;
+  }
+
+  public void generate (final JFormatter f)
+  {
+    boolean bFirst = true;
+    for (final JExpression aOperand : m_aOperands)
+    {
+      if (bFirst)
+        bFirst = false;
+      else
+        f.nl ().p ("&&");
+      f.g (aOperand);
+    }
+  }
+
+  @NonNull
+  public static JExpression cand (@NonNull final List <JExpression> aOperands)
+  {
+    if (aOperands.size () == 1)
+      return aOperands.get (0);
+    return new MyConditionalAndOp (aOperands);
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin.cm;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.jspecify.annotations.NonNull;
+
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JFormatter;
+import com.sun.codemodel.JPackage;
+import com.sun.codemodel.JTypeVar;
+
+/**
+ * A lower bounded wildcard type like <code>? super T</code>, which is not supported by the JAXB
+ * code model.
+ *
+ * @author Philip Helger
+ * @since 5.1.3
+ */
+public class MySuperWildcard extends JClass
+{
+  private final JClass m_aBound;
+
+  protected MySuperWildcard (@NonNull final JClass aBound)
+  {
+    super (aBound.owner ());
+    m_aBound = aBound;
+  }
+
+  @Override
+  public String name ()
+  {
+    return "? super " + m_aBound.name ();
+  }
+
+  @Override
+  public String fullName ()
+  {
+    return "? super " + m_aBound.fullName ();
+  }
+
+  @Override
+  public JPackage _package ()
+  {
+    return null;
+  }
+
+  @Override
+  public JClass _extends ()
+  {
+    return owner ().ref (Object.class);
+  }
+
+  @Override
+  public Iterator <JClass> _implements ()
+  {
+    return m_aBound._implements ();
+  }
+
+  @Override
+  public boolean isInterface ()
+  {
+    return false;
+  }
+
+  @Override
+  public boolean isAbstract ()
+  {
+    return false;
+  }
+
+  @Override
+  protected JClass substituteParams (final JTypeVar [] aVariables, final List <JClass> aBindings)
+  {
+    // Only used with concrete bounds
+    return this;
+  }
+
+  @Override
+  public void generate (final JFormatter f)
+  {
+    f.p ("? super").g (m_aBound);
+  }
+
+  /**
+   * Create a new lower bounded wildcard.
+   *
+   * @param aBound
+   *        The lower bound. May not be <code>null</code>.
+   * @return <code>? super aBound</code>
+   */
+  @NonNull
+  public static JClass superOf (@NonNull final JClass aBound)
+  {
+    return new MySuperWildcard (aBound);
+  }
+}
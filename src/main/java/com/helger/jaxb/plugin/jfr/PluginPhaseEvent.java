@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin.jfr;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for an expensive phase inside a plugin. The event is disabled by
+ * default and must be enabled in the recording settings (<code>.jfc</code> file) with the event
+ * name <code>com.helger.jaxb.plugin.PluginPhase</code>.
+ *
+ * @author Philip Helger
+ * @since 5.1.3
+ */
+@Name (PluginPhaseEvent.NAME)
+@Label ("JAXB Plugin Phase")
+@Description ("Expensive phase inside an XJC plugin of ph-jaxb-plugin")
+@Category ({ "ph-jaxb-plugin" })
+@Enabled (false)
+@StackTrace (false)
+public final class PluginPhaseEvent extends jdk.jfr.Event
+{
+  public static final String NAME = "com.helger.jaxb.plugin.PluginPhase";
+
+  /** Scan of the class hierarchies for <code>value</code> fields */
+  public static final String PHASE_VALUE_FIELD_SCAN = "value-field-scan";
+  /** Creation of the bean validation annotations from the XSD facets */
+  public static final String PHASE_FACETS = "facets";
+  /** Loading a class via reflection */
+  public static final String PHASE_CLASS_LOAD = "class-load";
+
+  @Label ("Plugin")
+  @Description ("The XJC option name of the plugin")
+  String plugin;
+
+  @Label ("Phase")
+  String phase;
+
+  @Label ("Subject")
+  @Description ("The item handled in the phase, e.g. a class name")
+  String subject;
+
+  @Label ("Count")
+  @Description ("The number of classes or properties handled in the phase")
+  int count;
+
+  /**
+   * End the event and commit it, if it is enabled.
+   *
+   * @param sPlugin
+   *        The XJC option name of the plugin. May not be <code>null</code>.
+   * @param sPhase
+   *        The phase name. May not be <code>null</code>.
+   * @param sSubject
+   *        The handled item. May be <code>null</code>.
+   * @param nCount
+   *        The number of classes or properties handled.
+   */
+  public void commitPhase (@NonNull final String sPlugin,
+                           @NonNull final String sPhase,
+                           @Nullable final String sSubject,
+                           final int nCount)
+  {
+    end ();
+    if (shouldCommit ())
+    {
+      plugin = sPlugin;
+      phase = sPhase;
+      subject = sSubject;
+      count = nCount;
+      commit ();
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin.jfr;
+
+import org.jspecify.annotations.NonNull;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for the execution of a single plugin. The event is disabled by
+ * default and must be enabled in the recording settings (<code>.jfc</code> file) with the event
+ * name <code>com.helger.jaxb.plugin.PluginRun</code>.
+ *
+ * @author Philip Helger
+ * @since 5.1.3
+ */
+@Name (PluginRunEvent.NAME)
+@Label ("JAXB Plugin Run")
+@Description ("Execution of an XJC plugin of ph-jaxb-plugin")
+@Category ({ "ph-jaxb-plugin" })
+@Enabled (false)
+@StackTrace (false)
+public final class PluginRunEvent extends jdk.jfr.Event
+{
+  public static final String NAME = "com.helger.jaxb.plugin.PluginRun";
+
+  @Label ("Plugin")
+  @Description ("The XJC option name of the plugin")
+  String plugin;
+
+  @Label ("Class Count")
+  @Description ("The number of classes in the outline")
+  int classCount;
+
+  /**
+   * End the event and commit it, if it is enabled.
+   *
+   * @param sPlugin
+   *        The XJC option name of the plugin. May not be <code>null</code>.
+   * @param nClassCount
+   *        The number of classes in the outline.
+   */
+  public void commitRun (@NonNull final String sPlugin, final int nClassCount)
+  {
+    end ();
+    if (shouldCommit ())
+    {
+      plugin = sPlugin;
+      classCount = nClassCount;
+      commit ();
+    }
+  }
+}
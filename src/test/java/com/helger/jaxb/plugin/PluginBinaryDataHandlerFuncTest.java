@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.helger.base.reflection.GenericReflection;
+import com.helger.io.file.SimpleFileIO;
+import com.helger.jaxb.plugin.supplementary.XJCTestHelper;
+
+import jakarta.activation.DataHandler;
+import jakarta.activation.FileDataSource;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBIntrospector;
+import jakarta.xml.bind.Unmarshaller;
+import jakarta.xml.bind.attachment.AttachmentUnmarshaller;
+
+/**
+ * Test class for class {@link PluginBinaryDataHandler}.
+ *
+ * @author Philip Helger
+ */
+public final class PluginBinaryDataHandlerFuncTest
+{
+  private static void _runXJC (final File aDestDir, final File aLogFile) throws Exception
+  {
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/binary.xsd"),
+                                        aDestDir,
+                                        aLogFile,
+                                        "-" + PluginBinaryDataHandler.OPT,
+                                        "-" + PluginBinaryDataHandler.OPT + PluginBinaryDataHandler.OPT_SUFFIX_THRESHOLD,
+                                        "4",
+                                        "-" + PluginEqualsHashCode.OPT,
+                                        "-" + PluginCloneable.OPT));
+  }
+
+  @Test
+  public void testBinary () throws Exception
+  {
+    final File aDestDir = new File ("target/binary-datahandler");
+    _runXJC (aDestDir, new File ("target/binary-datahandler-result.txt"));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+
+    final String sBinaryObject = SimpleFileIO.getFileAsString (new File (aDestDir, "test/binary/BinaryObjectType.java"),
+                                                               StandardCharsets.UTF_8);
+    assertTrue (sBinaryObject.contains ("protected DataHandler value;"));
+
+    final String sAttachment = SimpleFileIO.getFileAsString (new File (aDestDir, "test/binary/AttachmentType.java"),
+                                                             StandardCharsets.UTF_8);
+    assertTrue (sAttachment.contains ("protected List<DataHandler> thumbnail;"));
+    assertTrue (sAttachment.contains ("protected DataHandler signature;"));
+    // hexBinary uses an adapter and is not modified
+    assertTrue (sAttachment.contains ("protected byte[] checksum;"));
+    assertFalse (sAttachment.contains ("ArrayHelper.getCopy(signature)"));
+    assertTrue (sAttachment.contains ("this.signature = SpilledDataSource.spill(this.signature);"));
+    assertTrue (sAttachment.contains ("SpilledDataSource.spillAll(this.thumbnail);"));
+    assertTrue (sAttachment.contains ("JAXBPluginHelper.equalDataHandlers(signature, rhs.signature)"));
+    assertTrue (sAttachment.contains ("JAXBPluginHelper.equalDataHandlerLists(thumbnail, rhs.thumbnail)"));
+
+    final String sDataSource = SimpleFileIO.getFileAsString (new File (aDestDir, "test/binary/SpilledDataSource.java"),
+                                                             StandardCharsets.UTF_8);
+    assertTrue (sDataSource.contains ("static final int THRESHOLD = 4;"));
+  }
+
+  private static byte [] _getBytes (final Object aDataHandler) throws IOException
+  {
+    try (final InputStream aIS = ((DataHandler) aDataHandler).getInputStream ())
+    {
+      return aIS.readAllBytes ();
+    }
+  }
+
+  @Test
+  public void testUnmarshal () throws Exception
+  {
+    final File aDestDir = new File ("target/binary-datahandler-unmarshal");
+    _runXJC (aDestDir, new File ("target/binary-datahandler-unmarshal-result.txt"));
+
+    final ClassLoader aCL = XJCTestHelper.compileAndLoad (aDestDir);
+    final JAXBContext aCtx = JAXBContext.newInstance ("test.binary", aCL);
+    final String sXML = "<Attachment xmlns='urn:test:binary' signature='AQID'>" +
+                        "<EmbeddedDocument mimeCode='text/plain'>SGVsbG8=</EmbeddedDocument>" +
+                        "<Thumbnail>AAE=</Thumbnail>" +
+                        "<Checksum>0A0B</Checksum>" +
+                        "</Attachment>";
+
+    // Inline base64 content
+    final Object aAttachment = JAXBIntrospector.getValue (aCtx.createUnmarshaller ().unmarshal (new StringReader (sXML)));
+    assertArrayEquals (new byte [] { 1, 2, 3 }, _getBytes (XJCTestHelper.invoke (aAttachment, "getSignature")));
+    final Object aEmbedded = XJCTestHelper.invoke (aAttachment, "getEmbeddedDocument");
+    assertEquals ("text/plain", XJCTestHelper.invoke (aEmbedded, "getMimeCode"));
+    assertArrayEquals ("Hello".getBytes (StandardCharsets.US_ASCII), _getBytes (XJCTestHelper.invoke (aEmbedded, "getValue")));
+    final List <Object> aThumbnails = GenericReflection.uncheckedCast (XJCTestHelper.invoke (aAttachment, "getThumbnail"));
+    assertEquals (1, aThumbnails.size ());
+    assertArrayEquals (new byte [] { 0, 1 }, _getBytes (aThumbnails.get (0)));
+    assertArrayEquals (new byte [] { 10, 11 }, (byte []) XJCTestHelper.invoke (aAttachment, "getChecksum"));
+
+    // Content above the threshold is moved to a file
+    assertEquals ("ByteArrayDataSource",
+                  ((DataHandler) XJCTestHelper.invoke (aAttachment, "getSignature")).getDataSource ()
+                                                                                  .getClass ()
+                                                                                  .getSimpleName ());
+    final DataHandler aSpilled = (DataHandler) XJCTestHelper.invoke (aEmbedded, "getValue");
+    assertEquals ("SpilledDataSource", aSpilled.getDataSource ().getClass ().getSimpleName ());
+    assertEquals ("application/octet-stream", aSpilled.getContentType ());
+
+    // The binary content is compared, and the DataHandler is shared by clone
+    final Object aClone = XJCTestHelper.invoke (aAttachment, "clone");
+    assertEquals (aAttachment, aClone);
+    assertSame (XJCTestHelper.invoke (aAttachment, "getSignature"), XJCTestHelper.invoke (aClone, "getSignature"));
+    final Object aAttachment2 = JAXBIntrospector.getValue (aCtx.createUnmarshaller ().unmarshal (new StringReader (sXML)));
+    assertNotSame (XJCTestHelper.invoke (aEmbedded, "getValue"),
+                   XJCTestHelper.invoke (XJCTestHelper.invoke (aAttachment2, "getEmbeddedDocument"), "getValue"));
+    assertEquals (aAttachment, aAttachment2);
+    assertEquals (aAttachment.hashCode (), aAttachment2.hashCode ());
+    // Same size, different content
+    final Object aAttachment3 = JAXBIntrospector.getValue (aCtx.createUnmarshaller ()
+                                                               .unmarshal (new StringReader (sXML.replace ("SGVsbG8=",
+                                                                                                           "SGVsbGE="))));
+    assertNotEquals (aAttachment, aAttachment3);
+    final Object aAttachment4 = JAXBIntrospector.getValue (aCtx.createUnmarshaller ()
+                                                               .unmarshal (new StringReader (sXML.replace ("AAE=",
+                                                                                                           "AAI="))));
+    assertNotEquals (aAttachment, aAttachment4);
+
+    // Attachments are used as they are
+    final File aThumbnailFile = new File (aDestDir, "thumbnail.bin");
+    assertTrue (SimpleFileIO.writeFile (aThumbnailFile, new byte [] { 5 }).isSuccess ());
+    final DataHandler aDH = new DataHandler (new FileDataSource (aThumbnailFile));
+    final Unmarshaller aUnmarshaller = aCtx.createUnmarshaller ();
+    aUnmarshaller.setAttachmentUnmarshaller (new AttachmentUnmarshaller ()
+    {
+      @Override
+      public boolean isXOPPackage ()
+      {
+        return true;
+      }
+
+      @Override
+      public DataHandler getAttachmentAsDataHandler (final String sCid)
+      {
+        assertEquals ("cid:thumb", sCid);
+        return aDH;
+      }
+
+      @Override
+      public byte [] getAttachmentAsByteArray (final String sCid)
+      {
+        throw new UnsupportedOperationException ();
+      }
+    });
+    final Object aXOP = JAXBIntrospector.getValue (aUnmarshaller.unmarshal (new StringReader ("<Attachment xmlns='urn:test:binary'>" +
+                                                                                             "<Thumbnail><xop:Include xmlns:xop='http://www.w3.org/2004/08/xop/include' href='cid:thumb'/></Thumbnail>" +
+                                                                                             "</Attachment>")));
+    final List <Object> aXOPThumbnails = GenericReflection.uncheckedCast (XJCTestHelper.invoke (aXOP, "getThumbnail"));
+    assertEquals (1, aXOPThumbnails.size ());
+    assertSame (aDH, aXOPThumbnails.get (0));
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+
+import com.helger.io.file.SimpleFileIO;
+import com.helger.jaxb.plugin.supplementary.XJCTestHelper;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.Unmarshaller;
+
+/**
+ * Test class for class {@link PluginCardinalityProfiler}.
+ *
+ * @author Philip Helger
+ */
+public final class PluginCardinalityProfilerFuncTest
+{
+  private static void _runXJC (@NonNull final File aDestDir, @NonNull final File aLogFile) throws Exception
+  {
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/cardinality-profiler.xsd"),
+                                        aDestDir,
+                                        aLogFile,
+                                        "-" + PluginCardinalityProfiler.OPT,
+                                        "-" + PluginCompact.OPT,
+                                        "-" + PluginCompact.OPT + PluginCompact.OPT_SUFFIX_AFTER_UNMARSHAL));
+  }
+
+  @Test
+  public void testCardinalityProfiler () throws Exception
+  {
+    final File aDestDir = new File ("target/cardinality-profiler");
+    _runXJC (aDestDir, new File ("target/cardinality-profiler-result.txt"));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+
+    final String sProfiler = SimpleFileIO.getFileAsString (new File (aDestDir,
+                                                                     "test/cardinalityprofiler/" +
+                                                                               PluginCardinalityProfiler.CLASS_NAME +
+                                                                               ".java"),
+                                                           StandardCharsets.UTF_8);
+    assertTrue (sProfiler.contains ("public final class " + PluginCardinalityProfiler.CLASS_NAME));
+    assertTrue (sProfiler.contains ("public interface ICollector"));
+    assertTrue (sProfiler.contains ("public static final class Statistics"));
+    assertTrue (sProfiler.contains ("LongAdder"));
+    assertTrue (sProfiler.contains ("public String getReport()"));
+
+    final String sOrder = SimpleFileIO.getFileAsString (new File (aDestDir, "test/cardinalityprofiler/OrderType.java"),
+                                                        StandardCharsets.UTF_8);
+    assertTrue (sOrder.contains ("public void afterUnmarshal("));
+    assertTrue (sOrder.contains ("aCollector.onInstance(getClass())"));
+    assertTrue (sOrder.contains ("aCollector.onList(OrderType.class, \"Note\""));
+    assertTrue (sOrder.contains ("aCollector.onList(OrderType.class, \"Line\""));
+    // Single values are not profiled
+    assertFalse (sOrder.contains ("OrderType.class, \"ID\""));
+
+    // Instances are only counted in the super class
+    final String sSpecial = SimpleFileIO.getFileAsString (new File (aDestDir,
+                                                                    "test/cardinalityprofiler/SpecialOrderType.java"),
+                                                          StandardCharsets.UTF_8);
+    assertTrue (sSpecial.contains ("super.afterUnmarshal("));
+    assertFalse (sSpecial.contains ("onInstance"));
+    assertTrue (sSpecial.contains ("aCollector.onList(SpecialOrderType.class, \"Reason\""));
+  }
+
+  @Test
+  public void testCollect () throws Exception
+  {
+    final File aDestDir = new File ("target/cardinality-profiler-collect");
+    _runXJC (aDestDir, new File ("target/cardinality-profiler-collect-result.txt"));
+
+    final ClassLoader aCL = XJCTestHelper.compileAndLoad (aDestDir);
+    final Class <?> aProfilerClass = aCL.loadClass ("test.cardinalityprofiler." + PluginCardinalityProfiler.CLASS_NAME);
+    final Class <?> aOrderClass = aCL.loadClass ("test.cardinalityprofiler.OrderType");
+    final Class <?> aSpecialOrderClass = aCL.loadClass ("test.cardinalityprofiler.SpecialOrderType");
+    final Class <?> aLineClass = aCL.loadClass ("test.cardinalityprofiler.LineType");
+    final JAXBContext aCtx = JAXBContext.newInstance ("test.cardinalityprofiler", aCL);
+
+    // Nothing is collected without a collector
+    aCtx.createUnmarshaller ().unmarshal (new StringReader ("<Order xmlns='urn:test:cardinalityprofiler'><ID>0</ID></Order>"));
+
+    final Object aStatistics = aCL.loadClass ("test.cardinalityprofiler." +
+                                              PluginCardinalityProfiler.CLASS_NAME +
+                                              "$Statistics")
+                                  .getConstructor ()
+                                  .newInstance ();
+    XJCTestHelper.invoke (aProfilerClass, "setCollector", aStatistics);
+    try
+    {
+      final Unmarshaller aUnmarshaller = aCtx.createUnmarshaller ();
+      aUnmarshaller.unmarshal (new StringReader ("<Order xmlns='urn:test:cardinalityprofiler'>" +
+                                                 "<ID>1</ID>" +
+                                                 "<Note>a</Note><Note>b</Note>" +
+                                                 "<Line><Amount>1</Amount></Line>" +
+                                                 "<Line><Amount>2</Amount></Line>" +
+                                                 "<Line><Amount>3</Amount></Line>" +
+                                                 "</Order>"));
+      aUnmarshaller.unmarshal (new StringReader ("<Order xmlns='urn:test:cardinalityprofiler'" +
+                                                 " xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance' xsi:type='SpecialOrderType'>" +
+                                                 "<ID>2</ID>" +
+                                                 "<Line><Amount>4</Amount></Line>" +
+                                                 "<Reason>r1</Reason><Reason>r2</Reason><Reason>r3</Reason><Reason>r4</Reason><Reason>r5</Reason>" +
+                                                 "</Order>"));
+    }
+    finally
+    {
+      XJCTestHelper.invoke (aProfilerClass, "setCollector", (Object) null);
+    }
+
+    // Instances are counted per concrete class
+    assertEquals (Long.valueOf (1), XJCTestHelper.invoke (aStatistics, "getInstanceCount", aOrderClass));
+    assertEquals (Long.valueOf (1), XJCTestHelper.invoke (aStatistics, "getInstanceCount", aSpecialOrderClass));
+    assertEquals (Long.valueOf (4), XJCTestHelper.invoke (aStatistics, "getInstanceCount", aLineClass));
+
+    // Buckets: 0, 1, 2-3, 4-7, ...
+    final long [] aNotes = (long []) XJCTestHelper.invoke (aStatistics, "getListSizeHistogram", aOrderClass, "Note");
+    assertEquals (12, aNotes.length);
+    assertArrayEquals (new long [] { 1, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0 }, aNotes);
+    assertArrayEquals (new long [] { 0, 1, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0 },
+                       (long []) XJCTestHelper.invoke (aStatistics, "getListSizeHistogram", aOrderClass, "Line"));
+    assertArrayEquals (new long [] { 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0 },
+                       (long []) XJCTestHelper.invoke (aStatistics, "getListSizeHistogram", aSpecialOrderClass, "Reason"));
+    assertArrayEquals (new long [12], (long []) XJCTestHelper.invoke (aStatistics, "getListSizeHistogram", aOrderClass, "ID"));
+
+    assertEquals ("test.cardinalityprofiler.LineType instances=4\n" +
+                  "test.cardinalityprofiler.OrderType instances=1\n" +
+                  "test.cardinalityprofiler.OrderType#Line count=2 total=4 size1=1 size2-3=1\n" +
+                  "test.cardinalityprofiler.OrderType#Note count=2 total=2 size0=1 size2-3=1\n" +
+                  "test.cardinalityprofiler.SpecialOrderType instances=1\n" +
+                  "test.cardinalityprofiler.SpecialOrderType#Reason count=1 total=5 size4-7=1",
+                  XJCTestHelper.invoke (aStatistics, "getReport"));
+
+    XJCTestHelper.invoke (aStatistics, "reset");
+    assertEquals ("", XJCTestHelper.invoke (aStatistics, "getReport"));
+  }
+}
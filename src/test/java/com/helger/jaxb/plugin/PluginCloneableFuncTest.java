@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.util.List;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+
+import com.helger.base.reflection.GenericReflection;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.jaxb.plugin.supplementary.XJCTestHelper;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBIntrospector;
+
+/**
+ * Test class for class {@link PluginCloneable}.
+ *
+ * @author Philip Helger
+ */
+public final class PluginCloneableFuncTest
+{
+  private static final String SPEC_CLASS = "test.clonespec.CloneSpec";
+  private static final String XML = "<Node xmlns='urn:test:clonespec'>" +
+                                    "<Name>root</Name>" +
+                                    "<Data>AQID</Data>" +
+                                    "<Child><Name>c1</Name><Child><Name>c2</Name></Child></Child>" +
+                                    "<Item><Name>i1</Name><Item><Name>i2</Name></Item></Item>" +
+                                    "<Tag>a</Tag>" +
+                                    "<Tag>b</Tag>" +
+                                    "</Node>";
+
+  @NonNull
+  private static ClassLoader _runXJC (@NonNull final String sDirName, @NonNull final String... aExtraArgs) throws Exception
+  {
+    final File aDestDir = new File ("target/" + sDirName);
+    final ICommonsList <String> aArgs = new CommonsArrayList <> ("-" + PluginEqualsHashCode.OPT,
+                                                                 "-" + PluginCloneable.OPT,
+                                                                 "-" + PluginCloneable.OPT + AbstractPluginCloneable.OPT_SUFFIX_SPEC,
+                                                                 SPEC_CLASS);
+    aArgs.addAll (aExtraArgs);
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/clone-spec.xsd"),
+                                        aDestDir,
+                                        new File ("target/" + sDirName + "-result.txt"),
+                                        aArgs.toArray (new String [0])));
+    return XJCTestHelper.compileAndLoad (aDestDir);
+  }
+
+  @NonNull
+  private static Object _unmarshal (@NonNull final ClassLoader aCL) throws Exception
+  {
+    final JAXBContext aCtx = JAXBContext.newInstance ("test.clonespec", aCL);
+    return JAXBIntrospector.getValue (aCtx.createUnmarshaller ().unmarshal (new StringReader (XML)));
+  }
+
+  @NonNull
+  private static Object _createSpec (@NonNull final ClassLoader aCL) throws Exception
+  {
+    return aCL.loadClass (SPEC_CLASS).getConstructor ().newInstance ();
+  }
+
+  @NonNull
+  private static List <Object> _getList (@NonNull final Object aNode, @NonNull final String sGetter) throws Exception
+  {
+    return GenericReflection.uncheckedCast (XJCTestHelper.invoke (aNode, sGetter));
+  }
+
+  @Test
+  public void testSpec () throws Exception
+  {
+    final ClassLoader aCL = _runXJC ("cloneable-spec");
+    final Object aNode = _unmarshal (aCL);
+
+    // The regular clone is still a complete deep copy
+    final Object aFullClone = XJCTestHelper.invoke (aNode, "clone");
+    assertEquals (aNode, aFullClone);
+    assertNotSame (XJCTestHelper.invoke (aNode, "getChild"), XJCTestHelper.invoke (aFullClone, "getChild"));
+
+    Object aSpec = _createSpec (aCL);
+    XJCTestHelper.invoke (aSpec, "exclude", "Data");
+    XJCTestHelper.invoke (aSpec, "share", "Child");
+    XJCTestHelper.invoke (aSpec, "maxDepth", Integer.valueOf (1));
+
+    Object aClone = XJCTestHelper.invoke (aNode, "clone", aSpec);
+    assertEquals ("root", XJCTestHelper.invoke (aClone, "getName"));
+    // Excluded
+    assertNull (XJCTestHelper.invoke (aClone, "getData"));
+    // Shared
+    assertSame (XJCTestHelper.invoke (aNode, "getChild"), XJCTestHelper.invoke (aClone, "getChild"));
+    // Items on depth 1 are copied, their items on depth 2 are not
+    final List <Object> aItems = _getList (aClone, "getItem");
+    assertEquals (1, aItems.size ());
+    final Object aItem = aItems.get (0);
+    assertNotSame (_getList (aNode, "getItem").get (0), aItem);
+    assertEquals ("i1", XJCTestHelper.invoke (aItem, "getName"));
+    assertEquals (0, _getList (aItem, "getItem").size ());
+    // Lists of non-generated types are always copied
+    assertEquals (_getList (aNode, "getTag"), _getList (aClone, "getTag"));
+    assertNotSame (_getList (aNode, "getTag"), _getList (aClone, "getTag"));
+
+    // Only the depth is limited
+    aSpec = _createSpec (aCL);
+    XJCTestHelper.invoke (aSpec, "maxDepth", Integer.valueOf (1));
+    aClone = XJCTestHelper.invoke (aNode, "clone", aSpec);
+    assertArrayEquals (new byte [] { 1, 2, 3 }, (byte []) XJCTestHelper.invoke (aClone, "getData"));
+    final Object aChild = XJCTestHelper.invoke (aClone, "getChild");
+    assertNotNull (aChild);
+    assertNotSame (XJCTestHelper.invoke (aNode, "getChild"), aChild);
+    assertEquals ("c1", XJCTestHelper.invoke (aChild, "getName"));
+    assertNull (XJCTestHelper.invoke (aChild, "getChild"));
+
+    // Nothing nested
+    aSpec = _createSpec (aCL);
+    XJCTestHelper.invoke (aSpec, "maxDepth", Integer.valueOf (0));
+    aClone = XJCTestHelper.invoke (aNode, "clone", aSpec);
+    assertEquals ("root", XJCTestHelper.invoke (aClone, "getName"));
+    assertNull (XJCTestHelper.invoke (aClone, "getChild"));
+    // The lazy getter creates a new empty list for the null field
+    assertEquals (0, _getList (aClone, "getItem").size ());
+    assertEquals (2, _getList (aClone, "getTag").size ());
+
+    // Unlimited
+    aClone = XJCTestHelper.invoke (aNode, "clone", _createSpec (aCL));
+    assertEquals (aNode, aClone);
+  }
+
+  @NonNull
+  private static Object _getDataField (@NonNull final Object aNode) throws Exception
+  {
+    final Field aField = aNode.getClass ().getDeclaredField ("data");
+    aField.setAccessible (true);
+    return aField.get (aNode);
+  }
+
+  @Test
+  public void testShareBinary () throws Exception
+  {
+    final ClassLoader aCL = _runXJC ("cloneable-share-binary",
+                                     "-" + PluginCloneable.OPT + AbstractPluginCloneable.OPT_SUFFIX_SHARE_BINARY);
+    final Object aNode = _unmarshal (aCL);
+    final Object aData = _getDataField (aNode);
+
+    // The array is shared by all clone methods until it is read
+    final Object aClone = XJCTestHelper.invoke (aNode, "clone");
+    assertEquals (aNode, aClone);
+    assertSame (aData, _getDataField (aClone));
+    final Object aPartialClone = XJCTestHelper.invoke (aNode, "clone", _createSpec (aCL));
+    assertSame (aData, _getDataField (aPartialClone));
+
+    // The getter copies on the first invocation only
+    final byte [] aCloneData = (byte []) XJCTestHelper.invoke (aClone, "getData");
+    assertNotSame (aData, aCloneData);
+    assertSame (aCloneData, XJCTestHelper.invoke (aClone, "getData"));
+    aCloneData[0] = 9;
+    assertArrayEquals (new byte [] { 1, 2, 3 }, (byte []) XJCTestHelper.invoke (aNode, "getData"));
+    assertArrayEquals (new byte [] { 1, 2, 3 }, (byte []) XJCTestHelper.invoke (aPartialClone, "getData"));
+
+    // The original copies as well
+    final byte [] aNodeData = (byte []) XJCTestHelper.invoke (aNode, "getData");
+    assertNotSame (aData, aNodeData);
+    aNodeData[1] = 8;
+    assertArrayEquals (new byte [] { 9, 2, 3 }, (byte []) XJCTestHelper.invoke (aClone, "getData"));
+
+    // The setter removes the mark
+    final Object aClone2 = XJCTestHelper.invoke (aNode, "clone");
+    final byte [] aNewData = { 4, 5 };
+    XJCTestHelper.invoke (aClone2, "setData", (Object) aNewData);
+    assertSame (aNewData, XJCTestHelper.invoke (aClone2, "getData"));
+
+    // Without the option the array is copied
+    final Object aNodeCopied = _unmarshal (_runXJC ("cloneable-copy-binary"));
+    final Object aCloneCopied = XJCTestHelper.invoke (aNodeCopied, "clone");
+    assertNotSame (XJCTestHelper.invoke (aNodeCopied, "getData"), XJCTestHelper.invoke (aCloneCopied, "getData"));
+    assertArrayEquals ((byte []) XJCTestHelper.invoke (aNodeCopied, "getData"),
+                       (byte []) XJCTestHelper.invoke (aCloneCopied, "getData"));
+  }
+}
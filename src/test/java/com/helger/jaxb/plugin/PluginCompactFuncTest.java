@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.junit.Test;
+
+import com.helger.base.reflection.GenericReflection;
+import com.helger.io.file.SimpleFileIO;
+import com.helger.jaxb.plugin.supplementary.XJCTestHelper;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBIntrospector;
+
+/**
+ * Test class for class {@link PluginCompact}.
+ *
+ * @author Philip Helger
+ */
+public final class PluginCompactFuncTest
+{
+  @Test
+  public void testCompact () throws Exception
+  {
+    final File aDestDir = new File ("target/compact");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/list-extension.xsd"),
+                                        aDestDir,
+                                        new File ("target/compact-result.txt"),
+                                        "-" + PluginCompact.OPT,
+                                        "-" + PluginCompact.OPT + PluginCompact.OPT_SUFFIX_AFTER_UNMARSHAL));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+
+    final String sDocument = SimpleFileIO.getFileAsString (new File (aDestDir, "test/list/DocumentType.java"),
+                                                           StandardCharsets.UTF_8);
+    assertTrue (sDocument.contains ("public void compact()"));
+    assertTrue (sDocument.contains ("aItem.compact();"));
+    assertTrue (sDocument.contains ("public void afterUnmarshal("));
+  }
+
+  @Test
+  public void testCompactPrimitiveList () throws Exception
+  {
+    final File aDestDir = new File ("target/compact-primitive-list");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/list-extension.xsd"),
+                                        aDestDir,
+                                        new File ("target/compact-primitive-list-result.txt"),
+                                        "-" + PluginPrimitiveList.OPT,
+                                        "-" + PluginCompact.OPT));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+
+    final String sMeasurement = SimpleFileIO.getFileAsString (new File (aDestDir, "test/list/MeasurementType.java"),
+                                                              StandardCharsets.UTF_8);
+    // Primitive lists are trimmed in place
+    assertTrue (sMeasurement.contains ("((IntArrayList) this.samples).trimToSize();"));
+  }
+
+  @Nullable
+  private static Object _getField (@NonNull final Object aObj, @NonNull final String sFieldName) throws Exception
+  {
+    final Field aField = aObj.getClass ().getDeclaredField (sFieldName);
+    aField.setAccessible (true);
+    return aField.get (aObj);
+  }
+
+  /**
+   * @return The capacity of the provided primitive list
+   */
+  private static int _getCapacity (@NonNull final Object aPrimitiveList) throws Exception
+  {
+    return ((int []) _getField (aPrimitiveList, "data")).length;
+  }
+
+  @NonNull
+  private static List <Object> _getList (@NonNull final Object aObj, @NonNull final String sGetter) throws Exception
+  {
+    return GenericReflection.uncheckedCast (XJCTestHelper.invoke (aObj, sGetter));
+  }
+
+  @Test
+  public void testRuntime () throws Exception
+  {
+    final File aDestDir = new File ("target/compact-runtime");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/list-extension.xsd"),
+                                        aDestDir,
+                                        new File ("target/compact-runtime-result.txt"),
+                                        "-" + PluginPrimitiveList.OPT,
+                                        "-" + PluginCompact.OPT,
+                                        "-" + PluginCompact.OPT + PluginCompact.OPT_SUFFIX_AFTER_UNMARSHAL));
+    final ClassLoader aCL = XJCTestHelper.compileAndLoad (aDestDir);
+
+    final Object aDoc = aCL.loadClass ("test.list.DocumentType").getConstructor ().newInstance ();
+    final Object aMeasurement = aCL.loadClass ("test.list.MeasurementType").getConstructor ().newInstance ();
+    // The getters create empty lists
+    assertTrue (_getList (aDoc, "getLine").isEmpty ());
+    assertTrue (_getList (aDoc, "getReference").isEmpty ());
+    assertTrue (_getList (aMeasurement, "getUnit").isEmpty ());
+    final List <Object> aSamples = _getList (aMeasurement, "getSamples");
+    aSamples.addAll (Arrays.asList (Integer.valueOf (1), Integer.valueOf (2), Integer.valueOf (3)));
+    assertTrue (_getCapacity (aSamples) > 3);
+    _getList (aDoc, "getMeasurement").add (aMeasurement);
+
+    XJCTestHelper.invoke (aDoc, PluginCompact.METHOD_COMPACT);
+
+    // Empty lists are removed
+    assertNull (_getField (aDoc, "line"));
+    assertNull (_getField (aDoc, "reference"));
+    // Nested objects are compacted
+    assertNotNull (_getField (aDoc, "measurement"));
+    assertNull (_getField (aMeasurement, "unit"));
+    // Non-empty lists are trimmed
+    assertEquals (3, _getCapacity (_getField (aMeasurement, "samples")));
+    assertEquals (Arrays.asList (Integer.valueOf (1), Integer.valueOf (2), Integer.valueOf (3)),
+                  _getList (aMeasurement, "getSamples"));
+    // The getters recreate the lists
+    assertTrue (_getList (aDoc, "getLine").isEmpty ());
+    assertNotNull (_getField (aDoc, "line"));
+
+    // Compacted after unmarshalling
+    final JAXBContext aCtx = JAXBContext.newInstance ("test.list", aCL);
+    final Object aRead = JAXBIntrospector.getValue (aCtx.createUnmarshaller ()
+                                                        .unmarshal (new StringReader ("<Document xmlns='urn:test:list'>" +
+                                                                                      "<ID>doc</ID>" +
+                                                                                      "<Line><ID>1</ID></Line>" +
+                                                                                      "<Measurement><Samples>1 2 3 4 5</Samples><Value>1</Value></Measurement>" +
+                                                                                      "</Document>")));
+    final Object aReadMeasurement = _getList (aRead, "getMeasurement").get (0);
+    assertEquals (5, _getCapacity (_getField (aReadMeasurement, "samples")));
+    assertNull (_getField (aReadMeasurement, "unit"));
+    assertEquals (1, _getList (aRead, "getLine").size ());
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+
+import com.helger.io.file.SimpleFileIO;
+import com.helger.jaxb.plugin.supplementary.XJCTestHelper;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBIntrospector;
+
+/**
+ * Test class for class {@link PluginCostReport}.
+ *
+ * @author Philip Helger
+ */
+public final class PluginCostReportFuncTest
+{
+  private static void _runXJC (@NonNull final File aDestDir, @NonNull final File aLogFile) throws Exception
+  {
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/cost-report.xsd"),
+                                        aDestDir,
+                                        aLogFile,
+                                        "-" + PluginCostReport.OPT));
+  }
+
+  @Test
+  public void testCostReport () throws Exception
+  {
+    final File aDestDir = new File ("target/cost-report");
+    _runXJC (aDestDir, new File ("target/cost-report-result.txt"));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+
+    final String sCSV = SimpleFileIO.getFileAsString (new File (aDestDir, PluginCostReport.FILENAME_CSV),
+                                                      StandardCharsets.UTF_8);
+    assertEquals ("class,hierarchyDepth,fields,shallowSize,shallowSizeUncompressed,boxedFields,boxedBytes,listFields,anyFields,directFanOut,reachableFanOut\n" +
+                  "test.costreport.ContainerType,0,2,24,32,0,0,0,1,1,1\n" +
+                  "test.costreport.NodeType,0,5,32,56,1,24,1,1,0,0\n" +
+                  "test.costreport.SpecialContainerType,1,3,24,40,0,0,0,1,1,1\n",
+                  sCSV);
+
+    final String sJSON = SimpleFileIO.getFileAsString (new File (aDestDir, PluginCostReport.FILENAME_JSON),
+                                                       StandardCharsets.UTF_8);
+    assertTrue (sJSON.startsWith ("[\n"));
+    assertTrue (sJSON.contains ("{\"class\":\"test.costreport.NodeType\",\"hierarchyDepth\":0,\"fields\":5,\"shallowSize\":32,"));
+    assertTrue (sJSON.endsWith ("}\n]\n"));
+  }
+
+  @Test
+  public void testMatchesCompiledClasses () throws Exception
+  {
+    final File aDestDir = new File ("target/cost-report-compiled");
+    _runXJC (aDestDir, new File ("target/cost-report-compiled-result.txt"));
+
+    final ClassLoader aCL = XJCTestHelper.compileAndLoad (aDestDir);
+    final List <String> aLines = SimpleFileIO.getAllFileLines (new File (aDestDir, PluginCostReport.FILENAME_CSV),
+                                                               StandardCharsets.UTF_8);
+    assertEquals (4, aLines.size ());
+    for (final String sLine : aLines.subList (1, aLines.size ()))
+    {
+      final String [] aCells = sLine.split (",");
+      final Class <?> aClass = aCL.loadClass (aCells[0]);
+
+      // Count the instance fields of the compiled class and its generated super classes
+      int nHierarchyDepth = -1;
+      int nFields = 0;
+      int nBoxedFields = 0;
+      int nListFields = 0;
+      for (Class <?> aCur = aClass; aCur != Object.class; aCur = aCur.getSuperclass ())
+      {
+        nHierarchyDepth++;
+        for (final Field aField : aCur.getDeclaredFields ())
+          if (!Modifier.isStatic (aField.getModifiers ()))
+          {
+            nFields++;
+            if (aField.getType () == Long.class || aField.getType () == Integer.class)
+              nBoxedFields++;
+            if (List.class.isAssignableFrom (aField.getType ()))
+              nListFields++;
+          }
+      }
+      assertEquals (sLine, Integer.toString (nHierarchyDepth), aCells[1]);
+      assertEquals (sLine, Integer.toString (nFields), aCells[2]);
+      assertEquals (sLine, Integer.toString (nBoxedFields), aCells[5]);
+      assertEquals (sLine, Integer.toString (nListFields), aCells[7]);
+    }
+
+    // The reported model can be unmarshalled including the wildcards
+    final JAXBContext aCtx = JAXBContext.newInstance ("test.costreport", aCL);
+    final Object aContainer = JAXBIntrospector.getValue (aCtx.createUnmarshaller ()
+                                                             .unmarshal (new StringReader ("<Container xmlns='urn:test:costreport' xmlns:o='urn:other'>" +
+                                                                                           "<Node o:attr='x'><Name>n</Name><Count>1</Count><Weight>2</Weight>" +
+                                                                                           "<Child><Name>c</Name><Count>3</Count></Child>" +
+                                                                                           "</Node>" +
+                                                                                           "<o:Extension/>" +
+                                                                                           "</Container>")));
+    final Object aNode = XJCTestHelper.invoke (aContainer, "getNode");
+    assertEquals (Long.valueOf (2), XJCTestHelper.invoke (aNode, "getWeight"));
+    assertEquals (1, ((List <?>) XJCTestHelper.invoke (aNode, "getChild")).size ());
+    assertEquals (1, ((Map <?, ?>) XJCTestHelper.invoke (aNode, "getOtherAttributes")).size ());
+    assertNotNull (XJCTestHelper.invoke (aContainer, "getAny"));
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.io.file.SimpleFileIO;
+import com.helger.jaxb.plugin.supplementary.XJCTestHelper;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBIntrospector;
+
+/**
+ * Test class for class {@link PluginDeepSize}.
+ *
+ * @author Philip Helger
+ */
+public final class PluginDeepSizeFuncTest
+{
+  private static final String XML = "<Document xmlns='urn:test:deepsize' xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance'>" +
+                                    "<ID>D1</ID>" +
+                                    "<Count>1</Count>" +
+                                    "<Status>open</Status>" +
+                                    "<Header><Note>abc</Note></Header>" +
+                                    "<Line><Note>x</Note></Line>" +
+                                    "<Line xsi:type='ExtendedHeaderType'><Amount>1.5</Amount></Line>" +
+                                    "<Data>AQID</Data>" +
+                                    "<Value>1</Value><Value>2</Value><Value>3</Value>" +
+                                    "<State>open</State><State>closed</State>" +
+                                    "</Document>";
+
+  @NonNull
+  private static File _runXJC (@NonNull final String sDirName, @NonNull final String... aExtraArgs) throws Exception
+  {
+    final File aDestDir = new File ("target/" + sDirName);
+    final ICommonsList <String> aArgs = new CommonsArrayList <> (aExtraArgs);
+    aArgs.add ("-" + PluginDeepSize.OPT);
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/deep-size.xsd"),
+                                        aDestDir,
+                                        new File ("target/" + sDirName + "-result.txt"),
+                                        aArgs.toArray (new String [0])));
+    return aDestDir;
+  }
+
+  private static long _getDeepSize (@NonNull final File aDestDir) throws Exception
+  {
+    final ClassLoader aCL = XJCTestHelper.compileAndLoad (aDestDir);
+    final JAXBContext aCtx = JAXBContext.newInstance ("test.deepsize", aCL);
+    final Object aDocument = JAXBIntrospector.getValue (aCtx.createUnmarshaller ().unmarshal (new StringReader (XML)));
+    return ((Long) XJCTestHelper.invoke (aDocument, PluginDeepSize.METHOD_ESTIMATE_DEEP_SIZE)).longValue ();
+  }
+
+  @Test
+  public void testDeepSize () throws Exception
+  {
+    final File aDestDir = _runXJC ("deep-size");
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+
+    final String sHelper = SimpleFileIO.getFileAsString (new File (aDestDir,
+                                                                   "test/deepsize/" + PluginDeepSize.CLASS_NAME + ".java"),
+                                                         StandardCharsets.UTF_8);
+    assertTrue (sHelper.contains ("public final class " + PluginDeepSize.CLASS_NAME));
+    assertTrue (sHelper.contains ("public interface IEstimable"));
+    assertTrue (sHelper.contains ("public static long getValueSize("));
+
+    // 7 references and an int with compressed oops: 12 + 8 * 4 = 44 -> 48
+    final String sDocument = SimpleFileIO.getFileAsString (new File (aDestDir, "test/deepsize/DocumentType.java"),
+                                                           StandardCharsets.UTF_8);
+    assertTrue (sDocument.contains ("IEstimable"));
+    assertTrue (sDocument.contains ("public long estimateDeepSize()"));
+    assertTrue (sDocument.contains ("48L"));
+    assertTrue (sDocument.contains (PluginDeepSize.CLASS_NAME + ".getStringSize(this.id)"));
+    assertTrue (sDocument.contains (PluginDeepSize.CLASS_NAME + ".getListSize(this.line)"));
+    assertTrue (sDocument.contains (PluginDeepSize.CLASS_NAME + ".getValueSize(this.data)"));
+    assertTrue (sDocument.contains ("this.header.estimateDeepSize()"));
+    // Enum constants are shared
+    assertFalse (sDocument.contains ("(this.status)"));
+
+    final String sHeader = SimpleFileIO.getFileAsString (new File (aDestDir, "test/deepsize/HeaderType.java"),
+                                                         StandardCharsets.UTF_8);
+    assertTrue (sHeader.contains ("16L"));
+
+    final String sExtended = SimpleFileIO.getFileAsString (new File (aDestDir, "test/deepsize/ExtendedHeaderType.java"),
+                                                           StandardCharsets.UTF_8);
+    assertTrue (sExtended.contains ("24L"));
+    assertTrue (sExtended.contains ("super.estimateReferencedSize()"));
+    assertTrue (sExtended.contains (PluginDeepSize.CLASS_NAME + ".getValueSize(this.amount)"));
+  }
+
+  @Test
+  public void testKnownTree () throws Exception
+  {
+    // Document: 48
+    // ID "D1": 24 + align (16 + 2) = 48
+    // Header: 16 + note "abc" 48 = 64
+    // Line: list 24 + align (16 + 2 * 4) = 48, plus 16 + note "x" 48 = 64, plus extended 24 + BigDecimal
+    // 40 = 64
+    // Data: align (16 + 3) = 24
+    // Value: list 24 + align (16 + 3 * 4) = 56, plus 3 Integer 48 = 104
+    // State: list 24 + align (16 + 2 * 4) = 48, enum constants are shared
+    assertEquals (48 + 48 + 64 + 176 + 24 + 104 + 48, _getDeepSize (_runXJC ("deep-size-tree")));
+
+    // Value: list 24 + align (16 + 3 * 4) = 56
+    assertEquals (48 + 48 + 64 + 176 + 24 + 56 + 48,
+                  _getDeepSize (_runXJC ("deep-size-tree-primitive", "-" + PluginPrimitiveList.OPT)));
+
+    // State: list 32 + own constants array align (16 + 2 * 4) = 24, plus ordinals align (16 + 2) = 24
+    assertEquals (48 + 48 + 64 + 176 + 24 + 56 + 80,
+                  _getDeepSize (_runXJC ("deep-size-tree-primitive-enums",
+                                         "-" + PluginPrimitiveList.OPT,
+                                         "-" + PluginPrimitiveList.OPT + PluginPrimitiveList.OPT_SUFFIX_ENUMS)));
+  }
+}
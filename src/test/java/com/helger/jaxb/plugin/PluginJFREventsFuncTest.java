@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.helger.base.reflection.GenericReflection;
+import com.helger.io.file.SimpleFileIO;
+import com.helger.jaxb.plugin.supplementary.XJCTestHelper;
+
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Test class for class {@link PluginJFREvents}.
+ *
+ * @author Philip Helger
+ */
+public final class PluginJFREventsFuncTest
+{
+  @Test
+  public void testJFREvents () throws Exception
+  {
+    final File aDestDir = new File ("target/jfr-events");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/jfr-events.xsd"),
+                                        aDestDir,
+                                        new File ("target/jfr-events-result.txt"),
+                                        "-" + PluginEqualsHashCode.OPT,
+                                        "-" + PluginCloneable.OPT,
+                                        "-" + PluginJFREvents.OPT,
+                                        "-" + PluginJFREvents.OPT + PluginJFREvents.OPT_SUFFIX_THRESHOLD,
+                                        "50"));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+
+    final String sEvent = SimpleFileIO.getFileAsString (new File (aDestDir,
+                                                                  "test/jfrevents/" + PluginJFREvents.CLASS_NAME + ".java"),
+                                                        StandardCharsets.UTF_8);
+    assertTrue (sEvent.contains ("public final class " + PluginJFREvents.CLASS_NAME));
+    assertTrue (sEvent.contains ("@Threshold(\"50 ms\")"));
+    assertTrue (sEvent.contains ("isEnabled()"));
+    assertTrue (sEvent.contains ("ThreadLocal<int[]>"));
+
+    final String sBase = SimpleFileIO.getFileAsString (new File (aDestDir, "test/jfrevents/BaseType.java"),
+                                                       StandardCharsets.UTF_8);
+    assertTrue (sBase.contains ("private boolean equalsUnrecorded(final Object o)"));
+    assertTrue (sBase.contains ("private int hashCodeUnrecorded()"));
+    assertTrue (sBase.contains ("private BaseType cloneUnrecorded()"));
+    assertTrue (sBase.contains (PluginJFREvents.CLASS_NAME + ".start()"));
+    assertTrue (sBase.contains ("aEvent.finish(getClass().getName(), \"equals\")"));
+
+    // Super class invocations must use the public methods
+    final String sDerived = SimpleFileIO.getFileAsString (new File (aDestDir, "test/jfrevents/DerivedType.java"),
+                                                          StandardCharsets.UTF_8);
+    assertTrue (sDerived.contains ("super.equals(o)"));
+    assertTrue (sDerived.contains ("super.hashCode()"));
+    assertFalse (sDerived.contains ("super.equalsUnrecorded"));
+
+    // Pure delegation to the super class is not recorded
+    final String sEmptyDerived = SimpleFileIO.getFileAsString (new File (aDestDir,
+                                                                         "test/jfrevents/EmptyDerivedType.java"),
+                                                               StandardCharsets.UTF_8);
+    assertFalse (sEmptyDerived.contains ("equalsUnrecorded"));
+    assertTrue (sEmptyDerived.contains ("cloneUnrecorded"));
+  }
+
+  @Test
+  public void testWithoutPlugin () throws Exception
+  {
+    final File aDestDir = new File ("target/jfr-events-none");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/jfr-events.xsd"),
+                                        aDestDir,
+                                        new File ("target/jfr-events-none-result.txt"),
+                                        "-" + PluginEqualsHashCode.OPT,
+                                        "-" + PluginCloneable.OPT));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+
+    assertFalse (new File (aDestDir, "test/jfrevents/" + PluginJFREvents.CLASS_NAME + ".java").exists ());
+    final String sBase = SimpleFileIO.getFileAsString (new File (aDestDir, "test/jfrevents/BaseType.java"),
+                                                       StandardCharsets.UTF_8);
+    assertFalse (sBase.contains ("Unrecorded"));
+  }
+
+  @Test
+  public void testRecording () throws Exception
+  {
+    final File aDestDir = new File ("target/jfr-events-recording");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/jfr-events.xsd"),
+                                        aDestDir,
+                                        new File ("target/jfr-events-recording-result.txt"),
+                                        "-" + PluginEqualsHashCode.OPT,
+                                        "-" + PluginCloneable.OPT,
+                                        "-" + PluginJFREvents.OPT));
+    final ClassLoader aCL = XJCTestHelper.compileAndLoad (aDestDir);
+    final String sEventClassName = "test.jfrevents." + PluginJFREvents.CLASS_NAME;
+    final Class <? extends Event> aEventClass = GenericReflection.uncheckedCast (aCL.loadClass (sEventClassName));
+
+    // A derived object with two children
+    final Object aDerived = aCL.loadClass ("test.jfrevents.DerivedType").getConstructor ().newInstance ();
+    XJCTestHelper.invoke (aDerived, "setName", "root");
+    final List <Object> aChildren = GenericReflection.uncheckedCast (XJCTestHelper.invoke (aDerived, "getChild"));
+    for (final String sName : new String [] { "a", "b" })
+    {
+      final Object aChild = aCL.loadClass ("test.jfrevents.BaseType").getConstructor ().newInstance ();
+      XJCTestHelper.invoke (aChild, "setName", sName);
+      aChildren.add (aChild);
+    }
+
+    final Path aFile = Files.createTempFile ("jfr-events", ".jfr");
+    try
+    {
+      final Object aClone;
+      try (final Recording aRecording = new Recording ())
+      {
+        aRecording.enable (aEventClass).withThreshold (Duration.ZERO);
+        aRecording.start ();
+        aClone = XJCTestHelper.invoke (aDerived, "clone");
+        aRecording.stop ();
+        aRecording.dump (aFile);
+      }
+      // After the recording was stopped
+      assertEquals (aDerived, aClone);
+
+      final List <RecordedEvent> aEvents = RecordingFile.readAllEvents (aFile)
+                                                        .stream ()
+                                                        .filter (x -> x.getEventType ().getName ().equals (sEventClassName))
+                                                        .toList ();
+      // Only the outermost invocation is committed, the nested ones are counted
+      assertEquals (aEvents.toString (), 1, aEvents.size ());
+      final RecordedEvent aEvent = aEvents.get (0);
+      assertEquals ("test.jfrevents.DerivedType", aEvent.getString ("className"));
+      assertEquals ("clone", aEvent.getString ("operation"));
+      assertEquals (3, aEvent.getInt ("nodeCount"));
+    }
+    finally
+    {
+      Files.delete (aFile);
+    }
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.helger.base.reflection.GenericReflection;
+import com.helger.io.file.SimpleFileIO;
+import com.helger.jaxb.plugin.supplementary.XJCTestHelper;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBIntrospector;
+
+/**
+ * Test class for class {@link PluginLazyList}.
+ *
+ * @author Philip Helger
+ */
+public final class PluginLazyListFuncTest
+{
+  @Test
+  public void testLazyList () throws Exception
+  {
+    final File aDestDir = new File ("target/lazy-list");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/list-extension.xsd"),
+                                        aDestDir,
+                                        new File ("target/lazy-list-result.txt"),
+                                        "-" + PluginLazyList.OPT,
+                                        "-" + PluginListExtension.OPT,
+                                        "-" + PluginEqualsHashCode.OPT,
+                                        "-" + PluginCloneable.OPT));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+
+    assertTrue (new File (aDestDir, "test/list/LazyList.java").exists ());
+    final String sDocument = SimpleFileIO.getFileAsString (new File (aDestDir, "test/list/DocumentType.java"),
+                                                           StandardCharsets.UTF_8);
+    assertTrue (sDocument.contains ("private List<LineType> createLineIfAbsent()"));
+    assertTrue (sDocument.contains ("new LazyList<LineType>()"));
+  }
+
+  @Test
+  public void testRuntime () throws Exception
+  {
+    final File aDestDir = new File ("target/lazy-list-runtime");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/list-extension.xsd"),
+                                        aDestDir,
+                                        new File ("target/lazy-list-runtime-result.txt"),
+                                        "-" + PluginLazyList.OPT,
+                                        "-" + PluginListExtension.OPT));
+    final ClassLoader aCL = XJCTestHelper.compileAndLoad (aDestDir);
+    // The getter returns a view only as long as the field is null
+    final Class <?> aLazyListClass = aCL.loadClass ("test.list.LazyList");
+    final Class <?> aDocClass = aCL.loadClass ("test.list.DocumentType");
+    final Class <?> aLineClass = aCL.loadClass ("test.list.LineType");
+
+    // clear() on an absent list does not create it
+    final Object aDoc = aDocClass.getConstructor ().newInstance ();
+    final List <Object> aView = GenericReflection.uncheckedCast (XJCTestHelper.invoke (aDoc, "getLine"));
+    assertTrue (aLazyListClass.isInstance (aView));
+    assertTrue (aView.isEmpty ());
+    aView.clear ();
+    assertTrue (aLazyListClass.isInstance (XJCTestHelper.invoke (aDoc, "getLine")));
+
+    // Adding via the view materialises the field
+    final Object aLine1 = aLineClass.getConstructor ().newInstance ();
+    assertTrue (aView.add (aLine1));
+    final List <Object> aList = GenericReflection.uncheckedCast (XJCTestHelper.invoke (aDoc, "getLine"));
+    assertFalse (aLazyListClass.isInstance (aList));
+    assertEquals (1, aList.size ());
+    assertSame (aLine1, aList.get (0));
+    assertEquals (Integer.valueOf (1), XJCTestHelper.invoke (aDoc, "getLineCount"));
+
+    // The view sees later writes to the field
+    final Object aDoc2 = aDocClass.getConstructor ().newInstance ();
+    final List <Object> aView2 = GenericReflection.uncheckedCast (XJCTestHelper.invoke (aDoc2, "getLine"));
+    assertTrue (aView2.isEmpty ());
+    XJCTestHelper.invoke (aDoc2, "addLine", aLine1);
+    assertEquals (1, aView2.size ());
+    assertSame (aLine1, aView2.get (0));
+    assertSame (aLine1, aView2.iterator ().next ());
+    // And writes through the view after the field was created
+    final Object aLine2 = aLineClass.getConstructor ().newInstance ();
+    aView2.add (0, aLine2);
+    assertEquals (Integer.valueOf (2), XJCTestHelper.invoke (aDoc2, "getLineCount"));
+    assertSame (aLine2, XJCTestHelper.invoke (aDoc2, "getLineAtIndex", Integer.valueOf (0)));
+    aView2.clear ();
+    assertEquals (Integer.valueOf (0), XJCTestHelper.invoke (aDoc2, "getLineCount"));
+
+    // JAXB writes the fields directly
+    final JAXBContext aCtx = JAXBContext.newInstance ("test.list", aCL);
+    final Object aRead = JAXBIntrospector.getValue (aCtx.createUnmarshaller ()
+                                                        .unmarshal (new StringReader ("<Document xmlns='urn:test:list'>" +
+                                                                                      "<ID>doc</ID>" +
+                                                                                      "<Line><ID>1</ID><Note>a</Note><Note>b</Note></Line>" +
+                                                                                      "<Line><ID>2</ID></Line>" +
+                                                                                      "</Document>")));
+    assertTrue (aDocClass.isInstance (aRead));
+    final List <Object> aReadLines = GenericReflection.uncheckedCast (XJCTestHelper.invoke (aRead, "getLine"));
+    assertFalse (aLazyListClass.isInstance (aReadLines));
+    assertEquals (2, aReadLines.size ());
+    final List <String> aNotes = GenericReflection.uncheckedCast (XJCTestHelper.invoke (aReadLines.get (0), "getNote"));
+    assertEquals (Arrays.asList ("a", "b"), aNotes);
+    // Absent lists stay null
+    assertTrue (aLazyListClass.isInstance (XJCTestHelper.invoke (aReadLines.get (1), "getNote")));
+    assertTrue (aLazyListClass.isInstance (XJCTestHelper.invoke (aRead, "getTaxSubtotal")));
+    assertEquals (Integer.valueOf (0), XJCTestHelper.invoke (aRead, "getReferenceCount"));
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.junit.Test;
+
+import com.helger.base.reflection.GenericReflection;
+import com.helger.io.file.SimpleFileIO;
+import com.helger.jaxb.plugin.supplementary.XJCTestHelper;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBIntrospector;
+
+/**
+ * Test class for class {@link PluginLazyOtherAttributes}.
+ *
+ * @author Philip Helger
+ */
+public final class PluginLazyOtherAttributesFuncTest
+{
+  @Test
+  public void testLazyOtherAttributes () throws Exception
+  {
+    final File aDestDir = new File ("target/lazy-other-attributes");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/other-attributes.xsd"),
+                                        aDestDir,
+                                        new File ("target/lazy-other-attributes-result.txt"),
+                                        "-" + PluginLazyOtherAttributes.OPT,
+                                        "-" + PluginEqualsHashCode.OPT,
+                                        "-" + PluginCloneable.OPT,
+                                        "-" + PluginCompact.OPT));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+
+    for (final String sClassName : new String [] { "ItemType", "NoteType" })
+    {
+      final String sSource = SimpleFileIO.getFileAsString (new File (aDestDir, "test/otherattrs/" + sClassName + ".java"),
+                                                           StandardCharsets.UTF_8);
+      assertTrue (sSource.contains ("private Map<QName, String> otherAttributes;"));
+      assertTrue (sSource.contains ("public boolean hasOtherAttributes()"));
+      assertTrue (sSource.contains ("public String getOtherAttribute(final QName aName)"));
+      assertTrue (sSource.contains ("Objects.requireNonNullElse(otherAttributes, Collections.emptyMap())"));
+      assertTrue (sSource.contains ("public void compact()"));
+    }
+  }
+
+  private static final QName FOREIGN = new QName ("urn:test:foreign", "flag");
+
+  @Nullable
+  private static Object _getOtherAttributesField (@NonNull final Object aObj) throws Exception
+  {
+    final Field aField = aObj.getClass ().getDeclaredField ("otherAttributes");
+    aField.setAccessible (true);
+    return aField.get (aObj);
+  }
+
+  @NonNull
+  private static Object _read (@NonNull final JAXBContext aCtx, @NonNull final String sXML) throws Exception
+  {
+    return JAXBIntrospector.getValue (aCtx.createUnmarshaller ().unmarshal (new StringReader (sXML)));
+  }
+
+  @NonNull
+  private static String _write (@NonNull final JAXBContext aCtx,
+                                @NonNull final ClassLoader aCL,
+                                @NonNull final Object aItem) throws Exception
+  {
+    final Object aElement = XJCTestHelper.invoke (aCL.loadClass ("test.otherattrs.ObjectFactory").getConstructor ().newInstance (),
+                                                  "createItem",
+                                                  aItem);
+    final StringWriter aSW = new StringWriter ();
+    aCtx.createMarshaller ().marshal (aElement, aSW);
+    return aSW.toString ();
+  }
+
+  @Test
+  public void testRuntime () throws Exception
+  {
+    final File aDestDir = new File ("target/lazy-other-attributes-runtime");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/other-attributes.xsd"),
+                                        aDestDir,
+                                        new File ("target/lazy-other-attributes-runtime-result.txt"),
+                                        "-" + PluginLazyOtherAttributes.OPT,
+                                        "-" + PluginEqualsHashCode.OPT,
+                                        "-" + PluginCloneable.OPT));
+    final ClassLoader aCL = XJCTestHelper.compileAndLoad (aDestDir);
+    final JAXBContext aCtx = JAXBContext.newInstance ("test.otherattrs", aCL);
+
+    // Without foreign attributes no map is created
+    final Object aPlain = _read (aCtx, "<Item xmlns='urn:test:otherattrs'><Name>a</Name><Note>n</Note></Item>");
+    assertNull (_getOtherAttributesField (aPlain));
+    assertEquals (Boolean.FALSE, XJCTestHelper.invoke (aPlain, "hasOtherAttributes"));
+    assertNull (XJCTestHelper.invoke (aPlain, "getOtherAttribute", FOREIGN));
+    final List <Object> aPlainNotes = GenericReflection.uncheckedCast (XJCTestHelper.invoke (aPlain, "getNote"));
+    assertNull (_getOtherAttributesField (aPlainNotes.get (0)));
+    final String sPlainXML = _write (aCtx, aCL, aPlain);
+    assertFalse (sPlainXML, sPlainXML.contains ("urn:test:foreign"));
+    // Still no map after writing, cloning and comparing
+    assertNull (_getOtherAttributesField (aPlain));
+    final Object aPlainClone = XJCTestHelper.invoke (aPlain, "clone");
+    assertEquals (aPlain, aPlainClone);
+    assertNull (_getOtherAttributesField (aPlainClone));
+
+    // An empty map equals an absent map
+    final Map <QName, String> aEmpty = GenericReflection.uncheckedCast (XJCTestHelper.invoke (aPlainClone,
+                                                                                              "getOtherAttributes"));
+    assertTrue (aEmpty.isEmpty ());
+    assertNotNull (_getOtherAttributesField (aPlainClone));
+    assertEquals (aPlain, aPlainClone);
+    assertEquals (aPlain.hashCode (), aPlainClone.hashCode ());
+
+    // With foreign attributes
+    final Object aForeign = _read (aCtx,
+                                   "<Item xmlns='urn:test:otherattrs' xmlns:f='urn:test:foreign' f:flag='x'>" +
+                                            "<Name>a</Name>" +
+                                            "<Note f:flag='y'>n</Note>" +
+                                            "</Item>");
+    assertEquals (Boolean.TRUE, XJCTestHelper.invoke (aForeign, "hasOtherAttributes"));
+    assertEquals ("x", XJCTestHelper.invoke (aForeign, "getOtherAttribute", FOREIGN));
+    final List <Object> aForeignNotes = GenericReflection.uncheckedCast (XJCTestHelper.invoke (aForeign, "getNote"));
+    assertEquals ("y", XJCTestHelper.invoke (aForeignNotes.get (0), "getOtherAttribute", FOREIGN));
+    assertFalse (aPlain.equals (aForeign));
+
+    // Written back and read again
+    final String sForeignXML = _write (aCtx, aCL, aForeign);
+    assertTrue (sForeignXML, sForeignXML.contains ("urn:test:foreign"));
+    final Object aForeignRead = _read (aCtx, sForeignXML);
+    assertEquals (aForeign, aForeignRead);
+    assertEquals ("x", XJCTestHelper.invoke (aForeignRead, "getOtherAttribute", FOREIGN));
+
+    // The clone has its own map
+    final Object aForeignClone = XJCTestHelper.invoke (aForeign, "clone");
+    assertEquals (aForeign, aForeignClone);
+    final Map <QName, String> aCloneMap = GenericReflection.uncheckedCast (XJCTestHelper.invoke (aForeignClone,
+                                                                                                 "getOtherAttributes"));
+    aCloneMap.put (FOREIGN, "z");
+    assertEquals ("x", XJCTestHelper.invoke (aForeign, "getOtherAttribute", FOREIGN));
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.helger.io.file.SimpleFileIO;
+import com.helger.jaxb.plugin.supplementary.XJCTestHelper;
+
+/**
+ * Test class for class {@link PluginLean}.
+ *
+ * @author Philip Helger
+ */
+public final class PluginLeanFuncTest
+{
+  @Test
+  public void testLean () throws Exception
+  {
+    final File aDestDir = new File ("target/lean");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/presence.xsd"),
+                                        aDestDir,
+                                        new File ("target/lean-result.txt"),
+                                        "-" + PluginEqualsHashCode.OPT,
+                                        "-" + PluginToString.OPT,
+                                        "-" + PluginCloneable.OPT,
+                                        "-" + PluginLean.OPT));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+
+    final String sQuantity = SimpleFileIO.getFileAsString (new File (aDestDir, "test/presence/QuantityType.java"),
+                                                           StandardCharsets.UTF_8);
+    assertTrue (sQuantity.contains ("public boolean equals(final Object o)"));
+    assertTrue (sQuantity.contains ("public void cloneTo("));
+    assertFalse (sQuantity.contains (CJAXB.PLUGIN_NAME));
+    // One return statement with all comparisons
+    assertTrue (sQuantity.contains ("&&"));
+    assertFalse (sQuantity.contains ("if (!EqualsHelper.equals("));
+  }
+
+  @Test
+  public void testLeanUnmarshalCallback () throws Exception
+  {
+    final File aDestDir = new File ("target/lean-callback");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/list-extension.xsd"),
+                                        aDestDir,
+                                        new File ("target/lean-callback-result.txt"),
+                                        "-" + PluginCompact.OPT,
+                                        "-" + PluginCompact.OPT + PluginCompact.OPT_SUFFIX_AFTER_UNMARSHAL,
+                                        "-" + PluginLean.OPT));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+
+    final String sDocument = SimpleFileIO.getFileAsString (new File (aDestDir, "test/list/DocumentType.java"),
+                                                           StandardCharsets.UTF_8);
+    assertTrue (sDocument.contains ("public void afterUnmarshal("));
+    assertFalse (sDocument.contains ("JAXB unmarshal callback"));
+    assertFalse (sDocument.contains (CJAXB.PLUGIN_NAME));
+  }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+
+import com.helger.base.reflection.GenericReflection;
+import com.helger.io.file.SimpleFileIO;
+import com.helger.jaxb.plugin.supplementary.XJCTestHelper;
+
+/**
+ * Test class for class {@link PluginListExtension}.
+ *
+ * @author Philip Helger
+ */
+public final class PluginListExtensionFuncTest
+{
+  private static final File XSD_FILE = new File ("src/test/resources/external/xsd/list-extension.xsd");
+  private static final File BINDING_FILE = new File ("src/test/resources/external/xsd/list-extension.xjb");
+
+  private static Object _createLine (final ClassLoader aCL, final String sID) throws Exception
+  {
+    final Object aID = aCL.loadClass ("test.list.IDType").getConstructor ().newInstance ();
+    XJCTestHelper.invoke (aID, "setValue", sID);
+    final Object aLine = aCL.loadClass ("test.list.LineType").getConstructor ().newInstance ();
+    XJCTestHelper.invoke (aLine, "setID", aID);
+    return aLine;
+  }
+
+  @NonNull
+  private static ClassLoader _compile (@NonNull final File aDestDir, @NonNull final String... aAdditionalArgs) throws Exception
+  {
+    final List <String> aArgs = new ArrayList <> (Arrays.asList ("-b",
+                                                                 BINDING_FILE.getAbsolutePath (),
+                                                                 "-extension",
+                                                                 "-" + PluginListExtension.OPT,
+                                                                 "-" + PluginEqualsHashCode.OPT,
+                                                                 "-" + PluginCloneable.OPT,
+                                                                 "-" + PluginToString.OPT));
+    aArgs.addAll (Arrays.asList (aAdditionalArgs));
+    assertEquals (0,
+                  XJCTestHelper.runXJC (XSD_FILE,
+                                        aDestDir,
+                                        new File (aDestDir.getParentFile (), aDestDir.getName () + "-result.txt"),
+                                        aArgs.toArray (new String [0])));
+    return XJCTestHelper.compileAndLoad (aDestDir);
+  }
+
+  @Test
+  public void testListExtension () throws Exception
+  {
+    final File aDestDir = new File ("target/list-extension");
+    final ClassLoader aCL = _compile (aDestDir);
+
+    final String sDocument = SimpleFileIO.getFileAsString (new File (aDestDir, "test/list/DocumentType.java"),
+                                                           StandardCharsets.UTF_8);
+    // Keyed lookup
+    assertTrue (sDocument.contains ("public LineType getLineByKey("));
+    assertTrue (sDocument.contains ("public TaxSubtotalType getTaxSubtotalByKey("));
+    assertTrue (sDocument.contains ("private transient volatile Map<String, LineType> lineIndex;"));
+    // Bulk methods
+    assertTrue (sDocument.contains ("public void addAllLine("));
+    assertTrue (sDocument.contains ("public void ensureLineCapacity("));
+    assertTrue (sDocument.contains ("public void forEachLine("));
+    assertTrue (sDocument.contains ("public boolean removeIfLine("));
+
+    final Object aDoc = aCL.loadClass ("test.list.DocumentType").getConstructor ().newInstance ();
+    assertNull (XJCTestHelper.invoke (aDoc, "getLineByKey", "a"));
+
+    final Object aLineA = _createLine (aCL, "a");
+    final Object aLineB = _createLine (aCL, "b");
+    XJCTestHelper.invoke (aDoc, "addLine", aLineA);
+    XJCTestHelper.invoke (aDoc, "addLine", aLineB);
+    assertSame (aLineA, XJCTestHelper.invoke (aDoc, "getLineByKey", "a"));
+    assertSame (aLineB, XJCTestHelper.invoke (aDoc, "getLineByKey", "b"));
+    assertNull (XJCTestHelper.invoke (aDoc, "getLineByKey", "c"));
+    assertNull (XJCTestHelper.invoke (aDoc, "getLineByKey", (Object) null));
+
+    // Adding via the mutator invalidates the index
+    final Object aLineC = _createLine (aCL, "c");
+    XJCTestHelper.invoke (aDoc, "addLine", aLineC);
+    assertSame (aLineC, XJCTestHelper.invoke (aDoc, "getLineByKey", "c"));
+
+    // First one wins
+    final Object aLineA2 = _createLine (aCL, "a");
+    XJCTestHelper.invoke (aDoc, "addLine", aLineA2);
+    assertSame (aLineA, XJCTestHelper.invoke (aDoc, "getLineByKey", "a"));
+
+    // Modifications via the getter are detected if the size changes
+    final List <Object> aLines = GenericReflection.uncheckedCast (XJCTestHelper.invoke (aDoc, "getLine"));
+    final Object aLineD = _createLine (aCL, "d");
+    aLines.add (aLineD);
+    assertSame (aLineD, XJCTestHelper.invoke (aDoc, "getLineByKey", "d"));
+
+    // Removing invalidates the index
+    final Predicate <Object> aFilter = x -> x == aLineA;
+    XJCTestHelper.invoke (aDoc, "removeIfLine", aFilter);
+    assertSame (aLineA2, XJCTestHelper.invoke (aDoc, "getLineByKey", "a"));
+  }
+
+  @Test
+  public void testQueryMethods () throws Exception
+  {
+    final ClassLoader aCL = _compile (new File ("target/list-extension-query"));
+    final Object aDoc = aCL.loadClass ("test.list.DocumentType").getConstructor ().newInstance ();
+
+    // No list is created by the query methods
+    assertEquals (Boolean.FALSE, XJCTestHelper.invoke (aDoc, "hasLineEntries"));
+    assertEquals (Boolean.TRUE, XJCTestHelper.invoke (aDoc, "hasNoLineEntries"));
+    assertEquals (Integer.valueOf (0), XJCTestHelper.invoke (aDoc, "getLineCount"));
+    try
+    {
+      XJCTestHelper.invoke (aDoc, "getLineAtIndex", Integer.valueOf (0));
+      fail ();
+    }
+    catch (final InvocationTargetException ex)
+    {
+      assertTrue (ex.getCause () instanceof IndexOutOfBoundsException);
+    }
+    assertEquals (Boolean.TRUE, XJCTestHelper.invoke (aDoc, "equals", aDoc.getClass ().getConstructor ().newInstance ()));
+
+    final Object aLine = _createLine (aCL, "a");
+    XJCTestHelper.invoke (aDoc, "addLine", aLine);
+    assertEquals (Boolean.TRUE, XJCTestHelper.invoke (aDoc, "hasLineEntries"));
+    assertEquals (Boolean.FALSE, XJCTestHelper.invoke (aDoc, "hasNoLineEntries"));
+    assertEquals (Integer.valueOf (1), XJCTestHelper.invoke (aDoc, "getLineCount"));
+    assertSame (aLine, XJCTestHelper.invoke (aDoc, "getLineAtIndex", Integer.valueOf (0)));
+    try
+    {
+      XJCTestHelper.invoke (aDoc, "getLineAtIndex", Integer.valueOf (1));
+      fail ();
+    }
+    catch (final InvocationTargetException ex)
+    {
+      assertTrue (ex.getCause () instanceof IndexOutOfBoundsException);
+    }
+  }
+
+  @Test
+  public void testBulkMethods () throws Exception
+  {
+    final File aDestDir = new File ("target/list-extension-bulk");
+    final ClassLoader aCL = _compile (aDestDir);
+
+    final String sDocument = SimpleFileIO.getFileAsString (new File (aDestDir, "test/list/DocumentType.java"),
+                                                           StandardCharsets.UTF_8);
+    assertTrue (sDocument.contains ("final Consumer<? super LineType> consumer"));
+    assertTrue (sDocument.contains ("final Predicate<? super LineType> filter"));
+
+    final Object aDoc = aCL.loadClass ("test.list.DocumentType").getConstructor ().newInstance ();
+
+    // Nothing happens on an absent list
+    final List <Object> aVisited = new ArrayList <> ();
+    final Consumer <Object> aCollect = aVisited::add;
+    XJCTestHelper.invoke (aDoc, "forEachLine", aCollect);
+    assertTrue (aVisited.isEmpty ());
+    final Predicate <Object> aAll = x -> true;
+    assertEquals (Boolean.FALSE, XJCTestHelper.invoke (aDoc, "removeIfLine", aAll));
+    assertEquals (Boolean.FALSE, XJCTestHelper.invoke (aDoc, "hasLineEntries"));
+
+    // Creates the list
+    XJCTestHelper.invoke (aDoc, "ensureLineCapacity", Integer.valueOf (10));
+    assertEquals (Integer.valueOf (0), XJCTestHelper.invoke (aDoc, "getLineCount"));
+
+    final Object aLineA = _createLine (aCL, "a");
+    final Object aLineB = _createLine (aCL, "b");
+    final Object aLineC = _createLine (aCL, "c");
+    XJCTestHelper.invoke (aDoc, "addAllLine", Arrays.asList (aLineA, aLineB));
+    XJCTestHelper.invoke (aDoc, "addAllLine", Arrays.asList (aLineC));
+    assertEquals (Integer.valueOf (3), XJCTestHelper.invoke (aDoc, "getLineCount"));
+    assertSame (aLineC, XJCTestHelper.invoke (aDoc, "getLineAtIndex", Integer.valueOf (2)));
+    assertSame (aLineB, XJCTestHelper.invoke (aDoc, "getLineByKey", "b"));
+
+    XJCTestHelper.invoke (aDoc, "forEachLine", aCollect);
+    assertEquals (Arrays.asList (aLineA, aLineB, aLineC), aVisited);
+
+    // Also invalidates the index
+    final Predicate <Object> aIsB = x -> x == aLineB;
+    assertEquals (Boolean.TRUE, XJCTestHelper.invoke (aDoc, "removeIfLine", aIsB));
+    assertEquals (Boolean.FALSE, XJCTestHelper.invoke (aDoc, "removeIfLine", aIsB));
+    assertEquals (Integer.valueOf (2), XJCTestHelper.invoke (aDoc, "getLineCount"));
+    assertNull (XJCTestHelper.invoke (aDoc, "getLineByKey", "b"));
+
+    // addAll on an absent list
+    final Object aDoc2 = aCL.loadClass ("test.list.DocumentType").getConstructor ().newInstance ();
+    XJCTestHelper.invoke (aDoc2, "addAllLine", Arrays.asList (aLineA, aLineC));
+    assertEquals (aDoc, aDoc2);
+  }
+
+  @Test
+  public void testBulkMethodsKeepListImplementation () throws Exception
+  {
+    final File aDestDir = new File ("target/list-extension-bulk-primitive");
+    final ClassLoader aCL = _compile (aDestDir, "-" + PluginPrimitiveList.OPT);
+
+    // The list is created by the getter and is therefore the primitive list
+    final Object aMeasurement = aCL.loadClass ("test.list.MeasurementType").getConstructor ().newInstance ();
+    XJCTestHelper.invoke (aMeasurement, "addAllValue", Arrays.asList (Double.valueOf (1.5), Double.valueOf (2)));
+    final Object aValues = XJCTestHelper.invoke (aMeasurement, "getValue");
+    assertEquals ("test.list.DoubleArrayList", aValues.getClass ().getName ());
+    assertEquals (Arrays.asList (Double.valueOf (1.5), Double.valueOf (2)), aValues);
+
+    final Object aMeasurement2 = aCL.loadClass ("test.list.MeasurementType").getConstructor ().newInstance ();
+    XJCTestHelper.invoke (aMeasurement2, "ensureValueCapacity", Integer.valueOf (10));
+    assertEquals ("test.list.DoubleArrayList", XJCTestHelper.invoke (aMeasurement2, "getValue").getClass ().getName ());
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.helger.io.file.SimpleFileIO;
+import com.helger.jaxb.plugin.supplementary.XJCTestHelper;
+
+/**
+ * Test class for class {@link PluginListPresize}.
+ *
+ * @author Philip Helger
+ */
+public final class PluginListPresizeFuncTest
+{
+  @Test
+  public void testListPresize () throws Exception
+  {
+    final File aDestDir = new File ("target/list-presize");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/list-extension.xsd"),
+                                        aDestDir,
+                                        new File ("target/list-presize-result.txt"),
+                                        "-" + PluginListPresize.OPT));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+
+    final String sDocument = SimpleFileIO.getFileAsString (new File (aDestDir, "test/list/DocumentType.java"),
+                                                           StandardCharsets.UTF_8);
+    // Depending on the XJC version, the type parameter may be omitted
+    assertTrue (sDocument.matches ("(?s).*this\\.taxSubtotal = new ArrayList<(TaxSubtotalType)?>\\(3\\);.*"));
+    assertTrue (sDocument.matches ("(?s).*this\\.reference = new ArrayList<(String)?>\\(2\\);.*"));
+    // Unbounded lists are not presized
+    assertFalse (sDocument.matches ("(?s).*this\\.line = new ArrayList<(LineType)?>\\(\\d+\\);.*"));
+  }
+}
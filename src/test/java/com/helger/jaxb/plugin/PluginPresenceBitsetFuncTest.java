@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+
+import com.helger.io.file.SimpleFileIO;
+import com.helger.jaxb.plugin.supplementary.XJCTestHelper;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.JAXBIntrospector;
+
+/**
+ * Test class for class {@link PluginPresenceBitset}.
+ *
+ * @author Philip Helger
+ */
+public final class PluginPresenceBitsetFuncTest
+{
+  @Test
+  public void testPresenceBitset () throws Exception
+  {
+    final File aDestDir = new File ("target/presence-bitset");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/presence.xsd"),
+                                        aDestDir,
+                                        new File ("target/presence-bitset-result.txt"),
+                                        "-" + PluginPresenceBitset.OPT,
+                                        "-" + PluginEqualsHashCode.OPT,
+                                        "-" + PluginCloneable.OPT,
+                                        "-" + PluginToString.OPT));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+
+    final String sQuantity = SimpleFileIO.getFileAsString (new File (aDestDir, "test/presence/QuantityType.java"),
+                                                           StandardCharsets.UTF_8);
+    assertTrue (sQuantity.contains ("private int presenceBits;"));
+    assertTrue (sQuantity.contains ("protected int precision;"));
+    assertTrue (sQuantity.contains ("protected boolean estimated;"));
+    assertTrue (sQuantity.contains ("protected long sequence;"));
+    // Not modified: default value and required
+    assertTrue (sQuantity.contains ("protected Integer scale;"));
+    assertTrue (sQuantity.contains ("protected int count;"));
+
+    assertTrue (sQuantity.contains ("public Integer getPrecision()"));
+    assertTrue (sQuantity.contains ("public Boolean isEstimated()"));
+    assertTrue (sQuantity.contains ("public void setSequence(Long value)"));
+    assertTrue (sQuantity.contains ("ret.presenceBits = presenceBits;"));
+  }
+
+  @NonNull
+  private static Object _read (@NonNull final JAXBContext aCtx, @NonNull final String sXML) throws Exception
+  {
+    return JAXBIntrospector.getValue (aCtx.createUnmarshaller ().unmarshal (new StringReader (sXML)));
+  }
+
+  @NonNull
+  private static String _write (@NonNull final JAXBContext aCtx,
+                                @NonNull final ClassLoader aCL,
+                                @NonNull final Object aQuantity) throws Exception
+  {
+    final Object aElement = XJCTestHelper.invoke (aCL.loadClass ("test.presence.ObjectFactory").getConstructor ().newInstance (),
+                                                  "createQuantity",
+                                                  aQuantity);
+    final StringWriter aSW = new StringWriter ();
+    aCtx.createMarshaller ().marshal ((JAXBElement <?>) aElement, aSW);
+    return aSW.toString ();
+  }
+
+  @Test
+  public void testRuntime () throws Exception
+  {
+    final File aDestDir = new File ("target/presence-bitset-runtime");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/presence.xsd"),
+                                        aDestDir,
+                                        new File ("target/presence-bitset-runtime-result.txt"),
+                                        "-" + PluginPresenceBitset.OPT,
+                                        "-" + PluginEqualsHashCode.OPT,
+                                        "-" + PluginCloneable.OPT));
+    final ClassLoader aCL = XJCTestHelper.compileAndLoad (aDestDir);
+    final JAXBContext aCtx = JAXBContext.newInstance ("test.presence", aCL);
+
+    // Present and absent attributes, including present default values
+    final Object aRead = _read (aCtx,
+                                "<Quantity xmlns='urn:test:presence' count='5' precision='0' estimated='false'>1.5</Quantity>");
+    assertEquals (Integer.valueOf (0), XJCTestHelper.invoke (aRead, "getPrecision"));
+    assertEquals (Boolean.FALSE, XJCTestHelper.invoke (aRead, "isEstimated"));
+    assertNull (XJCTestHelper.invoke (aRead, "getSequence"));
+    assertEquals (Integer.valueOf (5), XJCTestHelper.invoke (aRead, "getCount"));
+
+    // Written back as it was read
+    final String sXML = _write (aCtx, aCL, aRead);
+    assertTrue (sXML, sXML.contains ("precision=\"0\""));
+    assertTrue (sXML, sXML.contains ("estimated=\"false\""));
+    assertFalse (sXML, sXML.contains ("sequence="));
+    assertEquals (aRead, _read (aCtx, sXML));
+
+    // The clone keeps the presence
+    final Object aClone = XJCTestHelper.invoke (aRead, "clone");
+    assertNotSame (aRead, aClone);
+    assertEquals (aRead, aClone);
+    assertEquals (aRead.hashCode (), aClone.hashCode ());
+    assertNull (XJCTestHelper.invoke (aClone, "getSequence"));
+
+    // Absent and 0 are different
+    XJCTestHelper.invoke (aClone, "setSequence", Long.valueOf (0));
+    assertEquals (Long.valueOf (0), XJCTestHelper.invoke (aClone, "getSequence"));
+    assertNotEquals (aRead, aClone);
+    assertTrue (_write (aCtx, aCL, aClone).contains ("sequence=\"0\""));
+
+    // Removing makes it absent again
+    XJCTestHelper.invoke (aClone, "setSequence", (Object) null);
+    XJCTestHelper.invoke (aClone, "setPrecision", (Object) null);
+    assertNull (XJCTestHelper.invoke (aClone, "getPrecision"));
+    final String sXML2 = _write (aCtx, aCL, aClone);
+    assertFalse (sXML2, sXML2.contains ("precision="));
+    assertFalse (sXML2, sXML2.contains ("sequence="));
+    assertEquals (_read (aCtx, sXML2), aClone);
+  }
+}
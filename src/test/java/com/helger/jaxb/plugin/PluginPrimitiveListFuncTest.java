@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.helger.base.reflection.GenericReflection;
+import com.helger.io.file.SimpleFileIO;
+import com.helger.jaxb.plugin.supplementary.XJCTestHelper;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBIntrospector;
+
+/**
+ * Test class for class {@link PluginPrimitiveList}.
+ *
+ * @author Philip Helger
+ */
+public final class PluginPrimitiveListFuncTest
+{
+  private static void _runXJC (final File aDestDir, final File aLogFile) throws Exception
+  {
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/list-extension.xsd"),
+                                        aDestDir,
+                                        aLogFile,
+                                        "-" + PluginPrimitiveList.OPT,
+                                        "-" + PluginPrimitiveList.OPT + PluginPrimitiveList.OPT_SUFFIX_ENUMS,
+                                        "-" + PluginEqualsHashCode.OPT,
+                                        "-" + PluginCloneable.OPT,
+                                        "-" + PluginToString.OPT));
+  }
+
+  @Test
+  public void testPrimitiveList () throws Exception
+  {
+    final File aDestDir = new File ("target/primitive-list");
+    _runXJC (aDestDir, new File ("target/primitive-list-result.txt"));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+
+    assertTrue (new File (aDestDir, "test/list/IntArrayList.java").exists ());
+    assertTrue (new File (aDestDir, "test/list/LongArrayList.java").exists ());
+    assertTrue (new File (aDestDir, "test/list/DoubleArrayList.java").exists ());
+    final String sMeasurement = SimpleFileIO.getFileAsString (new File (aDestDir, "test/list/MeasurementType.java"),
+                                                              StandardCharsets.UTF_8);
+    assertTrue (sMeasurement.contains ("public int[] getSamplesAsIntArray()"));
+    assertTrue (sMeasurement.contains ("public double[] getValueAsDoubleArray()"));
+    assertTrue (sMeasurement.contains ("public long[] getTimestampsAsLongArray()"));
+    assertTrue (sMeasurement.contains ("public void afterUnmarshal("));
+
+    // Enum lists
+    assertTrue (new File (aDestDir, "test/list/EnumByteList.java").exists ());
+    assertTrue (sMeasurement.contains ("public EnumSet<UnitType> getUnitsAsEnumSet()"));
+    // Depending on the XJC version, the type parameter may be omitted
+    assertTrue (sMeasurement.matches ("(?s).*new EnumByteList<(UnitType)?>\\(UnitType\\.class\\).*"));
+
+    // Nillable elements are not modified
+    assertTrue (sMeasurement.contains ("protected List<Integer> reading;"));
+    assertFalse (sMeasurement.contains ("public int[] getReadingAsIntArray()"));
+  }
+
+  @Test
+  public void testUnmarshalNullValues () throws Exception
+  {
+    final File aDestDir = new File ("target/primitive-list-null");
+    _runXJC (aDestDir, new File ("target/primitive-list-null-result.txt"));
+
+    final ClassLoader aCL = XJCTestHelper.compileAndLoad (aDestDir);
+    final Class <?> aIntListClass = aCL.loadClass ("test.list.IntArrayList");
+    final Class <?> aEnumListClass = aCL.loadClass ("test.list.EnumByteList");
+    final JAXBContext aCtx = JAXBContext.newInstance ("test.list", aCL);
+    final Object aDoc = JAXBIntrospector.getValue (aCtx.createUnmarshaller ()
+                                                       .unmarshal (new StringReader ("<Document xmlns='urn:test:list' xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance'>" +
+                                                                                     "<ID>doc</ID>" +
+                                                                                     "<Line><ID>1</ID></Line>" +
+                                                                                     "<Measurement>" +
+                                                                                     "<Samples>1 2 3</Samples>" +
+                                                                                     "<Value>1.5</Value>" +
+                                                                                     "<Units>mm km</Units>" +
+                                                                                     "<Unit>cm</Unit>" +
+                                                                                     "<Unit>km</Unit>" +
+                                                                                     "<Reading>5</Reading>" +
+                                                                                     "<Reading xsi:nil='true'/>" +
+                                                                                     "</Measurement>" +
+                                                                                     "</Document>")));
+    final List <Object> aMeasurements = GenericReflection.uncheckedCast (XJCTestHelper.invoke (aDoc, "getMeasurement"));
+    assertEquals (1, aMeasurements.size ());
+    final Object aMeasurement = aMeasurements.get (0);
+
+    // Without null values, the primitive list is used
+    final List <Object> aSamples = GenericReflection.uncheckedCast (XJCTestHelper.invoke (aMeasurement, "getSamples"));
+    assertTrue (aIntListClass.isInstance (aSamples));
+    assertEquals (Arrays.asList (Integer.valueOf (1), Integer.valueOf (2), Integer.valueOf (3)), aSamples);
+
+    // Unknown enum values are unmarshalled as null - the regular list is kept
+    final List <Object> aUnits = GenericReflection.uncheckedCast (XJCTestHelper.invoke (aMeasurement, "getUnits"));
+    assertFalse (aEnumListClass.isInstance (aUnits));
+    assertEquals (2, aUnits.size ());
+    assertNull (aUnits.get (1));
+    final List <Object> aUnit = GenericReflection.uncheckedCast (XJCTestHelper.invoke (aMeasurement, "getUnit"));
+    assertFalse (aEnumListClass.isInstance (aUnit));
+    assertEquals (2, aUnit.size ());
+    assertNull (aUnit.get (1));
+
+    // Nillable elements
+    final List <Object> aReading = GenericReflection.uncheckedCast (XJCTestHelper.invoke (aMeasurement, "getReading"));
+    assertFalse (aIntListClass.isInstance (aReading));
+    assertEquals (Arrays.asList (Integer.valueOf (5), null), aReading);
+
+    // Cloning and equals work with both list types
+    final Object aClone = XJCTestHelper.invoke (aMeasurement, "clone");
+    assertNotSame (aMeasurement, aClone);
+    assertEquals (aMeasurement, aClone);
+    assertEquals (aMeasurement.hashCode (), aClone.hashCode ());
+    final List <Object> aClonedUnits = GenericReflection.uncheckedCast (XJCTestHelper.invoke (aClone, "getUnits"));
+    assertNotSame (aUnits, aClonedUnits);
+    assertEquals (aUnits, aClonedUnits);
+    assertTrue (aIntListClass.isInstance (XJCTestHelper.invoke (aClone, "getSamples")));
+  }
+}
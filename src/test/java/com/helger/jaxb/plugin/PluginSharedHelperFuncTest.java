@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.helger.io.file.SimpleFileIO;
+import com.helger.jaxb.plugin.supplementary.XJCTestHelper;
+
+/**
+ * Test class for class {@link PluginSharedHelper}.
+ *
+ * @author Philip Helger
+ */
+public final class PluginSharedHelperFuncTest
+{
+  @Test
+  public void testSharedHelper () throws Exception
+  {
+    final File aDestDir = new File ("target/shared-helper");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/shared-helper.xsd"),
+                                        aDestDir,
+                                        new File ("target/shared-helper-result.txt"),
+                                        "-" + PluginSharedHelper.OPT,
+                                        "-" + PluginEqualsHashCode.OPT,
+                                        "-" + PluginCloneable.OPT));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+
+    final String sHelper = SimpleFileIO.getFileAsString (new File (aDestDir,
+                                                                   "test/sharedhelper/" + PluginSharedHelper.CLASS_NAME + ".java"),
+                                                         StandardCharsets.UTF_8);
+    assertTrue (sHelper.contains ("final class " + PluginSharedHelper.CLASS_NAME));
+    assertTrue (sHelper.contains ("static boolean equalListJAXBElements("));
+    assertTrue (sHelper.contains ("static boolean equalAny("));
+
+    final String sContainer = SimpleFileIO.getFileAsString (new File (aDestDir, "test/sharedhelper/ContainerType.java"),
+                                                            StandardCharsets.UTF_8);
+    assertTrue (sContainer.contains (PluginSharedHelper.CLASS_NAME + ".equalListJAXBElements("));
+    assertTrue (sContainer.contains (PluginSharedHelper.CLASS_NAME + ".getListJAXBElementHashCode("));
+    assertTrue (sContainer.contains (PluginSharedHelper.CLASS_NAME + ".getCopy("));
+    assertTrue (sContainer.contains (PluginSharedHelper.CLASS_NAME + ".getClonedListJAXBElements("));
+
+    final String sExtension = SimpleFileIO.getFileAsString (new File (aDestDir, "test/sharedhelper/ExtensionType.java"),
+                                                            StandardCharsets.UTF_8);
+    assertTrue (sExtension.contains (PluginSharedHelper.CLASS_NAME + ".equalAny("));
+    assertTrue (sExtension.contains (PluginSharedHelper.CLASS_NAME + ".getAnyHashCode("));
+  }
+}
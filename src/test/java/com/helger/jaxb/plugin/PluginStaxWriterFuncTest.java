@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.io.file.SimpleFileIO;
+import com.helger.jaxb.plugin.supplementary.XJCTestHelper;
+import com.helger.xml.serialize.read.DOMReader;
+
+import jakarta.xml.bind.JAXBContext;
+
+/**
+ * Test class for class {@link PluginStaxWriter}.
+ *
+ * @author Philip Helger
+ */
+public final class PluginStaxWriterFuncTest
+{
+  @Test
+  public void testStaxWriter () throws Exception
+  {
+    final File aDestDir = new File ("target/stax-writer");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/stax-writer.xsd"),
+                                        aDestDir,
+                                        new File ("target/stax-writer-result.txt"),
+                                        "-" + PluginStaxWriter.OPT));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+
+    final String sHelper = SimpleFileIO.getFileAsString (new File (aDestDir,
+                                                                   "test/staxwriter/" +
+                                                                             PluginStaxWriter.CLASS_NAME +
+                                                                             ".java"),
+                                                         StandardCharsets.UTF_8);
+    assertTrue (sHelper.contains ("public interface IWritable"));
+    assertTrue (sHelper.contains ("public interface IXmlValue"));
+    assertTrue (sHelper.contains ("\"ns1\""));
+    assertTrue (sHelper.contains ("\"urn:test:staxwriter\""));
+    assertTrue (sHelper.contains ("public static void writeDocument("));
+    assertTrue (sHelper.contains ("public static void writeDOM("));
+
+    final String sOrder = SimpleFileIO.getFileAsString (new File (aDestDir, "test/staxwriter/Order.java"),
+                                                        StandardCharsets.UTF_8);
+    assertTrue (sOrder.contains ("public void writeTo(final XMLStreamWriter aWriter)"));
+    assertTrue (sOrder.contains ("public void writeXmlAttributes(final XMLStreamWriter aWriter)"));
+    assertTrue (sOrder.contains ("public void writeXmlContent(final XMLStreamWriter aWriter)"));
+    assertTrue (sOrder.contains ("new QName(\"urn:test:staxwriter\", \"Order\")"));
+    // Names and conversions are known at generation time
+    assertTrue (sOrder.contains (PluginStaxWriter.CLASS_NAME +
+                                 ".writeSimpleElement(aWriter, \"urn:test:staxwriter\", \"ID\", this.id)"));
+    assertTrue (sOrder.contains ("\"Quantity\", String.valueOf(this.quantity))"));
+    assertTrue (sOrder.contains ("\"Price\", this.price.toPlainString())"));
+    assertTrue (sOrder.contains ("\"Status\", this.status.getXmlValue())"));
+    assertTrue (sOrder.contains (PluginStaxWriter.CLASS_NAME + ".writeAttribute(aWriter, \"\", \"currency\", this.currency)"));
+    // Sub classes require xsi:type
+    assertTrue (sOrder.contains (PluginStaxWriter.CLASS_NAME +
+                                 ".writeObject(aWriter, aItem, \"urn:test:staxwriter\", \"Line\", "));
+    // xs:any and xs:anyAttribute
+    assertTrue (sOrder.contains (PluginStaxWriter.CLASS_NAME + ".writeElement(aWriter, aItem)"));
+    assertTrue (sOrder.contains (PluginStaxWriter.CLASS_NAME + ".writeAttributes(aWriter, this.otherAttributes)"));
+
+    final String sLine = SimpleFileIO.getFileAsString (new File (aDestDir, "test/staxwriter/LineType.java"),
+                                                       StandardCharsets.UTF_8);
+    assertTrue (sLine.contains ("IWritable"));
+    // Required and nillable
+    assertTrue (sLine.contains (PluginStaxWriter.CLASS_NAME + ".writeNil(aWriter, \"urn:test:staxwriter\", \"Note\")"));
+    assertFalse (sLine.contains ("public void writeTo("));
+
+    final String sExtended = SimpleFileIO.getFileAsString (new File (aDestDir, "test/staxwriter/ExtendedLineType.java"),
+                                                           StandardCharsets.UTF_8);
+    assertTrue (sExtended.contains ("super.writeXmlAttributes(aWriter)"));
+    assertTrue (sExtended.contains ("super.writeXmlContent(aWriter)"));
+    assertTrue (sExtended.contains ("new QName(\"urn:test:staxwriter\", \"ExtendedLineType\")"));
+
+    final String sStatus = SimpleFileIO.getFileAsString (new File (aDestDir, "test/staxwriter/StatusType.java"),
+                                                         StandardCharsets.UTF_8);
+    assertTrue (sStatus.contains ("public String getXmlValue()"));
+  }
+
+  @NonNull
+  private static ICommonsMap <String, String> _getAttributes (@NonNull final Element aElement)
+  {
+    final ICommonsMap <String, String> ret = new CommonsHashMap <> ();
+    final NamedNodeMap aAttrs = aElement.getAttributes ();
+    for (int i = 0; i < aAttrs.getLength (); ++i)
+    {
+      final Attr aAttr = (Attr) aAttrs.item (i);
+      // The namespace declarations may differ
+      if (XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals (aAttr.getNamespaceURI ()))
+        continue;
+      String sValue = aAttr.getValue ();
+      if (XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI.equals (aAttr.getNamespaceURI ()) &&
+          aAttr.getLocalName ().equals ("type"))
+      {
+        // Resolve the prefix of the type name
+        final int nColon = sValue.indexOf (':');
+        final String sPrefix = nColon < 0 ? null : sValue.substring (0, nColon);
+        sValue = "{" + aElement.lookupNamespaceURI (sPrefix) + "}" + sValue.substring (nColon + 1);
+      }
+      ret.put ("{" + aAttr.getNamespaceURI () + "}" + aAttr.getLocalName (), sValue);
+    }
+    return ret;
+  }
+
+  private static void _assertEqualElements (@NonNull final Element aExpected, @NonNull final Element aActual)
+  {
+    assertEquals (aExpected.getNamespaceURI (), aActual.getNamespaceURI ());
+    assertEquals (aExpected.getLocalName (), aActual.getLocalName ());
+    assertEquals (_getAttributes (aExpected), _getAttributes (aActual));
+
+    // Same children in the same order
+    Node aExpectedChild = aExpected.getFirstChild ();
+    Node aActualChild = aActual.getFirstChild ();
+    while (aExpectedChild != null && aActualChild != null)
+    {
+      assertEquals (aExpectedChild.getNodeType (), aActualChild.getNodeType ());
+      if (aExpectedChild instanceof final Element aExpectedElement)
+        _assertEqualElements (aExpectedElement, (Element) aActualChild);
+      else
+        assertEquals (aExpectedChild.getNodeValue (), aActualChild.getNodeValue ());
+      aExpectedChild = aExpectedChild.getNextSibling ();
+      aActualChild = aActualChild.getNextSibling ();
+    }
+    assertEquals ("Different number of children of " + aExpected.getLocalName (), aExpectedChild, aActualChild);
+  }
+
+  private static void _assertSameAsMarshaller (@NonNull final JAXBContext aCtx, @NonNull final String sXML) throws Exception
+  {
+    final Object aOrder = aCtx.createUnmarshaller ().unmarshal (new StringReader (sXML));
+
+    final ByteArrayOutputStream aExpected = new ByteArrayOutputStream ();
+    aCtx.createMarshaller ().marshal (aOrder, aExpected);
+
+    final ByteArrayOutputStream aActual = new ByteArrayOutputStream ();
+    final XMLStreamWriter aWriter = XMLOutputFactory.newInstance ().createXMLStreamWriter (aActual, "UTF-8");
+    XJCTestHelper.invoke (aOrder, PluginStaxWriter.METHOD_WRITE_TO, aWriter);
+    aWriter.close ();
+
+    _assertEqualElements (DOMReader.readXMLDOM (aExpected.toString (StandardCharsets.UTF_8)).getDocumentElement (),
+                          DOMReader.readXMLDOM (aActual.toString (StandardCharsets.UTF_8)).getDocumentElement ());
+  }
+
+  @Test
+  public void testSameAsMarshaller () throws Exception
+  {
+    final File aDestDir = new File ("target/stax-writer-marshal");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/stax-writer.xsd"),
+                                        aDestDir,
+                                        new File ("target/stax-writer-marshal-result.txt"),
+                                        "-" + PluginStaxWriter.OPT));
+
+    final ClassLoader aCL = XJCTestHelper.compileAndLoad (aDestDir);
+    final JAXBContext aCtx = JAXBContext.newInstance ("test.staxwriter", aCL);
+    final String sStart = "<Order xmlns='urn:test:staxwriter' xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance'" +
+                          " xmlns:o='urn:test:other'";
+
+    // Required elements only
+    _assertSameAsMarshaller (aCtx, sStart + "><ID>1</ID><Quantity>0</Quantity><Status>open</Status></Order>");
+
+    // Attributes, JAXBElement with xsi:nil, sub classes with xsi:type, xs:any and xs:anyAttribute
+    _assertSameAsMarshaller (aCtx,
+                             sStart +
+                                   " currency='&quot;EUR&lt;' o:flag='x&amp;y'>" +
+                                   "<ID>id &lt;1&gt; \u20ac</ID>" +
+                                   "<Quantity>-5</Quantity>" +
+                                   "<Price>10.50</Price>" +
+                                   "<Status>closed</Status>" +
+                                   "<Remark xsi:nil='true'/>" +
+                                   "<Line><Note xsi:nil='true'/></Line>" +
+                                   "<Line xsi:type='ExtendedLineType'><Note>n</Note><Amount>1.5</Amount></Line>" +
+                                   "<o:Ext o:a='1'>text<o:Sub xmlns:p='urn:test:p' p:b=''/></o:Ext>" +
+                                   "<Other xmlns='urn:test:default'>t</Other>" +
+                                   "</Order>");
+
+    // JAXBElement with a value
+    _assertSameAsMarshaller (aCtx,
+                             sStart +
+                                   "><ID>1</ID><Quantity>1</Quantity><Status>open</Status><Remark>r</Remark>" +
+                                   "<Line><Note>a</Note></Line></Order>");
+  }
+
+  @Test
+  public void testSuperClassFromOtherCompilation () throws Exception
+  {
+    // Create the episode file of the base schema
+    final File aEpisodeFile = new File ("target/stax-writer-base.episode");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/stax-writer-base.xsd"),
+                                        new File ("target/stax-writer-base"),
+                                        new File ("target/stax-writer-base-result.txt"),
+                                        "-extension",
+                                        "-episode",
+                                        aEpisodeFile.getAbsolutePath ()));
+
+    // The inherited content could not be written
+    final File aLogFile = new File ("target/stax-writer-derived-result.txt");
+    assertNotEquals (0,
+                     XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/stax-writer-derived.xsd"),
+                                           new File ("target/stax-writer-derived"),
+                                           aLogFile,
+                                           "-extension",
+                                           "-b",
+                                           aEpisodeFile.getAbsolutePath (),
+                                           "-" + PluginStaxWriter.OPT));
+    assertTrue (SimpleFileIO.getFileAsString (aLogFile, StandardCharsets.UTF_8)
+                            .contains ("is not generated in this XJC run"));
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.helger.io.file.FileOperationManager;
+import com.helger.io.file.SimpleFileIO;
+import com.helger.jaxb.plugin.supplementary.XJCTestHelper;
+
+/**
+ * Test class for class {@link PluginWriteIfChanged}.
+ *
+ * @author Philip Helger
+ */
+public final class PluginWriteIfChangedFuncTest
+{
+  @Test
+  public void testWriteIfChanged () throws Exception
+  {
+    final File aXSDFile = new File ("src/test/resources/external/xsd/presence.xsd");
+    final File aDestDir = new File ("target/write-if-changed");
+    final File aLogFile = new File ("target/write-if-changed-result.txt");
+    FileOperationManager.INSTANCE.deleteDirRecursiveIfExisting (aDestDir);
+
+    assertEquals (0,
+                  XJCTestHelper.runXJC (aXSDFile,
+                                        aDestDir,
+                                        aLogFile,
+                                        "-" + PluginEqualsHashCode.OPT,
+                                        "-" + PluginToString.OPT,
+                                        "-" + PluginWriteIfChanged.OPT));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+
+    final File aClassFile = new File (aDestDir, "test/presence/QuantityType.java");
+    final File aManifestFile = new File (aDestDir, PluginWriteIfChanged.MANIFEST_FILENAME);
+    assertTrue (aClassFile.isFile ());
+    final String sManifest = SimpleFileIO.getFileAsString (aManifestFile, StandardCharsets.UTF_8);
+    assertTrue (sManifest.contains ("  test/presence/QuantityType.java\n"));
+    assertTrue (sManifest.contains ("  test/presence/package-info.java\n"));
+
+    // Unchanged files must not be touched
+    final long nOldTime = aClassFile.lastModified () - 60_000;
+    assertTrue (aClassFile.setLastModified (nOldTime));
+
+    assertEquals (0,
+                  XJCTestHelper.runXJC (aXSDFile,
+                                        aDestDir,
+                                        aLogFile,
+                                        "-" + PluginEqualsHashCode.OPT,
+                                        "-" + PluginToString.OPT,
+                                        "-" + PluginWriteIfChanged.OPT));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+    assertEquals (nOldTime, aClassFile.lastModified ());
+    assertEquals (sManifest, SimpleFileIO.getFileAsString (aManifestFile, StandardCharsets.UTF_8));
+
+    // Changed files must be written
+    assertEquals (0,
+                  XJCTestHelper.runXJC (aXSDFile,
+                                        aDestDir,
+                                        aLogFile,
+                                        "-" + PluginEqualsHashCode.OPT,
+                                        "-" + PluginWriteIfChanged.OPT));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+    assertNotEquals (nOldTime, aClassFile.lastModified ());
+    assertNotEquals (sManifest, SimpleFileIO.getFileAsString (aManifestFile, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testMustBeLast () throws Exception
+  {
+    assertNotEquals (0,
+                     XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/presence.xsd"),
+                                           new File ("target/write-if-changed-not-last"),
+                                           new File ("target/write-if-changed-not-last-result.txt"),
+                                           "-" + PluginWriteIfChanged.OPT,
+                                           "-" + PluginToString.OPT));
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.helger.io.file.SimpleFileIO;
+import com.helger.jaxb.plugin.supplementary.XJCTestHelper;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBIntrospector;
+
+/**
+ * Test class for class {@link PluginXmlSize}.
+ *
+ * @author Philip Helger
+ */
+public final class PluginXmlSizeFuncTest
+{
+  @Test
+  public void testXmlSize () throws Exception
+  {
+    final File aDestDir = new File ("target/xml-size");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/xml-size.xsd"),
+                                        aDestDir,
+                                        new File ("target/xml-size-result.txt"),
+                                        "-" + PluginXmlSize.OPT));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+
+    // Prefixes have 7 characters plus the colon
+    final String sHelper = SimpleFileIO.getFileAsString (new File (aDestDir,
+                                                                   "test/xmlsize/" + PluginXmlSize.CLASS_NAME + ".java"),
+                                                         StandardCharsets.UTF_8);
+    assertTrue (sHelper.contains ("public interface IEstimable"));
+    assertTrue (sHelper.contains ("PREFIX_SIZE = 8"));
+    // xsi:type with the longest type name "ExtendedLineType"
+    assertTrue (sHelper.contains ("XSI_TYPE_SIZE = 40"));
+    // XML declaration, root tag "Order", xsi:type and the declarations of 2 namespaces
+    assertTrue (sHelper.contains ("DOCUMENT_SIZE = 218L"));
+    assertTrue (sHelper.contains ("public static long getTextSize("));
+
+    final String sOrder = SimpleFileIO.getFileAsString (new File (aDestDir, "test/xmlsize/OrderType.java"),
+                                                        StandardCharsets.UTF_8);
+    assertTrue (sOrder.contains ("public long estimateXmlSize()"));
+    assertTrue (sOrder.contains ("public long estimateXmlContentSize()"));
+    // Tag "ID"
+    assertTrue (sOrder.contains (PluginXmlSize.CLASS_NAME + ".getElementSize(this.id, 25L)"));
+    // Tag "Quantity" and an int value
+    assertTrue (sOrder.contains ("48L"));
+    // Tag "Status" and the longest enum value "closed"
+    assertTrue (sOrder.contains ("39L"));
+    // Attribute "currency"
+    assertTrue (sOrder.contains (PluginXmlSize.CLASS_NAME + ".getValueSize(this.currency)"));
+    // Tag "Line" and xsi:type, because of the sub class
+    assertTrue (sOrder.contains ("69L"));
+    assertTrue (sOrder.contains ("aItem.estimateXmlContentSize()"));
+
+    final String sExtended = SimpleFileIO.getFileAsString (new File (aDestDir, "test/xmlsize/ExtendedLineType.java"),
+                                                           StandardCharsets.UTF_8);
+    assertTrue (sExtended.contains ("super.estimateXmlContentSize()"));
+    assertTrue (sExtended.contains (PluginXmlSize.CLASS_NAME + ".getElementSize(this.amount, 33L)"));
+    assertFalse (sExtended.contains ("public long estimateXmlSize()"));
+  }
+
+  @Test
+  public void testPrefixLength () throws Exception
+  {
+    final File aDestDir = new File ("target/xml-size-prefix");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/xml-size.xsd"),
+                                        aDestDir,
+                                        new File ("target/xml-size-prefix-result.txt"),
+                                        "-" + PluginXmlSize.OPT,
+                                        "-" + PluginXmlSize.OPT + PluginXmlSize.OPT_SUFFIX_PREFIX_LENGTH,
+                                        "3"));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+
+    final String sHelper = SimpleFileIO.getFileAsString (new File (aDestDir,
+                                                                   "test/xmlsize/" + PluginXmlSize.CLASS_NAME + ".java"),
+                                                         StandardCharsets.UTF_8);
+    assertTrue (sHelper.contains ("PREFIX_SIZE = 4"));
+  }
+
+  private static void _assertUpperBound (final JAXBContext aCtx, final String sXML) throws Exception
+  {
+    final Object aRead = aCtx.createUnmarshaller ().unmarshal (new StringReader (sXML));
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    aCtx.createMarshaller ().marshal (aRead, aBAOS);
+    final long nEstimated = ((Long) XJCTestHelper.invoke (JAXBIntrospector.getValue (aRead), "estimateXmlSize")).longValue ();
+    assertTrue (aBAOS.size () + " > " + nEstimated + ": " + aBAOS.toString (StandardCharsets.UTF_8),
+                aBAOS.size () <= nEstimated);
+  }
+
+  @Test
+  public void testUpperBound () throws Exception
+  {
+    final File aDestDir = new File ("target/xml-size-marshal");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/xml-size.xsd"),
+                                        aDestDir,
+                                        new File ("target/xml-size-marshal-result.txt"),
+                                        "-" + PluginXmlSize.OPT,
+                                        "-" + PluginPrimitiveList.OPT));
+
+    final ClassLoader aCL = XJCTestHelper.compileAndLoad (aDestDir);
+    final Class <?> aHelperClass = aCL.loadClass ("test.xmlsize." + PluginXmlSize.CLASS_NAME);
+    assertEquals (Long.valueOf (1), XJCTestHelper.invoke (aHelperClass, "getTextSize", "a"));
+    assertEquals (Long.valueOf (4), XJCTestHelper.invoke (aHelperClass, "getTextSize", "<"));
+    assertEquals (Long.valueOf (2), XJCTestHelper.invoke (aHelperClass, "getTextSize", "\u00e4"));
+    assertEquals (Long.valueOf (3), XJCTestHelper.invoke (aHelperClass, "getTextSize", "\u20ac"));
+
+    final JAXBContext aCtx = JAXBContext.newInstance ("test.xmlsize", aCL);
+    final String sStart = "<Order xmlns='urn:test:xmlsize' xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance'" +
+                          " xmlns:o='urn:test:other'";
+
+    // Required nillable element
+    _assertUpperBound (aCtx, sStart + "><ID>1</ID><Quantity>1</Quantity><Status>open</Status><Comment xsi:nil='true'/></Order>");
+
+    // All kinds of values
+    final StringBuilder aHex = new StringBuilder ();
+    final StringBuilder aText = new StringBuilder ();
+    for (int i = 0; i < 1000; ++i)
+    {
+      aHex.append ("FF");
+      aText.append ("&lt;&#x20AC;");
+    }
+    final String sExtension = "<o:Item o:key='&quot;' xmlns:p='urn:test:p' p:x=''><o:Sub>" + aText + "</o:Sub></o:Item>";
+    _assertUpperBound (aCtx,
+                       sStart +
+                             " currency='&quot;&lt;&amp;&gt;'>" +
+                             "<ID>\u00e4\u20ac\ud83d\ude00\t</ID>" +
+                             "<Quantity>-2147483648</Quantity>" +
+                             "<Status>closed</Status>" +
+                             "<Line><Note>a</Note></Line>" +
+                             "<Line xsi:type='ExtendedLineType'><Amount>-12345.678900</Amount></Line>" +
+                             "<Comment>c</Comment>" +
+                             "<Remark xsi:nil='true'/><Remark xsi:nil='true'/><Remark>r</Remark>" +
+                             "<Checksum>" + aHex + "</Checksum>" +
+                             "<Data>AQID</Data>" +
+                             "<Samples>-2147483648 0 2147483647 -1</Samples>" +
+                             "<Value>-1.7976931348623157E308</Value><Value>4.9E-324</Value>" +
+                             "<Extension>" + sExtension + "</Extension>" +
+                             "</Order>");
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.helger.io.file.SimpleFileIO;
+import com.helger.jaxb.plugin.supplementary.XJCTestHelper;
+
+/**
+ * Test the splitting of generated methods for classes with more than
+ * {@link AbstractPlugin#MAX_FIELDS_PER_METHOD} fields.
+ *
+ * @author Philip Helger
+ */
+public final class WideClassFuncTest
+{
+  @Test
+  public void testSplitMethods () throws Exception
+  {
+    final File aDestDir = new File ("target/wide");
+    assertEquals (0,
+                  XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/wide.xsd"),
+                                        aDestDir,
+                                        new File ("target/wide-result.txt"),
+                                        "-" + PluginEqualsHashCode.OPT,
+                                        "-" + PluginToString.OPT,
+                                        "-" + PluginCloneable.OPT));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+
+    // 45 fields -> 3 parts each
+    final String sWide = SimpleFileIO.getFileAsString (new File (aDestDir, "test/wide/WideType.java"),
+                                                       StandardCharsets.UTF_8);
+    for (final String sMethod : new String [] { "equals", "hashCode", "toString", "cloneTo" })
+    {
+      assertTrue (sMethod, sWide.contains (sMethod + "Part1("));
+      assertTrue (sMethod, sWide.contains (sMethod + "Part3("));
+      assertFalse (sMethod, sWide.contains (sMethod + "Part4("));
+    }
+    assertTrue (sWide.contains ("private boolean equalsPart1(final WideType rhs)"));
+    assertTrue (sWide.contains ("private void hashCodePart1(final HashCodeGenerator aHCG)"));
+    assertTrue (sWide.contains ("private void toStringPart1(final ToStringGenerator aTSG)"));
+    assertTrue (sWide.contains ("private void cloneToPart1(final WideType ret)"));
+
+    // Narrow classes are not split
+    final String sNarrow = SimpleFileIO.getFileAsString (new File (aDestDir, "test/wide/NarrowType.java"),
+                                                         StandardCharsets.UTF_8);
+    assertFalse (sNarrow.contains ("Part1("));
+  }
+}
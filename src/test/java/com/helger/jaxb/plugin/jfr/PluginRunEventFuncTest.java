@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.helger.jaxb.plugin.PluginBeanValidation11;
+import com.helger.jaxb.plugin.PluginEqualsHashCode;
+import com.helger.jaxb.plugin.supplementary.XJCTestHelper;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Test class for class {@link PluginRunEvent} and {@link PluginPhaseEvent}.
+ *
+ * @author Philip Helger
+ */
+public final class PluginRunEventFuncTest
+{
+  @Test
+  public void testEvents () throws Exception
+  {
+    final File aDestDir = new File ("target/jfr");
+    final File aRecordingFile = new File ("target/jfr-plugins.jfr");
+    try (final Recording aRecording = new Recording ())
+    {
+      aRecording.enable (PluginRunEvent.NAME);
+      aRecording.enable (PluginPhaseEvent.NAME);
+      aRecording.start ();
+      assertEquals (0,
+                    XJCTestHelper.runXJC (new File ("src/test/resources/external/xsd/presence.xsd"),
+                                          aDestDir,
+                                          new File ("target/jfr-result.txt"),
+                                          "-" + PluginEqualsHashCode.OPT,
+                                          "-" + PluginBeanValidation11.OPT));
+
+    // The generated code must compile
+    XJCTestHelper.compile (aDestDir);
+      aRecording.stop ();
+      aRecording.dump (aRecordingFile.toPath ());
+    }
+
+    boolean bFoundRun = false;
+    boolean bFoundPhase = false;
+    final List <RecordedEvent> aEvents = RecordingFile.readAllEvents (aRecordingFile.toPath ());
+    for (final RecordedEvent aEvent : aEvents)
+    {
+      final String sName = aEvent.getEventType ().getName ();
+      if (sName.equals (PluginRunEvent.NAME) && PluginEqualsHashCode.OPT.equals (aEvent.getString ("plugin")))
+      {
+        assertTrue (aEvent.getInt ("classCount") > 0);
+        bFoundRun = true;
+      }
+      else
+        if (sName.equals (PluginPhaseEvent.NAME) && PluginPhaseEvent.PHASE_FACETS.equals (aEvent.getString ("phase")))
+        {
+          assertEquals (PluginBeanValidation11.OPT, aEvent.getString ("plugin"));
+          assertTrue (aEvent.getInt ("count") > 0);
+          bFoundPhase = true;
+        }
+    }
+    assertTrue (bFoundRun);
+    assertTrue (bFoundPhase);
+  }
+}
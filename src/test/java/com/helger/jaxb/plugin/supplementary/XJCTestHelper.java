@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin.supplementary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.CGlobal;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsTreeMap;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsNavigableMap;
+import com.helger.io.file.FileHelper;
+import com.helger.io.file.FileOperationManager;
+import com.sun.tools.xjc.Driver;
+
+/**
+ * Shared helper for the functional tests: runs XJC with a set of plugins, compiles the generated
+ * sources in memory and loads the resulting classes, so that the generated code can be executed.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class XJCTestHelper
+{
+  private XJCTestHelper ()
+  {}
+
+  /**
+   * Run XJC on the provided XSD. The log output is written to the provided file.
+   *
+   * @param aXSDFile
+   *        The XSD to compile. May not be <code>null</code>.
+   * @param aDestDir
+   *        The directory to write the generated sources to. Is created if not existing. May not be
+   *        <code>null</code>.
+   * @param aLogFile
+   *        The file to write the XJC output to. May not be <code>null</code>.
+   * @param aXJCArgs
+   *        Additional XJC arguments like the plugins to use. May not be <code>null</code>.
+   * @return The XJC return code. <code>0</code> means success.
+   * @throws Exception
+   *         In case of error
+   */
+  public static int runXJC (@NonNull final File aXSDFile,
+                            @NonNull final File aDestDir,
+                            @NonNull final File aLogFile,
+                            @NonNull final String... aXJCArgs) throws Exception
+  {
+    try (final PrintStream aPS = new PrintStream (FileHelper.getOutputStream (aLogFile),
+                                                  true,
+                                                  StandardCharsets.UTF_8.name ()))
+    {
+      // Don't use Driver.main because it calls System.exit
+      FileOperationManager.INSTANCE.createDirRecursiveIfNotExisting (aDestDir);
+      final ICommonsList <String> aArgs = new CommonsArrayList <> (aXSDFile.getAbsolutePath (),
+                                                                  "-d",
+                                                                  aDestDir.getAbsolutePath ());
+      aArgs.addAll (aXJCArgs);
+      return Driver.run (aArgs.toArray (CGlobal.EMPTY_STRING_ARRAY), aPS, aPS);
+    }
+  }
+
+  /**
+   * Compile all Java sources in the provided directory in memory, using the current class path.
+   *
+   * @param aSourceDir
+   *        The directory with the generated sources. May not be <code>null</code>.
+   * @return A map from the fully qualified class name to the class file bytes. Never
+   *         <code>null</code>.
+   * @throws IOException
+   *         On IO error
+   * @throws IllegalStateException
+   *         If the sources cannot be compiled
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public static ICommonsNavigableMap <String, byte []> compile (@NonNull final File aSourceDir) throws IOException
+  {
+    final ICommonsList <File> aSourceFiles = new CommonsArrayList <> ();
+    try (final Stream <Path> aStream = Files.walk (aSourceDir.toPath ()))
+    {
+      aStream.filter (x -> x.toString ().endsWith (".java")).forEach (x -> aSourceFiles.add (x.toFile ()));
+    }
+
+    final JavaCompiler aCompiler = ToolProvider.getSystemJavaCompiler ();
+    if (aCompiler == null)
+      throw new IllegalStateException ("No Java compiler available - a JDK is required");
+
+    final DiagnosticCollector <JavaFileObject> aDiagnostics = new DiagnosticCollector <> ();
+    final ICommonsNavigableMap <String, ByteArrayOutputStream> aClassFiles = new CommonsTreeMap <> ();
+    try (final StandardJavaFileManager aFileManager = aCompiler.getStandardFileManager (aDiagnostics,
+                                                                                        Locale.US,
+                                                                                        StandardCharsets.UTF_8))
+    {
+      // Keep all class files in memory
+      final JavaFileManager aMemoryFileManager = new ForwardingJavaFileManager <> (aFileManager)
+      {
+        @Override
+        public JavaFileObject getJavaFileForOutput (final Location aLocation,
+                                                    final String sClassName,
+                                                    final JavaFileObject.Kind eKind,
+                                                    final FileObject aSibling)
+        {
+          return new SimpleJavaFileObject (URI.create ("mem:///" + sClassName.replace ('.', '/') + eKind.extension),
+                                           eKind)
+          {
+            @Override
+            public OutputStream openOutputStream ()
+            {
+              final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+              aClassFiles.put (sClassName, aBAOS);
+              return aBAOS;
+            }
+          };
+        }
+      };
+
+      final ICommonsList <String> aOptions = new CommonsArrayList <> ("-proc:none",
+                                                                     "-nowarn",
+                                                                     "-classpath",
+                                                                     System.getProperty ("java.class.path"));
+      final Boolean aSuccess = aCompiler.getTask (null,
+                                                  aMemoryFileManager,
+                                                  aDiagnostics,
+                                                  aOptions,
+                                                  null,
+                                                  aFileManager.getJavaFileObjectsFromFiles (aSourceFiles))
+                                        .call ();
+      if (!aSuccess.booleanValue ())
+        throw new IllegalStateException ("Failed to compile the sources in " +
+                                         aSourceDir.getAbsolutePath () +
+                                         ": " +
+                                         aDiagnostics.getDiagnostics ());
+    }
+
+    final ICommonsNavigableMap <String, byte []> ret = new CommonsTreeMap <> ();
+    for (final Map.Entry <String, ByteArrayOutputStream> aEntry : aClassFiles.entrySet ())
+      ret.put (aEntry.getKey (), aEntry.getValue ().toByteArray ());
+    return ret;
+  }
+
+  /**
+   * Compile all Java sources in the provided directory in memory and create a class loader for
+   * them. Resources are resolved relative to the source directory, so that generated resource files
+   * are found as well.
+   *
+   * @param aSourceDir
+   *        The directory with the generated sources. May not be <code>null</code>.
+   * @return The class loader that contains the compiled classes. Never <code>null</code>.
+   * @throws IOException
+   *         On IO error
+   * @throws IllegalStateException
+   *         If the sources cannot be compiled
+   */
+  @NonNull
+  public static ClassLoader compileAndLoad (@NonNull final File aSourceDir) throws IOException
+  {
+    final ICommonsNavigableMap <String, byte []> aClassFiles = compile (aSourceDir);
+    return new ClassLoader (XJCTestHelper.class.getClassLoader ())
+    {
+      @Override
+      protected Class <?> findClass (final String sClassName) throws ClassNotFoundException
+      {
+        final byte [] aBytes = aClassFiles.get (sClassName);
+        if (aBytes == null)
+          throw new ClassNotFoundException (sClassName);
+        return defineClass (sClassName, aBytes, 0, aBytes.length);
+      }
+
+      @Override
+      protected URL findResource (final String sName)
+      {
+        final File aFile = new File (aSourceDir, sName);
+        if (!aFile.isFile ())
+          return null;
+        try
+        {
+          return aFile.toURI ().toURL ();
+        }
+        catch (final MalformedURLException ex)
+        {
+          return null;
+        }
+      }
+    };
+  }
+
+  /**
+   * Invoke a public method by name via reflection. Only the number of arguments is used to find
+   * the method, so it should be used for methods that are not overloaded.
+   *
+   * @param aTarget
+   *        The object to invoke the method on or a {@link Class} to invoke a static method. May
+   *        not be <code>null</code>.
+   * @param sMethodName
+   *        The name of the method to invoke. May not be <code>null</code>.
+   * @param aArgs
+   *        The arguments to use. May not be <code>null</code>.
+   * @return The return value of the method. May be <code>null</code>.
+   * @throws Exception
+   *         In case of error
+   */
+  @Nullable
+  public static Object invoke (@NonNull final Object aTarget,
+                               @NonNull final String sMethodName,
+                               @NonNull final Object... aArgs) throws Exception
+  {
+    final boolean bStatic = aTarget instanceof Class <?>;
+    final Class <?> aClass = bStatic ? (Class <?>) aTarget : aTarget.getClass ();
+    for (final Method aMethod : aClass.getMethods ())
+      if (aMethod.getName ().equals (sMethodName) && aMethod.getParameterCount () == aArgs.length)
+        return aMethod.invoke (bStatic ? null : aTarget, aArgs);
+    throw new NoSuchMethodException (aClass.getName () + "." + sMethodName + " with " + aArgs.length + " argument(s)");
+  }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin.supplementary.audit;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.equals.EqualsHelper;
+import com.helger.collection.commons.CommonsTreeMap;
+import com.helger.collection.commons.ICommonsNavigableMap;
+import com.helger.jaxb.plugin.supplementary.XJCTestHelper;
+
+/**
+ * Compiles generated sources in memory and determines the byte code size of all methods, to find
+ * methods that are too large for the HotSpot JIT compiler. The thresholds are the defaults of the
+ * respective <code>-XX</code> options.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class BytecodeSizeAudit
+{
+  /** Methods up to this size are always inlined (<code>-XX:MaxInlineSize</code>) */
+  public static final int MAX_INLINE_SIZE = 35;
+  /** Hot methods up to this size are inlined (<code>-XX:FreqInlineSize</code>) */
+  public static final int FREQ_INLINE_SIZE = 325;
+  /** Larger methods are not compiled at all (<code>-XX:HugeMethodLimit</code>) */
+  public static final int HUGE_METHOD_LIMIT = 8000;
+
+  private BytecodeSizeAudit ()
+  {}
+
+  /**
+   * Read the byte code size of all methods with code of a single class file.
+   *
+   * @param aClassFile
+   *        The class file bytes. May not be <code>null</code>.
+   * @return A map from <code>class#name(descriptor)</code> to the byte code size. Never
+   *         <code>null</code>.
+   * @throws IOException
+   *         If the class file is invalid
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public static ICommonsNavigableMap <String, Integer> readMethodSizes (@NonNull final byte [] aClassFile) throws IOException
+  {
+    final ICommonsNavigableMap <String, Integer> ret = new CommonsTreeMap <> ();
+    try (final DataInputStream aDIS = new DataInputStream (new ByteArrayInputStream (aClassFile)))
+    {
+      if (aDIS.readInt () != 0xCAFEBABE)
+        throw new IOException ("Not a class file");
+      // minor and major version
+      aDIS.skipBytes (4);
+
+      // Constant pool - only UTF-8 and class entries are needed
+      final int nConstantPoolCount = aDIS.readUnsignedShort ();
+      final String [] aUtf8 = new String [nConstantPoolCount];
+      final int [] aClassNameIndex = new int [nConstantPoolCount];
+      for (int i = 1; i < nConstantPoolCount; ++i)
+      {
+        final int nTag = aDIS.readUnsignedByte ();
+        switch (nTag)
+        {
+          case 1 -> aUtf8[i] = aDIS.readUTF ();
+          case 7 -> aClassNameIndex[i] = aDIS.readUnsignedShort ();
+          case 8, 16, 19, 20 -> aDIS.skipBytes (2);
+          case 15 -> aDIS.skipBytes (3);
+          case 3, 4, 9, 10, 11, 12, 17, 18 -> aDIS.skipBytes (4);
+          case 5, 6 ->
+          {
+            // Long and double take two entries
+            aDIS.skipBytes (8);
+            ++i;
+          }
+          default -> throw new IOException ("Unsupported constant pool tag " + nTag);
+        }
+      }
+
+      // access flags
+      aDIS.skipBytes (2);
+      final String sClassName = aUtf8[aClassNameIndex[aDIS.readUnsignedShort ()]].replace ('/', '.');
+      // super class
+      aDIS.skipBytes (2);
+      // interfaces
+      aDIS.skipBytes (2 * aDIS.readUnsignedShort ());
+
+      // fields
+      final int nFieldCount = aDIS.readUnsignedShort ();
+      for (int i = 0; i < nFieldCount; ++i)
+      {
+        // access flags, name and descriptor
+        aDIS.skipBytes (6);
+        final int nAttrCount = aDIS.readUnsignedShort ();
+        for (int j = 0; j < nAttrCount; ++j)
+        {
+          aDIS.skipBytes (2);
+          aDIS.skipBytes (aDIS.readInt ());
+        }
+      }
+
+      // methods
+      final int nMethodCount = aDIS.readUnsignedShort ();
+      for (int i = 0; i < nMethodCount; ++i)
+      {
+        // access flags
+        aDIS.skipBytes (2);
+        final String sName = aUtf8[aDIS.readUnsignedShort ()];
+        final String sDescriptor = aUtf8[aDIS.readUnsignedShort ()];
+        final int nAttrCount = aDIS.readUnsignedShort ();
+        for (int j = 0; j < nAttrCount; ++j)
+        {
+          final String sAttrName = aUtf8[aDIS.readUnsignedShort ()];
+          final int nAttrLength = aDIS.readInt ();
+          if ("Code".equals (sAttrName))
+          {
+            // max stack and max locals
+            aDIS.skipBytes (4);
+            final int nCodeLength = aDIS.readInt ();
+            ret.put (sClassName + "#" + sName + sDescriptor, Integer.valueOf (nCodeLength));
+            aDIS.skipBytes (nAttrLength - 8);
+          }
+          else
+            aDIS.skipBytes (nAttrLength);
+        }
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Compile all Java sources in the provided directory in memory, using the current class path,
+   * and determine the byte code size of all methods.
+   *
+   * @param aSourceDir
+   *        The directory with the generated sources. May not be <code>null</code>.
+   * @return A map from <code>class#name(descriptor)</code> to the byte code size. Never
+   *         <code>null</code>.
+   * @throws IOException
+   *         On IO error
+   * @throws IllegalStateException
+   *         If the sources cannot be compiled
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public static ICommonsNavigableMap <String, Integer> getAllMethodSizes (@NonNull final File aSourceDir) throws IOException
+  {
+    final ICommonsNavigableMap <String, Integer> ret = new CommonsTreeMap <> ();
+    for (final byte [] aClassFile : XJCTestHelper.compile (aSourceDir).values ())
+      ret.putAll (readMethodSizes (aClassFile));
+    return ret;
+  }
+
+  /**
+   * Get all methods that are new or have a different size compared to the baseline.
+   *
+   * @param aSizes
+   *        The method sizes to check. May not be <code>null</code>.
+   * @param aBaseline
+   *        The method sizes without the plugin. May be <code>null</code>.
+   * @return The new or changed methods. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public static ICommonsNavigableMap <String, Integer> getAllChanged (@NonNull final Map <String, Integer> aSizes,
+                                                                      @Nullable final Map <String, Integer> aBaseline)
+  {
+    final ICommonsNavigableMap <String, Integer> ret = new CommonsTreeMap <> ();
+    for (final Map.Entry <String, Integer> aEntry : aSizes.entrySet ())
+      if (aBaseline == null || !EqualsHelper.equals (aBaseline.get (aEntry.getKey ()), aEntry.getValue ()))
+        ret.put (aEntry.getKey (), aEntry.getValue ());
+    return ret;
+  }
+
+  /**
+   * Get all methods larger than the provided threshold.
+   *
+   * @param aSizes
+   *        The method sizes to check. May not be <code>null</code>.
+   * @param nThreshold
+   *        The maximum allowed byte code size.
+   * @return The methods above the threshold. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public static ICommonsNavigableMap <String, Integer> getAllAbove (@NonNull final Map <String, Integer> aSizes,
+                                                                    final int nThreshold)
+  {
+    final ICommonsNavigableMap <String, Integer> ret = new CommonsTreeMap <> ();
+    for (final Map.Entry <String, Integer> aEntry : aSizes.entrySet ())
+      if (aEntry.getValue ().intValue () > nThreshold)
+        ret.put (aEntry.getKey (), aEntry.getValue ());
+    return ret;
+  }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb.plugin.supplementary.audit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.base.CGlobal;
+import com.helger.base.lang.ClassPathHelper;
+import com.helger.base.string.StringHelper;
+import com.helger.base.string.StringReplace;
+import com.helger.base.wrapper.Wrapper;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsNavigableMap;
+import com.helger.collection.commons.ICommonsOrderedMap;
+import com.helger.io.file.FileHelper;
+import com.helger.io.file.FileOperationManager;
+import com.helger.io.file.FilenameHelper;
+import com.helger.io.file.SimpleFileIO;
+import com.helger.jaxb.plugin.AbstractPluginCloneable;
+import com.helger.jaxb.plugin.PluginCardinalityProfiler;
+import com.helger.jaxb.plugin.PluginCloneable;
+import com.helger.jaxb.plugin.PluginDeepSize;
+import com.helger.jaxb.plugin.PluginEqualsHashCode;
+import com.helger.jaxb.plugin.PluginExplicitlyCloneable;
+import com.helger.jaxb.plugin.PluginListExtension;
+import com.helger.jaxb.plugin.PluginPrimitiveList;
+import com.helger.jaxb.plugin.PluginStaxWriter;
+import com.helger.jaxb.plugin.PluginToString;
+import com.helger.jaxb.plugin.PluginXmlSize;
+import com.helger.jaxb.plugin.PluginValueExtender;
+import com.sun.tools.xjc.Driver;
+
+/**
+ * Compiles the code generated by the plugins and reports all methods, that exceed the JIT
+ * thresholds of {@link BytecodeSizeAudit}, grouped by plugin. Each plugin is run separately and
+ * compared to a run without plugins, so that only the methods created or changed by the plugin are
+ * reported. The full report is written to <code>target/bytecode-audit/</code>.
+ *
+ * @author Philip Helger
+ */
+public final class BytecodeSizeAuditFuncTest
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (BytecodeSizeAuditFuncTest.class);
+  private static final File BASE_DIR = new File ("target/bytecode-audit");
+
+  private static void _runXJC (@NonNull final ICommonsList <String> aXJCArgs,
+                               @NonNull final File aDestDir,
+                               @NonNull final String... aPluginArgs) throws Exception
+  {
+    FileOperationManager.INSTANCE.deleteDirRecursiveIfExisting (aDestDir);
+    FileOperationManager.INSTANCE.createDirRecursiveIfNotExisting (aDestDir);
+    final File aLogFile = new File (aDestDir.getParentFile (), aDestDir.getName () + "-result.txt");
+    try (final PrintStream aPS = new PrintStream (FileHelper.getOutputStream (aLogFile),
+                                                  true,
+                                                  StandardCharsets.UTF_8.name ()))
+    {
+      final ICommonsList <String> aArgs = new CommonsArrayList <> (aXJCArgs);
+      aArgs.addAll ("-d", aDestDir.getAbsolutePath ());
+      aArgs.addAll (aPluginArgs);
+      // Don't use Driver.main because it calls System.exit
+      assertEquals (0, Driver.run (aArgs.toArray (CGlobal.EMPTY_STRING_ARRAY), aPS, aPS));
+    }
+  }
+
+  private static void _appendSection (@NonNull final StringBuilder aReport,
+                                      @NonNull final Map <String, Integer> aSizes,
+                                      @NonNull final String sThresholdName,
+                                      final int nThreshold)
+  {
+    final ICommonsNavigableMap <String, Integer> aAbove = BytecodeSizeAudit.getAllAbove (aSizes, nThreshold);
+    aReport.append ("  ")
+           .append (aAbove.size ())
+           .append (" method(s) above ")
+           .append (sThresholdName)
+           .append (" (")
+           .append (nThreshold)
+           .append (" bytes)\n");
+    for (final Map.Entry <String, Integer> aEntry : aAbove.entrySet ())
+      aReport.append ("    ").append (aEntry.getValue ()).append ("  ").append (aEntry.getKey ()).append ('\n');
+  }
+
+  /**
+   * Run the audit.
+   *
+   * @param sName
+   *        Name of the audit, used for the directory names. May not be <code>null</code>.
+   * @param aXJCArgs
+   *        The XJC arguments except the plugins and the destination directory. May not be
+   *        <code>null</code>.
+   * @param aPluginOpts
+   *        The plugin options to audit, each one is run separately. An entry may contain additional
+   *        space separated XJC arguments, e.g. <code>Xph-cloneable2 -Xph-cloneable2-spec a.Spec</code>.
+   * @return The sizes of all methods created or changed by each plugin. Never <code>null</code>.
+   */
+  @NonNull
+  private static ICommonsOrderedMap <String, ICommonsNavigableMap <String, Integer>> _audit (@NonNull final String sName,
+                                                                                            @NonNull final ICommonsList <String> aXJCArgs,
+                                                                                            @NonNull final String... aPluginOpts) throws Exception
+  {
+    final File aAuditDir = new File (BASE_DIR, sName);
+
+    final File aBaselineDir = new File (aAuditDir, "baseline");
+    _runXJC (aXJCArgs, aBaselineDir);
+    final ICommonsNavigableMap <String, Integer> aBaseline = BytecodeSizeAudit.getAllMethodSizes (aBaselineDir);
+
+    final ICommonsOrderedMap <String, ICommonsNavigableMap <String, Integer>> ret = new CommonsLinkedHashMap <> ();
+    final StringBuilder aReport = new StringBuilder ();
+    for (final String sPluginOpt : aPluginOpts)
+    {
+      final File aPluginDir = new File (aAuditDir, StringReplace.replaceAll (sPluginOpt, ' ', '_'));
+      _runXJC (aXJCArgs, aPluginDir, StringHelper.getExploded (' ', "-" + sPluginOpt).toArray (CGlobal.EMPTY_STRING_ARRAY));
+      final ICommonsNavigableMap <String, Integer> aChanged = BytecodeSizeAudit.getAllChanged (BytecodeSizeAudit.getAllMethodSizes (aPluginDir),
+                                                                                              aBaseline);
+      ret.put (sPluginOpt, aChanged);
+
+      aReport.append ('-').append (sPluginOpt).append (": ").append (aChanged.size ()).append (" method(s)\n");
+      _appendSection (aReport, aChanged, "HugeMethodLimit", BytecodeSizeAudit.HUGE_METHOD_LIMIT);
+      _appendSection (aReport, aChanged, "FreqInlineSize", BytecodeSizeAudit.FREQ_INLINE_SIZE);
+      _appendSection (aReport, aChanged, "MaxInlineSize", BytecodeSizeAudit.MAX_INLINE_SIZE);
+    }
+
+    final File aReportFile = new File (BASE_DIR, sName + "-report.txt");
+    SimpleFileIO.writeFile (aReportFile, aReport.toString ().getBytes (StandardCharsets.UTF_8));
+    LOGGER.info ("Bytecode size audit '" + sName + "' written to " + aReportFile.getAbsolutePath ());
+    return ret;
+  }
+
+  @Test
+  public void testWide () throws Exception
+  {
+    final ICommonsOrderedMap <String, ICommonsNavigableMap <String, Integer>> aResult = _audit ("wide",
+                                                                                               new CommonsArrayList <> (new File ("src/test/resources/external/xsd/wide.xsd").getAbsolutePath ()),
+                                                                                               PluginEqualsHashCode.OPT,
+                                                                                               PluginToString.OPT,
+                                                                                               PluginCloneable.OPT,
+                                                                                               PluginListExtension.OPT,
+                                                                                               PluginPrimitiveList.OPT,
+                                                                                               PluginStaxWriter.OPT,
+                                                                                               PluginXmlSize.OPT,
+                                                                                               PluginDeepSize.OPT,
+                                                                                               PluginCardinalityProfiler.OPT,
+                                                                                               PluginExplicitlyCloneable.OPT +
+                                                                                                                         " -" +
+                                                                                                                         PluginExplicitlyCloneable.OPT +
+                                                                                                                         AbstractPluginCloneable.OPT_SUFFIX_SPEC +
+                                                                                                                         " test.wide.CloneSpec");
+    for (final Map.Entry <String, ICommonsNavigableMap <String, Integer>> aEntry : aResult.entrySet ())
+    {
+      // Each plugin must have created or changed code, otherwise the audit is meaningless
+      assertFalse (aEntry.getKey (), aEntry.getValue ().isEmpty ());
+      assertTrue (aEntry.getKey (),
+                  BytecodeSizeAudit.getAllAbove (aEntry.getValue (), BytecodeSizeAudit.HUGE_METHOD_LIMIT).isEmpty ());
+    }
+
+    // The methods of the wide class are split and stay inlinable
+    final ICommonsNavigableMap <String, Integer> aEquals = aResult.get (PluginEqualsHashCode.OPT);
+    assertTrue (aEquals.get ("test.wide.WideType#equals(Ljava/lang/Object;)Z").intValue () <=
+                BytecodeSizeAudit.FREQ_INLINE_SIZE);
+    assertTrue (aEquals.get ("test.wide.WideType#hashCode()I").intValue () <= BytecodeSizeAudit.FREQ_INLINE_SIZE);
+    assertTrue (aResult.get (PluginToString.OPT)
+                       .get ("test.wide.WideType#toString()Ljava/lang/String;")
+                       .intValue () <= BytecodeSizeAudit.FREQ_INLINE_SIZE);
+    assertTrue (aResult.get (PluginCloneable.OPT)
+                       .get ("test.wide.WideType#cloneTo(Ltest/wide/WideType;)V")
+                       .intValue () <= BytecodeSizeAudit.FREQ_INLINE_SIZE);
+  }
+
+  @Test
+  @Ignore ("This must be ignored during release building, because there is a circular dependency between ph-xsds and this plugin")
+  public void testUBL23 () throws Exception
+  {
+    final File aCatalogFile = new File (BASE_DIR, "ubl23-catalog.xml");
+    final ICommonsList <String> aXJCArgs = new CommonsArrayList <> (new File ("src/test/resources/external/ubl23/maindoc/UBL-Waybill-2.3.xsd").getAbsolutePath (),
+                                                                    "-b",
+                                                                    new File ("src/test/resources/external/ubl23/bindings23.xjb").getAbsolutePath (),
+                                                                    "-catalog",
+                                                                    aCatalogFile.getAbsolutePath (),
+                                                                    "-extension");
+
+    // Catalog base
+    final Wrapper <String> aCatalogXML = new Wrapper <> ("<?xml version='1.0' encoding='utf-8'?>\n" +
+                                                         "<catalog xmlns=\"urn:oasis:names:tc:entity:xmlns:xml:catalog\">\n" +
+                                                         "  <public publicId=\"http://www.w3.org/2000/09/xmldsig#\" uri=\"jar:file:$1!/schemas/xmldsig-core-schema.xsd\" />\n" +
+                                                         "  <public publicId=\"http://uri.etsi.org/01903/v1.3.2#\" uri=\"jar:file:$2!/schemas/XAdES01903v132-201601.xsd\" />\n" +
+                                                         "  <public publicId=\"http://uri.etsi.org/01903/v1.4.1#\" uri=\"jar:file:$3!/schemas/XAdES01903v141-201601.xsd\" />\n" +
+                                                         "  <public publicId=\"urn:un:unece:uncefact:data:specification:CoreComponentTypeSchemaModule:2\" uri=\"jar:file:$4!/schemas/CCTS_CCT_SchemaModule.xsd\" />\n" +
+                                                         "</catalog>");
+
+    // Put effective paths into catalog XML and use the contained episodes
+    ClassPathHelper.forAllClassPathEntries (x -> {
+      if (x.endsWith (".jar"))
+      {
+        final File f = new File (URLDecoder.decode (x, StandardCharsets.ISO_8859_1));
+        final String sPath = FilenameHelper.getPathUsingUnixSeparator (x);
+        if (f.getName ().startsWith ("ph-xsds-xmldsig-"))
+          aCatalogXML.set (StringReplace.replaceAll (aCatalogXML.get (), "$1", sPath));
+        else
+          if (f.getName ().startsWith ("ph-xsds-xades132-"))
+            aCatalogXML.set (StringReplace.replaceAll (aCatalogXML.get (), "$2", sPath));
+          else
+            if (f.getName ().startsWith ("ph-xsds-xades141-"))
+              aCatalogXML.set (StringReplace.replaceAll (aCatalogXML.get (), "$3", sPath));
+            else
+              if (f.getName ().startsWith ("ph-xsds-ccts-cct-schemamodule-"))
+                aCatalogXML.set (StringReplace.replaceAll (aCatalogXML.get (), "$4", sPath));
+        aXJCArgs.add (x);
+      }
+    });
+    FileOperationManager.INSTANCE.createDirRecursiveIfNotExisting (BASE_DIR);
+    SimpleFileIO.writeFile (aCatalogFile, aCatalogXML.get ().getBytes (StandardCharsets.UTF_8));
+
+    final ICommonsOrderedMap <String, ICommonsNavigableMap <String, Integer>> aResult = _audit ("ubl23",
+                                                                                               aXJCArgs,
+                                                                                               PluginEqualsHashCode.OPT,
+                                                                                               PluginToString.OPT,
+                                                                                               PluginCloneable.OPT,
+                                                                                               PluginListExtension.OPT,
+                                                                                               PluginValueExtender.OPT);
+    for (final Map.Entry <String, ICommonsNavigableMap <String, Integer>> aEntry : aResult.entrySet ())
+      assertTrue (aEntry.getKey (),
+                  BytecodeSizeAudit.getAllAbove (aEntry.getValue (), BytecodeSizeAudit.HUGE_METHOD_LIMIT).isEmpty ());
+  }
+}